@@ -90,6 +90,63 @@ public abstract class FrameTask<T extends FrameTask<T>> extends MRTask<T>{
   protected void processRow(long gid, double [] nums, int ncats, int [] cats, double [] response){throw new RuntimeException("should've been overriden!");}
   protected void processRow(long gid, double [] nums, int ncats, int [] cats, double [] response, NewChunk [] outputs){throw new RuntimeException("should've been overriden!");}
 
+  /**
+   * Rows per {@link #processBatch} call.  The default of 0 keeps the per-row
+   * {@link #processRow} contract; subclasses overriding processBatch return
+   * their preferred batch size here.
+   */
+  protected int batchSize(){ return 0; }
+
+  /**
+   * Batch alternative to {@link #processRow}: called with up to {@link
+   * #batchSize()} rows at once, in the same order processRow would see them,
+   * and with the same rows filtered out (folds, sampling, missing values).
+   * The batch and its arrays are reused between calls.
+   */
+  protected void processBatch(Batch b){throw new RuntimeException("should've been overriden!");}
+  protected void processBatch(Batch b, NewChunk [] outputs){throw new RuntimeException("should've been overriden!");}
+
+  /**
+   * A block of expanded rows, column-major: one array per predictor or
+   * response, each indexed by position in the batch.
+   */
+  public static final class Batch {
+    /** Rows in this batch */
+    public int _n;
+    /** Chunk-relative row of each batch row (the selection vector) */
+    public final int [] _rows;
+    /** Global id of each row, as passed to processRow */
+    public final long [] _gids;
+    /** Numerics, standardized per the DataInfo: _nums[col][row] */
+    public final double [][] _nums;
+    /** Categoricals as absolute indexes into the expanded beta vector, or
+     *  -1 for an (ignored or dropped) level with no coefficient:
+     *  _cats[col][row] */
+    public final int [][] _cats;
+    /** Responses, transformed per the DataInfo: _responses[col][row] */
+    public final double [][] _responses;
+
+    Batch(int size, int ncats, int nnums, int nresponses){
+      _rows = MemoryManager.malloc4(size);
+      _gids = MemoryManager.malloc8(size);
+      _cats = new int[ncats][];
+      for(int i = 0; i < ncats; ++i) _cats[i] = MemoryManager.malloc4(size);
+      _nums = new double[nnums][];
+      for(int i = 0; i < nnums; ++i) _nums[i] = MemoryManager.malloc8d(size);
+      _responses = new double[nresponses][];
+      for(int i = 0; i < nresponses; ++i) _responses[i] = MemoryManager.malloc8d(size);
+    }
+
+    /** Row {@code r} in processRow form: fills {@code nums} and {@code
+     *  cats}, returns the number of categoricals. */
+    public int row(int r, double [] nums, int [] cats){
+      for(int i = 0; i < _nums.length; ++i) nums[i] = _nums[i][r];
+      int ncats = 0;
+      for(int [] c : _cats) if(c[r] >= 0) cats[ncats++] = c[r];
+      return ncats;
+    }
+  }
+
 
   public static class DataInfo extends Keyed {
     public int [] _activeCols;
@@ -549,6 +606,7 @@ public abstract class FrameTask<T extends FrameTask<T>> extends MRTask<T>{
    */
   @Override public final void map(Chunk [] chunks, NewChunk [] outputs){
     if(_jobKey != null && !Job.isRunning(_jobKey))throw new JobCancelledException();
+    if(batchSize() > 0) { mapBatches(chunks, outputs); return; }
     final int nrows = chunks[0]._len;
     final long offset = chunks[0].start();
     chunkInit();
@@ -628,4 +686,98 @@ public abstract class FrameTask<T extends FrameTask<T>> extends MRTask<T>{
     chunkDone(num_processed_rows);
   }
 
+  /**
+   * Batch version of map: decodes each column of the chunk in bulk, builds a
+   * selection vector of the rows that survive the fold, sampling and
+   * missing-value filters, and hands them out {@link #batchSize()} at a time.
+   */
+  private void mapBatches(Chunk [] chunks, NewChunk [] outputs){
+    final int nrows = chunks[0]._len;
+    final long offset = chunks[0].start();
+    final DataInfo dinfo = _dinfo;
+    final int ncats = dinfo._cats, nresp = dinfo._responses;
+    final int nnums = chunks.length - ncats - nresp;
+    chunkInit();
+    // Bulk decode; categoricals as level numbers with -1 for NA
+    final int [][] lvls = new int[ncats][];
+    for(int i = 0; i < ncats; ++i)
+      lvls[i] = chunks[i].getIntegers(MemoryManager.malloc4(nrows), 0, nrows, -1);
+    final double [][] vals = new double[nnums+nresp][];
+    for(int i = 0; i < vals.length; ++i)
+      vals[i] = chunks[ncats+i].getDoubles(MemoryManager.malloc8d(nrows), 0, nrows);
+    // Rows with a missing value, or a missing response
+    final boolean [] skip = new boolean[nrows];
+    for(int i = 0; i < vals.length; ++i)
+      if(skipMissing() || i >= nnums)
+        for(int r = 0; r < nrows; ++r) skip[r] |= Double.isNaN(vals[i][r]);
+    if(skipMissing())
+      for(int [] l : lvls) for(int r = 0; r < nrows; ++r) skip[r] |= l[r] == -1;
+
+    // Same sampling and shuffling as the per-row map
+    final int repeats = (int)Math.ceil(_useFraction);
+    final float fraction = _useFraction / repeats;
+    Random skip_rng = fraction < 1.0 ? RandomUtils.getDeterRNG(new Random().nextLong()) : null;
+    long[] shuf_map = null;
+    if (_shuffle) {
+      shuf_map = new long[nrows];
+      for (int i=0;i<shuf_map.length;++i)
+        shuf_map[i] = i;
+      ArrayUtils.shuffleArray(shuf_map, new Random().nextLong());
+    }
+    final Batch b = new Batch(Math.min(batchSize(),nrows), ncats, nnums, nresp);
+    final int [] sel = MemoryManager.malloc4(nrows);
+    long num_processed_rows = 0;
+    for(int rrr = 0; rrr < repeats; ++rrr) {
+      // Selection vector
+      int nsel = 0;
+      for(int rr = 0; rr < nrows; ++rr) {
+        final int r = shuf_map != null ? (int)shuf_map[rr] : rr;
+        if ((dinfo._nfolds > 0 && ((r + offset) % dinfo._nfolds) == dinfo._foldId)
+          || (skip_rng != null && skip_rng.nextFloat() > fraction))continue;
+        ++num_processed_rows; //count rows with missing values even if they are skipped
+        if(!skip[r]) sel[nsel++] = r;
+      }
+      // Gather and hand out the batches
+      for(int s = 0; s < nsel; s += b._rows.length) {
+        final int n = b._n = Math.min(b._rows.length, nsel-s);
+        System.arraycopy(sel, s, b._rows, 0, n);
+        for(int k = 0; k < n; ++k) b._gids[k] = offset + rrr*nrows + b._rows[k];
+        for(int i = 0; i < ncats; ++i) {
+          final int [] l = lvls[i], c = b._cats[i];
+          final int off = dinfo._catOffsets[i], missing = dinfo._catOffsets[i+1]-1;
+          for(int k = 0; k < n; ++k) {
+            int v = l[b._rows[k]];
+            if(v == -1) v = missing; //missing value turns into extra (last) factor
+            else if(dinfo._catLvls != null) { // some levels are ignored?
+              v = Arrays.binarySearch(dinfo._catLvls[i], v);
+              v = v >= 0 ? v + off : -1;
+            } else if(dinfo._useAllFactorLevels) v += off;
+            else v = v != 0 ? v + off - 1 : -1;
+            c[k] = v;
+          }
+        }
+        for(int i = 0; i < nnums; ++i) {
+          final double [] v = vals[i], x = b._nums[i];
+          for(int k = 0; k < n; ++k) x[k] = v[b._rows[k]];
+          if(dinfo._normMul != null) {
+            final double sub = dinfo._normSub[i], mul = dinfo._normMul[i];
+            for(int k = 0; k < n; ++k) x[k] = (x[k] - sub)*mul;
+          }
+        }
+        for(int i = 0; i < nresp; ++i) {
+          final double [] v = vals[nnums+i], y = b._responses[i];
+          for(int k = 0; k < n; ++k) y[k] = v[b._rows[k]];
+          if(dinfo._normRespMul != null) {
+            final double sub = dinfo._normRespSub[i], mul = dinfo._normRespMul[i];
+            for(int k = 0; k < n; ++k) y[k] = (y[k] - sub)*mul;
+          }
+        }
+        if (outputs != null && outputs.length > 0)
+          processBatch(b, outputs);
+        else
+          processBatch(b);
+      }
+    }
+    chunkDone(num_processed_rows);
+  }
 }
@@ -7,6 +7,7 @@ import hex.schemas.DeepLearningV2;
 import hex.schemas.ModelBuilderSchema;
 import water.*;
 import water.api.ValidationAdapter;
+import water.fvec.ChunkLayout;
 import water.fvec.Frame;
 import water.fvec.RebalanceDataSet;
 import water.fvec.Vec;
@@ -101,6 +102,10 @@ public class DeepLearning extends ModelBuilder<DeepLearningModel,DeepLearningMod
             "average_activation",
             "sparsity_beta",
             "max_categorical_features",
+            "sync_bits",
+            "sync_sparsity",
+            "async_training",
+            "max_staleness",
     };
 
     // the following parameters can be modified when restarting from a checkpoint
@@ -129,6 +134,11 @@ public class DeepLearning extends ModelBuilder<DeepLearningModel,DeepLearningMod
             "l1",
             "l2",
             "max_w2",
+            // Allow modification of the communication settings
+            "sync_bits",
+            "sync_sparsity",
+            "async_training",
+            "max_staleness",
     };
 
     /**
@@ -205,27 +215,29 @@ public class DeepLearning extends ModelBuilder<DeepLearningModel,DeepLearningMod
           if (cp != null) cp.unlock(self());
         }
       }
-      trainModel(cp);
-
-      // clean up
-      Frame val_fr = _parms._validation_frame==null ? null : _parms._validation_frame.<Frame>get();
-      int validlen = val_fr!= null ? val_fr.vecs().length : 0;
-      Key[] keep = new Key[tra_fr.vecs().length+validlen+6];
-      //don't delete the training data
-      for (int i = 0; i< tra_fr.vecs().length; ++i)
-        keep[i] = tra_fr.vecs()[i]._key;
-      keep[tra_fr.vecs().length] = _parms._training_frame;
-      //don't delete the validation data
-      for (int i = 0; i< validlen; ++i)
-        keep[i] = val_fr.vecs()[i]._key;
-      if (val_fr != null) keep[tra_fr.vecs().length+1] = _parms._validation_frame;
-      //don't delete the model
-      keep[tra_fr.vecs().length+2] = _dest;
-      keep[tra_fr.vecs().length+3] = cp.actual_best_model_key;
-      //don't delete the job
-      keep[tra_fr.vecs().length+4] = self();
-      keep[tra_fr.vecs().length+5] = _progressKey;
-      Scope.exit(keep);
+      try {
+        trainModel(cp);
+      } finally {
+        // clean up, also after a cancel
+        Frame val_fr = _parms._validation_frame==null ? null : _parms._validation_frame.<Frame>get();
+        int validlen = val_fr!= null ? val_fr.vecs().length : 0;
+        Key[] keep = new Key[tra_fr.vecs().length+validlen+6];
+        //don't delete the training data
+        for (int i = 0; i< tra_fr.vecs().length; ++i)
+          keep[i] = tra_fr.vecs()[i]._key;
+        keep[tra_fr.vecs().length] = _parms._training_frame;
+        //don't delete the validation data
+        for (int i = 0; i< validlen; ++i)
+          keep[i] = val_fr.vecs()[i]._key;
+        if (val_fr != null) keep[tra_fr.vecs().length+1] = _parms._validation_frame;
+        //don't delete the model
+        keep[tra_fr.vecs().length+2] = _dest;
+        keep[tra_fr.vecs().length+3] = cp.actual_best_model_key;
+        //don't delete the job
+        keep[tra_fr.vecs().length+4] = self();
+        keep[tra_fr.vecs().length+5] = _progressKey;
+        Scope.exit(keep);
+      }
     }
 
 
@@ -333,7 +345,8 @@ public class DeepLearning extends ModelBuilder<DeepLearningModel,DeepLearningMod
         Log.info("Starting to train the Deep Learning model.");
 
         //main loop
-        do {
+        if (mp.async_training && mp.epochs > 0) trainAsync(model, train, trainScoreFrame, validScoreFrame, validAdapter);
+        else do {
           model.set_model_info(mp.epochs == 0 ? model.model_info() : H2O.CLOUD.size() > 1 && mp.replicate_training_data ? (mp.single_node_mode ?
                   new DeepLearningTask2(self(), train, model.model_info(), rowFraction(train, mp, model)).doAll(Key.make()).model_info() : //replicated data + single node mode
                   new DeepLearningTask2(self(), train, model.model_info(), rowFraction(train, mp, model)).doAllNodes().model_info()) : //replicated data + multi-node mode
@@ -370,6 +383,7 @@ public class DeepLearning extends ModelBuilder<DeepLearningModel,DeepLearningMod
       }
       finally {
         if (model != null) model.unlock(self());
+        if (_parms.sync_bits > 0 && H2O.CLOUD.size() > 1) DeltaSync.clear(self());
         unlock_data();
         for (Frame f : _delete_me) f.delete(); //delete internally rebalanced frames
       }
@@ -377,6 +391,41 @@ public class DeepLearning extends ModelBuilder<DeepLearningModel,DeepLearningMod
     }
     transient HashSet<Frame> _delete_me = new HashSet<>();
 
+    /**
+     * Asynchronous training (see ParameterServer): workers on all nodes train until the requested
+     * number of epochs is reached, while this thread scores snapshots of the sharded model
+     */
+    private void trainAsync(final DeepLearningModel model, final Frame train, Frame trainScoreFrame, Frame validScoreFrame, ValidationAdapter validAdapter) {
+      final ParameterServer ps = new ParameterServer(self(), model.model_info());
+      final long target = (long)Math.ceil(model._parms.epochs * model.training_rows);
+      final H2O.H2OCountedCompleter workers = ps.start(model.model_info(), train, rowFraction(train, model._parms, model), target);
+      try {
+        long iters = 0;
+        long samples = model.model_info().get_processed_global();
+        boolean done;
+        do {
+          // wait for any worker to finish an iteration, or the job to be cancelled
+          final long last = iters;
+          new ParameterServer.Poll(ps) {
+            @Override boolean ready() { return workers.isDone() || ps.clock().sum() != last || !Job.isRunning(self()); }
+          }.await();
+          if (!Job.isRunning(self())) break; //cancelled: stop the workers
+          done = workers.isDone();
+          final ParameterServer.Clock c = ps.clock();
+          iters = c.sum();
+          model.set_model_info(ps.snapshot(model.model_info()));
+          update(c._samples - samples); //update progress
+          samples = c._samples;
+          if (!model._parms.quiet_mode) Log.info("Progress: " + PrettyPrint.formatPct(progress()));
+        }
+        while (model.doScoring(train, trainScoreFrame, validScoreFrame, self(), validAdapter.getValidAdaptor()) && !done);
+      } finally {
+        ps.stop();
+        try { workers.join(); }
+        finally { ps.remove(); }
+      }
+    }
+
     /**
      * Lock the input datasets against deletes
      */
@@ -402,7 +451,7 @@ public class DeepLearning extends ModelBuilder<DeepLearningModel,DeepLearningMod
      * @return Frame that has potentially more chunks
      */
     private Frame reBalance(final Frame fr, boolean local) {
-      int chunks = (int)Math.min( 4 * H2O.NUMCPUS * (local ? 1 : H2O.CLOUD.size()), fr.numRows());
+      int chunks = (int)Math.min( ChunkLayout.targetChunks(local ? 1 : H2O.CLOUD.size()), fr.numRows());
       if (fr.anyVec().nChunks() > chunks && !_parms.reproducible) {
         Log.info("Dataset already contains " + fr.anyVec().nChunks() + " chunks. No need to rebalance.");
         return fr;
@@ -11,6 +11,7 @@ import water.fvec.Frame;
 import water.fvec.Vec;
 import water.util.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Random;
 
@@ -436,6 +437,44 @@ public class DeepLearningModel extends SupervisedModel<DeepLearningModel,DeepLea
      */
     public int max_categorical_features = Integer.MAX_VALUE;
 
+    /**
+     * Number of training rows to propagate at once. With more than 1, each
+     * layer does forward and back propagation for the whole mini-batch with
+     * matrix-matrix products, and the weights are updated once per
+     * mini-batch with the summed gradient.
+     */
+    public int mini_batch_size = 1;
+
+    /**
+     * Number of bits per value when nodes send their model updates for
+     * averaging (0, 8 or 16). With 8 or 16, each node sends the change from
+     * the last broadcast model, quantized to that many bits. What is lost to
+     * rounding is carried over into the next update from the same node.
+     * 0 sends the full model.
+     */
+    public int sync_bits = 0;
+
+    /**
+     * Fraction of the model update values to send when sync_bits is 8 or 16,
+     * picking the ones with the largest magnitude. The rest are carried over
+     * into the next update.
+     */
+    public double sync_sparsity = 1.0;
+
+    /**
+     * Train asynchronously instead of in lock-step. The weights and biases
+     * are sharded across the nodes as DKV values, every node trains at its
+     * own pace, pushing its updates to the shards and pulling fresh ones, and
+     * the model is scored on snapshots without pausing training.
+     */
+    public boolean async_training = false;
+
+    /**
+     * With async_training, the number of iterations a node may run ahead of
+     * the slowest node.
+     */
+    public int max_staleness = 2;
+
     /**
      * Force reproducibility on small data (will be slow - only uses 1 thread)
      */
@@ -643,6 +682,19 @@ public class DeepLearningModel extends SupervisedModel<DeepLearningModel,DeepLea
       if (autoencoder && _validation_frame != null) validation_error("validation_frame", "Cannot specify a validation dataset for auto-encoder.");
       if (autoencoder && activation == Activation.Maxout) validation_error("activation", "Maxout activation is not supported for auto-encoder.");
       if (max_categorical_features < 1) validation_error("max_categorical_features", "max_categorical_features must be at least 1.");
+      if (mini_batch_size < 1) validation_error("mini_batch_size", "mini_batch_size must be at least 1.");
+      if (mini_batch_size > 1 && (autoencoder || sparse || col_major)) {
+        if (!quiet_mode) validation_info("mini_batch_size", "Automatically setting mini_batch_size to 1, mini-batches are not supported for auto-encoder or sparse data handling.");
+        mini_batch_size = 1;
+      }
+      if (sync_bits != 0 && sync_bits != 8 && sync_bits != 16) validation_error("sync_bits", "sync_bits must be 0, 8 or 16.");
+      if (sync_sparsity <= 0 || sync_sparsity > 1) validation_error("sync_sparsity", "sync_sparsity must be in (0,1].");
+      if (max_staleness < 0) validation_error("max_staleness", "max_staleness must be non-negative.");
+      if (async_training) {
+        if (!replicate_training_data && H2O.CLOUD.size() > 1) validation_error("async_training", "Asynchronous training requires replicate_training_data.");
+        if (reproducible) validation_error("async_training", "Asynchronous training cannot be reproducible.");
+        if (col_major) validation_error("async_training", "Asynchronous training does not support column major storage.");
+      }
 
       if (!sparse && col_major) {
         if (!quiet_mode) validation_error("col_major", "Cannot use column major storage for non-sparse data handling.");
@@ -1088,6 +1140,29 @@ public class DeepLearningModel extends SupervisedModel<DeepLearningModel,DeepLea
       }
       Arrays.fill(biases[biases.length-1].raw(), 0f); //output layer
     }
+    // The arrays combined by add() and div(), in a fixed order (see DeltaSync)
+    float[][] sync_arrays() {
+      ArrayList<float[]> arrays = new ArrayList<>();
+      for (int i=0;i<dense_row_weights.length;++i) arrays.add(get_weights(i).raw());
+      for (Neurons.DenseVector bias : biases) arrays.add(bias.raw());
+      if (has_momenta()) {
+        for (int i=0;i<dense_row_weights_momenta.length;++i) arrays.add(get_weights_momenta(i).raw());
+        for (Neurons.DenseVector bias_momenta : biases_momenta) arrays.add(bias_momenta.raw());
+      }
+      if (adaDelta()) {
+        for (int i=0;i<dense_row_ada_dx_g.length;++i) arrays.add(get_ada_dx_g(i).raw());
+      }
+      return arrays.toArray(new float[arrays.size()][]);
+    }
+    // AdaDelta's running averages of squares can come out slightly negative
+    // from a reduced-precision update (see DeltaSync); clip them back to 0
+    void clip_ada_dx_g() {
+      if (!adaDelta()) return;
+      for (int i=0;i<dense_row_ada_dx_g.length;++i) {
+        final float[] a = get_ada_dx_g(i).raw();
+        for (int j=0; j<a.length; ++j) if (a[j] < 0) a[j] = 0;
+      }
+    }
     public void add(DeepLearningModelInfo other) {
       for (int i=0;i<dense_row_weights.length;++i)
         ArrayUtils.add(get_weights(i).raw(), other.get_weights(i).raw());
@@ -1708,6 +1783,55 @@ public class DeepLearningModel extends SupervisedModel<DeepLearningModel,DeepLea
     return preds;
   }
 
+  /**
+   * Predict a batch of rows, propagating all rows through each layer at once
+   * @param data column-major data, as for score0(double[], float[])
+   * @param n number of rows
+   * @param preds column-major predictions, as for score0(double[], float[])
+   */
+  @Override protected void score0(double[][] data, int n, float[][] preds) {
+    final DeepLearningParameters params = get_params();
+    final DataInfo dinfo = model_info().data_info();
+    if (n == 1 || params.autoencoder || params.sparse || params.col_major
+            || params.max_categorical_features < dinfo.fullN() - dinfo._nums) {
+      super.score0(data, n, preds);
+      return;
+    }
+    if (model_info().unstable()) {
+      Log.warn(unstable_msg);
+      throw new UnsupportedOperationException("Trying to predict with an unstable model.");
+    }
+    final Neurons[] neurons = DeepLearningTask.makeNeuronsForTesting(model_info, n);
+    final Neurons.Input input = (Neurons.Input)neurons[0];
+    final int units = input.units;
+    final double[] row = new double[data.length];
+    for (int r = 0; r < n; ++r) {
+      for (int c = 0; c < row.length; ++c) row[c] = data[c][r];
+      input.setInput(-1, row);
+      System.arraycopy(input._a.raw(), 0, input._ab, r*units, units);
+    }
+    final float[] out = DeepLearningTask.fpropBatch(n, neurons, model_info);
+    if (_output.isClassifier()) {
+      final int nc = preds.length - 1;
+      final float[] p = new float[preds.length];
+      for (int r = 0; r < n; ++r) {
+        for (int i = 0; i < nc; ++i) {
+          p[i + 1] = out[r*nc + i];
+          if (Float.isNaN(p[i + 1])) throw new RuntimeException("Predicted class probability NaN!");
+        }
+        for (int c = 0; c < row.length; ++c) row[c] = data[c][r];
+        p[0] = ModelUtils.getPrediction(p, row);
+        correctProbabilities(p, row);
+        for (int i = 0; i < preds.length; ++i) preds[i][r] = p[i];
+      }
+    } else {
+      for (int r = 0; r < n; ++r) {
+        preds[0][r] = dinfo._normRespMul != null ? (float) (out[r] / dinfo._normRespMul[0] + dinfo._normRespSub[0]) : out[r];
+        if (Float.isNaN(preds[0][r])) throw new RuntimeException("Predicted regression target NaN!");
+      }
+    }
+  }
+
   /**
    * Score auto-encoded reconstruction (on-the-fly, without allocating the reconstruction as done in Frame score(Frame fr))
    * @param frame Original data (can contain response, will be ignored)
@@ -18,16 +18,27 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
   final public hex.deeplearning.DeepLearningModel.DeepLearningModelInfo model_info() { return _output; }
 
   transient Neurons[] _neurons;
+  // mini-batch workspace
+  private transient long[] _seeds;
+  private transient double[] _nums;
+  private transient int[] _cats;
+  final private int _mini_batch_size;
 
   int _chunk_node_count = 1;
 
+  // reduced-precision model updates between nodes (distributed data only, see DeltaSync)
+  final private boolean _sync_deltas;
+  private DeltaSync _delta;
+
   public DeepLearningTask(Key jobKey, hex.deeplearning.DeepLearningModel.DeepLearningModelInfo input, float fraction){this(jobKey, input,fraction,null);}
-  private DeepLearningTask(Key jobKey, hex.deeplearning.DeepLearningModel.DeepLearningModelInfo input, float fraction, H2OCountedCompleter cmp){
+  DeepLearningTask(Key jobKey, hex.deeplearning.DeepLearningModel.DeepLearningModelInfo input, float fraction, H2OCountedCompleter cmp){
     super(jobKey,input.data_info(),cmp);
     _training=true;
     _input=input;
     _useFraction=fraction;
     _shuffle = _input.get_params().shuffle_training_data;
+    _mini_batch_size = _input.get_params().mini_batch_size;
+    _sync_deltas = _input.get_params().sync_bits > 0 && !_input.get_params().replicate_training_data && H2O.CLOUD.size() > 1;
     assert(_output == null);
   }
 
@@ -37,29 +48,74 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
     _output = _input; //faster, good enough in this case (since the input was freshly deserialized by the Weaver)
     _input = null;
     _output.set_processed_local(0l);
+    if (_sync_deltas) DeltaSync.begin(_jobKey, _output);
   }
 
   // create local workspace (neurons)
   // and link them to shared weights
   @Override protected void chunkInit(){
     _neurons = makeNeuronsForTraining(_output);
+    if (_mini_batch_size > 1) {
+      _seeds = new long[_mini_batch_size];
+      _nums = new double[_dinfo._nums];
+      _cats = new int[_dinfo._cats];
+    }
   }
 
-  @Override public final void processRow(long seed, final double [] nums, final int numcats, final int [] cats, double [] responses){
+  private long seed(long seed) {
     if (model_info().get_params().reproducible) {
-      seed += model_info().get_processed_global(); //avoid periodicity
+      return seed + model_info().get_processed_global(); //avoid periodicity
     } else {
-      seed = new Random().nextLong();
+      return new Random().nextLong();
     }
+  }
+
+  @Override public final void processRow(long seed, final double [] nums, final int numcats, final int [] cats, double [] responses){
+    seed = seed(seed);
     ((Neurons.Input)_neurons[0]).setInput(seed, nums, numcats, cats);
     step(seed, _neurons, _output, _training, responses);
   }
 
+  @Override protected int batchSize() { return _mini_batch_size > 1 ? _mini_batch_size : 0; }
+
+  // Mini-batch training: set up the input layer row by row, then propagate the whole batch
+  @Override public final void processBatch(Batch b) {
+    final Neurons.Input input = (Neurons.Input)_neurons[0];
+    final int units = input._ab.length / _mini_batch_size;
+    for (int r = 0; r < b._n; ++r) {
+      _seeds[r] = seed(b._gids[r]);
+      final int numcats = b.row(r, _nums, _cats);
+      input.setInput(_seeds[r], _nums, numcats, _cats);
+      System.arraycopy(input._a.raw(), 0, input._ab, r*units, units);
+    }
+    stepBatch(_seeds, b._n, _neurons, _output, b._responses[0]);
+  }
+
   @Override protected void chunkDone(long n) {
     if (_training) _output.add_processed_local(n);
   }
 
+  // send the change from the broadcast model instead of the whole model
+  @Override protected void closeLocal() {
+    if (_sync_deltas) encodeOutput();
+  }
+
+  void encodeOutput() {
+    if (_output == null) return; //already encoded
+    final DeepLearningModel.DeepLearningParameters params = _output.get_params();
+    _delta = DeltaSync.encode(_jobKey, _output, _chunk_node_count, params.sync_bits, params.sync_sparsity);
+    _output = null;
+  }
+
+  void decodeOutput() {
+    if (_delta == null) return;
+    _output = _delta.decode(_jobKey);
+    _delta = null;
+  }
+
   @Override public void reduce(DeepLearningTask other){
+    decodeOutput();
+    other.decodeOutput();
     if (other._output.get_processed_local() > 0 //other NNTask was active (its model_info should be used for averaging)
             && other._output != _output) //other NNTask worked on a different model_info
     {
@@ -79,6 +135,7 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
   static long _lastWarn;
   static long _warnCount;
   @Override protected void postGlobal(){
+    decodeOutput();
     if (H2O.CLOUD.size() > 1 && !_output.get_params().replicate_training_data) {
       long now = System.currentTimeMillis();
       if (_chunk_node_count < H2O.CLOUD.size() && (now - _lastWarn > 5000) && _warnCount < 3) {
@@ -103,9 +160,16 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
   public static Neurons[] makeNeuronsForTesting(final DeepLearningModel.DeepLearningModelInfo minfo) {
     return makeNeurons(minfo, false);
   }
+  // for scoring batches of up to n rows at once, see fpropBatch()
+  public static Neurons[] makeNeuronsForTesting(final DeepLearningModel.DeepLearningModelInfo minfo, int n) {
+    return makeNeurons(minfo, false, n);
+  }
 
   // Helper
   private static Neurons[] makeNeurons(final DeepLearningModel.DeepLearningModelInfo minfo, boolean training) {
+    return makeNeurons(minfo, training, training ? minfo.get_params().mini_batch_size : 1);
+  }
+  private static Neurons[] makeNeurons(final DeepLearningModel.DeepLearningModelInfo minfo, boolean training, int batch) {
     DataInfo dinfo = minfo.data_info();
     final DeepLearningModel.DeepLearningParameters params = minfo.get_params();
     final int[] h = params.hidden;
@@ -143,13 +207,51 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
 
     //copy parameters from NN, and set previous/input layer links
     for( int i = 0; i < neurons.length; i++ )
-      neurons[i].init(neurons, i, params, minfo, training);
+      neurons[i].init(neurons, i, params, minfo, training, batch);
 
 //    // debugging
 //    for (Neurons n : neurons) Log.info(n.toString());
     return neurons;
   }
 
+  // forward/backward propagation of a mini-batch of n training rows
+  // assumption: layer 0 has _ab filled with n rows of (horizontalized categoricals) double values
+  static void stepBatch(long[] seeds, int n, Neurons[] neurons, DeepLearningModel.DeepLearningModelInfo minfo, double[] responses) {
+    try {
+      for (int i=1; i<neurons.length-1; ++i) {
+        neurons[i].fpropBatch(seeds, n, true);
+        Arrays.fill(neurons[i]._eb, 0);
+      }
+      if (minfo.get_params().classification) {
+        ((Neurons.Softmax)neurons[neurons.length-1]).fpropBatch(n);
+        ((Neurons.Softmax)neurons[neurons.length-1]).bpropBatch(n, responses);
+      }
+      else {
+        ((Neurons.Linear)neurons[neurons.length-1]).fpropBatch(n);
+        ((Neurons.Linear)neurons[neurons.length-1]).bpropBatch(n, responses);
+      }
+      for (int i=neurons.length-2; i>0; --i)
+        neurons[i].bpropBatch(n);
+    }
+    catch(RuntimeException ex) {
+      Log.warn(ex.getMessage());
+      minfo.set_unstable();
+      throw new RuntimeException("Canceling job due to numerical instability.");
+    }
+  }
+
+  // forward propagation of a batch of n rows, for scoring
+  // assumption: layer 0 has _ab filled with n rows of (horizontalized categoricals) double values
+  static float[] fpropBatch(int n, Neurons[] neurons, DeepLearningModel.DeepLearningModelInfo minfo) {
+    for (int i=1; i<neurons.length-1; ++i)
+      neurons[i].fpropBatch(null, n, false);
+    if (minfo.get_params().classification)
+      ((Neurons.Softmax)neurons[neurons.length-1]).fpropBatch(n);
+    else
+      ((Neurons.Linear)neurons[neurons.length-1]).fpropBatch(n);
+    return neurons[neurons.length-1]._ab;
+  }
+
   // forward/backward propagation
   // assumption: layer 0 has _a filled with (horizontalized categoricals) double values
   public static void step(long seed, Neurons[] neurons, DeepLearningModel.DeepLearningModelInfo minfo, boolean training, double[] responses) {
@@ -1,5 +1,6 @@
 package hex.deeplearning;
 
+import water.H2O;
 import water.Key;
 import water.MRTask;
 import water.fvec.Frame;
@@ -21,6 +22,7 @@ public class DeepLearningTask2 extends MRTask<DeepLearningTask2> {
     _fr = train;
     _model_info = model_info;
     _sync_fraction = sync_fraction;
+    _sync_deltas = model_info.get_params().sync_bits > 0 && !model_info.get_params().single_node_mode && H2O.CLOUD.size() > 1;
   }
 
   /**
@@ -35,6 +37,7 @@ public class DeepLearningTask2 extends MRTask<DeepLearningTask2> {
   final private Frame _fr;
   final private DeepLearningModel.DeepLearningModelInfo _model_info;
   final private float _sync_fraction;
+  final private boolean _sync_deltas; //send reduced-precision model updates (see DeltaSync)
   private DeepLearningTask _res;
 
   /**
@@ -46,12 +49,21 @@ public class DeepLearningTask2 extends MRTask<DeepLearningTask2> {
   @Override
   public void setupLocal() {
     super.setupLocal();
+    if (_sync_deltas) DeltaSync.begin(_jobKey, _model_info);
     _res = new DeepLearningTask(_jobKey, _model_info, _sync_fraction);
     addToPendingCount(1);
     _res.setCompleter(this);
     _res.asyncExec(0, _fr, true /*run_local*/);
   }
 
+  /**
+   * Optionally encode the local model as a reduced-precision update before it goes over the wire
+   */
+  @Override
+  protected void closeLocal() {
+    if (_sync_deltas && _res != null) _res.encodeOutput();
+  }
+
   /**
    * Reduce between worker nodes, with network traffic (if greater than 1 nodes)
    * After all reduce()'s are done, postGlobal() will be called
@@ -61,10 +73,12 @@ public class DeepLearningTask2 extends MRTask<DeepLearningTask2> {
   public void reduce(DeepLearningTask2 drt) {
     if (_res == null) _res = drt._res;
     else {
+      _res.decodeOutput();
+      drt._res.decodeOutput();
+      assert(_res.model_info().get_params().replicate_training_data);
       _res._chunk_node_count += drt._res._chunk_node_count;
       _res.model_info().add(drt._res.model_info()); //add models, but don't average yet
     }
-    assert(_res.model_info().get_params().replicate_training_data);
   }
 
   /**
@@ -74,6 +88,7 @@ public class DeepLearningTask2 extends MRTask<DeepLearningTask2> {
    */
   @Override
   protected void postGlobal() {
+    _res.decodeOutput();
     assert(_res.model_info().get_params().replicate_training_data);
     super.postGlobal();
     _res.model_info().div(_res._chunk_node_count); //model averaging
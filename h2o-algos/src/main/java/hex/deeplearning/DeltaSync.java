@@ -0,0 +1,237 @@
+package hex.deeplearning;
+
+import water.Iced;
+import water.Key;
+import water.MRTask;
+import water.nbhm.NonBlockingHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Reduced-precision model update for Deep Learning model averaging.
+ *
+ * Instead of the full model, a node sends the change from the last broadcast
+ * model: the sum of its (reduced) models minus count times the broadcast
+ * model.  Each array of that delta is optionally sparsified to its largest
+ * magnitude values and quantized to 8 or 16 bits with one scale per array.
+ * Whatever gets lost (unsent values and rounding) is kept per node and added
+ * to that node's next delta (error feedback), so nothing is dropped for good.
+ * The receiver decodes back to count times the broadcast model plus the
+ * delta, and the usual add() and div() then average the decoded deltas.
+ *
+ * Each node keeps the broadcast model and its residuals per job; see {@link
+ * #begin} and {@link #clear}.
+ */
+public class DeltaSync extends Iced {
+  private int _bits;
+  private int _count;
+  private long _processed;
+  private boolean _unstable;
+  private Part[] _parts;  // one per array
+
+  // Encoded delta of one array
+  public static class Part extends Iced {
+    float _scale;
+    byte[] _idx; // varint gaps of the sent positions; null if dense
+    byte[] _q;   // quantized values, big-endian for 16 bits
+  }
+
+  // Per node and job: the broadcast model of the current iteration and the residuals
+  private static class State {
+    DeepLearningModel.DeepLearningModelInfo _base;
+    float[][] _residual;
+  }
+  private static final NonBlockingHashMap<Key,State> STATE = new NonBlockingHashMap<>();
+
+  public DeltaSync() {}
+
+  /**
+   * Remember the broadcast model of this iteration on this node
+   * @param job Job key
+   * @param broadcast Model as received, before any training on it
+   */
+  static void begin(Key job, DeepLearningModel.DeepLearningModelInfo broadcast) {
+    State st = STATE.get(job);
+    if (st == null) {
+      st = new State();
+      State old = STATE.putIfAbsent(job, st);
+      if (old != null) st = old;
+    }
+    synchronized (st) {
+      st._base = broadcast.deep_clone();
+    }
+  }
+
+  private static State state(Key job) {
+    State st = STATE.get(job);
+    if (st == null || st._base == null) throw new IllegalStateException("No broadcast model for job " + job + " on this node.");
+    return st;
+  }
+
+  /**
+   * Encode the change of a model from the broadcast model
+   * @param job Job key
+   * @param mi Sum of count models trained from the broadcast model
+   * @param count Number of models summed up in mi
+   * @param bits 8 or 16
+   * @param sparsity Fraction of values to send, per array
+   * @return Encoded delta
+   */
+  static DeltaSync encode(Key job, DeepLearningModel.DeepLearningModelInfo mi, int count, int bits, double sparsity) {
+    assert(bits == 8 || bits == 16);
+    final State st = state(job);
+    final DeltaSync ds = new DeltaSync();
+    ds._bits = bits;
+    ds._count = count;
+    ds._processed = mi.get_processed_local();
+    ds._unstable = mi.unstable();
+    synchronized (st) {
+      final float[][] cur = mi.sync_arrays();
+      final float[][] base = st._base.sync_arrays();
+      if (st._residual == null) {
+        st._residual = new float[cur.length][];
+        for (int j = 0; j < cur.length; ++j) st._residual[j] = new float[cur[j].length];
+      }
+      ds._parts = new Part[cur.length];
+      for (int j = 0; j < cur.length; ++j)
+        ds._parts[j] = ds.encode(cur[j], base[j], st._residual[j], sparsity);
+    }
+    return ds;
+  }
+
+  private Part encode(float[] cur, float[] base, float[] res, double sparsity) {
+    final int n = cur.length;
+    final int qmax = (1 << (_bits - 1)) - 1;
+    float max = 0;
+    for (int i = 0; i < n; ++i) {
+      res[i] += cur[i] - _count * base[i]; //residual now holds the delta to send
+      max = Math.max(max, Math.abs(res[i]));
+    }
+    final int k = sparsity < 1 ? Math.max(1, (int)Math.ceil(sparsity * n)) : n;
+    final float thresh = k < n ? kthLargestAbs(res, k) : 0;
+    final float scale = max / qmax;
+    final Part part = new Part();
+    part._scale = scale;
+    final byte[] qs = part._q = new byte[k * (_bits >> 3)];
+    Bytes idx = k < n ? new Bytes(k) : null;
+    int sent = 0, last = 0;
+    for (int i = 0; i < n && sent < k; ++i) {
+      if (idx != null) {
+        if (Math.abs(res[i]) < thresh || res[i] == 0) continue;
+        idx.putVarInt(i - last);
+        last = i;
+      }
+      int q = scale == 0 ? 0 : Math.round(res[i] / scale);
+      q = Math.max(-qmax, Math.min(qmax, q));
+      if (_bits == 8) qs[sent] = (byte)q;
+      else {
+        qs[2*sent] = (byte)(q >> 8);
+        qs[2*sent+1] = (byte)q;
+      }
+      res[i] -= q * scale; //error feedback: keep what was lost
+      sent++;
+    }
+    if (sent < k) part._q = Arrays.copyOf(qs, sent * (_bits >> 3));
+    if (idx != null) part._idx = idx.toArray();
+    return part;
+  }
+
+  /**
+   * Decode back into a model
+   * @param job Job key
+   * @return count times the broadcast model, plus the delta
+   */
+  DeepLearningModel.DeepLearningModelInfo decode(Key job) {
+    final State st = state(job);
+    final DeepLearningModel.DeepLearningModelInfo mi;
+    synchronized (st) {
+      mi = st._base.deep_clone();
+    }
+    final float[][] arrays = mi.sync_arrays();
+    assert(arrays.length == _parts.length);
+    for (int j = 0; j < arrays.length; ++j) {
+      final float[] a = arrays[j];
+      final Part part = _parts[j];
+      if (_count != 1)
+        for (int i = 0; i < a.length; ++i) a[i] *= _count;
+      final int sent = part._q.length / (_bits >> 3);
+      int pos = 0, i = 0;
+      for (int s = 0; s < sent; ++s) {
+        if (part._idx != null) {
+          int gap = 0, shift = 0, b;
+          do {
+            b = part._idx[pos++];
+            gap |= (b & 0x7F) << shift;
+            shift += 7;
+          } while ((b & 0x80) != 0);
+          i += gap;
+        } else {
+          i = s;
+        }
+        final int q = _bits == 8 ? part._q[s] : (part._q[2*s] << 8) | (part._q[2*s+1] & 0xFF);
+        a[i] += q * part._scale;
+      }
+    }
+    mi.clip_ada_dx_g();
+    mi.set_processed_local(_processed);
+    if (_unstable) mi.set_unstable();
+    return mi;
+  }
+
+  /** @return Number of bytes of encoded values and positions */
+  long byteSize() {
+    long siz = 0;
+    for (Part part : _parts) siz += part._q.length + (part._idx == null ? 0 : part._idx.length);
+    return siz;
+  }
+
+  // k-th largest absolute value (quickselect on a copy)
+  static float kthLargestAbs(float[] a, int k) {
+    final float[] v = new float[a.length];
+    for (int i = 0; i < a.length; ++i) v[i] = Math.abs(a[i]);
+    int lo = 0, hi = v.length - 1;
+    final int target = k - 1; //index in descending order
+    while (lo < hi) {
+      final float pivot = v[(lo + hi) >>> 1];
+      int i = lo, j = hi;
+      while (i <= j) {
+        while (v[i] > pivot) i++;
+        while (v[j] < pivot) j--;
+        if (i <= j) {
+          float t = v[i]; v[i] = v[j]; v[j] = t;
+          i++; j--;
+        }
+      }
+      if (target <= j) hi = j;
+      else if (target >= i) lo = i;
+      else break;
+    }
+    return v[target];
+  }
+
+  // Growable byte array for the varint gaps
+  private static class Bytes {
+    byte[] _buf;
+    int _len;
+    Bytes(int cap) { _buf = new byte[Math.max(16, cap)]; }
+    void putVarInt(int x) {
+      if (_len + 5 > _buf.length) _buf = Arrays.copyOf(_buf, _buf.length << 1);
+      while ((x & ~0x7F) != 0) {
+        _buf[_len++] = (byte)((x & 0x7F) | 0x80);
+        x >>>= 7;
+      }
+      _buf[_len++] = (byte)x;
+    }
+    byte[] toArray() { return Arrays.copyOf(_buf, _len); }
+  }
+
+  /**
+   * Drop the broadcast model and residuals of a job on all nodes
+   * @param job Job key
+   */
+  static void clear(final Key job) {
+    new MRTask() {
+      @Override protected void setupLocal() { STATE.remove(job); }
+    }.doAllNodes();
+  }
+}
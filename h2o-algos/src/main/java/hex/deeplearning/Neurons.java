@@ -86,6 +86,15 @@ public abstract class Neurons {
 
   public DenseVector _avg_a;
 
+  /**
+   * Mini-batch state, row-major with one row of units per training row:
+   * activations, errors, partial gradients dE/dnet and per-row dropout masks,
+   * plus the batch gradient of the incoming weights
+   */
+  transient float[] _ab, _eb, _gb;
+  transient byte[][] _bitsb;
+  transient float[] _dw;
+
   public static final int missing_int_value = Integer.MAX_VALUE; //encode missing label
   public static final Float missing_real_value = Float.NaN; //encode missing regression target
 
@@ -127,6 +136,19 @@ public abstract class Neurons {
    * @param training Whether training is done or just testing (no need for dropout)
    */
   public final void init(Neurons[] neurons, int index, DeepLearningModel.DeepLearningParameters p, final DeepLearningModel.DeepLearningModelInfo minfo, boolean training) {
+    init(neurons, index, p, minfo, training, training ? p.mini_batch_size : 1);
+  }
+
+  /**
+   * Initialization of the parameters and connectivity of a Neuron layer
+   * @param neurons Array of all neuron layers, to establish feed-forward connectivity
+   * @param index Which layer am I?
+   * @param p User-given parameters (Job parental object hierarchy is not used)
+   * @param minfo Model information (weights/biases and their momenta)
+   * @param training Whether training is done or just testing (no need for dropout)
+   * @param batch Number of rows propagated at once (mini-batch training or batch scoring)
+   */
+  public final void init(Neurons[] neurons, int index, DeepLearningModel.DeepLearningParameters p, final DeepLearningModel.DeepLearningModelInfo minfo, boolean training, int batch) {
     _index = index-1;
     params = (DeepLearningModel.DeepLearningParameters)p.clone();
     params.rate *= Math.pow(params.rate_decay, index-1);
@@ -138,6 +160,15 @@ public abstract class Neurons {
             || this instanceof RectifierDropout || this instanceof Input) ) {
       _dropout = this instanceof Input ? new Dropout(units, params.input_dropout_ratio) : new Dropout(units, params.hidden_dropout_ratios[_index]);
     }
+    if (batch > 1) {
+      final int B = batch;
+      _ab = new float[B*units];
+      if (training) {
+        if (!(this instanceof Input)) _gb = new float[B*units];
+        if (!(this instanceof Output) && !(this instanceof Input)) _eb = new float[B*units];
+        if (_dropout != null && !(this instanceof Input)) _bitsb = new byte[B][];
+      }
+    }
     if (!(this instanceof Input)) {
       _previous = neurons[_index]; //incoming neurons
       _minfo = minfo;
@@ -173,6 +204,150 @@ public abstract class Neurons {
    */
   protected abstract void bprop();
 
+  /**
+   * Forward propagation of a mini-batch of rows: fills _ab from the
+   * previous layer's _ab.  By default one row at a time via fprop();
+   * layers with a dot-product activation override this with a GEMM.
+   * @param seeds Per-row seeds (for dropout), only used for training
+   * @param n Number of rows in the batch
+   * @param training Whether training is done or just testing (no need for dropout)
+   */
+  protected void fpropBatch(long[] seeds, int n, boolean training) {
+    final int pu = _previous.units;
+    final float[] prev = _previous._a.raw();
+    for (int r = 0; r < n; ++r) {
+      System.arraycopy(_previous._ab, r*pu, prev, 0, pu);
+      fprop(training ? seeds[r] : -1, training);
+      System.arraycopy(_a.raw(), 0, _ab, r*units, units);
+    }
+  }
+
+  /**
+   * Back propagation of a mini-batch.  By default one row at a time via
+   * bprop(), updating the weights after every row; layers with a dot-product
+   * activation override this to compute _gb from _eb and _ab, then call
+   * bprop_batch()
+   * @param n Number of rows in the batch
+   */
+  protected void bpropBatch(int n) {
+    final int pu = _previous.units;
+    final float[] a = _a.raw(), e = _e.raw(), prev = _previous._a.raw();
+    final float[] preve = _previous._eb != null ? _previous._e.raw() : null;
+    for (int r = 0; r < n; ++r) {
+      System.arraycopy(_ab, r*units, a, 0, units);
+      System.arraycopy(_eb, r*units, e, 0, units);
+      System.arraycopy(_previous._ab, r*pu, prev, 0, pu);
+      if (preve != null) Arrays.fill(preve, 0f);
+      bprop();
+      if (preve != null)
+        for (int i = 0; i < pu; ++i) _previous._eb[r*pu+i] += preve[i];
+    }
+  }
+
+  /**
+   * Fill the dropout mask for one training row (no-op without dropout)
+   * @param seed Row seed
+   */
+  protected void fillDropout(long seed) {}
+
+  // Per-row dropout masks for a mini-batch, or null without dropout
+  final byte[][] dropoutBatch(long[] seeds, int n) {
+    if (_bitsb == null) return null;
+    for (int r = 0; r < n; ++r) {
+      fillDropout(seeds[r]);
+      final byte[] bits = _dropout.bits();
+      if (_bitsb[r] == null) _bitsb[r] = new byte[bits.length];
+      System.arraycopy(bits, 0, _bitsb[r], 0, bits.length);
+    }
+    return _bitsb;
+  }
+
+  // Mini-batch fprop of the dot products: _ab = prev_ab * w^T + b
+  final void gemm_batch(long[] seeds, int n, boolean training) {
+    gemm(_ab, ((DenseRowMatrix)_w).raw(), _previous._ab, _b.raw(), n, training ? dropoutBatch(seeds, n) : null);
+  }
+
+  /**
+   * Mini-batch backpropagation of the partial gradients in _gb (dE/dnet per
+   * row and neuron).  Propagates the error to the previous layer through the
+   * current weights, then applies the gradient summed over the batch to the
+   * weights and biases, with the same learning rule as the per-row
+   * bprop_dense_row_dense.  Weight regularization counts once per row.
+   * @param n Number of rows in the batch
+   * @param rate learning rate
+   * @param momentum momentum factor (needed only if ADADELTA isn't used)
+   */
+  final void bprop_batch(final int n, final float rate, final float momentum) {
+    final DenseRowMatrix dw = (DenseRowMatrix)_w;
+    final float[] w = dw.raw();
+    final float[] wm = _wm != null ? _wm.raw() : null;
+    final DenseRowMatrix adaxg = (DenseRowMatrix)_ada_dx_g;
+    final float rho = (float)params.rho;
+    final float eps = (float)params.epsilon;
+    final float l1 = (float)params.l1;
+    final float l2 = (float)params.l2;
+    final float max_w2 = params.max_w2;
+    final boolean have_momenta = _minfo.has_momenta();
+    final boolean have_ada = _minfo.adaDelta();
+    final boolean nesterov = params.nesterov_accelerated_gradient;
+    final int rows = units;
+    final int cols = _previous.units;
+    final float[] g = _gb;
+
+    // propagate the error dE/dnet to the previous layer, via the connecting weights
+    if (_previous._eb != null) gemm_nn(_previous._eb, g, w, n, rows, cols);
+
+    // gradient dE/dw summed over the batch
+    if (_dw == null) _dw = new float[rows*cols];
+    Arrays.fill(_dw, 0f);
+    gemm_tn(_dw, g, _previous._ab, n, rows, cols);
+
+    for (int row = 0; row < rows; row++) {
+      float partial_grad = 0;
+      boolean any = false;
+      for (int r = 0; r < n; ++r) {
+        partial_grad += g[r*rows+row];
+        any |= g[r*rows+row] != 0f;
+      }
+      // only correct weights if the gradient is large enough
+      if (_shortcut && !any) continue;
+      final int idx = row * cols;
+      float avg_grad2 = 0;
+      for (int col = 0; col < cols; col++) {
+        final int i = idx + col;
+        final float weight = w[i];
+        final float grad = _dw[i] - n * (Math.signum(weight) * l1 + weight * l2);
+        if (have_ada) {
+          assert(!have_momenta);
+          avg_grad2 += grad*grad;
+          float brate = computeAdaDeltaRateForWeight(grad, i, adaxg, rho, eps);
+          w[i] += brate * grad;
+        } else {
+          if (!nesterov) {
+            final float delta = rate * grad;
+            w[i] += delta;
+            if( have_momenta ) {
+              w[i] += momentum * wm[i];
+              wm[i] = delta;
+            }
+          } else {
+            float tmp = grad;
+            if( have_momenta ) {
+              wm[i] *= momentum;
+              wm[i] += tmp;
+              tmp = wm[i];
+            }
+            w[i] += rate * tmp;
+          }
+        }
+      }
+      if (max_w2 != Float.POSITIVE_INFINITY)
+        rescale_weights(dw, row, max_w2);
+      if (have_ada) avg_grad2 /= cols;
+      update_bias(_b, _bm, row, partial_grad, avg_grad2, rate, momentum);
+    }
+  }
+
   void bprop_sparse(float r, float m) {
     SparseVector prev_a = (SparseVector) _previous._a;
     int start = prev_a.begin()._idx;
@@ -780,6 +955,11 @@ public abstract class Neurons {
         _a.set(row, 1f - 2f / (1f + (float)Math.exp(2*_a.get(row)))); //evals faster than tanh(x), but is slightly less numerically stable - OK
       compute_sparsity();
     }
+    @Override protected void fpropBatch(long[] seeds, int n, boolean training) {
+      gemm_batch(seeds, n, training);
+      for( int i = 0; i < n*units; i++ )
+        _ab[i] = 1f - 2f / (1f + (float)Math.exp(2*_ab[i]));
+    }
     // Computing partial derivative g = dE/dnet = dE/dy * dy/dnet, where dE/dy is the backpropagated error
     // dy/dnet = (1 - a^2) for y(net) = tanh(net)
     @Override protected void bprop() {
@@ -798,6 +978,13 @@ public abstract class Neurons {
         bprop_sparse(r, m);
       }
     }
+    @Override protected void bpropBatch(int n) {
+      float m = momentum();
+      float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
+      for( int i = 0; i < n*units; i++ )
+        _gb[i] = _eb[i] * (1f - _ab[i] * _ab[i]);
+      bprop_batch(n, r, m);
+    }
   }
 
   /**
@@ -805,17 +992,23 @@ public abstract class Neurons {
    */
   public static class TanhDropout extends Tanh {
     public TanhDropout(int units) { super(units); }
+    @Override protected void fillDropout(long seed) {
+      _dropout.fillBytes(seed + params.seed + 0xDA7A6000);
+    }
     @Override protected void fprop(long seed, boolean training) {
       if (training) {
-        seed += params.seed + 0xDA7A6000;
-        _dropout.fillBytes(seed);
-        super.fprop(seed, true);
+        fillDropout(seed);
+        super.fprop(seed + params.seed + 0xDA7A6000, true);
       }
       else {
         super.fprop(seed, false);
         ArrayUtils.mult(_a.raw(), (float)(1-params.hidden_dropout_ratios[_index]));
       }
     }
+    @Override protected void fpropBatch(long[] seeds, int n, boolean training) {
+      super.fpropBatch(seeds, n, training);
+      if (!training) ArrayUtils.mult(_ab, (float)(1-params.hidden_dropout_ratios[_index]));
+    }
   }
 
   /**
@@ -883,6 +1076,13 @@ public abstract class Neurons {
         bprop_sparse(r, m);
       }
     }
+    // fprop stays per row: the max over w*x terms is no dot product
+    @Override protected void bpropBatch(int n) {
+      float m = momentum();
+      float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
+      System.arraycopy(_eb, 0, _gb, 0, n*units);
+      bprop_batch(n, r, m);
+    }
   }
 
   /**
@@ -890,11 +1090,13 @@ public abstract class Neurons {
    */
   public static class MaxoutDropout extends Maxout {
     public MaxoutDropout(int units) { super(units); }
+    @Override protected void fillDropout(long seed) {
+      _dropout.fillBytes(seed + params.seed + 0x51C8D00D);
+    }
     @Override protected void fprop(long seed, boolean training) {
       if (training) {
-        seed += params.seed + 0x51C8D00D;
-        _dropout.fillBytes(seed);
-        super.fprop(seed, true);
+        fillDropout(seed);
+        super.fprop(seed + params.seed + 0x51C8D00D, true);
       }
       else {
         super.fprop(seed, false);
@@ -916,6 +1118,11 @@ public abstract class Neurons {
         compute_sparsity();
       }
     }
+    @Override protected void fpropBatch(long[] seeds, int n, boolean training) {
+      gemm_batch(seeds, n, training);
+      for( int i = 0; i < n*units; i++ )
+        _ab[i] = Math.max(_ab[i], 0f);
+    }
 
     @Override protected void bprop() {
       float m = momentum();
@@ -934,6 +1141,13 @@ public abstract class Neurons {
         bprop_sparse(r, m);
       }
     }
+    @Override protected void bpropBatch(int n) {
+      float m = momentum();
+      float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
+      for( int i = 0; i < n*units; i++ )
+        _gb[i] = _ab[i] > 0f ? _eb[i] : 0f;
+      bprop_batch(n, r, m);
+    }
   }
 
   /**
@@ -941,17 +1155,23 @@ public abstract class Neurons {
    */
   public static class RectifierDropout extends Rectifier {
     public RectifierDropout(int units) { super(units); }
+    @Override protected void fillDropout(long seed) {
+      _dropout.fillBytes(seed + params.seed + 0x3C71F1ED);
+    }
     @Override protected void fprop(long seed, boolean training) {
       if (training) {
-        seed += params.seed + 0x3C71F1ED;
-        _dropout.fillBytes(seed);
-        super.fprop(seed, true);
+        fillDropout(seed);
+        super.fprop(seed + params.seed + 0x3C71F1ED, true);
       }
       else {
         super.fprop(seed, false);
         ArrayUtils.mult(_a.raw(), (float)(1-params.hidden_dropout_ratios[_index]));
       }
     }
+    @Override protected void fpropBatch(long[] seeds, int n, boolean training) {
+      super.fpropBatch(seeds, n, training);
+      if (!training) ArrayUtils.mult(_ab, (float)(1-params.hidden_dropout_ratios[_index]));
+    }
   }
 
   /**
@@ -1015,6 +1235,52 @@ public abstract class Neurons {
         bprop(row, g, r, m);
       }
     }
+
+    /**
+     * Mini-batch forward propagation, see fprop()
+     * @param n Number of rows in the batch
+     */
+    protected void fpropBatch(int n) {
+      gemm(_ab, ((DenseRowMatrix)_w).raw(), _previous._ab, _b.raw(), n, null);
+      for( int r = 0; r < n; r++ ) {
+        final int off = r*units;
+        float max = Float.NEGATIVE_INFINITY;
+        for( int row = 0; row < units; row++ ) max = Math.max(max, _ab[off+row]);
+        float scale = 0f;
+        for( int row = 0; row < units; row++ ) {
+          _ab[off+row] = (float)Math.exp(_ab[off+row] - max);
+          scale += _ab[off+row];
+        }
+        for( int row = 0; row < units; row++ ) {
+          if (Float.isNaN(_ab[off+row])) {
+            _minfo.set_unstable();
+            throw new RuntimeException("Numerical instability, predicted NaN.");
+          }
+          _ab[off+row] /= scale;
+        }
+      }
+    }
+
+    /**
+     * Mini-batch backpropagation for classification, see bprop(int)
+     * @param n Number of rows in the batch
+     * @param targets actual class labels
+     */
+    protected void bpropBatch(int n, double[] targets) {
+      float m = momentum();
+      float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
+      final boolean ce = params.loss == DeepLearningModel.DeepLearningParameters.Loss.CrossEntropy;
+      for( int i = 0; i < n; i++ ) {
+        assert((double)(int)targets[i] == targets[i]);
+        final int target = (int)targets[i];
+        for( int row = 0; row < units; row++ ) {
+          final float t = (row == target ? 1f : 0f);
+          final float y = _ab[i*units+row];
+          _gb[i*units+row] = ce ? t - y : (t - y) * (1f - y) * y;
+        }
+      }
+      bprop_batch(n, r, m);
+    }
   }
 
   /**
@@ -1040,6 +1306,28 @@ public abstract class Neurons {
       float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
       bprop(row, g, r, m);
     }
+
+    /**
+     * Mini-batch forward propagation, see fprop()
+     * @param n Number of rows in the batch
+     */
+    protected void fpropBatch(int n) {
+      gemm(_ab, ((DenseRowMatrix)_w).raw(), _previous._ab, _b.raw(), n, null);
+    }
+
+    /**
+     * Mini-batch backpropagation for regression, see bprop(float)
+     * @param n Number of rows in the batch
+     * @param targets floating-point target values
+     */
+    protected void bpropBatch(int n, double[] targets) {
+      if (params.loss != DeepLearningModel.DeepLearningParameters.Loss.MeanSquare) throw new UnsupportedOperationException("Regression is only implemented for MeanSquare error.");
+      for( int i = 0; i < n; i++ )
+        _gb[i] = (float)targets[i] - _ab[i]; //for MSE -dMSE/dy = target-y
+      float m = momentum();
+      float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
+      bprop_batch(n, r, m);
+    }
   }
 
   /**
@@ -1104,6 +1392,105 @@ public abstract class Neurons {
     }
   }
 
+  // Cache block sizes for the mini-batch GEMMs: a 64 x 256 block of floats
+  // is 64kB, so a block of weights stays in L2 while the batch rows sweep by
+  static final int GEMM_ROWS = 64;
+  static final int GEMM_COLS = 256;
+
+  /**
+   * Cache-blocked Mat-Mat Plus Add for a mini-batch (with optional per-row dropout):
+   * each row of res is gemv of the corresponding row of x
+   * @param res = x*a^T + y, n x rows (pre-allocated, will be overwritten)
+   * @param a matrix of size rows x cols (row-major)
+   * @param x n rows of length cols (row-major)
+   * @param y vector of length rows
+   * @param n number of batch rows
+   * @param row_bits if not null, check bits of row_bits[i] to determine whether a row is used for batch row i
+   */
+  static void gemm(final float[] res, final float[] a, final float[] x, final float[] y, final int n, final byte[][] row_bits) {
+    final int rows = y.length;
+    final int cols = a.length / rows;
+    Arrays.fill(res, 0, n*rows, 0f);
+    for (int cc = 0; cc < cols; cc += GEMM_COLS) {
+      final int cend = Math.min(cc + GEMM_COLS, cols);
+      for (int rr = 0; rr < rows; rr += GEMM_ROWS) {
+        final int rend = Math.min(rr + GEMM_ROWS, rows);
+        for (int i = 0; i < n; i++) {
+          final byte[] bits = row_bits != null ? row_bits[i] : null;
+          final int xoff = i*cols;
+          for (int row = rr; row < rend; row++) {
+            if( bits != null && (bits[row / 8] & (1 << (row % 8))) == 0) continue;
+            final int aoff = row*cols;
+            float psum0 = 0, psum1 = 0, psum2 = 0, psum3 = 0;
+            int col = cc;
+            for (; col + 3 < cend; col += 4) {
+              psum0 += a[aoff + col    ] * x[xoff + col    ];
+              psum1 += a[aoff + col + 1] * x[xoff + col + 1];
+              psum2 += a[aoff + col + 2] * x[xoff + col + 2];
+              psum3 += a[aoff + col + 3] * x[xoff + col + 3];
+            }
+            for (; col < cend; col++)
+              psum0 += a[aoff + col] * x[xoff + col];
+            res[i*rows + row] += (psum0 + psum1) + (psum2 + psum3);
+          }
+        }
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      final byte[] bits = row_bits != null ? row_bits[i] : null;
+      for (int row = 0; row < rows; row++)
+        if( bits == null || (bits[row / 8] & (1 << (row % 8))) != 0)
+          res[i*rows + row] += y[row];
+    }
+  }
+
+  /**
+   * Cache-blocked res += g * a, for propagating a mini-batch of errors back through the weights
+   * @param res n x cols, added to
+   * @param g n x rows
+   * @param a rows x cols (row-major)
+   */
+  static void gemm_nn(final float[] res, final float[] g, final float[] a, final int n, final int rows, final int cols) {
+    for (int cc = 0; cc < cols; cc += GEMM_COLS) {
+      final int cend = Math.min(cc + GEMM_COLS, cols);
+      for (int rr = 0; rr < rows; rr += GEMM_ROWS) {
+        final int rend = Math.min(rr + GEMM_ROWS, rows);
+        for (int i = 0; i < n; i++) {
+          final int roff = i*cols;
+          for (int row = rr; row < rend; row++) {
+            final float gi = g[i*rows + row];
+            if (gi == 0f) continue;
+            final int aoff = row*cols;
+            for (int col = cc; col < cend; col++)
+              res[roff + col] += gi * a[aoff + col];
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Cache-blocked res += g^T * x, the weight gradient summed over a mini-batch
+   * @param res rows x cols, added to
+   * @param g n x rows
+   * @param x n x cols
+   */
+  static void gemm_tn(final float[] res, final float[] g, final float[] x, final int n, final int rows, final int cols) {
+    for (int cc = 0; cc < cols; cc += GEMM_COLS) {
+      final int cend = Math.min(cc + GEMM_COLS, cols);
+      for (int row = 0; row < rows; row++) {
+        final int roff = row*cols;
+        for (int i = 0; i < n; i++) {
+          final float gi = g[i*rows + row];
+          if (gi == 0f) continue;
+          final int xoff = i*cols;
+          for (int col = cc; col < cend; col++)
+            res[roff + col] += gi * x[xoff + col];
+        }
+      }
+    }
+  }
+
   /**
    * Helper to do a generic gemv: res = a*x + y
    * @param res Dense result
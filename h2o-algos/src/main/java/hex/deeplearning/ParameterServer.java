@@ -0,0 +1,354 @@
+package hex.deeplearning;
+
+import jsr166y.CountedCompleter;
+import jsr166y.ForkJoinPool;
+import water.*;
+import water.fvec.Frame;
+import water.nbhm.NonBlockingHashMap;
+import water.util.Log;
+
+import java.util.Arrays;
+
+/**
+ * Parameter server for asynchronous Deep Learning training (see
+ * DeepLearningParameters.async_training).
+ *
+ * The weights and biases are sharded by layer and row range into DKV values,
+ * homed round-robin across the nodes.  Every node runs a {@link Worker} that
+ * pulls the shards, trains on its (replicated) training data for one
+ * iteration, and pushes its change back to the shards as atomic updates on
+ * their home nodes.  Momenta and AdaDelta state stay local to each worker.
+ *
+ * A {@link Clock} counts the iterations of every worker and the samples
+ * processed in total.  A worker only starts its next iteration if the slowest
+ * worker is at most max_staleness iterations behind (stale synchronous
+ * parallel), so slow nodes only hold back the fast ones past that bound; a
+ * worker too far ahead parks until a tick of the clock wakes it.  The driver
+ * scores snapshots of the shards while the workers keep training.
+ */
+public class ParameterServer extends Iced {
+  /** Largest shard, in floats */
+  static final int SHARD_FLOATS = 1 << 18;
+
+  final Key _job;
+  final Key _clock;
+  final Key[] _shards;
+  final int[] _layer, _row0, _row1;
+
+  /** Rows [row0,row1) of one layer's weights (row-major) and biases */
+  public static class Shard extends Iced {
+    float[] _w;
+    float[] _b;
+    long _version; //number of updates applied
+  }
+
+  /** Iterations per worker, total samples processed, and the stop flag */
+  public static class Clock extends Iced {
+    long[] _iters;
+    long _samples;
+    boolean _stop;
+    long min() { long m = Long.MAX_VALUE; for (long i : _iters) m = Math.min(m, i); return m; }
+    long sum() { long s = 0; for (long i : _iters) s += i; return s; }
+  }
+
+  /**
+   * Shard the weights and biases of a model across the cloud
+   * @param job Job key
+   * @param mi Initial model
+   */
+  ParameterServer(Key job, DeepLearningModel.DeepLearningModelInfo mi) {
+    _job = job;
+    final int nlayers = mi.get_params().hidden.length + 1;
+    int nshards = 0;
+    for (int l = 0; l < nlayers; ++l) nshards += (mi.get_weights(l).rows() + rowsPerShard(mi, l) - 1) / rowsPerShard(mi, l);
+    _shards = new Key[nshards];
+    _layer = new int[nshards];
+    _row0 = new int[nshards];
+    _row1 = new int[nshards];
+    final H2ONode[] nodes = H2O.CLOUD.members();
+    Futures fs = new Futures();
+    int s = 0;
+    for (int l = 0; l < nlayers; ++l) {
+      final int rows = mi.get_weights(l).rows(), rps = rowsPerShard(mi, l);
+      for (int r = 0; r < rows; r += rps, ++s) {
+        _layer[s] = l;
+        _row0[s] = r;
+        _row1[s] = Math.min(rows, r + rps);
+        _shards[s] = Key.make((byte)1, Key.HIDDEN_USER_KEY, true, nodes[s % nodes.length]);
+        Shard sh = new Shard();
+        sh._w = Arrays.copyOfRange(weights(mi, l), _row0[s] * cols(mi, l), _row1[s] * cols(mi, l));
+        sh._b = Arrays.copyOfRange(mi.get_biases(l).raw(), _row0[s], _row1[s]);
+        DKV.put(_shards[s], sh, fs);
+      }
+    }
+    _clock = Key.make((byte)1, Key.HIDDEN_USER_KEY, true, H2O.SELF);
+    Clock c = new Clock();
+    c._iters = new long[nodes.length];
+    c._samples = mi.get_processed_global();
+    DKV.put(_clock, c, fs);
+    fs.blockForPending();
+  }
+
+  private static int cols(DeepLearningModel.DeepLearningModelInfo mi, int l) { return mi.get_weights(l).cols(); }
+  private static int rowsPerShard(DeepLearningModel.DeepLearningModelInfo mi, int l) { return Math.max(1, SHARD_FLOATS / cols(mi, l)); }
+  private static float[] weights(DeepLearningModel.DeepLearningModelInfo mi, int l) {
+    return ((Neurons.DenseRowMatrix)mi.get_weights(l)).raw(); //col_major is not supported
+  }
+
+  Clock clock() { return DKV.get(_clock).get(); }
+
+  /**
+   * Overwrite the weights and biases of a model with the current shards
+   * @param mi Model to update
+   */
+  void pull(DeepLearningModel.DeepLearningModelInfo mi) {
+    for (Key k : _shards) DKV.prefetch(k);
+    for (int s = 0; s < _shards.length; ++s) {
+      final Shard sh = DKV.get(_shards[s]).get();
+      System.arraycopy(sh._w, 0, weights(mi, _layer[s]), _row0[s] * cols(mi, _layer[s]), sh._w.length);
+      System.arraycopy(sh._b, 0, mi.get_biases(_layer[s]).raw(), _row0[s], sh._b.length);
+    }
+  }
+
+  /**
+   * Add the change of a model since the last pull to the shards
+   * @param mi Trained model
+   * @param pulled Copy of the model right after the last pull
+   */
+  void push(DeepLearningModel.DeepLearningModelInfo mi, DeepLearningModel.DeepLearningModelInfo pulled) {
+    RPC[] rpcs = new RPC[_shards.length];
+    for (int s = 0; s < _shards.length; ++s) {
+      final int l = _layer[s], off = _row0[s] * cols(mi, l);
+      final float[] w = weights(mi, l), w0 = weights(pulled, l);
+      final float[] b = mi.get_biases(l).raw(), b0 = pulled.get_biases(l).raw();
+      final float[] dw = new float[(_row1[s] - _row0[s]) * cols(mi, l)];
+      final float[] db = new float[_row1[s] - _row0[s]];
+      for (int i = 0; i < dw.length; ++i) dw[i] = w[off + i] - w0[off + i];
+      for (int i = 0; i < db.length; ++i) db[i] = b[_row0[s] + i] - b0[_row0[s] + i];
+      rpcs[s] = new Push(dw, db).fork(_shards[s]);
+    }
+    for (RPC rpc : rpcs) if (rpc != null) rpc.get(); //null if applied locally
+  }
+
+  // Applied on the home node of a shard
+  private static class Push extends TAtomic<Shard> {
+    final float[] _dw, _db;
+    Push(float[] dw, float[] db) { _dw = dw; _db = db; }
+    @Override protected Shard atomic(Shard old) {
+      Shard sh = new Shard();
+      sh._w = old._w.clone();
+      sh._b = old._b.clone();
+      for (int i = 0; i < _dw.length; ++i) sh._w[i] += _dw[i];
+      for (int i = 0; i < _db.length; ++i) sh._b[i] += _db[i];
+      sh._version = old._version + 1;
+      return sh;
+    }
+  }
+
+  /** Count one more iteration of worker {@code node}, over {@code samples} samples */
+  void tick(final int node, final long samples) {
+    new TAtomic<Clock>() {
+      @Override protected Clock atomic(Clock old) {
+        old._iters = old._iters.clone();
+        old._iters[node]++;
+        old._samples += samples;
+        return old;
+      }
+    }.invoke(_clock);
+    wake();
+  }
+
+  /** Tell all workers to stop after their current iteration */
+  void stop() {
+    new TAtomic<Clock>() {
+      @Override protected Clock atomic(Clock old) {
+        if (old._stop) return null;
+        old._stop = true;
+        return old;
+      }
+    }.invoke(_clock);
+    wake();
+  }
+
+  /**
+   * Snapshot of the shards, for scoring
+   * @param mi Model to copy everything else from
+   * @return Copy of mi with the current weights, biases and sample count
+   */
+  DeepLearningModel.DeepLearningModelInfo snapshot(DeepLearningModel.DeepLearningModelInfo mi) {
+    final long samples = clock()._samples; //read first: the shards have at least these updates
+    DeepLearningModel.DeepLearningModelInfo snap = mi.deep_clone();
+    pull(snap);
+    snap.set_processed_global(samples);
+    snap.set_processed_local(0);
+    return snap;
+  }
+
+  /**
+   * Start a {@link Worker} on every node
+   * @param mi Initial model
+   * @param train Training data, replicated on every node
+   * @param fraction Fraction of the training data per iteration
+   * @param target Total number of samples to train on
+   * @return Completes once all workers are done
+   */
+  H2O.H2OCountedCompleter start(final DeepLearningModel.DeepLearningModelInfo mi, final Frame train, final float fraction, final long target) {
+    final H2ONode[] nodes = H2O.CLOUD.members();
+    final H2O.H2OCountedCompleter workers = new H2O.H2OCountedCompleter() {
+      @Override protected void compute2() {
+        for (H2ONode node : nodes) {
+          addToPendingCount(1);
+          new RPC<>(node, new Worker(ParameterServer.this, mi, train, fraction, target)).addCompleter(this).call();
+        }
+        tryComplete();
+      }
+      @Override public void onCompletion(CountedCompleter caller) { wakeLocal(_clock); }
+      @Override public boolean onExceptionalCompletion(Throwable ex, CountedCompleter caller) {
+        wakeLocal(_clock);
+        return true;
+      }
+    };
+    H2O.submitTask(workers);
+    return workers;
+  }
+
+  // Node-local: the worker parked on a clock, and the monitor notified on its every tick
+  private static final NonBlockingHashMap<Key,Worker> PARKED = new NonBlockingHashMap<>();
+  private static final NonBlockingHashMap<Key,Object> TICKS = new NonBlockingHashMap<>();
+
+  private static Object monitor(Key clock) {
+    Object m = TICKS.get(clock);
+    if (m == null) {
+      final Object m2 = TICKS.putIfAbsent(clock, m = new Object());
+      if (m2 != null) m = m2;
+    }
+    return m;
+  }
+
+  // Resume the worker parked on this node, and wake any local pollers
+  private static void wakeLocal(Key clock) {
+    final Worker w = PARKED.remove(clock);
+    if (w != null) w.resume();
+    final Object m = TICKS.get(clock);
+    if (m != null) synchronized (m) { m.notifyAll(); }
+  }
+
+  /** Wake everything waiting on the clock, on all nodes; called after it moved */
+  void wake() {
+    for (H2ONode node : H2O.CLOUD.members()) new RPC<>(node, new Wake(_clock)).call();
+  }
+
+  private static class Wake extends DTask<Wake> {
+    final Key _clock;
+    Wake(Key clock) { _clock = clock; }
+    @Override public byte priority() { return H2O.GUI_PRIORITY; }
+    @Override protected void compute2() { wakeLocal(_clock); tryComplete(); }
+  }
+
+  // Waits until ready, woken by every tick of the clock, letting the F/J pool run other work meanwhile
+  abstract static class Poll implements ForkJoinPool.ManagedBlocker {
+    final Key _clock;
+    Poll(ParameterServer ps) { _clock = ps._clock; }
+    abstract boolean ready();
+    @Override public boolean isReleasable() { return ready(); }
+    @Override public boolean block() throws InterruptedException {
+      final Object m = monitor(_clock);
+      synchronized (m) { if (!ready()) m.wait(1000); }
+      return ready();
+    }
+    void await() {
+      try { ForkJoinPool.managedBlock(this); } catch (InterruptedException ignore) { }
+    }
+  }
+
+  void remove() {
+    Futures fs = new Futures();
+    for (Key k : _shards) DKV.remove(k, fs);
+    DKV.remove(_clock, fs);
+    fs.blockForPending();
+    TICKS.remove(_clock);
+  }
+
+  /**
+   * Training loop on one node: pull, train one iteration, push, tick.  Each
+   * iteration is an asynchronous DeepLearningTask whose completion starts the
+   * next one.  Completes once the target number of samples is reached, the
+   * clock says so, or the job is cancelled.
+   */
+  static class Worker extends DTask<Worker> {
+    final byte _priority;
+    final ParameterServer _ps;
+    final DeepLearningModel.DeepLearningModelInfo _model_info;
+    final Frame _train;
+    final float _fraction;
+    final long _target;
+    final int _staleness;
+    transient DeepLearningModel.DeepLearningModelInfo _mi; //local momenta, AdaDelta state
+    transient long _iter;
+    Worker(ParameterServer ps, DeepLearningModel.DeepLearningModelInfo mi, Frame train, float fraction, long target) {
+      _priority = nextThrPriority();
+      _ps = ps;
+      _model_info = mi;
+      _train = train;
+      _fraction = fraction;
+      _target = target;
+      _staleness = mi.get_params().max_staleness;
+    }
+    @Override public byte priority() { return _priority; }
+
+    @Override protected void compute2() {
+      _mi = _model_info.deep_clone();
+      step();
+      tryComplete();
+    }
+
+    // Start the next iteration, or park until the slowest worker catches up;
+    // either holds a pending count until done.  Does neither once training is
+    // over, but stops the clock, so workers parked on this one finish too.
+    private void step() {
+      final Clock c = _ps.clock();
+      if (c._stop || c._samples >= _target || !Job.isRunning(_ps._job)) {
+        if (_mi.get_params().diagnostics && !_mi.get_params().quiet_mode)
+          Log.info("Asynchronous worker finished after " + _iter + " iterations.");
+        _ps.stop();
+        return;
+      }
+      addToPendingCount(1);
+      if (_iter - c.min() > _staleness) { //bounded staleness
+        PARKED.put(_ps._clock, this);
+        if (ready() && PARKED.remove(_ps._clock, this)) resume(); //ticked meanwhile
+        return;
+      }
+      _ps.pull(_mi);
+      _mi.set_processed_global(c._samples);
+      final DeepLearningModel.DeepLearningModelInfo pulled = _mi.deep_clone();
+      new DeepLearningTask(_ps._job, _mi, _fraction, new H2O.H2OCallback<DeepLearningTask>(this) {
+        @Override public void callback(DeepLearningTask dlt) {
+          final DeepLearningModel.DeepLearningModelInfo trained = dlt.model_info();
+          _ps.push(trained, pulled);
+          _ps.tick(H2O.SELF.index(), trained.get_processed_total() - c._samples);
+          _iter++;
+          step();
+        }
+      }).asyncExec(0, _train, true);
+    }
+
+    private boolean ready() {
+      final Clock c = _ps.clock();
+      return c._stop || _iter - c.min() <= _staleness || !Job.isRunning(_ps._job);
+    }
+
+    // Continue after being parked
+    private void resume() {
+      H2O.submitTask(new H2O.H2OCountedCompleter(this) {
+        @Override protected void compute2() { step(); tryComplete(); }
+        @Override public byte priority() { return _priority; }
+      });
+    }
+
+    @Override public boolean onExceptionalCompletion(Throwable ex, CountedCompleter caller) {
+      _ps.stop();
+      return super.onExceptionalCompletion(ex, caller);
+    }
+  }
+}
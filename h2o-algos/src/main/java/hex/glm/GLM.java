@@ -11,6 +11,8 @@ import hex.FrameTask.DataInfo;
 import hex.ModelBuilder;
 import hex.optimization.L_BFGS;
 import hex.optimization.L_BFGS.GradientInfo;
+import hex.optimization.L_BFGS.History;
+import hex.optimization.L_BFGS.L_BFGS_Params;
 import hex.optimization.L_BFGS.GradientSolver;
 import hex.schemas.GLMV2;
 import hex.schemas.ModelBuilderSchema;
@@ -90,6 +92,30 @@ public class GLM extends ModelBuilder<GLMModel,GLMModel.GLMParameters,GLMModel.G
   private static final int MAX_ITER = 50;
   private static final int sparseCoefThreshold = 750;
   private static final double beta_epsilon = 1e-4;
+  // AUTO picks L_BFGS for at least sparseCoefThreshold predictors with fewer non-zeros than this fraction...
+  private static final double L_BFGS_MAX_DENSITY = 0.01;
+  // ...or, without lambda search (and so without strong rules), if the dense part of the Gram would have more predictors than this
+  private static final int IRLSM_MAX_DENSE_N = 5000;
+  private static final int L_BFGS_MAX_ITER = 500;
+
+  /**
+   * Solver for the given data: IRLSM forms the Gram of the active predictors, which for many predictors
+   * does not fit in memory and is slow to decompose, and for sparse data is mostly zeros.
+   * The L-BFGS solver only ever visits the non-zeros, but does not support cross-validation.
+   */
+  static Solver autoSolver(DataInfo dinfo, GLMParameters params){
+    final int n = dinfo.fullN();
+    if(n < sparseCoefThreshold || params.n_folds > 1)
+      return Solver.IRLSM;
+    final Vec [] vecs = dinfo._adaptedFrame.vecs();
+    final long nrows = dinfo._adaptedFrame.numRows();
+    double nzs = (double)dinfo._cats*nrows; // one level per categorical
+    for(int i = 0; i < dinfo._nums; ++i)
+      nzs += vecs[dinfo._cats + i].nzCnt();
+    if(nzs < L_BFGS_MAX_DENSITY*nrows*n)
+      return Solver.L_BFGS;
+    return !params.lambda_search && n - dinfo.largestCat() > IRLSM_MAX_DENSE_N?Solver.L_BFGS:Solver.IRLSM;
+  }
 
   /**
    * Encapsulates state of the computation.
@@ -211,20 +237,7 @@ public class GLM extends ModelBuilder<GLMModel,GLMModel.GLMParameters,GLMModel.G
         fullBeta = MemoryManager.malloc8d(_taskInfo._dinfo.fullN()+1);
         fullBeta[fullBeta.length-1] = _taskInfo._params.linkInv(_taskInfo._ymu);
       }
-      final double [] newBetaDeNorm;
-      if(_taskInfo._dinfo._predictor_transform == FrameTask.DataInfo.TransformType.STANDARDIZE) {
-        newBetaDeNorm = fullBeta.clone();
-        double norm = 0.0;        // Reverse any normalization on the intercept
-        // denormalize only the numeric coefs (categoricals are not normalized)
-        final int numoff = _taskInfo._dinfo.numStart();
-        for( int i=numoff; i< fullBeta.length-1; i++ ) {
-          double b = newBetaDeNorm[i]* _taskInfo._dinfo._normMul[i-numoff];
-          norm += b* _taskInfo._dinfo._normSub[i-numoff]; // Also accumulate the intercept adjustment
-          newBetaDeNorm[i] = b;
-        }
-        newBetaDeNorm[newBetaDeNorm.length-1] -= norm;
-      } else
-        newBetaDeNorm = null;
+      final double [] newBetaDeNorm = denormalize(_taskInfo._dinfo, fullBeta);
       GLMModel.setSubmodel(cmp, _taskInfo._dstKey, _currentLambda, newBetaDeNorm == null ? fullBeta : newBetaDeNorm, newBetaDeNorm == null ? null : fullBeta, (_iter + 1), System.currentTimeMillis() - _start_time, _taskInfo._dinfo.fullN() >= sparseCoefThreshold, val);
       return fullBeta;
     }
@@ -503,6 +516,7 @@ public class GLM extends ModelBuilder<GLMModel,GLMModel.GLMParameters,GLMModel.G
     final GLMTaskInfo[] _state;
     int             _lambdaId;
     int   _maxLambda;
+    Solver _solver;             // _params.solver, with AUTO resolved
     transient AtomicBoolean _gotException = new AtomicBoolean();
 
     public GLMDriver(H2OCountedCompleter cmp,GLMParameters params, Key jobKey, Key progressKey, Key dstKey, DataInfo dinfo){
@@ -515,6 +529,31 @@ public class GLM extends ModelBuilder<GLMModel,GLMModel.GLMParameters,GLMModel.G
       _progressKey = progressKey;
     }
 
+    // Lambdas to fit, starting with lambda max (the null model)
+    static double [] lambdaPath(GLMParameters _params, double lmax){
+      double [] lambdas;
+      if(_params.lambda_search) {
+        if (_params.nlambdas == 1)
+          throw new IllegalArgumentException("Number of lambdas must be > 1 when running with lambda_search!");
+        final double d = Math.pow(_params.lambda_min_ratio, 1.0 / (_params.nlambdas - 1));
+        lambdas = new double[_params.nlambdas];
+        lambdas[0] = lmax;
+        for (int i = 1; i < lambdas.length; ++i)
+          lambdas[i] = lambdas[i - 1] * d;
+      } else {
+        if(_params.lambda == null || _params.lambda.length == 0)
+          lambdas = new double[]{1e-2*lmax};
+        else
+          lambdas = _params.lambda;
+        int i = 0;
+        while(i < lambdas.length && lambdas[i] >= lmax)++i;
+        if(i == lambdas.length)
+          throw new IllegalArgumentException("Given lambda(s) are all > lambda_max = " + lmax + ", have nothing to run with. lambda = " + Arrays.toString(lambdas));
+        lambdas = ArrayUtils.append(new double[]{lmax},Arrays.copyOfRange(lambdas,i,lambdas.length));
+      }
+      return lambdas;
+    }
+
     private static double [] nullBeta(DataInfo dinfo, GLMParameters params, double ymu){
       double [] beta = MemoryManager.malloc8d(dinfo.fullN()+1);
       beta[beta.length-1] = params.linkInv(ymu);
@@ -550,9 +589,16 @@ public class GLM extends ModelBuilder<GLMModel,GLMModel.GLMParameters,GLMModel.G
     }
     @Override
     protected void compute2() {
-      if(_params.alpha.length > 1){ // just fork off grid search
-        return;
+      _solver = _params.solver;
+      if(_solver == Solver.AUTO) {
+        _solver = autoSolver(_dinfo, _params);
+        Log.info("GLM2(" + _dstKey + "): picked solver " + _solver + " for " + _dinfo.fullN() + " predictors.");
       }
+      final boolean path = _params.alpha.length > 1 || _params.path_block > 1 || _solver == Solver.L_BFGS;
+      if(_params.path_block < 1)
+        throw new IllegalArgumentException("GLM2(" + _dstKey + "): path_block must be >= 1.");
+      if(path && _params.n_folds > 1)
+        throw new IllegalArgumentException("GLM2(" + _dstKey + "): cross-validation is not supported when fitting several alphas, a path_block > 1 or with the L_BFGS solver.");
       // compute lambda max
       // if this is cross-validated task, don't do actual computation,
       // just fork off the nfolds+1 tasks and wait for the results
@@ -611,36 +657,28 @@ public class GLM extends ModelBuilder<GLMModel,GLMModel.GLMParameters,GLMModel.G
                 assert !Double.isNaN(gLmax.lmax()) : "running lambda_value search, but don't know what is the lambda_value max!";
                 if (_params.lambda_min_ratio == -1)
                   _params.lambda_min_ratio = nobs > 25 * _dinfo.fullN() ? 1e-4 : 1e-2;
-                  final double d = Math.pow(_params.lambda_min_ratio, 1.0 / (_params.nlambdas - 1));
-                  lambdas = new double[_params.nlambdas];
-                  lambdas[0] = gLmax.lmax();
-                  if (_params.nlambdas == 1)
-                    throw new IllegalArgumentException("Number of lambdas must be > 1 when running with lambda_search!");
-                  for (int i = 1; i < lambdas.length; ++i)
-                    lambdas[i] = lambdas[i - 1] * d;
-              } else {
-                if(_params.lambda == null || _params.lambda.length == 0)
-                  lambdas = new double[]{1e-2*gLmax.lmax()};
-                else
-                  lambdas = _params.lambda;
-                int i = 0;
-                while(i < lambdas.length && lambdas[i] >= gLmax.lmax())++i;
-                if(i == lambdas.length)
-                  throw new IllegalArgumentException("Given lambda(s) are all > lambda_max = " + gLmax.lmax() + ", have nothing to run with. lambda = " + Arrays.toString(lambdas));
-                if(i > 0) {
-                  warning = "Removed " + i + " lambdas greater than lambda_max.";
-                }
-                lambdas = ArrayUtils.append(new double[]{gLmax.lmax()},Arrays.copyOfRange(lambdas,i,lambdas.length));
               }
-              double nextLambda = lambdas[1];
+              lambdas = lambdaPath(_params, gLmax.lmax());
+              if(!_params.lambda_search && _params.lambda != null && lambdas.length <= _params.lambda.length)
+                warning = "Removed " + (_params.lambda.length + 1 - lambdas.length) + " lambdas greater than lambda_max.";
               if(lambdas.length > 1)
                 glmOutput.addNullSubmodel(gLmax.lmax(), _params.link(gYmu), gLmax._val);
               _maxLambda = lambdas.length;
+              if(_params.alpha.length > 1) {
+                glmOutput._alpha_models = new Key[_params.alpha.length-1];
+                for(int i = 1; i < _params.alpha.length; ++i)
+                  glmOutput._alpha_models[i-1] = GLMPathTask.alphaModelKey(_dstKey, i);
+              }
               GLMModel model = new GLMModel(_dstKey, _dinfo, _params, glmOutput,gYmu,gLmax.lmax(),nobs);
               if(warning != null)
                 model.addWarning(warning);
               model.delete_and_lock(_jobKey);
               final double lmax = gLmax.lmax();
+              if(path) {
+                getCompleter().addToPendingCount(1);
+                new GLMPathTask((H2OCountedCompleter)getCompleter(), _jobKey, _progressKey, _dstKey, _dinfo, _params, _solver, gLmax, lambdas).fork();
+                return;
+              }
               _state[0] = new GLMTaskInfo(_dstKey,_dinfo,_params,gLmax._nobs,gLmax._ymu,lmax,lmax,null,gLmax.gradient(_params.alpha[0],lmax),objval(gLmax,_params.alpha[0],gLmax.lmax()));
               getCompleter().addToPendingCount(1);
               if(_params.n_folds > 1){
@@ -734,6 +772,262 @@ public class GLM extends ModelBuilder<GLMModel,GLMModel.GLMParameters,GLMModel.G
       }
     }
   }
+  // Coefficients on the original scale of standardized data, or null if not standardized
+  private static double [] denormalize(DataInfo dinfo, double [] beta){
+    if(dinfo._predictor_transform != FrameTask.DataInfo.TransformType.STANDARDIZE)
+      return null;
+    final double [] res = beta.clone();
+    double norm = 0.0;        // Reverse any normalization on the intercept
+    // denormalize only the numeric coefs (categoricals are not normalized)
+    final int numoff = dinfo.numStart();
+    for( int i=numoff; i< beta.length-1; i++ ) {
+      double b = res[i]* dinfo._normMul[i-numoff];
+      norm += b* dinfo._normSub[i-numoff]; // Also accumulate the intercept adjustment
+      res[i] = b;
+    }
+    res[res.length-1] -= norm;
+    return res;
+  }
+
+  /**
+   * Fits several points of the regularization path together, for every alpha,
+   * sharing each pass over the data between them.
+   *
+   * A pass runs one GLMIterationTask per candidate (alpha, lambda), bundled in
+   * a GLMMultiTask, so a single scan yields every candidate's Gram and X'z at
+   * its current beta.  For gaussian the Gram and X'y do not depend on beta, so
+   * one pass serves the whole path and every candidate is solved in memory.
+   * Other families fit the next path_block lambdas of every alpha together,
+   * all warm-started from that alpha's last solution, iterating until each
+   * candidate converges.  Validating finished candidates rides along with the
+   * next pass.  Strong rules are not applied; all predictors stay active.
+   *
+   * With the L_BFGS solver, every lambda is solved by L-BFGS (OWL-QN for the
+   * L1 part) on GLMGradientTask, warm-started from the previous lambda's
+   * solution.  Each pass evaluates all the steps of a line search together.
+   */
+  public static final class GLMPathTask extends H2OCountedCompleter<GLMPathTask> {
+    final Key _jobKey;
+    final Key _progressKey;
+    final DataInfo _dinfo;
+    final GLMParameters _params;
+    final Solver _solver;
+    final double _ymu;
+    final long _nobs;
+    final LMAXTask _lmax;
+    final Key [] _models;        // model per alpha
+    final double [][] _lambdas;  // lambdas per alpha, starting with its lambda max
+    long _start_time;
+    int _passes;                 // passes over the data so far
+
+    private static final class Candidate {
+      final int _alpha;          // index into alpha
+      final double _lambda;
+      double [] _beta;
+      int _iter;
+      double _addedL2;
+      Candidate(int alpha, double lambda, double [] beta){
+        _alpha = alpha;
+        _lambda = lambda;
+        _beta = beta;
+      }
+    }
+
+    static Key alphaModelKey(Key dstKey, int alpha){ return Key.make(dstKey.toString() + "_alpha_" + alpha); }
+
+    GLMPathTask(H2OCountedCompleter cmp, Key jobKey, Key progressKey, Key dstKey, DataInfo dinfo, GLMParameters params, Solver solver, LMAXTask lmax, double [] lambdas){
+      super(cmp);
+      _jobKey = jobKey;
+      _progressKey = progressKey;
+      _dinfo = dinfo;
+      _params = params;
+      _solver = solver;
+      _ymu = lmax._ymu;
+      _nobs = lmax._nobs;
+      _lmax = lmax;
+      final int nalphas = params.alpha.length;
+      _models = new Key[nalphas];
+      _lambdas = new double[nalphas][];
+      _models[0] = dstKey;
+      _lambdas[0] = lambdas;
+      for(int a = 1; a < nalphas; ++a){ // lambda max scales with 1/alpha, see LMAXTask
+        _models[a] = alphaModelKey(dstKey, a);
+        _lambdas[a] = GLMDriver.lambdaPath(params, lmax.lmax() * Math.max(params.alpha[0], 1e-3) / Math.max(params.alpha[a], 1e-3));
+      }
+    }
+
+    private String LogInfo(String msg){
+      msg = "GLM2[dest=" + _models[0] + ", path, pass=" + _passes + "]: " + msg;
+      Log.info(msg);
+      return msg;
+    }
+
+    @Override protected void compute2() {
+      _start_time = System.currentTimeMillis();
+      for(int a = 1; a < _models.length; ++a) {
+        GLMParameters params = (GLMParameters)_params.clone();
+        params.alpha = new double[]{_params.alpha[a]};
+        GLMOutput glmOutput = new GLMOutput(_dinfo,_params.family == Family.binomial);
+        if(_lambdas[a].length > 1)
+          glmOutput.addNullSubmodel(_lambdas[a][0], _params.link(_ymu), _lmax._val);
+        new GLMModel(_models[a], _dinfo, params, glmOutput, _ymu, _lambdas[a][0], _nobs).delete_and_lock(_jobKey);
+      }
+      if(_solver == Solver.L_BFGS) {
+        lbfgs();
+      } else if(_params.family == Family.gaussian) {
+        // the Gram and X'y do not depend on beta, one pass serves all candidates
+        GLMIterationTask glmt = pass(new GLMIterationTask[]{new GLMIterationTask(_jobKey, null, _params, true, false, false, null, _ymu, 1.0/_nobs, ModelUtils.DEFAULT_THRESHOLDS, null)})[0];
+        ArrayList<Candidate> all = new ArrayList<Candidate>();
+        for(int a = 0; a < _models.length; ++a)
+          for(int k = 1; k < _lambdas[a].length; ++k) {
+            Candidate c = new Candidate(a, _lambdas[a][k], null);
+            c._beta = solve(c, glmt);
+            c._iter = 1;
+            all.add(c);
+          }
+        validate(all, null);
+      } else {
+        final int max_iter = _params.lambda_search?MAX_ITERATIONS_PER_LAMBDA:MAX_ITER;
+        final int [] next = new int[_models.length];  // next lambda per alpha
+        final double [][] warm = new double[_models.length][];
+        Arrays.fill(next, 1);
+        for(int a = 0; a < warm.length; ++a)
+          warm[a] = _params.nullModelBeta(_dinfo, _ymu);
+        ArrayList<Candidate> block = new ArrayList<Candidate>(), running = new ArrayList<Candidate>(), done = new ArrayList<Candidate>();
+        while(true) {
+          if(running.isEmpty()) { // the next block, warm-started from each alpha's last solution
+            for(Candidate c:block) warm[c._alpha] = c._beta;
+            block.clear();
+            for(int a = 0; a < _models.length; ++a)
+              for(int k = 0; k < _params.path_block && next[a] < _lambdas[a].length; ++k, ++next[a])
+                block.add(new Candidate(a, _lambdas[a][next[a]], warm[a].clone()));
+            running.addAll(block);
+          }
+          if(running.isEmpty() && done.isEmpty()) break;
+          // one IRLS step for every running candidate, and validation of the ones done before
+          GLMIterationTask [] glmts = new GLMIterationTask[running.size()];
+          for(int i = 0; i < glmts.length; ++i)
+            glmts[i] = new GLMIterationTask(_jobKey, null, _params, true, false, false, running.get(i)._beta, _ymu, 1.0/_nobs, ModelUtils.DEFAULT_THRESHOLDS, null);
+          glmts = validate(done, running.isEmpty()?null:glmts);
+          done = new ArrayList<Candidate>();
+          ArrayList<Candidate> stillRunning = new ArrayList<Candidate>();
+          for(int i = 0; i < running.size(); ++i) {
+            Candidate c = running.get(i);
+            double [] beta = solve(c, glmts[i]);
+            ++c._iter;
+            final double bdiff = beta_diff(c._beta, beta);
+            c._beta = beta;
+            if(bdiff < beta_epsilon || c._iter >= max_iter) done.add(c);
+            else stillRunning.add(c);
+          }
+          running = stillRunning;
+        }
+      }
+      LogInfo("fitted " + _models.length + " alphas in " + _passes + " passes over the data");
+      for(int a = 1; a < _models.length; ++a)
+        new FinalizeAndUnlockTsk(null, _models[a], _jobKey).invokeTask();
+      tryComplete();
+    }
+
+    @Override public boolean onExceptionalCompletion(final Throwable ex, CountedCompleter cc){
+      for(int a = 1; a < _models.length; ++a)
+        new DTask.RemoveCall(null, _models[a]).invokeTask();
+      return true;
+    }
+
+    private void nextPass(){
+      if(_jobKey != null && !isRunning(_jobKey))  throw new JobCancelledException();
+      ++_passes;
+      new Job.ProgressUpdate(1).fork(_progressKey);
+    }
+
+    // One pass over the data, running all the given tasks
+    private GLMIterationTask [] pass(GLMIterationTask [] glmts){
+      nextPass();
+      GLMMultiTask mt = new GLMMultiTask(_jobKey, _dinfo, _params, glmts, null);
+      return ((GLMMultiTask)mt.doAll(_dinfo._adaptedFrame))._glmts;
+    }
+
+    // Validate the candidates and store them in their models, in the same pass as the other tasks
+    // (if any); returns the other tasks
+    private GLMIterationTask [] validate(ArrayList<Candidate> cands, GLMIterationTask [] others){
+      final int n = others == null?0:others.length;
+      if(cands.isEmpty())
+        return n == 0?others:pass(others);
+      GLMIterationTask [] glmts = new GLMIterationTask[n + cands.size()];
+      if(n > 0) System.arraycopy(others, 0, glmts, 0, n);
+      for(int i = 0; i < cands.size(); ++i)
+        glmts[n + i] = new GLMIterationTask(_jobKey, null, _params, false, true, false, cands.get(i)._beta, _ymu, 1.0/_nobs, ModelUtils.DEFAULT_THRESHOLDS, null);
+      glmts = pass(glmts);
+      for(int i = 0; i < cands.size(); ++i) {
+        final Candidate c = cands.get(i);
+        setSubmodel(c._alpha, c._lambda, c._beta, c._iter, glmts[n + i]._val);
+      }
+      return n == 0?null:Arrays.copyOf(glmts, n);
+    }
+
+    private void setSubmodel(int alpha, double lambda, double [] beta, int iter, GLMValidation val){
+      final double [] denorm = denormalize(_dinfo, beta);
+      GLMModel.setSubmodel(_models[alpha], lambda, denorm == null?beta:denorm, denorm == null?null:beta, iter, System.currentTimeMillis() - _start_time, _dinfo.fullN() >= sparseCoefThreshold, val);
+    }
+
+    // Objective (deviance/2 per observation plus the L2 penalty) and its gradient, for L-BFGS
+    private final class SparseGradientSolver extends GradientSolver {
+      final double _l2;
+      SparseGradientSolver(double l2){ _l2 = l2; }
+      @Override public GradientInfo [] getGradient(double [][] betas){
+        nextPass();
+        final GLMGradientTask t = new GLMGradientTask(_dinfo, _params, betas, _ymu, 1.0/_nobs, null).doAll(_dinfo._adaptedFrame);
+        final GradientInfo [] res = new GradientInfo[betas.length];
+        for(int k = 0; k < betas.length; ++k) {
+          final double [] beta = betas[k], grad = t._grad[k];
+          double obj = .5*t._val[k].residualDeviance()/_nobs;
+          for(int i = 0; i < beta.length-1; ++i) { // intercept is not penalized
+            obj += .5*_l2*beta[i]*beta[i];
+            grad[i] += _l2*beta[i];
+          }
+          res[k] = new GLMGradientInfo(obj, grad, t._val[k]);
+        }
+        return res;
+      }
+    }
+
+    private void lbfgs(){
+      final int n = _dinfo.fullN() + 1;
+      final L_BFGS_Params lbfgsParams = new L_BFGS_Params();
+      lbfgsParams._maxIter = L_BFGS_MAX_ITER;
+      lbfgsParams._gradEps = GLM_GRAD_EPS*GLM_GRAD_EPS;
+      for(int a = 0; a < _models.length; ++a) {
+        final double alpha = _params.alpha[a];
+        double [] beta = _params.nullModelBeta(_dinfo, _ymu);
+        for(int k = 1; k < _lambdas[a].length; ++k) {
+          final double lambda = _lambdas[a][k];
+          double [] l1pen = null;
+          if(alpha*lambda > 0) {
+            l1pen = MemoryManager.malloc8d(n);
+            Arrays.fill(l1pen, 0, n - 1, alpha*lambda);
+          }
+          final L_BFGS.Result r = L_BFGS.solve(new SparseGradientSolver((1-alpha)*lambda), lbfgsParams, new History(20, n), beta.clone(), l1pen);
+          beta = r.coefs;
+          if(ArrayUtils.hasNaNsOrInfs(beta))
+            throw new RuntimeException(LogInfo("got NaNs and/or Infs in beta at alpha = " + alpha + ", lambda = " + lambda));
+          setSubmodel(a, lambda, beta, r.iter, ((GLMGradientInfo)r.ginfo)._val);
+        }
+      }
+    }
+
+    private double [] solve(Candidate c, GLMIterationTask glmt){
+      final double alpha = _params.alpha[c._alpha];
+      final double [] beta = MemoryManager.malloc8d(glmt._xy.length);
+      ADMMSolver slvr = new ADMMSolver(c._lambda, alpha, GLM_GRAD_EPS, c._addedL2);
+      slvr.solve(glmt._gram, glmt._xy, glmt._yy, beta, c._lambda * alpha);
+      c._addedL2 = slvr._addedL2;
+      if(ArrayUtils.hasNaNsOrInfs(beta))
+        throw new RuntimeException(LogInfo("got NaNs and/or Infs in beta at alpha = " + alpha + ", lambda = " + c._lambda));
+      return beta;
+    }
+  }
+
   private static final double beta_diff(double[] b1, double[] b2) {
     if(b1 == null)return Double.MAX_VALUE;
     double res = b1[0] >= b2[0]?b1[0] - b2[0]:b2[0] - b1[0];
@@ -801,6 +1095,10 @@ public class GLM extends ModelBuilder<GLMModel,GLMModel.GLMParameters,GLMModel.G
       super(t._val.residualDeviance()/t._nobs, t.gradient(0,lambda));
       _val = t._val;
     }
+    public GLMGradientInfo(double objVal, double [] grad, GLMValidation val) {
+      super(objVal, grad);
+      _val = val;
+    }
   }
 
 
@@ -122,6 +122,47 @@ public class GLMModel extends Model<GLMModel,GLMParameters,GLMOutput> {
     return preds;
   }
 
+  // Same as score0(double[], float[]), but accumulates eta a column at a time
+  @Override
+  protected void score0(double[][] data, int n, float[][] preds) {
+    final double [] eta = new double[n];
+    final double [] b = beta();
+    for(int i = 0; i < _dinfo._catOffsets.length-1; ++i) {
+      final double [] col = data[i];
+      final int off = _dinfo._catOffsets[i];
+      if(!_parms.useAllFactorLvls){ // skip level 0 of all factors
+        for(int r = 0; r < n; ++r) if(col[r] != 0)
+          eta[r] += b[off + (int)(col[r]-1)];
+      } else { // do not skip any levels!
+        for(int r = 0; r < n; ++r)
+          eta[r] += b[off + (int)col[r]];
+      }
+    }
+    final int noff = _dinfo.numStart() - _dinfo._cats;
+    for(int i = _dinfo._cats; i < data.length; ++i) {
+      final double [] col = data[i];
+      final double bi = b[noff+i];
+      for(int r = 0; r < n; ++r)
+        eta[r] += bi*col[r];
+    }
+    final double icpt = b[b.length-1];
+    for(int r = 0; r < n; ++r) {
+      double mu = _parms.linkInv(eta[r] + icpt); // add intercept
+      preds[0][r] = (float)mu;
+      if( _parms.family == Family.binomial ) { // threshold for prediction
+        if(Double.isNaN(mu)){
+          preds[0][r] = Float.NaN;
+          preds[1][r] = Float.NaN;
+          preds[2][r] = Float.NaN;
+        } else {
+          preds[0][r] = (mu >= _output._threshold ? 1 : 0);
+          preds[1][r] = 1.0f - (float)mu; // class 0
+          preds[2][r] =        (float)mu; // class 1
+        }
+      }
+    }
+  }
+
   public static class GLMParameters extends Model.Parameters<GLMModel,GLMParameters,GLMOutput> {
     public int _response;
     public int [] _ignored_cols;
@@ -139,6 +180,12 @@ public class GLMModel extends Model<GLMModel,GLMParameters,GLMOutput> {
     public boolean higher_accuracy = false;
     public boolean useAllFactorLvls = false;
     public int n_folds;
+    // Fit this many lambdas of the path (per alpha) together, sharing each pass over the data; see GLM.GLMPathTask.
+    // Several alphas are always fitted together, and the model for alpha[i], i > 0, goes to key <destination>_alpha_<i>.
+    public int path_block = 1;
+    // IRLSM forms the Gram of all active predictors; L_BFGS only iterates over the non-zeros (see GLMTask.GLMGradientTask).
+    // AUTO picks L_BFGS for many, sparse predictors (see GLM.autoSolver).
+    public Solver solver = Solver.AUTO;
     // internal parameter, handle with care. GLM will stop when there is more than this number of active predictors (after strong rule screening)
     public int maxActivePredictors = 10000;
 
@@ -361,6 +408,7 @@ public class GLMModel extends Model<GLMModel,GLMParameters,GLMOutput> {
       Family(Link link){defaultLink = link;}
     }
     public static enum Link {family_default, identity, logit, log,inverse,tweedie;}
+    public static enum Solver {AUTO, IRLSM, L_BFGS;}
 
     // helper function
     static final double y_log_y(double y, double mu) {
@@ -414,30 +462,44 @@ public class GLMModel extends Model<GLMModel,GLMParameters,GLMOutput> {
     final Submodel sm = new Submodel(lambda,beta, norm_beta, runtime, iteration,sparseCoef);
     sm.validation = val;
     cmp.addToPendingCount(1);
-    new TAtomic<GLMModel>(cmp){
-      @Override
-      public GLMModel atomic(GLMModel old) {
-        if(old == null)return old; // job could've been cancelled!
-        if(old._output._submodels == null){
-          old._output._submodels = new Submodel[]{sm};
-        } else {
-          int id = old._output.submodelIdForLambda(lambda);
-          if (id < 0) {
-            id = -id - 1;
-            old._output._submodels = Arrays.copyOf(old._output._submodels, old._output._submodels.length + 1);
-            for (int i = old._output._submodels.length - 1; i > id; --i)
-              old._output._submodels[i] = old._output._submodels[i - 1];
-          } else if (old._output._submodels[id].iteration > sm.iteration)
-            return old;
-          else
-            old._output._submodels = old._output._submodels.clone();
-          old._output._submodels[id] = sm;
-          old._run_time = Math.max(old._run_time,sm.run_time);
-        }
-        old._output.pickBestModel(false);
-        return old;
+    new SetSubmodel(cmp,lambda,sm).fork(modelKey);
+  }
+  /** Blocking version of the above. */
+  public static void setSubmodel(Key modelKey, final double lambda, double[] beta, double[] norm_beta, final int iteration, long runtime, boolean sparseCoef, final GLMValidation val){
+    final Submodel sm = new Submodel(lambda,beta, norm_beta, runtime, iteration,sparseCoef);
+    sm.validation = val;
+    new SetSubmodel(null,lambda,sm).invoke(modelKey);
+  }
+  private static class SetSubmodel extends TAtomic<GLMModel> {
+    final double lambda;
+    final Submodel sm;
+    SetSubmodel(H2O.H2OCountedCompleter cmp, double lambda, Submodel sm){
+      super(cmp);
+      this.lambda = lambda;
+      this.sm = sm;
+    }
+    @Override
+    public GLMModel atomic(GLMModel old) {
+      if(old == null)return old; // job could've been cancelled!
+      if(old._output._submodels == null){
+        old._output._submodels = new Submodel[]{sm};
+      } else {
+        int id = old._output.submodelIdForLambda(lambda);
+        if (id < 0) {
+          id = -id - 1;
+          old._output._submodels = Arrays.copyOf(old._output._submodels, old._output._submodels.length + 1);
+          for (int i = old._output._submodels.length - 1; i > id; --i)
+            old._output._submodels[i] = old._output._submodels[i - 1];
+        } else if (old._output._submodels[id].iteration > sm.iteration)
+          return old;
+        else
+          old._output._submodels = old._output._submodels.clone();
+        old._output._submodels[id] = sm;
+        old._run_time = Math.max(old._run_time,sm.run_time);
       }
-    }.fork(modelKey);
+      old._output.pickBestModel(false);
+      return old;
+    }
   }
 
   public int rank(double lambda){return -1;}
@@ -454,6 +516,7 @@ public class GLMModel extends Model<GLMModel,GLMParameters,GLMOutput> {
     double   [] _global_beta;
     final String   [] _coefficient_names;
     final boolean _binomial;
+    Key [] _alpha_models; // models for alpha[1..], if fitting several alphas
     public int rank() {return rank(_submodels[_best_lambda_idx].lambda_value);}
 
     public GLMOutput(DataInfo dinfo, boolean binomial){
@@ -1,6 +1,7 @@
 package hex.glm;
 
 import hex.FrameTask;
+import hex.FrameTask.DataInfo;
 
 
 import java.util.ArrayList;
@@ -66,19 +67,26 @@ public abstract class GLMTask<T extends GLMTask<T>> extends FrameTask<T> {
       Arrays.fill(_ymax,Double.NEGATIVE_INFINITY);
       Arrays.fill(_ymin,Double.POSITIVE_INFINITY);
     }
-    @Override protected void processRow(long gid, double[] nums, int ncats, int[] cats, double [] responses) {
-      double response = responses[0];
-      _ymu[0] += response;
-      ++_nobs[0];
-      if(response < _ymin[0])_ymin[0] = response;
-      if(response > _ymax[0])_ymax[0] = response;
+    @Override protected int batchSize(){ return 1024; }
+    @Override protected void processBatch(Batch b) {
+      final double [] ys = b._responses[0];
+      for(int r = 0; r < b._n; ++r) {
+        final double response = ys[r];
+        _ymu[0] += response;
+        if(response < _ymin[0])_ymin[0] = response;
+        if(response > _ymax[0])_ymax[0] = response;
+      }
+      _nobs[0] += b._n;
       for(int i = 1; i < _nfolds+1; ++i) {
-        if(gid % _nfolds == (i-1))
-          continue;
-        _ymu[i] += response;
-        ++_nobs[i];
-        if(response < _ymin[0])_ymin[i] = response;
-        if(response > _ymax[i])_ymax[i] = response;
+        for(int r = 0; r < b._n; ++r) {
+          if(b._gids[r] % _nfolds == (i-1))
+            continue;
+          final double response = ys[r];
+          _ymu[i] += response;
+          ++_nobs[i];
+          if(response < _ymin[0])_ymin[i] = response;
+          if(response > _ymax[i])_ymax[i] = response;
+        }
       }
     }
     @Override public void reduce(YMUTask t){
@@ -153,34 +161,14 @@ public abstract class GLMTask<T extends GLMTask<T>> extends FrameTask<T> {
   }
 
 
-  public static class GLMLineSearchTask extends GLMTask<GLMLineSearchTask> {
-    public GLMLineSearchTask(Key jobKey, DataInfo dinfo, GLMModel.GLMParameters glm, double[] oldBeta, double[] newBeta, double betaEps, double ymu, long nobs, H2OCountedCompleter cmp) {
-      super(jobKey, dinfo, glm, cmp);
-      ArrayList<double[]> betas = new ArrayList<double[]>();
-      double diff = 1;
-      while(diff > betaEps && betas.size() < 100){
-        diff = 0;
-        for(int i = 0; i < newBeta.length; ++i) {
-          newBeta[i] = 0.5*(oldBeta == null?newBeta[i]:(oldBeta[i] + newBeta[i]));
-          double d = newBeta[i] - (oldBeta == null?0:oldBeta[i]);
-          if(d > diff) diff = d;
-          else if(d < -diff) diff = -d;
-        }
-        betas.add(newBeta.clone());
-      }
-      // public GLMIterationTask(Key jobKey, DataInfo dinfo, GLMParams glm, boolean computeGram, boolean validate, boolean computeGradient, double [] beta, double ymu, double reg, float [] thresholds, H2OCountedCompleter cmp) {
-      _glmts = new GLMIterationTask[betas.size()];
-      for(int i = 0; i < _glmts.length; ++i)
-        _glmts[i] = new GLMIterationTask(jobKey,null,glm,false,true,true,betas.get(i),ymu,1.0/nobs,new float[]{0} /* don't really want CMs!*/,null);
-    }
-
-    public GLMLineSearchTask(Key jobKey, DataInfo dinfo, GLMModel.GLMParameters glm, double [][] betas, double ymu, long nobs, H2OCountedCompleter cmp) {
+  /**
+   * Runs several GLMIterationTasks (e.g. for different betas) in a single pass over the data.
+   */
+  public static class GLMMultiTask<T extends GLMMultiTask<T>> extends GLMTask<T> {
+    GLMIterationTask [] _glmts;
+    public GLMMultiTask(Key jobKey, DataInfo dinfo, GLMModel.GLMParameters glm, GLMIterationTask [] glmts, H2OCountedCompleter cmp) {
       super(jobKey, dinfo, glm, cmp);
-
-      // public GLMIterationTask(Key jobKey, DataInfo dinfo, GLMParams glm, boolean computeGram, boolean validate, boolean computeGradient, double [] beta, double ymu, double reg, float [] thresholds, H2OCountedCompleter cmp) {
-      _glmts = new GLMIterationTask[betas.length];
-      for(int i = 0; i < _glmts.length; ++i)
-        _glmts[i] = new GLMIterationTask(jobKey,null,glm,false,true,true,betas[i],ymu,1.0/nobs,new float[]{0} /* don't really want CMs!*/,null);
+      _glmts = glmts;
     }
 
     @Override public void setupLocal(){
@@ -193,7 +181,6 @@ public abstract class GLMTask<T extends GLMTask<T>> extends FrameTask<T> {
       for(GLMIterationTask glmt:_glmts)
         glmt._dinfo = null;
     }
-    GLMIterationTask [] _glmts;
     @Override public void chunkInit(){
       _glmts = _glmts.clone();
       for(int i = 0; i < _glmts.length; ++i)
@@ -212,12 +199,47 @@ public abstract class GLMTask<T extends GLMTask<T>> extends FrameTask<T> {
         _glmts[i].processRow(gid,nums,ncats,cats,responses);
     }
     @Override
-    public void reduce(GLMLineSearchTask git){
+    public void reduce(T git){
       for(int i = 0; i < _glmts.length; ++i)
         _glmts[i].reduce(git._glmts[i]);
     }
   }
 
+  public static class GLMLineSearchTask extends GLMMultiTask<GLMLineSearchTask> {
+    public GLMLineSearchTask(Key jobKey, DataInfo dinfo, GLMModel.GLMParameters glm, double[] oldBeta, double[] newBeta, double betaEps, double ymu, long nobs, H2OCountedCompleter cmp) {
+      super(jobKey, dinfo, glm, lineSearchTasks(jobKey, glm, oldBeta, newBeta, betaEps, ymu, nobs), cmp);
+    }
+
+    public GLMLineSearchTask(Key jobKey, DataInfo dinfo, GLMModel.GLMParameters glm, double [][] betas, double ymu, long nobs, H2OCountedCompleter cmp) {
+      super(jobKey, dinfo, glm, validationTasks(jobKey, glm, betas, ymu, nobs), cmp);
+    }
+
+    // Betas halfway from oldBeta to newBeta, halving the step until it is below betaEps
+    private static GLMIterationTask [] lineSearchTasks(Key jobKey, GLMModel.GLMParameters glm, double[] oldBeta, double[] newBeta, double betaEps, double ymu, long nobs) {
+      ArrayList<double[]> betas = new ArrayList<double[]>();
+      double diff = 1;
+      while(diff > betaEps && betas.size() < 100){
+        diff = 0;
+        for(int i = 0; i < newBeta.length; ++i) {
+          newBeta[i] = 0.5*(oldBeta == null?newBeta[i]:(oldBeta[i] + newBeta[i]));
+          double d = newBeta[i] - (oldBeta == null?0:oldBeta[i]);
+          if(d > diff) diff = d;
+          else if(d < -diff) diff = -d;
+        }
+        betas.add(newBeta.clone());
+      }
+      return validationTasks(jobKey, glm, betas.toArray(new double[betas.size()][]), ymu, nobs);
+    }
+
+    private static GLMIterationTask [] validationTasks(Key jobKey, GLMModel.GLMParameters glm, double [][] betas, double ymu, long nobs) {
+      // public GLMIterationTask(Key jobKey, DataInfo dinfo, GLMParams glm, boolean computeGram, boolean validate, boolean computeGradient, double [] beta, double ymu, double reg, float [] thresholds, H2OCountedCompleter cmp) {
+      GLMIterationTask [] glmts = new GLMIterationTask[betas.length];
+      for(int i = 0; i < glmts.length; ++i)
+        glmts[i] = new GLMIterationTask(jobKey,null,glm,false,true,true,betas[i],ymu,1.0/nobs,new float[]{0} /* don't really want CMs!*/,null);
+      return glmts;
+    }
+  }
+
   /**
    * One iteration of glm, computes weighted gram matrix and t(x)*y vector and t(y)*y scalar.
    *
@@ -226,6 +248,7 @@ public abstract class GLMTask<T extends GLMTask<T>> extends FrameTask<T> {
   public static class GLMIterationTask extends GLMTask<GLMIterationTask> {
     final double [] _beta;
     protected Gram  _gram;
+    transient Gram.RowBlock _blk; // numerics buffered for a blocked Gram update
     double [] _xy;
     protected double [] _grad;
     double    _yy;
@@ -240,6 +263,8 @@ public abstract class GLMTask<T extends GLMTask<T>> extends FrameTask<T> {
     final boolean _computeGradient;
     final boolean _computeGram;
     public static final int N_THRESHOLDS = 50;
+    // Fewer numerics than this fit in cache anyway; add rows one at a time
+    static final int MIN_BLOCKED_NUMS = 16;
 
     public GLMIterationTask(Key jobKey, DataInfo dinfo, GLMModel.GLMParameters glm, boolean computeGram, boolean validate, boolean computeGradient, double [] beta, double ymu, double reg, float [] thresholds, H2OCountedCompleter cmp) {
       super(jobKey, dinfo,glm,cmp);
@@ -314,12 +339,15 @@ public abstract class GLMTask<T extends GLMTask<T>> extends FrameTask<T> {
         }
         if(_computeGradient)_grad[numStart + _dinfo._nums] += grad;
         _xy[numStart + _dinfo._nums] += wz;
-        if(_computeGram)_gram.addRow(nums, ncats, cats, w);
+        if(_computeGram)_gram.addRow(nums, ncats, cats, w, _blk);
       }
 
     }
     @Override protected void chunkInit(){
-      if(_computeGram)_gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo._nums, _dinfo._cats,true);
+      if(_computeGram){
+        _gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo._nums, _dinfo._cats,true);
+        if(_dinfo._nums >= MIN_BLOCKED_NUMS) _blk = new Gram.RowBlock(_dinfo._nums);
+      }
       _xy = MemoryManager.malloc8d(_dinfo.fullN()+1); // + 1 is for intercept
       int rank = 0;
       if(_beta != null)for(double d:_beta)if(d != 0)++rank;
@@ -339,8 +367,11 @@ public abstract class GLMTask<T extends GLMTask<T>> extends FrameTask<T> {
     }
 
     @Override protected void chunkDone(long n){
-      if(_computeGram)
+      if(_computeGram) {
+        if(_blk != null) _gram.flush(_blk);
+        _blk = null;
         _gram.mul(_reg);
+      }
       for(int i = 0; i < _xy.length; ++i)
         _xy[i] *= _reg;
       if(_grad != null)
@@ -399,6 +430,154 @@ public abstract class GLMTask<T extends GLMTask<T>> extends FrameTask<T> {
     }
   }
 
+  /**
+   * Gradient and validation of the likelihood at one or more betas (e.g. the steps of a line search), for the L-BFGS solver.
+   *
+   * Works on the chunks directly instead of the expanded rows: categoricals contribute their level, and numerics
+   * only their non-zeros (Chunk.nextNZ), so the cost is proportional to the number of non-zeros and no Gram is ever formed.
+   * Standardization is applied implicitly, x_std = (x - sub)*mul is never materialized: the -sub*mul part goes into the
+   * intercept of eta, and into the gradient via the sum of the row gradients.
+   * Rows with missing values are skipped.
+   */
+  public static class GLMGradientTask extends MRTask<GLMGradientTask> {
+    final Key _dinfoKey;
+    transient DataInfo _dinfo;
+    final GLMParameters _glm;
+    final double [][] _betas;
+    final double _ymu;
+    final double _reg;
+    double [][] _grad;       // gradient of deviance/2, scaled by reg
+    double [] _gsum;         // sum of the row gradients, to standardize the numeric part of _grad
+    GLMValidation [] _val;
+
+    public GLMGradientTask(DataInfo dinfo, GLMParameters glm, double [][] betas, double ymu, double reg, H2OCountedCompleter cmp){
+      super(cmp);
+      _dinfoKey = dinfo._key;
+      _glm = glm;
+      _betas = betas;
+      _ymu = ymu;
+      _reg = reg;
+    }
+
+    @Override protected void setupLocal(){ _dinfo = DKV.get(_dinfoKey).get(); }
+
+    // Offset of the level of categorical i in beta, or -1 if it has none (the skipped first level)
+    private int catIdx(int i, int lvl){
+      if(_dinfo._useAllFactorLevels) return _dinfo._catOffsets[i] + lvl;
+      return lvl == 0?-1:_dinfo._catOffsets[i] + lvl - 1;
+    }
+
+    @Override public void map(Chunk [] chks){
+      final DataInfo dinfo = _dinfo;
+      final int n = chks[0]._len, ncats = dinfo._cats, nnums = dinfo._nums, numStart = dinfo.numStart();
+      final Chunk resp = chks[chks.length-1];
+      final double [] mul = dinfo._normMul, sub = dinfo._normSub;
+      // rows with missing values
+      final boolean [] skip = new boolean[n];
+      for(int r = 0; r < n; ++r)
+        skip[r] = resp.isNA0(r);
+      for(int i = 0; i < ncats; ++i)
+        for(int r = 0; r < n; ++r)
+          skip[r] |= chks[i].isNA0(r);
+      for(int i = 0; i < nnums; ++i) {
+        final Chunk c = chks[ncats + i];
+        for(int r = c.nextNZ(-1); r < n; r = c.nextNZ(r))
+          skip[r] |= c.isNA0(r);
+      }
+      _grad = new double[_betas.length][];
+      _gsum = new double[_betas.length];
+      _val = new GLMValidation[_betas.length];
+      final double [] eta = MemoryManager.malloc8d(n);
+      for(int k = 0; k < _betas.length; ++k) {
+        final double [] beta = _betas[k];
+        final double [] grad = _grad[k] = MemoryManager.malloc8d(beta.length);
+        int rank = 0;
+        for(double d:beta) if(d != 0) ++rank;
+        final GLMValidation val = _val[k] = new GLMValidation(null, _ymu, _glm, rank);
+        // eta
+        double eta0 = beta[beta.length-1];
+        if(sub != null)
+          for(int i = 0; i < nnums; ++i)
+            eta0 -= beta[numStart + i]*mul[i]*sub[i];
+        Arrays.fill(eta, eta0);
+        for(int i = 0; i < ncats; ++i)
+          for(int r = 0; r < n; ++r) {
+            if(skip[r]) continue;
+            final int idx = catIdx(i, (int)chks[i].at80(r));
+            if(idx >= 0) eta[r] += beta[idx];
+          }
+        for(int i = 0; i < nnums; ++i) {
+          final double b = mul == null?beta[numStart + i]:beta[numStart + i]*mul[i];
+          if(b == 0) continue;
+          final Chunk c = chks[ncats + i];
+          for(int r = c.nextNZ(-1); r < n; r = c.nextNZ(r))
+            if(!skip[r]) eta[r] += b*c.at0(r);
+        }
+        // row gradients, eta is overwritten with them
+        double gsum = 0;
+        for(int r = 0; r < n; ++r) {
+          if(skip[r]) continue;
+          final double y = resp.at0(r);
+          final double mu, g; // same as GLMIterationTask: w*d*(mu-y)
+          if(_glm.family == Family.gaussian) {
+            mu = eta[r];
+            g = mu - y;
+          } else {
+            mu = _glm.linkInv(eta[r]);
+            g = (mu - y)/(Math.max(1e-5, _glm.variance(mu))*_glm.linkDeriv(mu));
+          }
+          val.add(y, mu);
+          eta[r] = g;
+          gsum += g;
+        }
+        for(int i = 0; i < ncats; ++i)
+          for(int r = 0; r < n; ++r) {
+            if(skip[r]) continue;
+            final int idx = catIdx(i, (int)chks[i].at80(r));
+            if(idx >= 0) grad[idx] += eta[r];
+          }
+        for(int i = 0; i < nnums; ++i) {
+          final Chunk c = chks[ncats + i];
+          double s = 0;
+          for(int r = c.nextNZ(-1); r < n; r = c.nextNZ(r))
+            if(!skip[r]) s += eta[r]*c.at0(r);
+          grad[numStart + i] = s;
+        }
+        grad[grad.length-1] = gsum;
+        _gsum[k] = gsum;
+      }
+    }
+
+    @Override public void reduce(GLMGradientTask t){
+      if(t._grad == null) return;
+      if(_grad == null) {
+        _grad = t._grad;
+        _gsum = t._gsum;
+        _val = t._val;
+        return;
+      }
+      for(int k = 0; k < _grad.length; ++k) {
+        ArrayUtils.add(_grad[k], t._grad[k]);
+        _val[k].add(t._val[k]);
+      }
+      ArrayUtils.add(_gsum, t._gsum);
+    }
+
+    @Override protected void postGlobal(){
+      final int numStart = _dinfo.numStart();
+      for(int k = 0; k < _grad.length; ++k) {
+        final double [] grad = _grad[k];
+        if(_dinfo._normMul != null)
+          for(int i = 0; i < _dinfo._nums; ++i)
+            grad[numStart + i] = (grad[numStart + i] - _dinfo._normSub[i]*_gsum[k])*_dinfo._normMul[i];
+        for(int i = 0; i < grad.length; ++i)
+          grad[i] *= _reg;
+        _val[k].computeAIC();
+        _val[k].computeAUC();
+      }
+    }
+  }
+
   public static class GLMValidationTask<T extends GLMValidationTask<T>> extends MRTask<T> {
     protected final GLMModel _model;
     protected GLMValidation _res;
@@ -674,6 +674,37 @@ public final class Gram extends Iced<Gram> {
   }
 
   public final void addRow(final double[] x, final int catN, final int [] catIndexes, final double w) {
+    addRowDense(x, w);
+    addRowSparse(x, catN, catIndexes, w);
+  }
+
+  /**
+   * Same as {@link #addRow(double[], int, int[], double)}, except the
+   * numeric-by-numeric part is only buffered in the block, and gets added
+   * for the whole block at once by {@link #flush(RowBlock)}.  Call flush
+   * before using the Gram.
+   */
+  public final void addRow(final double[] x, final int catN, final int [] catIndexes, final double w, RowBlock blk) {
+    if(blk == null || Double.isNaN(w) || Double.isInfinite(w)) addRowDense(x, w);
+    else if(blk.add(x, w)) flush(blk);
+    addRowSparse(x, catN, catIndexes, w);
+  }
+
+  // nums X nums, lower triangle
+  private void addRowDense(final double[] x, final double w) {
+    final int intercept = _hasIntercept?1:0;
+    final int denseRowStart = _fullN - _denseN - _diagN - intercept; // we keep dense numbers at the right bottom of the matrix, -1 is for intercept
+    final int denseColStart = _fullN - _denseN - intercept;
+    for(int i = 0; i < _denseN; ++i) if(x[i] != 0) {
+      final double [] mrow = _xx[i+denseRowStart];
+      final double d = w*x[i];
+      for(int j = 0; j <= i; ++j)if(x[j] != 0)
+        mrow[j+denseColStart] += d*x[j];
+    }
+  }
+
+  // Everything but nums X nums: intercept, cats, and nums X cats
+  private void addRowSparse(final double[] x, final int catN, final int [] catIndexes, final double w) {
     final int intercept = _hasIntercept?1:0;
     final int denseRowStart = _fullN - _denseN - _diagN - intercept; // we keep dense numbers at the right bottom of the matrix, -1 is for intercept
     final int denseColStart = _fullN - _denseN - intercept;
@@ -684,8 +715,6 @@ public final class Gram extends Iced<Gram> {
     for(int i = 0; i < _denseN; ++i) if(x[i] != 0) {
       final double [] mrow = _xx[i+denseRowStart];
       final double d = w*x[i];
-      for(int j = 0; j <= i; ++j)if(x[j] != 0)
-        mrow[j+denseColStart] += d*x[j];
       if(_hasIntercept)
         interceptRow[i+denseColStart] += d; // intercept*x[i]
       // nums * cats
@@ -710,6 +739,98 @@ public final class Gram extends Iced<Gram> {
     if(hasDiag && catN > 0)
       _diag[catIndexes[0]] += w;
   }
+
+  /**
+   * Tile of rows buffered for a blocked update of the numeric-by-numeric part
+   * of the Gram.  Adding rows one at a time touches the whole lower triangle
+   * of the dense block once per row, which is bound by cache misses once
+   * there are a few hundred numeric columns.  A full tile is added as a
+   * symmetric rank-k update instead, over cache-sized column tiles.
+   */
+  public static final class RowBlock {
+    public static final int ROWS = 128; // Rows per tile
+    static final int COLS = 64;         // Columns per cache tile in flush
+    final double [][] _xt;              // Buffered numerics, column-major
+    final double [][] _wxt;             // Same, times the row weight
+    final int [] _nzs;                  // Scratch: non-zero columns of a row
+    int _n;                             // Rows buffered
+    long _nnz;                          // Non-zero values buffered
+    public RowBlock(int denseN){
+      _xt = new double[denseN][];
+      _wxt = new double[denseN][];
+      for(int i = 0; i < denseN; ++i){
+        _xt[i] = MemoryManager.malloc8d(ROWS);
+        _wxt[i] = MemoryManager.malloc8d(ROWS);
+      }
+      _nzs = MemoryManager.malloc4(denseN);
+    }
+    // Buffer a row; true if the tile is now full
+    boolean add(double [] x, double w){
+      final int r = _n++;
+      for(int i = 0; i < _xt.length; ++i){
+        final double d = x[i];
+        if(d != 0) ++_nnz;
+        _xt[i][r] = d;
+        _wxt[i][r] = w*d;
+      }
+      return _n == ROWS;
+    }
+  }
+
+  /** Add the rows buffered in {@code blk} to the Gram and empty it. */
+  public final void flush(RowBlock blk){
+    final int n = blk._n;
+    if(n == 0) return;
+    final int intercept = _hasIntercept?1:0;
+    final int denseRowStart = _fullN - _denseN - _diagN - intercept;
+    final int denseColStart = _fullN - _denseN - intercept;
+    final double [][] xt = blk._xt, wxt = blk._wxt;
+    if(2*blk._nnz < (long)n*_denseN) {
+      // Mostly zeros: pairs of non-zeros only, row by row
+      final int [] nzs = blk._nzs;
+      for(int r = 0; r < n; ++r){
+        int nnz = 0;
+        for(int i = 0; i < _denseN; ++i)
+          if(xt[i][r] != 0) nzs[nnz++] = i;
+        for(int a = 0; a < nnz; ++a){
+          final double [] mrow = _xx[nzs[a]+denseRowStart];
+          final double d = wxt[nzs[a]][r];
+          for(int b = 0; b <= a; ++b)
+            mrow[nzs[b]+denseColStart] += d*xt[nzs[b]][r];
+        }
+      }
+    } else {
+      // Dense: rank-n update, one tile of columns at a time so their
+      // buffered values stay in cache while all the rows below sweep by
+      for(int jj = 0; jj < _denseN; jj += RowBlock.COLS){
+        final int jend = Math.min(jj + RowBlock.COLS, _denseN);
+        for(int i = jj; i < _denseN; ++i){
+          final double [] mrow = _xx[i+denseRowStart];
+          final double [] wx = wxt[i];
+          final int je = Math.min(i+1, jend);
+          for(int j = jj; j < je; ++j)
+            mrow[j+denseColStart] += dot(wx, xt[j], n);
+        }
+      }
+    }
+    blk._n = 0;
+    blk._nnz = 0;
+  }
+
+  // Dot product of the first n elements; 4 partial sums to hide FP latency
+  private static double dot(final double [] x, final double [] y, final int n){
+    double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+    int r = 0;
+    for(; r + 3 < n; r += 4){
+      s0 += x[r  ]*y[r  ];
+      s1 += x[r+1]*y[r+1];
+      s2 += x[r+2]*y[r+2];
+      s3 += x[r+3]*y[r+3];
+    }
+    for(; r < n; ++r) s0 += x[r]*y[r];
+    return (s0+s1)+(s2+s3);
+  }
+
   public void mul(double x){
     if(_diag != null)for(int i = 0; i < _diag.length; ++i)
       _diag[i] *= x;
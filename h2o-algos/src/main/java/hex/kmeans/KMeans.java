@@ -13,6 +13,7 @@ import water.util.Log;
 import water.util.RandomUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -25,6 +26,15 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
     None, PlusPlus, Furthest
   }
 
+  /** Lloyd: full passes over all rows, computing the distance from each row
+   *  to every cluster.  Hamerly: the same result, but skips the search over
+   *  all clusters for rows whose bounds prove their cluster did not change.
+   *  MiniBatch: each iteration visits a random sample of the chunks, and moves
+   *  the centers towards their sampled rows with a decreasing learning rate. */
+  public enum Algorithm {
+    Lloyd, Hamerly, MiniBatch
+  }
+
   // Number of categorical columns
   private int _ncats;
 
@@ -50,6 +60,7 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
     @Override protected void compute2() {
       Frame fr = null;
       KMeansModel model = null;
+      Vec[] nearest = null, bounds = null;
       try {
         // Fetch & read-lock source frame
         fr = _parms._training_frame.get();
@@ -99,12 +110,21 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
           // Initialize first cluster to random row
           randomRow(vecs, rand, clusters[0], means, mults);
 
+          // Each row's square distance to, and index of, its nearest
+          // candidate so far; each round only measures the new candidates
+          nearest = vecs[0].makeZeros(2);
+          Vec[] sampling = Arrays.copyOf(vecs, N+2);
+          sampling[N] = nearest[0];
+          sampling[N+1] = nearest[1];
+          int from = 0;               // First candidate new to the rows
+
           while( model._output._iters < 5 ) {
             // Sum squares distances to clusters
-            SumSqr sqr = new SumSqr(clusters,means,mults,_ncats).doAll(vecs);
+            SumSqr sqr = new SumSqr(clusters,means,mults,_ncats,from).doAll(sampling);
 
             // Sample with probability inverse to square distance
-            Sampler sampler = new Sampler(clusters, means, mults, _ncats, sqr._sqr, _parms._K * 3, _parms._seed).doAll(vecs);
+            Sampler sampler = new Sampler(means, mults, _ncats, sqr._sqr, _parms._K * 3, _parms._seed + model._output._iters).doAll(sampling);
+            from = clusters.length;
             clusters = ArrayUtils.append(clusters,sampler._sampled);
 
             // Fill in sample clusters into the model
@@ -119,25 +139,67 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
 
             model.update(_key); // Early version of model is visible
           }
-          // Recluster down to K normalized clusters
-          clusters = recluster(clusters, rand);
+          // Weigh each candidate by the rows nearest to it, and recluster
+          // down to K normalized clusters
+          long[] weights = new SumSqr(clusters,means,mults,_ncats,from).doAll(sampling)._rows;
+          for( Vec v : nearest ) v.remove();
+          nearest = null;
+          clusters = recluster(clusters, weights, rand);
         }
         model._output._iters = 0;     // Reset iteration count
 
+        final boolean hamerly = _parms._algorithm == Algorithm.Hamerly;
+        final boolean minibatch = _parms._algorithm == Algorithm.MiniBatch;
+        // Hamerly keeps each row's cluster and a lower bound on the distance
+        // to any other cluster in 2 extra columns, next to the features
+        Vec[] work = vecs;
+        if( hamerly ) {
+          bounds = vecs[0].makeZeros(2);
+          work = Arrays.copyOf(vecs, N+2);
+          work[N] = bounds[0];
+          work[N+1] = bounds[1];
+        }
+        double[][] prev = null;       // Hamerly: centers of the last pass
+        long[] seen = null;           // MiniBatch: rows seen so far per cluster
+        long[][][] cats = null;       // MiniBatch: histogram of cat levels seen so far
+
         // ---
         // Run the main KMeans Clustering loop
         // Stop after enough iterations
         LOOP:
         for( ; model._output._iters < _parms._max_iters; model._output._iters++ ) {
           if( !isRunning() ) return; // Stopped/cancelled
-          Lloyds task = new Lloyds(clusters,means,mults,_ncats, _parms._K).doAll(vecs);
-          // Pick the max categorical level for clusters' center
-          max_cats(task._cMeans,task._cats);
+          int[] batch = minibatch ? sampleChunks(vecs[0].nChunks(), rand) : null;
+          Lloyds task = new Lloyds(clusters,means,mults,_ncats, _parms._K, batch, hamerly, prev).doAll(work);
+          if( hamerly ) prev = ArrayUtils.deepClone(clusters);
+
+          if( minibatch ) {
+            // Move each center towards the mean of its rows in the batch, at a
+            // rate of its rows in the batch over all of its rows seen so far
+            if( seen == null ) seen = new long[_parms._K];
+            cats = cats == null ? task._cats : ArrayUtils.add(cats, task._cats);
+            for( int clu=0; clu<_parms._K; clu++ ) {
+              double[] center = task._cMeans[clu];
+              if( task._rows[clu] == 0 ) { // Not in this batch; stays put
+                System.arraycopy(clusters[clu],0,center,0,N);
+                continue;
+              }
+              seen[clu] += task._rows[clu];
+              double rate = (double)task._rows[clu] / seen[clu];
+              for( int col = ncats; col < N; col++ )
+                center[col] = clusters[clu][col] + rate * (center[col] - clusters[clu][col]);
+              for( int col = 0; col < ncats; col++ )
+                center[col] = ArrayUtils.maxIndex(cats[clu][col]);
+            }
+          } else
+            // Pick the max categorical level for clusters' center
+            max_cats(task._cMeans,task._cats);
 
           // Handle the case where some clusters go dry.  Rescue only 1 cluster
-          // per iteration ('cause we only tracked the 1 worst row)
+          // per iteration ('cause we only tracked the 1 worst row).  Clusters
+          // missing from a mini-batch are not dry.
           boolean badrow=false;
-          for( int clu=0; clu<_parms._K; clu++ ) {
+          for( int clu=0; clu<_parms._K && !minibatch; clu++ ) {
             if (task._rows[clu] == 0) {
               // If we see 2 or more bad rows, just re-run Lloyds to get the
               // next-worst row.  We don't count this as an iteration, because
@@ -162,15 +224,7 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
           }
 
           // Fill in the model; denormalized centers
-          model._output._clusters = denormalize(task._cMeans, ncats, means, mults);
-          model._output._rows = task._rows;
-          model._output._mses = task._cSqr;
-          double ssq = 0;       // sum squared error
-          for( int i=0; i<_parms._K; i++ ) {
-            ssq += model._output._mses[i]; // sum squared error all clusters
-            model._output._mses[i] /= task._rows[i]; // mse per-cluster
-          }
-          model._output._mse = ssq/fr.numRows(); // mse total
+          fill(model, task._cMeans, task, ncats, means, mults);
           model.update(_key); // Update model in K/V store
           update(1);          // One unit of work
 
@@ -190,57 +244,115 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
           Log.info(sb);
         }
 
+        // The mini-batches only saw some rows; fill in the final centers'
+        // rows and errors over the whole frame
+        if( minibatch && isRunning() ) {
+          Lloyds task = new Lloyds(clusters,means,mults,_ncats, _parms._K, null, false, null).doAll(vecs);
+          fill(model, clusters, task, ncats, means, mults);
+          model.update(_key);
+        }
+
       } catch( Throwable t ) {
         t.printStackTrace();
         cancel2(t);
         throw t;
       } finally {
+        if( nearest != null ) for( Vec v : nearest ) v.remove();
+        if( bounds != null ) for( Vec v : bounds ) v.remove();
         if( model != null ) model.unlock(_key);
         if( fr != null ) fr.unlock(_key);
         done();                 // Job done!
       }
       tryComplete();
     }
+
+    // Fill in the model from a Lloyds pass: denormalized centers, rows and errors
+    private void fill(KMeansModel model, double[][] centers, Lloyds task, int ncats, double[] means, double[] mults) {
+      model._output._clusters = denormalize(centers, ncats, means, mults);
+      model._output._rows = task._rows;
+      model._output._mses = task._cSqr;
+      double ssq = 0;       // sum squared error
+      for( int i=0; i<_parms._K; i++ ) {
+        ssq += model._output._mses[i]; // sum squared error all clusters
+        model._output._mses[i] /= task._rows[i]; // mse per-cluster
+      }
+      model._output._mse = ssq/ArrayUtils.sum(task._rows); // mse total, over the rows visited
+    }
+  }
+
+  // Pick a random sample of the chunks for a mini-batch; at least one
+  private int[] sampleChunks(int nchunks, Random rand) {
+    int n = Math.max(1, (int)Math.round(_parms._batch_fraction * nchunks));
+    int[] cidxs = new int[nchunks];
+    for( int i = 0; i < nchunks; i++ ) cidxs[i] = i;
+    for( int i = 0; i < n; i++ ) { // Partial Fisher-Yates shuffle
+      int j = i + rand.nextInt(nchunks - i);
+      int t = cidxs[i]; cidxs[i] = cidxs[j]; cidxs[j] = t;
+    }
+    int[] sample = Arrays.copyOf(cidxs, n);
+    Arrays.sort(sample);
+    return sample;
   }
 
   // -------------------------------------------------------------------------
-  // Initial sum-of-square-distance to nearest cluster
+  // Initial sum-of-square-distance to nearest cluster.  Expects 2 more
+  // columns after the features: each row's square distance to, and index of,
+  // its nearest cluster so far.  Only the clusters from _from on are new to
+  // them, so only those are measured.  Also counts the rows nearest each
+  // cluster, to weigh the candidates when reclustering.
   private static class SumSqr extends MRTask<SumSqr> {
     // IN
     double[][] _clusters;
     double[] _means, _mults; // Normalization
-    final int _ncats;
+    final int _ncats, _from;
 
     // OUT
     double _sqr;
+    long[] _rows;                 // Rows nearest each cluster
 
-    SumSqr( double[][] clusters, double[] means, double[] mults, int ncats ) {
+    SumSqr( double[][] clusters, double[] means, double[] mults, int ncats, int from ) {
       _clusters = clusters;
       _means = means;
       _mults = mults;
       _ncats = ncats;
+      _from = from;
     }
 
     @Override public void map(Chunk[] cs) {
-      double[] values = new double[cs.length];
-      ClusterDist cd = new ClusterDist();
+      int N = _clusters[0].length;
+      Chunk dist = cs[N], near = cs[N+1];
+      _rows = new long[_clusters.length];
+      double[] values = new double[N];
       for( int row = 0; row < cs[0]._len; row++ ) {
         data(values, cs, row, _means, _mults);
-        _sqr += minSqr(_clusters, values, _ncats, cd);
+        double min = _from == 0 ? Double.MAX_VALUE : dist.at0(row);
+        int clu = _from == 0 ? -1 : (int)near.at80(row);
+        for( int c = _from; c < _clusters.length; c++ ) {
+          double sqr = distance(_clusters[c], values, _ncats);
+          if( sqr < min ) { min = sqr; clu = c; }
+        }
+        if( _from < _clusters.length ) {
+          dist.set0(row, min);
+          near.set0(row, clu);
+        }
+        _sqr += min;
+        _rows[clu]++;
       }
       _means = _mults = null;
       _clusters = null;
     }
 
-    @Override public void reduce(SumSqr other) { _sqr += other._sqr; }
+    @Override public void reduce(SumSqr other) {
+      _sqr += other._sqr;
+      ArrayUtils.add(_rows, other._rows);
+    }
   }
 
   // -------------------------------------------------------------------------
   // Sample rows with increasing probability the farther they are from any
-  // cluster.
+  // cluster.  Reads the square distances that SumSqr left after the features.
   private static class Sampler extends MRTask<Sampler> {
     // IN
-    double[][] _clusters;
     double[] _means, _mults; // Normalization
     final int _ncats;
     final double _sqr;           // Min-square-error
@@ -250,8 +362,7 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
     // OUT
     double[][] _sampled;   // New clusters
 
-    Sampler( double[][] clusters, double[] means, double[] mults, int ncats, double sqr, double prob, long seed ) {
-      _clusters = clusters;
+    Sampler( double[] means, double[] mults, int ncats, double sqr, double prob, long seed ) {
       _means = means;
       _mults = mults;
       _ncats = ncats;
@@ -261,21 +372,22 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
     }
 
     @Override public void map(Chunk[] cs) {
-      double[] values = new double[cs.length];
+      int N = cs.length - 2;
+      Chunk dist = cs[N];
       ArrayList<double[]> list = new ArrayList<>();
       Random rand = RandomUtils.getRNG(_seed + cs[0].start());
-      ClusterDist cd = new ClusterDist();
 
       for( int row = 0; row < cs[0]._len; row++ ) {
-        data(values, cs, row, _means, _mults);
-        double sqr = minSqr(_clusters, values, _ncats, cd);
-        if( _probability * sqr > rand.nextDouble() * _sqr )
-          list.add(values.clone());
+        double sqr = dist.at0(row);
+        if( _probability * sqr > rand.nextDouble() * _sqr ) {
+          double[] values = new double[N];
+          data(values, cs, row, _means, _mults);
+          list.add(values);
+        }
       }
 
       _sampled = new double[list.size()][];
       list.toArray(_sampled);
-      _clusters = null;
       _means = _mults = null;
     }
 
@@ -290,12 +402,25 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
   //   Compute new mean/center & variance & rows for each cluster;
   //   Compute distance between clusters
   //   Compute total sqr distance
+  //
+  // A mini-batch pass only visits the given chunks.  A Hamerly pass expects 2
+  // more columns after the features: each row's cluster, and a lower bound on
+  // its distance to any other cluster.  Both are updated in place.  A row
+  // keeps its cluster without searching all clusters when its distance to it
+  // is below that bound, or below half the distance from its cluster to the
+  // next nearest cluster (triangle inequality).  The bounds are in (unsquared)
+  // distance; the categorical columns' 0/1 distances keep it a metric.
 
   private static class Lloyds extends MRTask<Lloyds> {
     // IN
     double[][] _clusters;
     double[] _means, _mults;      // Normalization
     final int _ncats, _K;
+    final int[] _chunks;          // Mini-batch: sorted chunks to visit; null for all
+    final boolean _hamerly;
+    final double[] _half;         // Hamerly: half the distance to the nearest other cluster
+    final double _move1, _move2;  // Hamerly: largest and 2nd largest cluster move since the last pass
+    final int _moved;             // Hamerly: cluster with the largest move; -1 if no last pass
 
     // OUT
     double[][] _cMeans;         // Means for each cluster
@@ -305,17 +430,42 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
     long _worst_row;            // Row with max err
     double _worst_err;          // Max-err-row's max-err
 
-    Lloyds( double[][] clusters, double[] means, double[] mults, int ncats, int K ) {
+    Lloyds( double[][] clusters, double[] means, double[] mults, int ncats, int K, int[] chunks, boolean hamerly, double[][] prev ) {
       _clusters = clusters;
       _means = means;
       _mults = mults;
       _ncats = ncats;
       _K = K;
+      _chunks = chunks;
+      _hamerly = hamerly;
+      double move1 = 0, move2 = 0;
+      int moved = -1;
+      if( hamerly ) {
+        _half = new double[K];
+        Arrays.fill(_half, Double.MAX_VALUE);
+        for( int a = 0; a < K; a++ )
+          for( int b = a+1; b < K; b++ ) {
+            double d = Math.sqrt(distance(clusters[a],clusters[b],ncats)) / 2;
+            _half[a] = Math.min(_half[a], d);
+            _half[b] = Math.min(_half[b], d);
+          }
+        if( prev != null ) {
+          moved = 0;
+          for( int clu = 0; clu < K; clu++ ) {
+            double d = Math.sqrt(distance(prev[clu],clusters[clu],ncats));
+            if( d > move1 ) { move2 = move1; move1 = d; moved = clu; }
+            else if( d > move2 ) move2 = d;
+          }
+        }
+      } else _half = null;
+      _move1 = move1;
+      _move2 = move2;
+      _moved = moved;
     }
 
     @Override public void map(Chunk[] cs) {
-      int N = cs.length;
-      assert _clusters[0].length==N;
+      int N = _clusters[0].length;
+      assert cs.length == (_hamerly ? N+2 : N);
       _cMeans = new double[_K][N];
       _cSqr = new double[_K];
       _rows = new long[_K];
@@ -326,12 +476,19 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
           _cats[clu][col] = new long[cs[col].vec().cardinality()];
       _worst_err = 0;
 
+      if( _chunks != null && Arrays.binarySearch(_chunks, cs[0].cidx()) < 0 ) {
+        _clusters = null;       // Not in this mini-batch
+        _means = _mults = null;
+        return;
+      }
+
       // Find closest cluster for each row
       double[] values = new double[N];
       ClusterDist cd = new ClusterDist();
       for( int row = 0; row < cs[0]._len; row++ ) {
         data(values, cs, row, _means, _mults);
-        closest(_clusters, values, _ncats, cd);
+        if( _hamerly ) hamerly(cs, row, values, cd);
+        else closest(_clusters, values, _ncats, cd);
         int clu = cd._cluster;
         assert clu != -1; // No broken rows
         _cSqr[clu] += cd._dist;
@@ -352,6 +509,32 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
       _means = _mults = null;
     }
 
+    // Nearest cluster for a row, searching all clusters only if the bounds
+    // say its cluster might have changed since the last pass.  Rows with
+    // missing values are always searched: their distances are rescaled by the
+    // count of valid columns, which the bounds do not account for.
+    private void hamerly(Chunk[] cs, int row, double[] values, ClusterDist cd) {
+      final int N = values.length;
+      Chunk assigned = cs[N], lower = cs[N+1];
+      boolean na = false;
+      for( int col = 0; col < N && !na; col++ ) na = cs[col].isNA0(row);
+      if( _moved != -1 && !na ) {
+        int clu = (int)assigned.at80(row);
+        double sqr = distance(_clusters[clu], values, _ncats);
+        // Other clusters got closer by at most as much as they moved
+        double bound = lower.at0(row) - (clu == _moved ? _move2 : _move1);
+        if( Math.sqrt(sqr) < Math.max(_half[clu], bound) ) {
+          lower.set0(row, bound);
+          cd._cluster = clu;
+          cd._dist = sqr;
+          return;
+        }
+      }
+      double sqr2 = closest2(_clusters, values, _ncats, cd);
+      assigned.set0(row, cd._cluster);
+      lower.set0(row, Math.sqrt(sqr2));
+    }
+
     @Override public void reduce(Lloyds mr) {
       for( int clu = 0; clu < _K; clu++ ) {
         long ra =    _rows[clu];
@@ -372,14 +555,6 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
   // A pair result: nearest cluster, and the square distance
   private static final class ClusterDist { int _cluster; double _dist;  }
 
-  private static double minSqr(double[][] clusters, double[] point, int ncats, ClusterDist cd) {
-    return closest(clusters, point, ncats, cd, clusters.length)._dist;
-  }
-
-  private static double minSqr(double[][] clusters, double[] point, int ncats, ClusterDist cd, int count) {
-    return closest(clusters,point,ncats,cd,count)._dist;
-  }
-
   private static ClusterDist closest(double[][] clusters, double[] point, int ncats, ClusterDist cd) {
     return closest(clusters, point, ncats, cd, clusters.length);
   }
@@ -431,6 +606,24 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
     return cd;                  // Return for flow-coding
   }
 
+  /** Nearest cluster and square-distance, like closest(); returns the square-distance to the 2nd nearest. */
+  private static double closest2(double[][] clusters, double[] point, int ncats, ClusterDist cd) {
+    int min = -1;
+    double minSqr = Double.MAX_VALUE, min2Sqr = Double.MAX_VALUE;
+    for( int cluster = 0; cluster < clusters.length; cluster++ ) {
+      double sqr = distance(clusters[cluster],point,ncats);
+      if( sqr < minSqr ) {      // Record nearest cluster
+        min2Sqr = minSqr;
+        min = cluster;
+        minSqr = sqr;
+      } else if( sqr < min2Sqr )
+        min2Sqr = sqr;
+    }
+    cd._cluster = min;
+    cd._dist = minSqr;
+    return min2Sqr;
+  }
+
   // For KMeansModel scoring; just the closest cluster
   static int closest(double[][] clusters, double[] point, int ncats) {
     int min = -1;
@@ -445,45 +638,90 @@ public class KMeans extends ModelBuilder<KMeansModel,KMeansModel.KMeansParameter
     return min;
   }
 
-  // KMeans++ re-clustering
-  private double[][] recluster(double[][] points, Random rand) {
+  // For KMeansModel batch scoring; the closest cluster of rows [0,n) of the
+  // column-major points.  Same distance as closest(), but each cluster is
+  // compared against a whole column of the block at a time.
+  static void closest(double[][] clusters, double[][] points, int n, int ncats, float[] res) {
+    final int ncols = points.length;
+    final int[] pts = new int[n]; // Count of valid points per row
+    Arrays.fill(pts, ncols);
+    for( int column = 0; column < ncols; column++ ) {
+      final double[] p = points[column];
+      for( int row = 0; row < n; row++ )
+        if( Double.isNaN(p[row]) ) pts[row]--;
+    }
+    final double[] sqr = new double[n];
+    final double[] minSqr = new double[n];
+    Arrays.fill(minSqr, Double.MAX_VALUE);
+    Arrays.fill(res, 0, n, -1);
+    for( int cluster = 0; cluster < clusters.length; cluster++ ) {
+      final double[] c = clusters[cluster];
+      Arrays.fill(sqr, 0);
+      for( int column = 0; column < ncats; column++ ) {
+        final double[] p = points[column];
+        final double cv = c[column];
+        for( int row = 0; row < n; row++ )
+          if( !Double.isNaN(p[row]) && p[row] != cv ) sqr[row] += 1.0;
+      }
+      for( int column = ncats; column < c.length; column++ ) {
+        final double[] p = points[column];
+        final double cv = c[column];
+        for( int row = 0; row < n; row++ ) {
+          final double d = p[row];
+          if( !Double.isNaN(d) ) sqr[row] += (d - cv) * (d - cv);
+        }
+      }
+      for( int row = 0; row < n; row++ ) {
+        double s = sqr[row];
+        if( 0 < pts[row] && pts[row] < ncols )
+          s *= ncols / pts[row];
+        if( s < minSqr[row] ) { // Record nearest cluster
+          res[row] = cluster;
+          minSqr[row] = s;
+        }
+      }
+    }
+  }
+
+  // Weighted KMeans++ re-clustering of the candidates, each weighted by the
+  // rows nearest to it.  Tracks each candidate's square distance to its
+  // nearest pick, so each pick costs a single pass over the candidates.
+  private double[][] recluster(double[][] points, long[] weights, Random rand) {
     double[][] res = new double[_parms._K][];
     res[0] = points[0];
-    int count = 1;
-    ClusterDist cd = new ClusterDist();
-    switch( _parms._init ) {
-    case None:
-      break;
-    case PlusPlus: { // k-means++
-      while( count < res.length ) {
+    double[] sqr = new double[points.length];
+    for( int i = 0; i < points.length; i++ )
+      sqr[i] = distance(res[0], points[i], _ncats);
+    for( int count = 1; count < res.length; count++ ) {
+      int pick = -1;
+      switch( _parms._init ) {
+      case PlusPlus: { // k-means++: odds proportional to weight times square distance
         double sum = 0;
-        for (double[] point1 : points) sum += minSqr(res, point1, _ncats, cd, count);
-
-        for (double[] point : points) {
-          if (minSqr(res, point, _ncats, cd, count) >= rand.nextDouble() * sum) {
-            res[count++] = point;
-            break;
-          }
+        for( int i = 0; i < points.length; i++ ) sum += weights[i] * sqr[i];
+        double r = rand.nextDouble() * sum;
+        for( int i = 0; i < points.length && pick == -1; i++ ) {
+          double w = weights[i] * sqr[i];
+          if( w > 0 && (r -= w) < 0 ) pick = i;
         }
+        if( pick != -1 ) break;
+        // Rounding ran past the end, or all candidates are picked already;
+        // fall through and take the furthest
       }
-      break;
-    }
-    case Furthest: { // Takes cluster further from any already chosen ones
-      while( count < res.length ) {
+      case Furthest: { // Takes cluster further from any already chosen ones
         double max = 0;
-        int index = 0;
-        for( int i = 0; i < points.length; i++ ) {
-          double sqr = minSqr(res, points[i], _ncats, cd, count);
-          if( sqr > max ) {
-            max = sqr;
-            index = i;
+        pick = 0;
+        for( int i = 0; i < points.length; i++ )
+          if( weights[i] > 0 && sqr[i] > max ) {
+            max = sqr[i];
+            pick = i;
           }
-        }
-        res[count++] = points[index];
+        break;
       }
-      break;
-    }
-    default:  throw H2O.fail();
+      default:  throw H2O.fail();
+      }
+      res[count] = points[pick];
+      for( int i = 0; i < points.length; i++ )
+        sqr[i] = Math.min(sqr[i], distance(res[count], points[i], _ncats));
     }
     return res;
   }
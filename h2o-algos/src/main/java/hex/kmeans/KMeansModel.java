@@ -16,11 +16,15 @@ public class KMeansModel extends Model<KMeansModel,KMeansModel.KMeansParameters,
     public boolean _normalize = false;    // Normalize columns
     public long _seed;                    // RNG seed
     public KMeans.Initialization _init = KMeans.Initialization.Furthest;
+    public KMeans.Algorithm _algorithm = KMeans.Algorithm.Lloyd;
+    public double _batch_fraction = 0.1;  // MiniBatch: fraction of chunks visited per iteration
 
     @Override
     public int sanityCheckParameters() {
       if (_K < 2) validation_error("K", "K must be > 2");
       if (_max_iters < 1) validation_error("max_iters", "max_iters must be > 1");
+      if (_algorithm == KMeans.Algorithm.MiniBatch && !(_batch_fraction > 0 && _batch_fraction <= 1))
+        validation_error("batch_fraction", "batch_fraction must be in (0,1]");
 
       return validation_error_count;
     }
@@ -81,6 +85,10 @@ public class KMeansModel extends Model<KMeansModel,KMeansModel.KMeansParameters,
     return preds;
   }
 
+  @Override protected void score0(double data[/*ncols*/][/*nrows*/], int n, float preds[/*nclasses+1*/][/*nrows*/]) {
+    KMeans.closest(_output._clusters,data,n,_output._ncats,preds[0]);
+  }
+
 //  public static class KMeans2ModelView extends Request2 {
 //    static final int API_WEAVER = 1;
 //    static public DocGen.FieldDoc[] DOC_FIELDS;
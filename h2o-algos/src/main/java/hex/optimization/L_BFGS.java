@@ -14,6 +14,9 @@ import java.util.Random;
  *
  * Use by calling solve() and passing in your own gradient computation function.
  *
+ * An L1 penalty on the coefficients can be added to the (smooth) objective, it is then solved by the
+ * orthant-wise variant (OWL-QN, Andrew and Gao, 2007).
+ *
 */
 public class L_BFGS  {
   public static class GradientInfo {
@@ -145,8 +148,27 @@ public class L_BFGS  {
    * function evaluated at the found optmimum.
    */
   public static final Result solve(GradientSolver gslvr, final L_BFGS_Params params, History hist,final double [] coefs) {
+    return solve(gslvr, params, hist, coefs, null);
+  }
+
+  /**
+   * Solve the optimization problem defined by the user-supplied gradient function plus an L1 penalty
+   * sum_i l1pen[i]*|coefs[i]|, using OWL-QN.
+   *
+   * The user gradient function computes the objective value and gradient of the smooth part only.
+   *
+   * @param gslvr - user gradient function
+   * @param hist  - history of computation
+   * @param coefs - starting solution
+   * @param l1pen - L1 penalty of each coefficient, or null for none
+   * @return Optimal solution (coefficients) + gradient info returned by the user gradient
+   * function evaluated at the found optmimum.
+   */
+  public static final Result solve(GradientSolver gslvr, final L_BFGS_Params params, History hist,final double [] coefs, final double [] l1pen) {
     GradientInfo gOld = gslvr.getGradient(coefs);
     final double [] beta = coefs;
+    double objOld = gOld._objVal + l1norm(beta, l1pen);
+    double [] pg = pseudoGradient(beta, gOld._gradient, l1pen);
     int iter = 0;
     double [][] lsBetas = new double[params._nBetas][]; // do 32 line-search steps at once to minimize passes through the whole dataset
     for(int i = 0; i < lsBetas.length; ++i)
@@ -154,26 +176,33 @@ public class L_BFGS  {
     double step = 1;
     // jsut loop until good enough or line search can not progress
 _MAIN:
-    while(iter++ < params._maxIter && MathUtils.l2norm2(gOld._gradient) > params._gradEps) {
-      double[] pk = getSearchDirection(iter-1, hist, gOld._gradient);
+    while(iter++ < params._maxIter && MathUtils.l2norm2(pg) > params._gradEps) {
+      double[] pk = getSearchDirection(iter-1, hist, pg);
+      if(l1pen != null) // only descend along the pseudo-gradient
+        for(int i = 0; i < pk.length; ++i)
+          if(pk[i]*pg[i] >= 0) pk[i] = 0;
       double t = step;
       while (t > params._minStep) {
         for (int i = 0; i < params._nBetas; ++i) {
           wadd(lsBetas[i], beta, pk, t);
+          if(l1pen != null) project(lsBetas[i], beta, pg, l1pen);
           t *= params._stepDec;
         }
         GradientInfo[] ginfos = gslvr.getGradient(lsBetas);
         t = step;
         // check the line search, we do several steps at once each time to limit number of passes over all data
         for (int i = 0; i < ginfos.length; ++i) {
-          if (t <= params._minStep || !needLineSearch(t, gOld._objVal, ginfos[i]._objVal, pk, gOld._gradient)) {
+          final double objNew = ginfos[i]._objVal + l1norm(lsBetas[i], l1pen);
+          if (t <= params._minStep || !needLineSearch(objOld, objNew, pg, beta, lsBetas[i])) {
             // we got admissible solution
-            ArrayUtils.mult(pk, t);
+            for(int j = 0; j < pk.length; ++j)
+              pk[j] = lsBetas[i][j] - beta[j];
             if(iter > 0)
               hist.update(iter-1, pk, ginfos[i]._gradient, gOld._gradient);
             gOld = ginfos[i];
-            ArrayUtils.add(beta, pk);
-            assert Arrays.equals(beta, lsBetas[i]);
+            objOld = objNew;
+            System.arraycopy(lsBetas[i], 0, beta, 0, beta.length);
+            pg = pseudoGradient(beta, gOld._gradient, l1pen);
             step = 1; // reset line search to start from step = 1 again
             continue _MAIN;
           }
@@ -187,6 +216,37 @@ _MAIN:
     return new Result(iter,beta, gOld);
   }
 
+  private static double l1norm(double [] beta, double [] l1pen){
+    if(l1pen == null) return 0;
+    double res = 0;
+    for(int i = 0; i < beta.length; ++i)
+      res += l1pen[i]*Math.abs(beta[i]);
+    return res;
+  }
+
+  // Steepest descent direction of the L1-penalized objective, negated; the plain gradient if there is no L1 penalty
+  private static double [] pseudoGradient(double [] beta, double [] grad, double [] l1pen){
+    if(l1pen == null) return grad;
+    final double [] res = MemoryManager.malloc8d(grad.length);
+    for(int i = 0; i < res.length; ++i) {
+      final double l = l1pen[i];
+      if(beta[i] < 0) res[i] = grad[i] - l;
+      else if(beta[i] > 0) res[i] = grad[i] + l;
+      else if(grad[i] + l < 0) res[i] = grad[i] + l;
+      else if(grad[i] - l > 0) res[i] = grad[i] - l;
+    }
+    return res;
+  }
+
+  // Zero the coefficients of x that left the orthant of beta (or, where beta is 0, the one of the descent direction)
+  private static void project(double [] x, double [] beta, double [] pg, double [] l1pen){
+    for(int i = 0; i < x.length; ++i) {
+      if(l1pen[i] == 0) continue;
+      final double orthant = beta[i] != 0?beta[i]:-pg[i];
+      if(x[i]*orthant <= 0) x[i] = 0;
+    }
+  }
+
   // the actual core of L-BFGS algo
   private static final double [] getSearchDirection(final int iter, final History hist, final double [] gradient) {
     // get search direction
@@ -225,12 +285,12 @@ _MAIN:
   }
 
   // Armijo line-search rule
-  private static final boolean needLineSearch(double step, final double objOld, final double objNew, final double [] pk, final double [] gradOld){
+  private static final boolean needLineSearch(final double objOld, final double objNew, final double [] gradOld, final double [] betaOld, final double [] betaNew){
     // line search
     double f_hat = 0;
-    for(int i = 0; i < pk.length; ++i)
-      f_hat += gradOld[i] * pk[i];
-    f_hat = c1*step*f_hat + objOld;
+    for(int i = 0; i < gradOld.length; ++i)
+      f_hat += gradOld[i] * (betaNew[i] - betaOld[i]);
+    f_hat = c1*f_hat + objOld;
     return objNew > f_hat;
   }
 
@@ -77,6 +77,11 @@ public class DeepLearningV2 extends ModelBuilderSchema<DeepLearning,DeepLearning
         "col_major",
         "average_activation",
         "sparsity_beta",
+        "mini_batch_size",
+        "sync_bits",
+        "sync_sparsity",
+        "async_training",
+        "max_staleness",
       };
     }
 
@@ -549,6 +554,21 @@ public class DeepLearningV2 extends ModelBuilderSchema<DeepLearning,DeepLearning
     @API(help = "Force reproducibility on small data (will be slow - only uses 1 thread)", level = API.Level.expert, direction=API.Direction.INOUT)
     public boolean reproducible = false;
 
+    @API(help = "Number of training rows to propagate at once (1 for per-row stochastic gradient descent)", level = API.Level.expert, direction=API.Direction.INOUT)
+    public int mini_batch_size = 1;
+
+    @API(help = "Bits per value for model updates sent between nodes (0 for full precision, 8 or 16 for quantized deltas)", level = API.Level.expert, direction=API.Direction.INOUT)
+    public int sync_bits = 0;
+
+    @API(help = "Fraction of the largest model update values sent between nodes when sync_bits is 8 or 16", level = API.Level.expert, direction=API.Direction.INOUT)
+    public double sync_sparsity = 1.0;
+
+    @API(help = "Train asynchronously, with the weights sharded across the nodes and scoring on snapshots", level = API.Level.expert, direction=API.Direction.INOUT)
+    public boolean async_training = false;
+
+    @API(help = "Number of iterations a node may run ahead of the slowest node during asynchronous training", level = API.Level.expert, direction=API.Direction.INOUT)
+    public int max_staleness = 2;
+
     @Override public DeepLearningParametersV2 fillFromImpl(DeepLearningParameters parms) {
       super.fillFromImpl(parms);
       return this;
@@ -17,7 +17,9 @@ public class KMeansV2 extends ModelBuilderSchema<KMeans,KMeansV2,KMeansV2.KMeans
             "max_iters",
             "normalize",
             "seed",
-            "init" }; }
+            "init",
+            "algorithm",
+            "batch_fraction" }; }
 
     // TODO: we do defaults both here and in the impl; that's no good.
 
@@ -37,6 +39,12 @@ public class KMeansV2 extends ModelBuilderSchema<KMeans,KMeansV2,KMeansV2.KMeans
     @API(help = "Initialization mode", values = { "None", "PlusPlus", "Furthest" }) // TODO: pull out of enum class. . .
     public KMeans.Initialization init;
 
+    @API(help = "Algorithm for the iterations", values = { "Lloyd", "Hamerly", "MiniBatch" }, level = API.Level.secondary)
+    public KMeans.Algorithm algorithm = KMeans.Algorithm.Lloyd;
+
+    @API(help = "MiniBatch: fraction of the chunks visited per iteration", level = API.Level.expert)
+    public double batch_fraction = 0.1;
+
     @Override public KMeansParametersV2 fillFromImpl(KMeansParameters parms) {
       super.fillFromImpl(parms);
       this.init = KMeans.Initialization.Furthest;
@@ -0,0 +1,92 @@
+package hex;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import hex.FrameTask.DataInfo;
+import water.*;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+public class FrameTaskTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  // Sums up everything a FrameTask hands out, either per row or per batch
+  static class SumTask extends FrameTask<SumTask> {
+    final boolean _batch;
+    long _nobs, _nprocessed, _gids;
+    double [] _nums;
+    double _ys;
+    int [] _catCnts;
+    SumTask(DataInfo dinfo, boolean batch, boolean skipMissing) {
+      super(null, dinfo);
+      _batch = batch;
+      _skipMissing = skipMissing;
+    }
+    @Override protected int batchSize(){ return _batch ? 100 : 0; }
+    @Override protected void chunkInit(){
+      _nums = new double[_dinfo._nums];
+      _catCnts = new int[_dinfo.fullN()];
+    }
+    @Override protected void processRow(long gid, double [] nums, int ncats, int [] cats, double [] response){
+      ++_nobs;
+      _gids += gid;
+      for(int i = 0; i < nums.length; ++i) _nums[i] += nums[i];
+      for(int i = 0; i < ncats; ++i) ++_catCnts[cats[i]];
+      _ys += response[0];
+    }
+    @Override protected void processBatch(Batch b){
+      double [] nums = new double[_dinfo._nums];
+      int [] cats = new int[_dinfo._cats];
+      for(int r = 0; r < b._n; ++r) {
+        int ncats = b.row(r, nums, cats);
+        processRow(b._gids[r], nums, ncats, cats, new double[]{b._responses[0][r]});
+      }
+    }
+    @Override protected void chunkDone(long n){ _nprocessed += n; }
+    @Override public void reduce(SumTask t){
+      _nobs += t._nobs;
+      _nprocessed += t._nprocessed;
+      _gids += t._gids;
+      _ys += t._ys;
+      water.util.ArrayUtils.add(_nums, t._nums);
+      water.util.ArrayUtils.add(_catCnts, t._catCnts);
+    }
+  }
+
+  @Test public void testBatchesMatchRows() {
+    Frame fr = null;
+    DataInfo dinfo = null, fold = null;
+    Vec cyl = null;
+    try {
+      fr = parse_test_file("smalldata/junit/cars.csv");
+      fr.remove("name").remove();
+      cyl = fr.remove("cylinders");
+      fr.add("cylinders", cyl.toEnum());
+      fr.add("economy (mpg)", fr.remove("economy (mpg)")); // response last
+      dinfo = new DataInfo(Key.make(), fr, 1, false, DataInfo.TransformType.STANDARDIZE, DataInfo.TransformType.NONE);
+      DKV.put(dinfo._key, dinfo);
+      fold = dinfo.getFold(1, 3);
+      DKV.put(fold._key, fold);
+      for(DataInfo di : new DataInfo[]{dinfo, fold})
+        for(boolean skipMissing : new boolean[]{true, false}) {
+          SumTask rows = new SumTask(di, false, skipMissing).doAll(di._adaptedFrame);
+          SumTask batches = new SumTask(di, true, skipMissing).doAll(di._adaptedFrame);
+          Assert.assertTrue(rows._nobs > 0);
+          Assert.assertEquals(rows._nobs, batches._nobs);
+          Assert.assertEquals(rows._nprocessed, batches._nprocessed);
+          Assert.assertEquals(rows._gids, batches._gids);
+          Assert.assertEquals(rows._ys, batches._ys, 1e-8);
+          Assert.assertArrayEquals(rows._catCnts, batches._catCnts);
+          for(int i = 0; i < rows._nums.length; ++i) // NaN sums if not skipping missing
+            Assert.assertEquals(rows._nums[i], batches._nums[i], 1e-8);
+        }
+    } finally {
+      if( fold != null ) DKV.remove(fold._key);
+      if( dinfo != null ) DKV.remove(dinfo._key);
+      if( fr != null ) fr.delete();
+      if( cyl != null ) cyl.remove();
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package hex.deeplearning;
+
+import static hex.deeplearning.DeepLearningModel.DeepLearningParameters;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Key;
+import water.TestUtil;
+import water.fvec.Frame;
+
+public class DeepLearningAsyncTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  // Train on iris, return the training error
+  private static float train(Frame fr, boolean async, int staleness) {
+    DeepLearningParameters p = new DeepLearningParameters();
+    p._training_frame = fr._key;
+    p._destination_key = Key.make();
+    p.response_column = fr.names()[fr.numCols()-1];
+    p.classification = true;
+    p.hidden = new int[]{20, 20};
+    p.epochs = 100;
+    p.seed = 1234;
+    p.train_samples_per_iteration = fr.numRows();
+    p.async_training = async;
+    p.max_staleness = staleness;
+    p.quiet_mode = true;
+    DeepLearning dl = new DeepLearning(p);
+    DeepLearningModel model = null;
+    try {
+      dl.train().get();
+      model = DKV.get(p._destination_key).get();
+      Assert.assertTrue(model.epoch_counter >= p.epochs);
+      return model.error();
+    } finally {
+      dl.remove();
+      if (model != null) {
+        model.delete_best_model();
+        model.delete();
+      }
+    }
+  }
+
+  // Asynchronous training must learn about as well as lock-step training
+  @Test public void run() {
+    Frame fr = null;
+    try {
+      fr = parse_test_file("smalldata/iris/iris_wheader.csv");
+      float ref = train(fr, false, 0);
+      for (int staleness : new int[]{0, 2}) {
+        float err = train(fr, true, staleness);
+        Assert.assertTrue("max_staleness " + staleness + ": error " + err + " vs " + ref + " in lock-step", err < ref + 0.05);
+      }
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
+  // Cancelling stops asynchronous training, workers parked on slower ones included
+  @Test public void cancel() throws InterruptedException {
+    Frame fr = null;
+    DeepLearning dl = null;
+    Key dest = Key.make();
+    try {
+      fr = parse_test_file("smalldata/iris/iris_wheader.csv");
+      DeepLearningParameters p = new DeepLearningParameters();
+      p._training_frame = fr._key;
+      p._destination_key = dest;
+      p.response_column = fr.names()[fr.numCols()-1];
+      p.classification = true;
+      p.hidden = new int[]{20, 20};
+      p.epochs = 1e6;
+      p.train_samples_per_iteration = fr.numRows();
+      p.async_training = true;
+      p.max_staleness = 0;
+      p.quiet_mode = true;
+      dl = new DeepLearning(p);
+      dl.train();
+      Thread.sleep(2000);
+      dl.cancel();
+      try { dl.get(); }         // Returns, rather than waiting on parked workers
+      catch (RuntimeException cancelled) { } // Tasks running at the cancel may throw
+      Assert.assertFalse(dl.isRunning());
+    } finally {
+      if (dl != null) dl.remove();
+      DeepLearningModel model = DKV.get(dest) == null ? null : (DeepLearningModel)DKV.get(dest).get();
+      if (model != null) {
+        model.delete_best_model();
+        model.delete();
+      }
+      if (fr != null) fr.delete();
+    }
+  }
+}
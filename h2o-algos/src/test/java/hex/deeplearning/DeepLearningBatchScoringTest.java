@@ -0,0 +1,63 @@
+package hex.deeplearning;
+
+import static hex.deeplearning.DeepLearningModel.DeepLearningParameters;
+import static hex.deeplearning.DeepLearningModel.DeepLearningParameters.Activation;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Key;
+import water.TestUtil;
+import water.fvec.Frame;
+
+public class DeepLearningBatchScoringTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  // Batch scoring must predict the same as scoring one row at a time
+  @Test public void run() {
+    Frame fr = null;
+    try {
+      fr = parse_test_file("smalldata/iris/iris_wheader.csv");
+      for (boolean classification : new boolean[]{true, false}) {
+        for (Activation act : Activation.values()) {
+          DeepLearningParameters p = new DeepLearningParameters();
+          p._training_frame = fr._key;
+          p._destination_key = Key.make();
+          p.response_column = fr.names()[classification ? fr.numCols() - 1 : 0];
+          p.classification = classification;
+          p.activation = act;
+          p.hidden = new int[]{10, 10};
+          p.epochs = 1;
+          p.seed = 1234;
+          p.quiet_mode = true;
+          DeepLearning dl = new DeepLearning(p);
+          DeepLearningModel model = null;
+          Frame preds = null;
+          try {
+            dl.train().get();
+            model = DKV.get(p._destination_key).get();
+            preds = model.score(fr);
+            final String[] names = model._output._names;
+            final double[] row = new double[names.length - 1];
+            final float[] p0 = new float[classification ? model._output.nclasses() + 1 : 1];
+            for (long r = 0; r < fr.numRows(); ++r) {
+              for (int c = 0; c < row.length; ++c) row[c] = fr.vec(names[c]).at(r);
+              model.score0(row, p0);
+              for (int c = 0; c < p0.length; ++c)
+                Assert.assertEquals(act + ", row " + r + ", column " + c, p0[c], preds.vecs()[c].at(r), 1e-5);
+            }
+          } finally {
+            dl.remove();
+            if (preds != null) preds.delete();
+            if (model != null) {
+              model.delete_best_model();
+              model.delete();
+            }
+          }
+        }
+      }
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+}
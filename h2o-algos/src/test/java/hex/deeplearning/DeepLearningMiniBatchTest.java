@@ -0,0 +1,67 @@
+package hex.deeplearning;
+
+import static hex.deeplearning.DeepLearningModel.DeepLearningParameters;
+import static hex.deeplearning.DeepLearningModel.DeepLearningParameters.Activation;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Key;
+import water.TestUtil;
+import water.fvec.Frame;
+
+public class DeepLearningMiniBatchTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  // Train on iris, return the training error
+  private static float train(Frame fr, Activation act, boolean adaptive, int mini_batch_size) {
+    DeepLearningParameters p = new DeepLearningParameters();
+    p._training_frame = fr._key;
+    p._destination_key = Key.make();
+    p.response_column = fr.names()[fr.numCols()-1];
+    p.classification = true;
+    p.activation = act;
+    p.hidden = new int[]{20, 20};
+    p.epochs = 100;
+    p.seed = 1234;
+    p.adaptive_rate = adaptive;
+    if (!adaptive) {
+      p.rate = 0.005;
+      p.momentum_start = 0.5;
+      p.momentum_stable = 0.5;
+    }
+    p.mini_batch_size = mini_batch_size;
+    p.quiet_mode = true;
+    p.reproducible = true;
+    DeepLearning dl = new DeepLearning(p);
+    DeepLearningModel model = null;
+    try {
+      dl.train().get();
+      model = DKV.get(p._destination_key).get();
+      return model.error();
+    } finally {
+      dl.remove();
+      if (model != null) {
+        model.delete_best_model();
+        model.delete();
+      }
+    }
+  }
+
+  // Mini-batches of 10 must learn as well as per-row training
+  @Test public void run() {
+    Frame fr = null;
+    try {
+      fr = parse_test_file("smalldata/iris/iris_wheader.csv");
+      for (Activation act : Activation.values())
+        for (boolean adaptive : new boolean[]{true, false}) {
+          float err = train(fr, act, adaptive, 10);
+          float ref = train(fr, act, adaptive, 1);
+          Assert.assertTrue(act + ", adaptive " + adaptive + ": error " + err + " vs " + ref + " per row", err < ref + 0.05);
+          if (act == Activation.Tanh) Assert.assertTrue(err < 0.1);
+        }
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package hex.deeplearning;
+
+import static hex.deeplearning.DeepLearningModel.DeepLearningParameters;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Key;
+import water.TestUtil;
+import water.fvec.Frame;
+
+import java.util.Random;
+
+public class DeltaSyncTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static DeepLearningParameters params(Frame fr) {
+    DeepLearningParameters p = new DeepLearningParameters();
+    p._training_frame = fr._key;
+    p._destination_key = Key.make();
+    p.response_column = fr.names()[fr.numCols()-1];
+    p.classification = true;
+    p.hidden = new int[]{20, 20};
+    p.seed = 1234;
+    p.quiet_mode = true;
+    return p;
+  }
+
+  private static DeepLearningModel train(DeepLearningParameters p) {
+    DeepLearning dl = new DeepLearning(p);
+    try {
+      dl.train().get();
+      return DKV.get(p._destination_key).get();
+    } finally {
+      dl.remove();
+    }
+  }
+
+  private static void delete(DeepLearningModel model) {
+    if (model == null) return;
+    model.delete_best_model();
+    model.delete();
+  }
+
+  @Test public void testKthLargest() {
+    float[] a = new float[]{3, -7, 1, 0, -2, 5, 5};
+    Assert.assertEquals(7, DeltaSync.kthLargestAbs(a, 1), 0);
+    Assert.assertEquals(5, DeltaSync.kthLargestAbs(a, 2), 0);
+    Assert.assertEquals(5, DeltaSync.kthLargestAbs(a, 3), 0);
+    Assert.assertEquals(3, DeltaSync.kthLargestAbs(a, 4), 0);
+    Assert.assertEquals(0, DeltaSync.kthLargestAbs(a, 7), 0);
+  }
+
+  @Test public void testCodec() {
+    Frame fr = null;
+    DeepLearningModel model = null;
+    Key job = Key.make();
+    try {
+      fr = parse_test_file("smalldata/iris/iris_wheader.csv");
+      DeepLearningParameters p = params(fr);
+      p.epochs = 1;
+      p.adaptive_rate = false;
+      p.momentum_start = 0.5;
+      p.momentum_stable = 0.5;
+      model = train(p);
+      final DeepLearningModel.DeepLearningModelInfo base = model.model_info();
+      DeltaSync.begin(job, base);
+
+      // Some training happened on a node
+      final DeepLearningModel.DeepLearningModelInfo trained = base.deep_clone();
+      final Random rng = new Random(42);
+      long n = 0;
+      for (float[] a : trained.sync_arrays()) {
+        for (int i = 0; i < a.length; ++i) a[i] += 0.01 * rng.nextGaussian();
+        n += a.length;
+      }
+      final float[][] b = base.sync_arrays(), t = trained.sync_arrays();
+
+      // Dense 16 bits are nearly exact
+      DeltaSync ds = DeltaSync.encode(job, trained, 1, 16, 1.0);
+      Assert.assertEquals(2 * n, ds.byteSize());
+      float[][] d = ds.decode(job).sync_arrays();
+      for (int j = 0; j < d.length; ++j)
+        for (int i = 0; i < d[j].length; ++i)
+          Assert.assertEquals(t[j][i], d[j][i], 1e-5);
+
+      // Sparse 8 bits are an order of magnitude smaller than full floats...
+      ds = DeltaSync.encode(job, trained, 1, 8, 0.05);
+      Assert.assertTrue(ds.byteSize() + " bytes for " + n + " floats", ds.byteSize() * 10 < 4 * n);
+      float[][] d1 = ds.decode(job).sync_arrays();
+      // ...and what was left out is sent with the next update
+      float[][] d2 = DeltaSync.encode(job, trained, 1, 16, 1.0).decode(job).sync_arrays();
+      for (int j = 0; j < d1.length; ++j)
+        for (int i = 0; i < d1[j].length; ++i)
+          Assert.assertEquals(2 * (t[j][i] - b[j][i]), (d1[j][i] - b[j][i]) + (d2[j][i] - b[j][i]), 1e-4);
+
+      // Sums of several models decode back to their sums
+      final DeepLearningModel.DeepLearningModelInfo sum = trained.deep_clone();
+      sum.add(trained);
+      float[][] s = DeltaSync.encode(job, sum, 2, 16, 1.0).decode(job).sync_arrays();
+      for (int j = 0; j < s.length; ++j)
+        for (int i = 0; i < s[j].length; ++i)
+          Assert.assertEquals(2 * t[j][i], s[j][i], 1e-4);
+    } finally {
+      DeltaSync.clear(job);
+      if (fr != null) fr.delete();
+      delete(model);
+    }
+  }
+
+  // Quantized and sparsified model averaging must learn about as well as full precision
+  @Test public void testTraining() {
+    Frame fr = null;
+    try {
+      fr = parse_test_file("smalldata/iris/iris_wheader.csv");
+      for (boolean replicate : new boolean[]{true, false}) {
+        float[] err = new float[2];
+        for (int k = 0; k < 2; ++k) {
+          DeepLearningParameters p = params(fr);
+          p.epochs = 100;
+          p.replicate_training_data = replicate;
+          p.train_samples_per_iteration = fr.numRows(); //sync once per epoch
+          p.sync_bits = k == 0 ? 0 : 8;
+          p.sync_sparsity = k == 0 ? 1 : 0.1;
+          DeepLearningModel model = null;
+          try {
+            model = train(p);
+            err[k] = model.error();
+          } finally {
+            delete(model);
+          }
+        }
+        Assert.assertTrue("replicate " + replicate + ": error " + err[1] + " vs " + err[0] + " at full precision", err[1] < err[0] + 0.05);
+      }
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+}
@@ -244,4 +244,48 @@ public class NeuronsTest extends water.TestUtil {
     assert(srm.get(1,3)==-1.2f);
     assert(srm.get(0,0)==0f);
   }
+
+  // Mini-batch GEMMs must match the per-row gemv and outer products
+  @Test
+  public void matrixMatrixTest() {
+    final int rows = 70, cols = 300, n = 9; //not multiples of the block sizes
+    Random rng = new Random(0xBA7C4);
+    float [] a = new float[rows*cols];
+    float [] x = new float[n*cols];
+    float [] y = new float[rows];
+    float [] g = new float[n*rows];
+    for (int i=0;i<a.length;++i) a[i] = rng.nextFloat()-0.5f;
+    for (int i=0;i<x.length;++i) x[i] = rng.nextFloat()-0.5f;
+    for (int i=0;i<y.length;++i) y[i] = rng.nextFloat()-0.5f;
+    for (int i=0;i<g.length;++i) g[i] = rng.nextFloat() < 0.2f ? 0 : rng.nextFloat()-0.5f;
+    byte [][] bits = new byte[n][(rows+7)/8];
+    for (byte[] b : bits) rng.nextBytes(b);
+
+    float [] res = new float[n*rows];
+    gemm(res, a, x, y, n, bits);
+    float [] xi = new float[cols];
+    float [] ri = new float[rows];
+    for (int i=0;i<n;++i) {
+      System.arraycopy(x, i*cols, xi, 0, cols);
+      gemv_naive(ri, a, xi, y, bits[i]);
+      for (int row=0;row<rows;++row) Assert.assertEquals(ri[row], res[i*rows+row], 1e-4);
+    }
+
+    float [] e = new float[n*cols];
+    gemm_nn(e, g, a, n, rows, cols);
+    float [] dw = new float[rows*cols];
+    gemm_tn(dw, g, x, n, rows, cols);
+    for (int i=0;i<n;++i)
+      for (int col=0;col<cols;++col) {
+        float sum = 0;
+        for (int row=0;row<rows;++row) sum += g[i*rows+row]*a[row*cols+col];
+        Assert.assertEquals(sum, e[i*cols+col], 1e-4);
+      }
+    for (int row=0;row<rows;++row)
+      for (int col=0;col<cols;++col) {
+        float sum = 0;
+        for (int i=0;i<n;++i) sum += g[i*rows+row]*x[i*cols+col];
+        Assert.assertEquals(sum, dw[row*cols+col], 1e-4);
+      }
+  }
 }
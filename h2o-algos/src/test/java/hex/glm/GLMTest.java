@@ -408,4 +408,121 @@ public class GLMTest  extends TestUtil {
       DKV.remove(jobKey);
     }
   }
+
+  // Fitting blocks of the path together must find the same submodels as fitting them one at a time
+  @Test public void testPathBlock() throws InterruptedException, ExecutionException {
+    Key parsed = Key.make("prostate_parsed");
+    Key modelKey = Key.make("prostate_model"), pathKey = Key.make("prostate_model_path");
+    GLMModel model = null, path = null, alpha1 = null;
+    Frame fr = parse_test_file(parsed, "smalldata/glm_test/prostate_cat_replaced.csv");
+    try{
+      for(Family f:new Family[]{Family.gaussian, Family.binomial}) {
+        GLMParameters params = new GLMParameters(f);
+        params._response = fr.find(f == Family.gaussian?"VOL":"CAPSULE");
+        params._ignored_cols = new int[]{fr.find("ID")};
+        params._training_frame = parsed;
+        params.lambda_search = true;
+        params.nlambdas = 10;
+        new GLM(jobKey,modelKey,"glm test path",params).train().get();
+        model = DKV.get(modelKey).get();
+        params = (GLMParameters)params.clone();
+        params.path_block = 5;
+        params.alpha = new double[]{0.5,1.0};
+        new GLM(jobKey,pathKey,"glm test path",params).train().get();
+        path = DKV.get(pathKey).get();
+        assertEquals(model._output._submodels.length,path._output._submodels.length);
+        for(int i = 0; i < model._output._submodels.length; ++i) {
+          GLMValidation v1 = model._output._submodels[i].validation, v2 = path._output._submodels[i].validation;
+          assertEquals(model._output._submodels[i].lambda_value,path._output._submodels[i].lambda_value,1e-10);
+          assertEquals(v1.residualDeviance(),v2.residualDeviance(),1e-3*v1.residualDeviance());
+        }
+        assertEquals(1,path._output._alpha_models.length);
+        alpha1 = DKV.get(path._output._alpha_models[0]).get();
+        assertEquals(1.0,alpha1._parms.alpha[0],0);
+        assertEquals(params.nlambdas,alpha1._output._submodels.length);
+        model.delete(); model = null;
+        path.delete(); path = null;
+        alpha1.delete(); alpha1 = null;
+      }
+    } finally {
+      fr.delete();
+      if(model != null)model.delete();
+      if(path != null)path.delete();
+      if(alpha1 != null)alpha1.delete();
+      DKV.remove(jobKey);
+    }
+  }
+
+  // L-BFGS over the non-zeros must find the same model as IRLSM, and AUTO must pick it for sparse data
+  @Test public void testSparseLBFGS() throws InterruptedException, ExecutionException {
+    java.util.Random rng = new java.util.Random(0xFEED);
+    final int nrows = 2000, ncols = 800;
+    double [][] rows = new double[nrows][ncols+1];
+    double [] beta = new double[ncols];
+    for(int j = 0; j < ncols; j += 10) beta[j] = rng.nextGaussian();
+    for(double [] row:rows) {
+      double eta = 0;
+      for(int j = 0; j < ncols; ++j)
+        if(rng.nextDouble() < .005) eta += beta[j]*(row[j] = 1 + rng.nextInt(3));
+      row[ncols] = eta + rng.nextGaussian() > 0?1:0;
+    }
+    Key parsed = Key.make("sparse_parsed");
+    Key modelKey = Key.make("sparse_model");
+    GLMModel model = null;
+    Frame fr = frame(parsed, null, rows);
+    try{
+      for(Family f:new Family[]{Family.gaussian, Family.binomial}) {
+        double [] devs = new double[2];
+        for(GLMParameters.Solver s:new GLMParameters.Solver[]{GLMParameters.Solver.IRLSM, GLMParameters.Solver.AUTO}) {
+          GLMParameters params = new GLMParameters(f);
+          params._response = ncols;
+          params._training_frame = parsed;
+          params.lambda = new double[]{1e-3};
+          params.solver = s;
+          new GLM(jobKey,modelKey,"glm test sparse",params).train().get();
+          model = DKV.get(modelKey).get();
+          assertEquals(s, model._parms.solver); // AUTO is resolved per run, not in the parameters
+          if(s == GLMParameters.Solver.AUTO) {
+            assertEquals(GLMParameters.Solver.L_BFGS, GLM.autoSolver(model._dinfo, params));
+            params.n_folds = 2; // L-BFGS does not cross-validate, so AUTO must fall back to IRLSM
+            assertEquals(GLMParameters.Solver.IRLSM, GLM.autoSolver(model._dinfo, params));
+          }
+          devs[s == GLMParameters.Solver.IRLSM?0:1] = model.validation().residualDeviance();
+          model.delete(); model = null;
+        }
+        assertEquals(devs[0], devs[1], 1e-2*devs[0]);
+      }
+    } finally {
+      fr.delete();
+      if(model != null)model.delete();
+      DKV.remove(jobKey);
+    }
+  }
+
+  // Blocked accumulation must give the same Gram as adding rows one at a time
+  @Test public void testBlockedGram() {
+    java.util.Random rng = new java.util.Random(0xDECAF);
+    final int ncats = 2, catLvls = 5, nums = 40;
+    for(double density:new double[]{1.0,0.1}) {
+      Gram g1 = new Gram(nums + ncats*catLvls, catLvls, nums, ncats, true);
+      Gram g2 = new Gram(nums + ncats*catLvls, catLvls, nums, ncats, true);
+      Gram.RowBlock blk = new Gram.RowBlock(nums);
+      double [] x = new double[nums];
+      int [] cats = new int[ncats];
+      for(int r = 0; r < 1000; ++r) {
+        for(int i = 0; i < nums; ++i)
+          x[i] = rng.nextDouble() < density?rng.nextGaussian():0;
+        for(int i = 0; i < ncats; ++i)
+          cats[i] = i*catLvls + rng.nextInt(catLvls);
+        double w = rng.nextDouble();
+        g1.addRow(x, ncats, cats, w);
+        g2.addRow(x, ncats, cats, w, blk);
+      }
+      g2.flush(blk);
+      double [][] xx1 = g1.getXX(), xx2 = g2.getXX();
+      for(int i = 0; i < xx1.length; ++i)
+        for(int j = 0; j < xx1.length; ++j)
+          assertEquals(xx1[i][j], xx2[i][j], 1e-10*Math.max(1,Math.abs(xx1[i][j])));
+    }
+  }
 }
@@ -1,13 +1,16 @@
 package hex.kmeans;
 
+import hex.Model;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
+import water.H2O;
 import water.Key;
 import water.TestUtil;
 import water.fvec.Frame;
 import water.fvec.NFSFileVec;
+import water.fvec.RebalanceDataSet;
 
 import java.io.File;
 
@@ -56,6 +59,40 @@ public class KMeansTest extends TestUtil {
   }
 
 
+  // Batch scoring must pick the same clusters as scoring one row at a time
+  @Test public void testBatchScoring() {
+    KMeansModel kmm = null;
+    Frame fr = null, fr2 = null;
+    try {
+      fr = parse_test_file("smalldata/iris/iris_wheader.csv");
+      fr.vecs()[0].set(3, Double.NaN); // a missing value
+      fr.vecs()[4].set(7, Double.NaN); // a missing level
+
+      KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+      parms._training_frame = fr._key;
+      parms._K = 3;
+      parms._max_iters = 10;
+      kmm = doSeed(parms,0);
+
+      fr2 = kmm.score(fr);
+      String[] names = kmm._output._names;
+      double[] row = new double[names.length];
+      float[] preds = new float[1];
+      for( long r=0; r<fr.numRows(); r++ ) {
+        for( int c=0; c<row.length; c++ )
+          row[c] = fr.vec(names[c]).at(r);
+        Assert.assertEquals("row "+r, kmm.score0(row,preds)[0], fr2.vecs()[0].at(r), 0);
+      }
+
+      // Levels are remapped to the model's domain
+      Assert.assertArrayEquals(new int[]{2,-1,0}, Model.remap(Model.getDomainMapping(new String[]{"a","b","c"}, new String[]{"c","x","a"}, false), 3));
+    } finally {
+      if( fr  != null ) fr .remove();
+      if( fr2 != null ) fr2.remove();
+      if( kmm != null ) kmm.delete();
+    }
+  }
+
   @Test public void testBadCluster() {
     Frame fr = null;
     try {
@@ -192,5 +229,126 @@ public class KMeansTest extends TestUtil {
     }
   }
 
+  // Hamerly's pruning must give exactly the same clustering as full Lloyd passes
+  @Test public void testHamerly() {
+    Frame fr = null;
+    KMeansModel lloyd = null, hamerly = null;
+    try {
+      fr = parse_test_file("smalldata/covtype/covtype.20k.data");
+      KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+      parms._training_frame = fr._key;
+      parms._K = 7;
+      parms._normalize = true;
+      parms._max_iters = 20;
+      parms._init = KMeans.Initialization.None;
+      long seed = 0xDECAF;
+      lloyd = doSeed(parms, seed);
+      parms._algorithm = KMeans.Algorithm.Hamerly;
+      hamerly = doSeed(parms, seed);
+
+      Assert.assertEquals(lloyd._output._iters, hamerly._output._iters);
+      Assert.assertArrayEquals(lloyd._output._rows, hamerly._output._rows);
+      for( int i=0; i<parms._K; i++ )
+        Assert.assertTrue(close(lloyd._output._clusters[i], hamerly._output._clusters[i]));
+      Assert.assertEquals(lloyd._output._mse, hamerly._output._mse, 1e-8);
+    } finally {
+      if( fr  != null ) fr .remove();
+      if( lloyd != null ) lloyd.delete();
+      if( hamerly != null ) hamerly.delete();
+    }
+  }
+
+  // Rows with missing values must land in the same clusters under Hamerly as under Lloyd
+  @Test public void testHamerlyNA() {
+    Frame fr = null, lp = null, hp = null;
+    KMeansModel lloyd = null, hamerly = null;
+    try {
+      java.util.Random rng = new java.util.Random(42);
+      double[][] rows = new double[3000][4];
+      for( int r=0; r<rows.length; r++ )
+        for( int c=0; c<4; c++ )
+          rows[r][c] = rng.nextDouble() < 0.1 ? Double.NaN : (r%5)*3 + (c+1)*rng.nextGaussian();
+      fr = frame(Key.make(), new String[]{"a","b","c","d"}, rows);
+      KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+      parms._training_frame = fr._key;
+      parms._K = 5;
+      parms._normalize = true;
+      parms._max_iters = 20;
+      parms._init = KMeans.Initialization.None;
+      long seed = 0xDECAF;
+      lloyd = doSeed(parms, seed);
+      parms._algorithm = KMeans.Algorithm.Hamerly;
+      hamerly = doSeed(parms, seed);
+
+      Assert.assertEquals(lloyd._output._iters, hamerly._output._iters);
+      Assert.assertArrayEquals(lloyd._output._rows, hamerly._output._rows);
+      lp = lloyd.score(fr);
+      hp = hamerly.score(fr);
+      for( long r=0; r<fr.numRows(); r++ )
+        Assert.assertEquals("row "+r, lp.vecs()[0].at(r), hp.vecs()[0].at(r), 0);
+    } finally {
+      if( fr != null ) fr.delete();
+      if( lp != null ) lp.delete();
+      if( hp != null ) hp.delete();
+      if( lloyd != null ) lloyd.delete();
+      if( hamerly != null ) hamerly.delete();
+    }
+  }
 
+  // Mini-batches must cluster about as well as full Lloyd passes
+  @Test public void testMiniBatch() {
+    Frame raw = null, fr = null;
+    KMeansModel lloyd = null, mini = null;
+    try {
+      raw = parse_test_file("smalldata/covtype/covtype.20k.data");
+      RebalanceDataSet rb = new RebalanceDataSet(raw, Key.make(), 20); // Enough chunks to sample from
+      H2O.submitTask(rb);
+      rb.join();
+      fr = rb.getResult();
+      KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+      parms._training_frame = fr._key;
+      parms._K = 7;
+      parms._normalize = true;
+      parms._max_iters = 50;
+      parms._init = KMeans.Initialization.None;
+      long seed = 0xDECAF;
+      lloyd = doSeed(parms, seed);
+      parms._algorithm = KMeans.Algorithm.MiniBatch;
+      parms._batch_fraction = 0.25;
+      mini = doSeed(parms, seed);
+
+      Assert.assertEquals(fr.numRows(), water.util.ArrayUtils.sum(mini._output._rows));
+      Assert.assertTrue("MSE " + mini._output._mse + " vs " + lloyd._output._mse + " for Lloyd",
+                        mini._output._mse < 1.1 * lloyd._output._mse);
+    } finally {
+      if( raw != null ) raw.remove();
+      if( fr  != null ) fr .remove();
+      if( lloyd != null ) lloyd.delete();
+      if( mini != null ) mini.delete();
+    }
+  }
+
+  // k-means|| seeding must start off much closer to a good clustering than random rows
+  @Test public void testInit() {
+    Frame fr = null;
+    try {
+      fr = parse_test_file("smalldata/covtype/covtype.20k.data");
+      KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+      parms._training_frame = fr._key;
+      parms._K = 20;
+      parms._normalize = true;
+      parms._max_iters = 1;
+      double[] mse = new double[2];
+      KMeans.Initialization[] inits = { KMeans.Initialization.None, KMeans.Initialization.PlusPlus };
+      for( int i=0; i<inits.length; i++ ) {
+        parms._init = inits[i];
+        KMeansModel kmm = doSeed(parms, 0xDECAF);
+        mse[i] = kmm._output._mse;
+        kmm.delete();
+      }
+      Assert.assertTrue("PlusPlus MSE " + mse[1] + " vs " + mse[0] + " for random rows", mse[1] < mse[0]);
+    } finally {
+      if( fr  != null ) fr .remove();
+    }
+  }
 }
@@ -4,6 +4,7 @@ import water.*;
 import water.api.ModelSchema;
 import water.fvec.Chunk;
 import water.fvec.Frame;
+import water.fvec.NewChunk;
 import water.fvec.TransfVec;
 import water.fvec.Vec;
 import water.util.ArrayUtils;
@@ -334,28 +335,34 @@ public abstract class Model<M extends Model<M,P,O>, P extends Model.Parameters<M
       }
     }
     // Adapt the Frame layout - returns adapted frame and frame containing only
-    // newly created vectors
-    Frame[] adaptFrms = adapt ? adapt(fr_hacked,false) : null;
+    // newly created vectors.  Enum columns are not wrapped in TransfVecs but
+    // get a dense level remapping, applied while scoring.
+    int[][] remaps = adapt ? new int[_output.nfeatures()][] : null;
+    Frame[] adaptFrms = adapt ? adapt(fr_hacked,false,true,remaps) : null;
     // Adapted frame containing all columns - mix of original vectors from fr
     // and newly created vectors serving as adaptors
     Frame adaptFrm = adapt ? adaptFrms[0] : fr_hacked;
     // Contains only newly created vectors. The frame eases deletion of these vectors.
     Frame onlyAdaptFrm = adapt ? adaptFrms[1] : null;
     // Invoke scoring
-    Frame output = scoreImpl(adaptFrm);
+    Frame output = scoreImpl(adaptFrm, remaps);
     // Be nice to DKV and delete vectors which i created :-)
     if (adapt) onlyAdaptFrm.delete();
     computeModelMetrics(start_time, fr, output);
     return output;
   }
 
-  /** Score an already adapted frame.
+  /** Rows scored together by {@link #score0(double[][], int, float[][])} */
+  public static final int SCORE_BATCH = 1024;
+
+  /** Score an already adapted frame.  Each chunk is decoded a block of rows
+   *  at a time into column arrays, which are handed to the batch scoring API.
    *
    * @param adaptFrm
+   * @param remaps dense enum level remappings per column (see {@link #remap(int[][], int)}), or null
    * @return A Frame containing the prediction column, and class distribution
    */
-  private Frame scoreImpl(Frame adaptFrm) {
-    long start_time = System.currentTimeMillis();
+  private Frame scoreImpl(Frame adaptFrm, final int[][] remaps) {
     if (isSupervised()) {
       int ridx = adaptFrm.find(_output.responseName());
       assert ridx == -1 : "Adapted frame should not contain response in scoring method!";
@@ -363,35 +370,75 @@ public abstract class Model<M extends Model<M,P,O>, P extends Model.Parameters<M
       assert adaptFrm.vecs().length == _output.nfeatures() : "Scoring data set contains wrong number of columns: " + adaptFrm.vecs().length + " instead of " + _output.nfeatures();
     }
 
-    // Create a new vector for response
-    // If the model produces a classification/enum, copy the domain into the
-    // result vector.
+    // Create the prediction columns.  If the model produces a
+    // classification/enum, copy the domain into the result vector.
     int nc = _output.nclasses();
-    Vec [] newVecs = new Vec[]{adaptFrm.anyVec().makeZero(_output.classNames())};
-    if(nc > 1)
-      newVecs = ArrayUtils.join(newVecs,adaptFrm.anyVec().makeZeros(nc));
-    String [] names = new String[newVecs.length];
+    final int npreds = nc == 1 ? 1 : nc + 1;
+    String [] names = new String[npreds];
+    String [][] domains = new String[npreds][];
     names[0] = "predict";
+    domains[0] = _output.classNames();
     for(int i = 1; i < names.length; ++i)
       names[i] = _output.classNames()[i-1];
     final int num_features = _output.nfeatures();
-    new MRTask() {
-      @Override public void map( Chunk chks[] ) {
-        double tmp [] = new double[num_features];
-        float preds[] = new float [_output.nclasses()==1?1:_output.nclasses()+1];
-        int len = chks[0]._len;
-        for( int row=0; row<len; row++ ) {
-          float p[] = score0(chks,row,tmp,preds);
-          for( int c=0; c<preds.length; c++ )
-            chks[num_features+c].set0(row,p[c]);
+    return new MRTask() {
+      @Override public void map( Chunk chks[], NewChunk ncs[] ) {
+        final int len = chks[0]._len;
+        final int bs = Math.min(len, SCORE_BATCH);
+        final double data[][] = new double[num_features][bs];
+        final float preds[][] = new float[npreds][bs];
+        for( int from=0; from<len; from+=bs ) {
+          final int n = Math.min(bs, len - from);
+          for( int c=0; c<num_features; c++ ) {
+            chks[c].getDoubles(data[c], from, from + n);
+            if( remaps != null && remaps[c] != null ) {
+              final int[] r = remaps[c];
+              final double[] d = data[c];
+              for( int i=0; i<n; i++ ) {
+                if( Double.isNaN(d[i]) ) continue;
+                final int e = (int)d[i];
+                d[i] = e < r.length && r[e] != -1 ? r[e] : Double.NaN;
+              }
+            }
+          }
+          score0(data, n, preds);
+          for( int c=0; c<npreds; c++ )
+            for( int i=0; i<n; i++ ) {
+              final float p = preds[c][i];
+              if( Float.isNaN(p) ) ncs[c].addNA(); else ncs[c].addNum(p);
+            }
         }
       }
-    }.doAll(ArrayUtils.join(adaptFrm.vecs(),newVecs));
+    }.doAll(npreds, adaptFrm).outputFrame(names, domains);
+  }
 
-    // Return just the output columns
-    return new Frame(names, newVecs);
+  /** Batch scoring API: scores rows {@code [0,n)} of column-major data.
+   *  The data is pre-loaded into re-used temp arrays, in the order the model
+   *  expects (enums already mapped to the model's domains), and the
+   *  predictions are loaded into re-used, column-major temp arrays.  Default
+   *  method is to score one row at a time; models override this with a
+   *  version working on whole columns at once.
+   *  @param data data[col][row], the model features
+   *  @param n number of rows
+   *  @param preds preds[0][row] is the prediction, followed by the class distribution */
+  protected void score0(double data[/*ncols*/][/*nrows*/], int n, float preds[/*nclasses+1*/][/*nrows*/]) {
+    final double tmp[] = new double[data.length];
+    final float p[] = new float[preds.length];
+    for( int row=0; row<n; row++ ) {
+      for( int c=0; c<tmp.length; c++ )
+        tmp[c] = data[c][row];
+      score0(tmp,p);
+      correctProbabilities(p,tmp);
+      for( int c=0; c<p.length; c++ )
+        preds[c][row] = p[c];
+    }
   }
 
+  /** Post-process the predictions of one row, e.g. to correct the class
+   *  distribution.  Models overriding the batch scoring API call this for
+   *  every row they predict.  Default is to do nothing. */
+  protected float[] correctProbabilities(float scored[], double data[]) { return scored; }
+
   /** Single row scoring, on a compatible Frame.  */
   public final float[] score( Frame fr, boolean exact, int row ) {
     double tmp[] = new double[fr.numCols()];
@@ -515,6 +562,14 @@ public abstract class Model<M extends Model<M,P,O>, P extends Model.Parameters<M
   }
 
   public Frame[] adapt( final Frame fr, boolean exact, boolean haveResponse) {
+    return adapt(fr, exact, haveResponse, null);
+  }
+
+  /** Same as {@link #adapt(Frame, boolean, boolean)}, but if {@code remaps}
+   *  is not null, enum columns needing a domain mapping are not wrapped in a
+   *  TransfVec; their dense mapping (see {@link #remap(int[][], int)}) is
+   *  stored in {@code remaps} instead, and must be applied by the caller. */
+  protected Frame[] adapt( final Frame fr, boolean exact, boolean haveResponse, int[][] remaps) {
     Frame vfr = new Frame(fr); // To avoid modification of original frame fr
     int n = _output._names.length;
     if (haveResponse && isSupervised()) {
@@ -547,6 +602,9 @@ public abstract class Model<M extends Model<M,P,O>, P extends Model.Parameters<M
         Vec adaptedVec;
         if (toEnum[c]) { // Vector was flipped to column already, compose transformation
           adaptedVec = TransfVec.compose( (TransfVec) frvecs[c], map[c], vfr.domains()[c], false);
+        } else if (remaps != null) { // Caller maps the levels itself
+          remaps[c] = remap(map[c], frvecs[c].domain().length);
+          continue;
         } else adaptedVec = frvecs[c].makeTransf(map[c], vfr.domains()[c]);
         avecs.add(frvecs[c] = adaptedVec);
         anames.add(names[c]); // Collect right names
@@ -560,6 +618,19 @@ public abstract class Model<M extends Model<M,P,O>, P extends Model.Parameters<M
     return new Frame[] { new Frame(names,frvecs), vecTrash };
   }
 
+  /** Expand a packed domain mapping (see {@link #getDomainMapping(String, String[], String[], boolean)})
+   *  into a dense array, indexed by data level and holding the model level,
+   *  or -1 if the model does not know the data level.
+   *  @param map packed mapping {values, indexes}
+   *  @param len number of data levels */
+  public static int[] remap(int[][] map, int len) {
+    int res[] = new int[len];
+    Arrays.fill(res, -1);
+    for( int i=0; i<map[0].length; i++ )
+      if( map[0][i] < len ) res[map[0][i]] = map[1] == null ? i : map[1][i];
+    return res;
+  }
+
   /** Returns a mapping between values of model domains (<code>modelDom</code>) and given column domain.
    *  @see #getDomainMapping(String, String[], String[], boolean) */
   public static int[][] getDomainMapping(String[] modelDom, String[] colDom, boolean exact) {
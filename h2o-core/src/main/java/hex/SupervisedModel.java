@@ -118,8 +118,12 @@ public abstract class SupervisedModel<M extends Model<M,P,O>, P extends Model.Pa
     assert chks.length>=_output._names.length; // Last chunk is for the response
     for( int i=0; i<_output._names.length-1; i++ ) // Do not include last value since it can contains a response
       tmp[i] = chks[i].at0(row_in_chunk);
-    float[] scored = score0(tmp,preds);
-    // Correct probabilities obtained from training on oversampled data back to original distribution
+    return correctProbabilities(score0(tmp,preds),tmp);
+  }
+
+  /** Correct probabilities obtained from training on oversampled data back
+   *  to the original distribution, and relabel the row accordingly. */
+  @Override protected float[] correctProbabilities( float scored[], double tmp[] ) {
     // C.f. http://gking.harvard.edu/files/0s.pdf Eq.(27)
     if (_output.isClassifier() && _priorClassDist != null && _modelClassDist != null) {
       assert(scored.length == _output.nclasses()+1); //1 label + nclasses probs
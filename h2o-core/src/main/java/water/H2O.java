@@ -125,7 +125,8 @@ final public class H2O {
     FJPS[ACK_ACK_PRIORITY] = new ForkJoinPool2(ACK_ACK_PRIORITY,1);
     for( int i=MIN_HI_PRIORITY+1; i<MAX_PRIORITY; i++ )
       FJPS[i] = new ForkJoinPool2(i,NUMCPUS); // All CPUs, but no more for blocking purposes
-    FJPS[GUI_PRIORITY] = new ForkJoinPool2(GUI_PRIORITY,2);
+    // GUI work includes serving the HTTP requests, see HTTPSelectorThread
+    FJPS[GUI_PRIORITY] = new ForkJoinPool2(GUI_PRIORITY,8);
   }
 
   // Easy peeks at the FJ queues
@@ -165,6 +166,10 @@ final public class H2O {
     public H2OCountedCompleter(){}
     protected H2OCountedCompleter(H2OCountedCompleter completer){super(completer);}
 
+    /** The Job this task works for, charged with its resources by {@link
+     *  JobCost}; by default the Job of the thread making the task. */
+    protected transient Key _costJob = JobCost.current();
+
     /** Used by the F/J framework internally to do work.  Once per F/J task,
      *  drain the high priority queue before doing any low priority work. 
      *  Calls {@link #compute2} which contains actual work. */
@@ -183,7 +188,9 @@ final public class H2O {
           if( h2o != null ) {     // Got a hi-priority job?
             t._priority = p;      // Set & do it now!
             t.setPriority(Thread.MAX_PRIORITY-1);
-            h2o.compute2();       // Do it ahead of normal F/J work
+            H2OCountedCompleter prior = JobCost.enter(h2o);
+            try { h2o.compute2(); } // Do it ahead of normal F/J work
+            finally { JobCost.exit(prior); }
             p++;                  // Check again the same queue
           }
         }
@@ -197,7 +204,9 @@ final public class H2O {
         if( pp == MIN_PRIORITY ) t.setPriority(Thread.NORM_PRIORITY-1);
       }
       // Now run the task as planned
-      compute2();
+      H2OCountedCompleter prior = JobCost.enter(this);
+      try { compute2(); }
+      finally { JobCost.exit(prior); }
     }
 
     /** Override to specify actual work to do */
@@ -291,6 +300,12 @@ final public class H2O {
     // Less common config options
     /** -nthreads=nthreads; Max number of F/J threads in the low-priority batch queue */
     int nthreads=Math.max(99,10*NUMCPUS);
+    /** -chunks_per_core=chunks_per_core; Chunks per core the chunk-layout planner aims for */
+    public int chunks_per_core=4;
+    /** -profile_hz=profile_hz; Stack samples per second of the background profiler, 0 for none */
+    public int profile_hz=10;
+    /** -job_slots=job_slots; Top-level tasks of Jobs run at once per node; more queue by Job weight */
+    public int job_slots=4;
     /** -random_udp_drop, -random_udp_drop=true; test only, randomly drop udp incoming */
     boolean random_udp_drop;
     /** -client, -client=true; Client-only; no work; no homing of Keys (but can cache) */
@@ -387,6 +402,19 @@ final public class H2O {
     "          Maximum number of threads in the low priority batch-work queue.\n" +
     "          (The default is 99.)\n" +
     "\n" +
+    "    -chunks_per_core <#chunks>\n" +
+    "          Chunks per core to aim for when laying out or re-chunking Frames.\n" +
+    "          (The default is 4.)\n" +
+    "\n" +
+    "    -profile_hz <#samples>\n" +
+    "          Stack samples per second taken by the background profiler; 0 turns it off.\n" +
+    "          (The default is 10.)\n" +
+    "\n" +
+    "    -job_slots <#tasks>\n" +
+    "          Map/reduce tasks of Jobs run at once per node; more wait their turn,\n" +
+    "          shared between the Jobs by weight.  Work outside of Jobs never waits.\n" +
+    "          (The default is 4.)\n" +
+    "\n" +
     "    -md5skip\n" +
     "          Skip comparing MD5 of jar path while joining cloud.\n" +
     "\n" +
@@ -468,6 +496,7 @@ final public class H2O {
 
     // Create the starter Cloud with 1 member
     SELF._heartbeat._jar_md5 = JarHash.JARHASH;
+    SELF._heartbeat._types_hash = TypeMap.PREBUILT_HASH;
     SELF._heartbeat._client = ARGS.client;
     Paxos.doHeartbeat(SELF);
     assert SELF._heartbeat._cloud_hash != 0 || ARGS.client;
@@ -510,6 +539,9 @@ final public class H2O {
     // Start the TCPReceiverThread, to listen for TCP requests from other Cloud
     // Nodes. There should be only 1 of these, and it never shuts down.
     new TCPReceiverThread().start();
+
+    // Start the background stack sampler, for profiles of what ran recently.
+    if( ARGS.profile_hz > 0 ) new StackSampler(ARGS.profile_hz).start();
     // Register the default Requests
     Object x = water.api.RequestServer.class;
   }
@@ -683,7 +715,10 @@ final public class H2O {
     // If the K/V mapping is going away, remove the old guy.
     // If the K/V mapping is changing, let the store cleaner just overwrite.
     // If the K/V mapping is new, let the store cleaner just create
-    if( old != null && val == null ) old.removePersist(); // Remove the old guy
+    if( old != null && val == null ) { // Remove the old guy
+      old.removePersist();
+      if( key.home() && old.isLockable() ) Lockable.removed(key);
+    }
     if( val != null ) {
       Cleaner.dirty_store(); // Start storing the new guy
       Scope.track(key);
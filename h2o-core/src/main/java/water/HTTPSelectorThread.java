@@ -0,0 +1,347 @@
+package water;
+
+import jsr166y.ForkJoinPool;
+import water.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The Thread that serves the HTTP connections of a {@link NanoHTTPD}.
+ *
+ * One selector thread accepts the connections and reads the requests
+ * without blocking.  Each complete request is handed off to a F/J task at
+ * {@link H2O#GUI_PRIORITY}, so at most a few requests are served at once no
+ * matter how many clients poll us.  The task serves the request and writes
+ * the response, then gives the connection back to the selector to wait for
+ * the next request (HTTP/1.1 keep-alive).  Responses of unknown length are
+ * sent with chunked transfer encoding.
+ */
+class HTTPSelectorThread extends Thread {
+  /** Maximal supported header */
+  static final int MAX_HEADER_BUFFER_SIZE = 1 << 16; // 64k
+  /** Maximal supported request body; the REST API takes parameters, not uploads */
+  static final int MAX_BODY_SIZE = 1 << 26; // 64M
+  /** Initial per-connection request buffer, grown for long requests and shrunk back after them */
+  static final int BUFFER_SIZE = 8192;
+  /** Idle keep-alive connections, and clients not reading their response, are closed after this long */
+  static final int TIMEOUT_MS = 30*1000;
+
+  final NanoHTTPD _nano;
+  final ServerSocketChannel _ssc;
+  final Selector _sel;
+  // Connection changes requested by the tasks, run on the selector thread
+  private final ConcurrentLinkedQueue<Runnable> _todo = new ConcurrentLinkedQueue<>();
+
+  HTTPSelectorThread( NanoHTTPD nano, ServerSocketChannel ssc ) throws IOException {
+    super("HTTP-Selector");
+    setDaemon(true);
+    setPriority(MAX_PRIORITY-1);
+    _nano = nano;
+    _ssc = ssc;
+    _sel = Selector.open();
+    _ssc.configureBlocking(false);
+    _ssc.register(_sel, SelectionKey.OP_ACCEPT);
+  }
+
+  @Override public void run() {
+    while( _ssc.isOpen() ) {
+      try {
+        _sel.select(1000);
+        for( Runnable r; (r = _todo.poll()) != null; ) r.run();
+        Iterator<SelectionKey> it = _sel.selectedKeys().iterator();
+        while( it.hasNext() ) {
+          SelectionKey k = it.next();
+          it.remove();
+          if( !k.isValid() ) continue;
+          if( k.isAcceptable() ) accept();
+          else if( k.isWritable() ) { k.interestOps(0); ((Conn)k.attachment()).writable(); }
+          else if( k.isReadable() ) ((Conn)k.attachment()).read();
+        }
+        closeIdle();
+      } catch( ClosedSelectorException | ClosedChannelException e ) {
+        break;                  // Server socket closed for shutdown
+      } catch( IOException e ) {
+        Log.err("IO error on HTTP port "+_ssc.socket().getLocalPort()+": ",e);
+      }
+    }
+    try { _sel.close(); } catch( IOException ignore ) { }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel ch = _ssc.accept();
+    if( ch == null ) return;
+    ch.configureBlocking(false);
+    ch.socket().setTcpNoDelay(true);
+    Conn c = new Conn(ch);
+    c._key = ch.register(_sel, SelectionKey.OP_READ, c);
+  }
+
+  private void closeIdle() {
+    long now = System.currentTimeMillis();
+    for( SelectionKey k : _sel.keys() ) {
+      Conn c = k.attachment() instanceof Conn ? (Conn)k.attachment() : null;
+      if( c != null && !c._busy && now - c._lastUse > TIMEOUT_MS ) c.close();
+    }
+  }
+
+  // Run on the selector thread
+  private void later( Runnable r ) { _todo.add(r); _sel.wakeup(); }
+
+  /** One client connection */
+  final class Conn {
+    final SocketChannel _ch;
+    SelectionKey _key;
+    ByteBuffer _in = ByteBuffer.allocate(BUFFER_SIZE); // Received bytes not served yet, in [0,position)
+    int _scanned;               // Header end searched up to here
+    int _hlen = -1, _len;       // Header and whole request length, once known
+    String _err;                // Request which cannot be read, answered with this
+    long _lastUse = System.currentTimeMillis();
+    boolean _busy;              // A task serves this connection
+    private boolean _writable;  // Set by the selector, once the client takes more data
+    private ByteBuffer _out;    // Response bytes not written yet
+
+    Conn( SocketChannel ch ) { _ch = ch; }
+
+    // Selector thread: read what is there, and hand off a complete request
+    void read() {
+      try {
+        if( _ch.read(_in) < 0 ) { close(); return; }
+      } catch( IOException e ) { close(); return; }
+      _lastUse = System.currentTimeMillis();
+      dispatch();
+    }
+
+    // Room for more of the request, or false with _err set if it is too long
+    private boolean grow() {
+      int cap = _in.capacity();
+      if( _hlen == -1 ) {
+        if( cap >= MAX_HEADER_BUFFER_SIZE ) { _err = NanoHTTPD.HTTP_TOOLONGREQUEST; return false; }
+        cap = Math.min(2*cap, MAX_HEADER_BUFFER_SIZE);
+      } else cap = (int)Math.min(2L*cap, _len); // Grow as the body arrives, not up front
+      ByteBuffer bb = ByteBuffer.allocate(cap);
+      _in.flip();
+      _in = bb.put(_in);
+      return true;
+    }
+
+    // Selector thread: if a whole request is buffered, serve it
+    void dispatch() {
+      if( _busy || !_ch.isOpen() ) return;
+      // Not all there yet: make room for the rest, unless the request is too long
+      if( _err == null && !complete() && (_in.hasRemaining() || grow()) ) return;
+      _busy = true;
+      _key.interestOps(0);      // No more reads until this request is served
+      H2O.submitTask(new HTTPTask(this));
+    }
+
+    // Find the end of the header, then wait for Content-Length bytes of body
+    private boolean complete() {
+      final byte[] buf = _in.array();
+      final int pos = _in.position();
+      if( _hlen == -1 ) {
+        for( int i = _scanned; i < pos; i++ ) {
+          if( buf[i] != '\n' ) continue;
+          if( i+1 < pos && buf[i+1] == '\n' ) { _hlen = i+2; break; }
+          if( i+2 < pos && buf[i+1] == '\r' && buf[i+2] == '\n' ) { _hlen = i+3; break; }
+        }
+        if( _hlen == -1 ) { _scanned = Math.max(0, pos-2); return false; }
+        String hdr = new String(buf, 0, _hlen).toLowerCase();
+        if( hdr.contains("\ntransfer-encoding: chunked") ) {
+          _err = "411 Length Required";
+          return true;
+        }
+        long size = 0;
+        int cl = hdr.indexOf("\ncontent-length:");
+        if( cl >= 0 ) {
+          int eol = hdr.indexOf('\n', cl+1);
+          try { size = Long.parseLong(hdr.substring(cl+"\ncontent-length:".length(), eol).trim()); }
+          catch( NumberFormatException ignore ) { }
+        }
+        if( size < 0 ) { _err = NanoHTTPD.HTTP_BADREQUEST; return true; }
+        if( size > MAX_BODY_SIZE ) { _err = NanoHTTPD.HTTP_TOOLARGE; return true; }
+        _len = (int)(_hlen+size);
+      }
+      return pos >= _len;
+    }
+
+    // Task: done with the request, drop it from the buffer.  A buffer grown
+    // for a long request goes back to the initial size, unless the bytes of
+    // the next request do not fit.
+    private void consume() {
+      _in.flip();
+      _in.position(_len);
+      if( _in.capacity() > BUFFER_SIZE && _in.remaining() <= BUFFER_SIZE )
+        _in = ByteBuffer.allocate(BUFFER_SIZE).put(_in);
+      else _in.compact();
+      _scanned = 0;
+      _hlen = -1;
+      _len = 0;
+    }
+
+    // Task: back to the selector, to wait for the next request
+    void release() {
+      later(new Runnable() {
+        @Override public void run() {
+          _busy = false;
+          _lastUse = System.currentTimeMillis();
+          if( !_key.isValid() ) return;
+          _key.interestOps(SelectionKey.OP_READ);
+          dispatch();           // The next request may be here already
+        }
+      });
+    }
+
+    void close() {
+      try { _ch.close(); } catch( IOException ignore ) { }
+    }
+
+    // Selector thread: the client takes more data
+    synchronized void writable() { _writable = true; notifyAll(); }
+
+    // Task: write the response bytes out, blocking (in a F/J friendly way)
+    // while the client does not take them
+    void write( ByteBuffer bb ) throws IOException {
+      while( bb.hasRemaining() )
+        if( _ch.write(bb) == 0 ) awaitWritable();
+    }
+
+    private void awaitWritable() throws IOException {
+      synchronized( this ) { _writable = false; }
+      later(new Runnable() {
+        @Override public void run() { if( _key.isValid() ) _key.interestOps(SelectionKey.OP_WRITE); }
+      });
+      final long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+      try {
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+          @Override public boolean isReleasable() {
+            synchronized( Conn.this ) { return _writable || !_ch.isOpen() || System.currentTimeMillis() > deadline; }
+          }
+          @Override public boolean block() throws InterruptedException {
+            synchronized( Conn.this ) { if( !isReleasable() ) Conn.this.wait(1000); }
+            return isReleasable();
+          }
+        });
+      } catch( InterruptedException e ) { throw new InterruptedIOException(); }
+      synchronized( this ) { if( !_writable ) throw new IOException("HTTP client does not read its response"); }
+    }
+
+    // Buffer response bytes, writing out full buffers
+    private void put( byte[] b, int off, int len ) throws IOException {
+      while( len > 0 ) {
+        int n = Math.min(len, _out.remaining());
+        _out.put(b, off, n);
+        off += n; len -= n;
+        if( !_out.hasRemaining() ) flush();
+      }
+    }
+    private void put( String s ) throws IOException { byte[] b = s.getBytes(); put(b, 0, b.length); }
+    private void flush() throws IOException { _out.flip(); write(_out); _out.clear(); }
+
+    // Task: parse and serve the request, and send the response.
+    // Returns true if the connection stays open for the next request.
+    boolean serve() throws IOException {
+      final long startMillis = System.currentTimeMillis();
+      Properties pre = new Properties(), header = new Properties();
+      NanoHTTPD.Response r;
+      if( _err != null )
+        r = _nano.new Response(_err, NanoHTTPD.MIME_PLAINTEXT, "BAD REQUEST: "+_err);
+      else
+        r = _nano.serveRequest(_in.array(), _hlen, _len, pre, header);
+      boolean http11 = "HTTP/1.1".equals(pre.getProperty("version"));
+      String connection = header.getProperty("connection", "");
+      boolean keepAlive = _err == null && (http11 ? !connection.equalsIgnoreCase("close") : connection.equalsIgnoreCase("keep-alive"));
+      if( _err == null ) consume();
+      keepAlive = sendResponse(r, http11, keepAlive);
+      Log.httpd("         HTTP_status: " + r.status + ", millis: " + (System.currentTimeMillis() - startMillis));
+      return keepAlive;
+    }
+
+    // Send the response with its length known up front, or chunked, or
+    // (HTTP/1.0) followed by closing the connection.
+    private boolean sendResponse( NanoHTTPD.Response r, boolean http11, boolean keepAlive ) throws IOException {
+      if( r.status == null )
+        throw new RuntimeException( "sendResponse(): Status can't be null." );
+      final InputStream data = r.data;
+      long length = -1;
+      String cl = r.header.getProperty("Content-Length");
+      if( cl != null ) length = Long.parseLong(cl.trim());
+      else if( r.bytes != null ) length = r.bytes.remaining();
+      else if( data == null ) length = 0;
+      else if( data instanceof java.io.ByteArrayInputStream ) length = data.available();
+      final boolean chunked = length == -1 && http11 && keepAlive;
+      if( length == -1 && !chunked ) keepAlive = false; // Length is told by closing
+
+      _out = ByteBuffer.allocate(NanoHTTPD.theBufferSize);
+      try {
+        StringBuilder sb = new StringBuilder();
+        sb.append(http11 ? "HTTP/1.1 " : "HTTP/1.0 ").append(r.status).append(" \r\n");
+        if( r.mimeType != null )
+          sb.append("Content-Type: ").append(r.mimeType).append("\r\n");
+        if( r.header.getProperty("Date") == null )
+          sb.append("Date: ").append(NanoHTTPD.httpDate()).append("\r\n");
+        Enumeration e = r.header.keys();
+        while( e.hasMoreElements() ) {
+          String key = (String)e.nextElement();
+          sb.append(key).append(": ").append(r.header.getProperty(key)).append("\r\n");
+        }
+        if( cl == null && length != -1 ) sb.append("Content-Length: ").append(length).append("\r\n");
+        if( chunked ) sb.append("Transfer-Encoding: chunked\r\n");
+        sb.append(keepAlive ? "Connection: keep-alive\r\n" : "Connection: close\r\n");
+        sb.append("\r\n");
+        put(sb.toString());
+
+        if( r.bytes != null ) {   // Straight from the AutoBuffer
+          flush();
+          write(r.bytes.duplicate());
+        } else if( data != null ) {
+          byte[] buff = new byte[NanoHTTPD.theBufferSize];
+          long pending = length == -1 ? Long.MAX_VALUE : length;
+          while( pending > 0 ) {
+            int read = data.read(buff, 0, (int)Math.min(pending, buff.length));
+            if( read <= 0 ) break;
+            if( chunked ) put(Integer.toHexString(read)+"\r\n");
+            put(buff, 0, read);
+            if( chunked ) put("\r\n");
+            pending -= read;
+          }
+          if( pending > 0 && length != -1 ) keepAlive = false; // Short response, resync by closing
+        }
+        if( chunked ) put("0\r\n\r\n");
+        flush();
+      } finally {
+        _out = null;
+        if( data != null ) data.close();
+      }
+      return keepAlive;
+    }
+  }
+
+  /** Serves one request of a connection, at GUI priority */
+  static class HTTPTask extends H2O.H2OCountedCompleter<HTTPTask> {
+    final transient Conn _c;
+    HTTPTask( Conn c ) { _c = c; }
+    @Override public byte priority() { return H2O.GUI_PRIORITY; }
+    @Override protected void compute2() {
+      boolean keepAlive = false;
+      try {
+        keepAlive = _c.serve();
+      } catch( IOException ignore ) {
+        // Client went away
+      } catch( Throwable t ) {
+        Log.err(t);
+      } finally {
+        if( keepAlive ) _c.release();
+        else _c.close();
+      }
+      tryComplete();
+    }
+  }
+}
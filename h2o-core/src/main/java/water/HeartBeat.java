@@ -16,6 +16,7 @@ public class HeartBeat extends Iced<HeartBeat> {
   long _jvm_boot_msec;   // Boot time of JVM
   public long jvmBootTimeMsec(){return _jvm_boot_msec;}
   byte[] _jar_md5;       // JAR file digest
+  int _types_hash;       // Hash of the type IDs fixed at build time
   public char _num_cpus; // Number of CPUs for this Node, limit of 65535
   public double _gflops;        // Number of GFlops for this node
   public double _membw;         // Memory bandwidth in GB/s
@@ -51,6 +52,11 @@ public class HeartBeat extends Iced<HeartBeat> {
   public long get_max_disk ()  { return  ((long)_max_disk)<<20 ; }
 
   boolean check_jar_md5() {
+    // Type IDs fixed at build time must agree, even if the jars need not
+    if( _types_hash != TypeMap.PREBUILT_HASH ) {
+      System.out.println("Type ID check fails; my hash="+TypeMap.PREBUILT_HASH+", received hash="+_types_hash);
+      return false;
+    }
     if( H2O.ARGS.md5skip || Arrays.equals(JarHash.JARHASH, _jar_md5) ) return true;
     System.out.println("Jar check fails; my hash="+Arrays.toString(JarHash.JARHASH));
     System.out.println("Jar check fails; received hash="+Arrays.toString(_jar_md5));
@@ -20,6 +20,13 @@ public class Icer<T extends Freezable> {
   protected T readJSON(AutoBuffer ab, T ice) { /*base of the read call chain; no fields to read*/return ice; }
   protected void copyOver( T dst, T src ) { /*base of the call chain; no fields to copy*/ }
   protected int frozenType() { throw fail(); }
+  // Offset of a field not otherwise accessible; looked up once per Icer
+  // class rather than baked into the code, since it varies by JVM and heap
+  // size and Icers may be generated at build time.
+  protected static long offset( String clazz, String field ) {
+    try { return _unsafe.objectFieldOffset(Class.forName(clazz,false,Icer.class.getClassLoader()).getDeclaredField(field)); }
+    catch( ClassNotFoundException | NoSuchFieldException e ) { throw new RuntimeException(e); }
+  }
   protected String className() { throw fail(); }
   private RuntimeException fail() {
     return new RuntimeException(getClass().toString()+" should be automatically overridden by the auto-serialization code");
@@ -0,0 +1,81 @@
+package water;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.TreeSet;
+
+/** Build-time generation of the serializers.  Gives every {@link Freezable}
+ *  class found in the given class directories a fixed type ID, listed in
+ *  {@link TypeMap#PREBUILT_TYPES}, and writes out its {@link Icer}; nodes
+ *  started from the build then need neither weave these at runtime nor ask
+ *  the leader for their IDs.  Classes not seen here are still handled at
+ *  runtime, as before.
+ *
+ *  <p>Usage: {@code IcerGen outputDir classDir...}, with the output
+ *  directory and the class directories on the classpath.  Run by the
+ *  h2o-algos build over the h2o-core and h2o-algos classes.  No user-exposed
+ *  calls. */
+public class IcerGen {
+  public static void main( String[] args ) throws Exception {
+    File out = new File(args[0]);
+    // Drop the output of a prior run, before the TypeMap or Weaver can see it
+    File table = new File(out,TypeMap.PREBUILT_TYPES);
+    if( table.exists() && !table.delete() ) throw new IOException("Cannot delete "+table);
+    deleteIcers(out);
+
+    // All Freezable classes, in a stable order
+    TreeSet<String> names = new TreeSet<>();
+    for( int i=1; i<args.length; i++ ) {
+      ArrayList<String> clzs = new ArrayList<>();
+      find(new File(args[i]),"",clzs);
+      for( String name : clzs ) {
+        Class clz;
+        try { clz = Class.forName(name,false,IcerGen.class.getClassLoader()); }
+        catch( Throwable t ) { continue; } // Missing optional dependencies
+        if( Freezable.class.isAssignableFrom(clz) && !clz.isInterface() &&
+            clz != Iced.class && clz != H2O.H2OCountedCompleter.class )
+          names.add(name);
+      }
+    }
+    table.getParentFile().mkdirs();
+    try( PrintWriter pw = new PrintWriter(new FileWriter(table)) ) {
+      for( String name : names ) pw.println(name);
+    }
+
+    int icers = 0;
+    for( String name : names ) {
+      try {
+        Weaver.genClassfile(Class.forName(name,false,IcerGen.class.getClassLoader()),out.getPath());
+        icers++;
+      } catch( Throwable t ) {
+        String msg = String.valueOf(t.getMessage()).split("\n")[0];
+        System.err.println("No Icer for "+name+", left to weave at runtime: "+t.getClass().getSimpleName()+": "+msg);
+      }
+    }
+    System.out.println("Type IDs for "+names.size()+" classes, Icers for "+icers+", in "+out);
+  }
+
+  // Class names under a class directory
+  private static void find( File dir, String pkg, ArrayList<String> clzs ) {
+    File[] fs = dir.listFiles();
+    if( fs == null ) return;
+    for( File f : fs ) {
+      String name = f.getName();
+      if( f.isDirectory() ) find(f,pkg+name+".",clzs);
+      else if( name.endsWith(".class") && !name.endsWith("$Icer.class") )
+        clzs.add(pkg+name.substring(0,name.length()-".class".length()));
+    }
+  }
+
+  private static void deleteIcers( File dir ) throws IOException {
+    File[] fs = dir.listFiles();
+    if( fs == null ) return;
+    for( File f : fs ) {
+      if( f.isDirectory() ) deleteIcers(f);
+      else if( f.getName().endsWith("$Icer.class") && !f.delete() ) throw new IOException("Cannot delete "+f);
+    }
+  }
+}
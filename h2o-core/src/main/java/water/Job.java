@@ -63,10 +63,14 @@ public class Job<T extends Keyed> extends Keyed {
   public long   _end_time;     // Job end time, or 0 if not ended
   /** Any exception thrown by this Job, or null if none */
   public String _exception;    // Unpacked exception & stack trace
+  /** The driver and its completion code are done, or never ran: locks still
+   *  held by this Job will not be released, and may be broken */
+  boolean _finished;
 
   /** Possible job states. */
   public static enum JobState {
     CREATED,   // Job was created
+    QUEUED,    // Job was started, and waits for memory to run
     RUNNING,   // Job is running
     CANCELLED, // Job was cancelled by user
     FAILED,    // Job crashed, error message/exception is available
@@ -75,6 +79,13 @@ public class Job<T extends Keyed> extends Keyed {
 
   public JobState _state;
 
+  /** Share of each node's task slots, relative to the other Jobs; see
+   *  {@link JobScheduler} */
+  public double _weight = 1;
+  /** Most top-level MRTasks of this Job running at once per node, or 0 for
+   *  as many as the node's task slots; see {@link JobScheduler} */
+  public int _max_tasks;
+
   /** Returns true if the job was cancelled by the user or crashed.
    *  @return true if the job is in state {@link JobState#CANCELLED} or {@link JobState#FAILED} */
   public boolean isCancelledOrCrashed() {
@@ -100,8 +111,9 @@ public class Job<T extends Keyed> extends Keyed {
   public final long msec() {
     switch( _state ) {
     case CREATED: return 0;
+    case QUEUED:  return 0;
     case RUNNING: return System.currentTimeMillis() - _start_time;
-    default:      return _end_time                  - _start_time;
+    default:      return _start_time == 0 ? 0 : _end_time - _start_time; // Zero if stopped while queued
     }
   }
 
@@ -124,9 +136,11 @@ public class Job<T extends Keyed> extends Keyed {
 
 
   /** Start this task based on given top-level fork-join task representing job computation.
+   *  The Job may wait in {@link JobState#QUEUED} state first, if the node is
+   *  short of memory; see {@link JobScheduler}.
    *  @param fjtask top-level job computation task.
    *  @param work Units of work to be completed
-   *  @return this job in {@link JobState#RUNNING} state
+   *  @return this job in {@link JobState#RUNNING} or {@link JobState#QUEUED} state
    *  
    *  @see JobState
    *  @see H2OCountedCompleter
@@ -146,11 +160,16 @@ public class Job<T extends Keyed> extends Keyed {
     // runs the onCompletion or onExceptionCompletion code.
     _barrier = new H2OCountedCompleter() {
         @Override public void compute2() { }
-        @Override public boolean onExceptionalCompletion(Throwable ex, CountedCompleter caller) { return true; }
+        @Override public void onCompletion(CountedCompleter caller) { finished(); }
+        @Override public boolean onExceptionalCompletion(Throwable ex, CountedCompleter caller) { finished(); return true; }
       };
     fjtask.setCompleter(_barrier);
-    _start_time = System.currentTimeMillis();
-    _state      = JobState.RUNNING;
+    fjtask._costJob = _key;     // Charge the work to this Job
+    boolean admitted = JobScheduler.admit(this);
+    if( admitted ) {
+      _start_time = System.currentTimeMillis();
+      _state      = JobState.RUNNING;
+    } else _state = JobState.QUEUED;
     // Save the full state of the job
     DKV.put(_key, this);
     // Update job list
@@ -164,10 +183,77 @@ public class Job<T extends Keyed> extends Keyed {
         return old;
       }
     }.invoke(LIST);
-    H2O.submitTask(fjtask);
+    if( admitted ) H2O.submitTask(fjtask);
     return this;
   }
 
+  // Start a queued Job, once admitted by the JobScheduler - unless it was
+  // stopped meanwhile, maybe from another node, in which case it never runs
+  void launch() {
+    final long start = System.currentTimeMillis();
+    if( ((Launch)new Launch(start).invoke(_key))._launched ) {
+      _start_time = start;
+      _state = JobState.RUNNING;
+      H2O.submitTask(_fjtask);
+    } else {
+      JobScheduler.stopped(this); // Give back the admission
+      neverRan();
+    }
+  }
+
+  private static class Launch extends TAtomic<Job> {
+    final long _start;
+    boolean _launched;
+    Launch( long start ) { _start = start; }
+    @Override public Job atomic(Job old) {
+      _launched = old != null && old._state == JobState.QUEUED;
+      if( !_launched ) return null; // Stopped meanwhile
+      old._start_time = _start;
+      old._state = JobState.RUNNING;
+      return old;
+    }
+  }
+
+  // Record that the driver is done, as seen by Lockable
+  private void finished() {
+    _finished = true;
+    new TAtomic<Job>() {
+      @Override public Job atomic(Job old) {
+        if( old == null || old._finished ) return null; // Job removed
+        old._finished = true;
+        return old;
+      }
+    }.fork(_key);
+  }
+
+  // A queued Job stopped before it ran: take on the final state, and release
+  // anybody blocked on it
+  private void neverRan() {
+    Value val = DKV.get(_key);
+    if( val != null ) {
+      Job job = val.get();
+      _state = job._state;
+      _exception = job._exception;
+      _end_time = job._end_time;
+      _finalProgress = job._finalProgress;
+    }
+    DKV.remove(_progressKey);
+    _barrier.tryComplete();
+  }
+
+  // Drops a Job stopped on another node from the queue of the node which
+  // started it
+  private static class Dequeue extends DTask<Dequeue> {
+    final Key _job;
+    Dequeue( Key job ) { _job = job; }
+    @Override public byte priority() { return H2O.GUI_PRIORITY; }
+    @Override protected void compute2() {
+      Job queued = JobScheduler.dequeue(_job);
+      if( queued != null ) queued.neverRan();
+      tryComplete();
+    }
+  }
+
   /** Blocks and get result of this job.
    * <p>
    * This call blocks on working task which was passed via {@link #start}
@@ -218,6 +304,7 @@ public class Job<T extends Keyed> extends Keyed {
     assert resultingState != JobState.RUNNING;
     if( _state == JobState.CANCELLED ) Log.info("Canceled job " + _key + "("  + _description + ") was cancelled again.");
     if( _state == resultingState ) return; // No change if already done
+    final Job queued = JobScheduler.stopped(this); // Never to run, if still queued
     _finalProgress = resultingState==JobState.DONE ? 1.0f : progress_impl(); // One-shot set from NaN to progress, no longer need Progress Key
 
     final long done = System.currentTimeMillis();
@@ -244,6 +331,10 @@ public class Job<T extends Keyed> extends Keyed {
     }.invoke(_key);
     // Cleanup on a cancel (or remove)
     DKV.remove(_progressKey);
+    // Release anybody blocked on a Job which never ran; it queued on the node
+    // which started it, maybe not this one
+    if( queued != null ) queued.neverRan();
+    else if( !_key.home() ) RPC.call(_key.home_node(), new Dequeue(_key)).get();
   }
 
   /**
@@ -302,7 +393,7 @@ public class Job<T extends Keyed> extends Keyed {
 
   @Override protected Futures remove_impl(Futures fs) {
     DKV.remove(_progressKey, fs);
-    return fs;
+    return JobCost.remove(_key, fs);
   }
 
   /** Default checksum; not really used by Jobs.  */
@@ -0,0 +1,196 @@
+package water;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import water.nbhm.NonBlockingHashMap;
+
+/** Resource accounting per {@link Job}.  The task a thread is running is
+ *  kept in a thread-local, set by {@link H2O.H2OCountedCompleter} around
+ *  each task; tasks carry the Key of the Job they were made for, shipped
+ *  along with any {@link MRTask} to remote nodes.  Each node charges the Job with
+ *  the thread CPU time and heap allocation of map() and reduce() calls, the
+ *  bytes of remote calls made, the bytes loaded from disk, the bytes of the
+ *  Values made for the Job and stored to disk (whenever that happens), and
+ *  the Chunks passed to map() calls.  {@link #collect} sums the charges
+ *  across the cloud; {@link #recent} reuses a recent sum, for polling.
+ *  Charges are dropped once their Job is removed. */
+public final class JobCost {
+  public static final int CPU_NANOS = 0, ALLOC_BYTES = 1, NET_BYTES = 2, DISK_BYTES = 3, CHUNKS = 4;
+  public static final String[] KINDS = {"cpu_nanos", "alloc_bytes", "net_bytes", "disk_bytes", "chunks"};
+  /** Age up to which {@link #recent} reuses a sum */
+  public static final long RECENT_MSECS = 1000;
+
+  private static final ThreadLocal<H2O.H2OCountedCompleter> CURRENT = new ThreadLocal<>();
+  private static final NonBlockingHashMap<Key,AtomicLongArray> COSTS = new NonBlockingHashMap<>();
+  private static HashMap<Key,long[]> _recent; // Last sum for all Jobs, from recent()
+  private static long _recentTime;
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+  private static final boolean CPU   = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+  private static final boolean ALLOC = THREADS instanceof com.sun.management.ThreadMXBean
+    && ((com.sun.management.ThreadMXBean)THREADS).isThreadAllocatedMemorySupported()
+    && ((com.sun.management.ThreadMXBean)THREADS).isThreadAllocatedMemoryEnabled();
+
+  private JobCost() { }
+
+  /** The Job this thread works for, or null. */
+  public static Key current() {
+    H2O.H2OCountedCompleter task = CURRENT.get();
+    return task == null ? null : task._costJob;
+  }
+  /** The task this thread is running, or null outside of any. */
+  static H2O.H2OCountedCompleter task() { return CURRENT.get(); }
+
+  /** Switch this thread to running the given task; returns the prior task,
+   *  to be handed back to {@link #exit}. */
+  static H2O.H2OCountedCompleter enter( H2O.H2OCountedCompleter task ) {
+    H2O.H2OCountedCompleter prior = CURRENT.get();
+    CURRENT.set(task);
+    return prior;
+  }
+  static void exit( H2O.H2OCountedCompleter prior ) { CURRENT.set(prior); }
+
+  /** CPU time used by this thread so far, in nanos; 0 if the JVM cannot
+   *  tell, or there is no Job to charge it to. */
+  static long cpuNanos( Key job ) { return CPU && job != null ? THREADS.getCurrentThreadCpuTime() : 0; }
+  /** Bytes allocated by this thread so far; 0 if the JVM cannot tell, or
+   *  there is no Job to charge them to. */
+  static long allocBytes( Key job ) {
+    return ALLOC && job != null ? ((com.sun.management.ThreadMXBean)THREADS).getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+  }
+
+  /** Charge a Job with the CPU time and allocation of this thread since the
+   *  given {@link #cpuNanos} and {@link #allocBytes} readings. */
+  static void chargeThread( Key job, long cpu0, long alloc0 ) {
+    if( job == null ) return;
+    AtomicLongArray c = costs(job);
+    c.addAndGet(CPU_NANOS, cpuNanos(job)-cpu0);
+    c.addAndGet(ALLOC_BYTES, allocBytes(job)-alloc0);
+  }
+
+  /** Charge a Job with some amount of the given kind; a no-op for no Job. */
+  public static void charge( Key job, int kind, long v ) {
+    if( job != null ) costs(job).addAndGet(kind, v);
+  }
+
+  private static AtomicLongArray costs( Key job ) {
+    AtomicLongArray c = COSTS.get(job);
+    if( c == null ) {
+      c = new AtomicLongArray(KINDS.length);
+      AtomicLongArray old = COSTS.putIfAbsent(job, c);
+      if( old != null ) c = old;
+    }
+    return c;
+  }
+
+  /** Gathers the charges of every node, summed per Job. */
+  static class Collect extends MRTask<Collect> {
+    Key _only;                  // Just this Job, or all for null
+    Key[] _jobs;
+    long[] _costs;              // KINDS.length per Job
+    Collect( Key job ) { _only = job; }
+
+    @Override public void setupLocal() {
+      _jobs = new Key[_only == null ? COSTS.size() : 1];
+      _costs = new long[_jobs.length*KINDS.length];
+      int i = 0;
+      for( Map.Entry<Key,AtomicLongArray> e : COSTS.entrySet() ) {
+        if( i == _jobs.length ) break; // Charged since sizing
+        if( _only != null && !_only.equals(e.getKey()) ) continue;
+        _jobs[i] = e.getKey();
+        for( int k = 0; k < KINDS.length; k++ )
+          _costs[i*KINDS.length+k] = e.getValue().get(k);
+        i++;
+      }
+      if( i < _jobs.length ) {
+        _jobs = Arrays.copyOf(_jobs, i);
+        _costs = Arrays.copyOf(_costs, i*KINDS.length);
+      }
+    }
+
+    @Override public void reduce( Collect c ) {
+      HashMap<Key,Integer> idx = new HashMap<>();
+      for( int i = 0; i < _jobs.length; i++ ) idx.put(_jobs[i], i);
+      int n = _jobs.length;
+      Key[] jobs = Arrays.copyOf(_jobs, n+c._jobs.length);
+      long[] costs = Arrays.copyOf(_costs, jobs.length*KINDS.length);
+      for( int j = 0; j < c._jobs.length; j++ ) {
+        Integer i = idx.get(c._jobs[j]);
+        int dst = i == null ? n++ : i;
+        if( i == null ) jobs[dst] = c._jobs[j];
+        for( int k = 0; k < KINDS.length; k++ )
+          costs[dst*KINDS.length+k] += c._costs[j*KINDS.length+k];
+      }
+      _jobs = Arrays.copyOf(jobs, n);
+      _costs = Arrays.copyOf(costs, n*KINDS.length);
+    }
+
+    @Override public byte priority() { return H2O.GUI_PRIORITY; }
+  }
+
+  /** Charges summed over the cloud, indexed by {@link #KINDS}, for one Job
+   *  or for all Jobs charged so far given a null key. */
+  public static HashMap<Key,long[]> collect( Key job ) {
+    Collect c = new Collect(job).doAllNodes();
+    HashMap<Key,long[]> res = new HashMap<>();
+    for( int i = 0; i < c._jobs.length; i++ )
+      res.put(c._jobs[i], Arrays.copyOfRange(c._costs, i*KINDS.length, (i+1)*KINDS.length));
+    return res;
+  }
+
+  /** Charges summed over the cloud for all Jobs, as of at most
+   *  {@link #RECENT_MSECS} ago: what polling Jobs reports, without a pass
+   *  over the cloud for every poll. */
+  public static synchronized HashMap<Key,long[]> recent() {
+    long now = System.currentTimeMillis();
+    if( _recent == null || now - _recentTime > RECENT_MSECS ) {
+      _recent = collect(null);
+      _recentTime = now;
+    }
+    return _recent;
+  }
+
+  /** Drop the charges of a removed Job, on every node. */
+  static Futures remove( Key job, Futures fs ) {
+    for( H2ONode node : H2O.CLOUD._memary )
+      fs.add(RPC.call(node, new Forget(job)));
+    return fs;
+  }
+
+  private static class Forget extends DTask<Forget> {
+    final Key _job;
+    Forget( Key job ) { _job = job; }
+    @Override public byte priority() { return H2O.GUI_PRIORITY; }
+    @Override protected void compute2() { COSTS.remove(_job); tryComplete(); }
+  }
+
+  /** Cluster-wide totals per Job, ordered by Job key. */
+  public static class Report extends Iced {
+    public Key key;             // Optional: just this Job
+    public Key[] jobs;
+    public String[] descriptions;
+    public String[] kinds = KINDS;
+    public long[][] cost;       // [job][kind]
+
+    public void execImpl() {
+      TreeMap<String,Map.Entry<Key,long[]>> sorted = new TreeMap<>();
+      for( Map.Entry<Key,long[]> e : collect(key).entrySet() )
+        sorted.put(e.getKey().toString(), e);
+      jobs = new Key[sorted.size()];
+      descriptions = new String[jobs.length];
+      cost = new long[jobs.length][];
+      int j = 0;
+      for( Map.Entry<Key,long[]> e : sorted.values() ) {
+        jobs[j] = e.getKey();
+        Value v = DKV.get(jobs[j]);
+        descriptions[j] = v != null && v.isJob() ? v.<Job>get()._description : null;
+        cost[j++] = e.getValue();
+      }
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package water;
+
+import java.util.*;
+import water.H2O.H2OCountedCompleter;
+
+/** Sharing of each node between concurrent {@link Job}s.
+ *
+ *  <p>Admission: a Job started while this node is short of memory (see
+ *  {@link MemoryManager#canAlloc}) and already running some other Job waits
+ *  in state {@link Job.JobState#QUEUED}, rather than adding to the swapping.
+ *  Waiting Jobs start in arrival order as memory recovers or running Jobs
+ *  stop.
+ *
+ *  <p>Fair queuing: top-level {@link MRTask}s launched by the driver of a Job
+ *  take one of {@code -job_slots} slots for their run, and at most
+ *  {@link Job#_max_tasks} slots at once for any one Job.  Launches finding no
+ *  slot wait per Job, and slots freed go to the Job with the least work
+ *  started for its {@link Job#_weight} (start-time fair queuing).  Work done
+ *  outside of any Job - e.g. interactive requests - never waits, and neither
+ *  do MRTasks launched from within other tasks, which could otherwise wait on
+ *  slots held by their own parents. */
+public final class JobScheduler {
+  private static final Object LOCK = new Object();
+  private static final HashMap<Key,Share> SHARES = new HashMap<>();
+  private static final ArrayDeque<Job> WAITING = new ArrayDeque<>(); // Jobs queued for memory
+  private static int _running;  // Jobs admitted, and not yet stopped
+  private static int _busy;     // Slots in use
+  private static double _vtime; // Start tag of the last task given a slot
+
+  private JobScheduler() { }
+
+  // The part of this node given to one Job
+  private static final class Share {
+    final H2OCountedCompleter _driver; // Top-level task of the Job
+    final double _weight;
+    final int _max;
+    boolean _stopped;           // Job stopped; drop once its tasks drain
+    int _busy;                  // Slots in use
+    double _tag;                // Finish tag of the last task given a slot
+    final ArrayDeque<MRTask> _launches = new ArrayDeque<>();
+    final Set<MRTask> _running = Collections.newSetFromMap(new IdentityHashMap<MRTask,Boolean>());
+    Share( Job job ) {
+      _driver = job._fjtask;
+      _weight = job._weight > 0 ? job._weight : 1;
+      _max = job._max_tasks > 0 ? job._max_tasks : Integer.MAX_VALUE;
+    }
+    // Start tag of the next task
+    double start() { return Math.max(_vtime, _tag); }
+  }
+
+  /** Admission of a Job being started: true to run it now, false if it is
+   *  queued, to be started later by {@link Job#launch}. */
+  static boolean admit( Job job ) {
+    synchronized( LOCK ) {
+      SHARES.put(job._key, new Share(job));
+      if( WAITING.isEmpty() && (_running == 0 || MemoryManager.canAlloc()) ) {
+        _running++;
+        return true;
+      }
+      WAITING.add(job);         // Some running Job will admit it on stopping, if no memGood() does
+      return false;
+    }
+  }
+
+  /** A Job stopped: drop it from the queue if it never ran, else release
+   *  it, perhaps admitting waiting Jobs.  Returns the queued instance of the
+   *  Job if it never ran, else null. */
+  static Job stopped( Job job ) {
+    synchronized( LOCK ) {
+      Job q = dequeue(job._key);
+      if( q != null ) return q;
+      Share s = SHARES.get(job._key);
+      if( s == null || s._stopped ) return null;
+      s._stopped = true;
+      if( s._busy == 0 && s._launches.isEmpty() ) SHARES.remove(job._key);
+      _running--;
+    }
+    admitWaiting();
+    return null;
+  }
+
+  /** A Job stopped on some other node: drop it from the queue of this node,
+   *  which started it.  Returns the queued instance, or null if it was not
+   *  queued here. */
+  static Job dequeue( Key key ) {
+    synchronized( LOCK ) {
+      for( Iterator<Job> it = WAITING.iterator(); it.hasNext(); ) {
+        Job q = it.next();
+        if( q._key.equals(key) ) {
+          it.remove();
+          SHARES.remove(key);
+          return q;
+        }
+      }
+      return null;
+    }
+  }
+
+  /** Memory recovered: admit waiting Jobs, off the calling (GC or Cleaner)
+   *  thread. */
+  static void memGood() {
+    synchronized( LOCK ) { if( WAITING.isEmpty() ) return; }
+    H2O.submitTask(new H2OCountedCompleter() {
+        @Override protected void compute2() { admitWaiting(); tryComplete(); }
+      });
+  }
+
+  private static void admitWaiting() {
+    ArrayList<Job> admitted = new ArrayList<>();
+    synchronized( LOCK ) {
+      while( !WAITING.isEmpty() && (_running == 0 || MemoryManager.canAlloc()) ) {
+        admitted.add(WAITING.poll());
+        _running++;
+      }
+    }
+    for( Job job : admitted ) job.launch();
+  }
+
+  /** A top-level launch of an MRTask: true if it must wait for a slot, in
+   *  which case the scheduler launches it later. */
+  static boolean defer( MRTask t ) {
+    if( t._costJob == null ) t._costJob = JobCost.current();
+    if( t._costJob == null ) return false; // Not working for any Job
+    H2OCountedCompleter cur = JobCost.task();
+    synchronized( LOCK ) {
+      Share s = SHARES.get(t._costJob);
+      if( s == null || (cur != null && cur != s._driver) ) return false;
+      if( s._launches.isEmpty() && _busy < slots() && s._busy < s._max ) {
+        take(s, t);
+        return false;
+      }
+      s._launches.add(t);
+      return true;
+    }
+  }
+
+  /** A top-level MRTask given a slot finished its local work; pass the slot
+   *  on. */
+  static void release( MRTask t ) {
+    ArrayList<MRTask> next = new ArrayList<>();
+    synchronized( LOCK ) {
+      Share s = SHARES.get(t._costJob);
+      if( s == null || !s._running.remove(t) ) return;
+      _busy--;
+      s._busy--;
+      if( s._stopped && s._busy == 0 && s._launches.isEmpty() ) SHARES.remove(t._costJob);
+      while( _busy < slots() ) {
+        Share best = null;
+        for( Share x : SHARES.values() )
+          if( !x._launches.isEmpty() && x._busy < x._max && (best == null || x.start() < best.start()) )
+            best = x;
+        if( best == null ) break;
+        MRTask l = best._launches.poll();
+        take(best, l);
+        next.add(l);
+      }
+    }
+    for( final MRTask l : next ) {
+      // Launch on a fresh F/J thread, not inside whichever task freed the slot
+      H2OCountedCompleter launch = new H2OCountedCompleter() {
+          @Override protected void compute2() {
+            try { l.launch(); }
+            catch( Throwable ex ) { l.completeExceptionally(ex); }
+            tryComplete();
+          }
+          @Override public byte priority() { return l.priority(); }
+        };
+      launch._costJob = l._costJob;
+      H2O.submitTask(launch);
+    }
+  }
+
+  /** Launches of MRTasks waiting for a slot on this node */
+  static int waiting() {
+    synchronized( LOCK ) {
+      int n = 0;
+      for( Share s : SHARES.values() ) n += s._launches.size();
+      return n;
+    }
+  }
+
+  private static int slots() { return Math.max(1, H2O.ARGS.job_slots); }
+
+  private static void take( Share s, MRTask t ) {
+    double start = s.start();
+    _vtime = start;
+    s._tag = start + 1/s._weight;
+    _busy++;
+    s._busy++;
+    s._running.add(t);
+    t._slot = true;
+  }
+}
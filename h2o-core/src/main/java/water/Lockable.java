@@ -1,6 +1,8 @@
 package water;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import water.util.Log;
 
 /** Lockable Keys - Keys locked during long running {@link Job}s, to prevent
@@ -11,6 +13,13 @@ import water.util.Log;
  *  <em>distributed</em> locking, the normal Java locks do not work.  Because
  *  we cannot enforce good behavior, this is a <em>cooperative</em> scheme
  *  only.
+ *
+ *  <p>The lock state of a Key lives apart from its POJO, in a table on the
+ *  Key's home node.  Read-locks and unlocks only send Keys there; only
+ *  write-locks and writer unlocks install a new POJO.  Locks are leases held
+ *  for the life of the locking {@link Job}: a lock in the way of another,
+ *  but held by a Job whose driver is done, is broken.  Unlocking a Key not
+ *  locked by the Job, e.g. after such a break, does nothing.
  *  
  *  Supports: <ul>
  *    <li>lock-and-delete-old-and-update (for new Keys)</li>
@@ -22,16 +31,16 @@ import water.util.Log;
  *  @version 1.0
  */
 public abstract class Lockable<T extends Lockable<T>> extends Keyed {
-  /** List of Job Keys locking this Key.
+  /** Lock state, per locked Key homed on this node.
    *  <ul>
-   *  <li>Write-locker job  is  in {@code _lockers[0 ]}.  Can be null locker.</li>
-   *  <li>Read -locker jobs are in {@code _lockers[1+]}.</li>
-   *  <li>Unlocked has _lockers equal to null.</li>
+   *  <li>Write-locker job  is  in {@code lockers[0 ]}.  Can be null locker.</li>
+   *  <li>Read -locker jobs are in {@code lockers[1+]}.</li>
+   *  <li>Unlocked Keys have no entry.</li>
    *  <li>Only 1 situation will be true at a time; atomically updated.</li>
-   *  <li>Transient, because this data is only valid on the master node.</li>
    *  </ul>
+   *  Removing a Key from the home node's store drops its entry.
    */
-  public transient Key _lockers[];
+  private static final HashMap<Key,Key[]> LOCKS = new HashMap<>();
 
   /** Create a Lockable object, if it has a {@link Key}. */
   public Lockable( Key key ) { super(key); }
@@ -46,7 +55,7 @@ public abstract class Lockable<T extends Lockable<T>> extends Keyed {
   // Example: write-lock & remove an old Frame, and replace with a new locked Frame
   //     Local-Node                              Master-Node
   // (1)  new,old    -->write_lock(job)-->          old
-  // (2)  new,old.waiting...                     new,old+job-locked atomic xtn loop
+  // (2)  new,old.waiting...                     new,old+job-locked atomic xtn
   // (3)                                            old.remove onSuccess
   // (4)  new        <--update success <--       new+job-locked
 
@@ -55,7 +64,7 @@ public abstract class Lockable<T extends Lockable<T>> extends Keyed {
    *  @return the old POJO mapped to this Key, generally for deletion. */
   public Lockable write_lock( Key job_key ) {
     Log.debug("write-lock "+_key+" by job "+job_key);
-    return ((PriorWriteLock)new PriorWriteLock(job_key).invoke(_key))._old;
+    return lock(new LockOp(_key,job_key,LockOp.WRITE,this),"is already in use.  Unable to use it now.  Consider using a different destination name.")._old;
   }
 
   /** Write-lock {@code this._key} by {@code job_key}, and delete any prior mapping.  
@@ -88,31 +97,11 @@ public abstract class Lockable<T extends Lockable<T>> extends Keyed {
   public Futures delete( Key job_key, Futures fs ) {
     if( _key != null ) {
       Log.debug("lock-then-delete "+_key+" by job "+job_key);
-      new PriorWriteLock(job_key).invoke(_key);
+      lock(new LockOp(_key,job_key,LockOp.WRITE,null),"is already in use.  Unable to use it now.  Consider using a different destination name.");
     }
     return remove(fs);
   }
 
-  // Obtain the write-lock on _key, which may already exist, using the current 'this'.
-  private class PriorWriteLock extends TAtomic<Lockable> {
-    private final Key _job_key;         // Job doing the locking
-    private Lockable _old;              // Return the old thing, for deleting later
-    private PriorWriteLock( Key job_key ) { _job_key = job_key; }
-    @Override public Lockable atomic(Lockable old) {
-      _old = old;
-      if( old != null ) {       // Prior Lockable exists?
-        assert !old.is_wlocked(_job_key) : "Key "+_key+" already locked; lks="+Arrays.toString(old._lockers); // No double locking by same job
-        if( old.is_locked(_job_key) ) // read-locked by self? (double-write-lock checked above)
-          old.set_unlocked(old._lockers,_job_key); // Remove read-lock; will atomically upgrade to write-lock
-        if( !old.is_unlocked() ) // Blocking for some other Job to finish???
-          throw new IllegalArgumentException(old.getClass()+" "+_key+" is already in use.  Unable to use it now.  Consider using a different destination name.");
-      }
-      // Update & set the new value
-      set_write_lock(_job_key);
-      return Lockable.this;
-    }
-  }
-
   // -----------
   /** Atomically get a read-lock on Key k, preventing future deletes or updates */
   public static void read_lock( Key k, Key job_key ) {
@@ -124,21 +113,36 @@ public abstract class Lockable<T extends Lockable<T>> extends Keyed {
   public void read_lock( Key job_key ) { 
     if( _key != null ) {
       Log.debug("shared-read-lock "+_key+" by job "+job_key);
-      new ReadLock(job_key).invoke(_key); 
+      lock(new LockOp(_key,job_key,LockOp.READ,null),"is being created;  Unable to read it now.");
+    }
+  }
+
+  // Run a lock-taking op; if other lockers are in the way, break any whose
+  // lease expired and try again, else fail.
+  private LockOp lock( LockOp op, String msg ) {
+    while( true ) {
+      LockOp res = new LockOp(op._lkey,op._job_key,op._op,op._new).call();
+      if( res._lockers == null ) return res;
+      Key[] expired = expired(res._lockers);
+      if( expired.length == 0 )
+        throw new IllegalArgumentException(getClass()+" "+_key+" "+msg);
+      Log.warn("Breaking locks on "+_key+" held by finished jobs "+Arrays.toString(expired));
+      LockOp brk = new LockOp(_key,null,LockOp.BREAK,null);
+      brk._lockers = expired;
+      brk.call();
     }
   }
 
-  // Obtain read-lock
-  static private class ReadLock extends TAtomic<Lockable> {
-    final Key _job_key;         // Job doing the unlocking
-    ReadLock( Key job_key ) { _job_key = job_key; }
-    @Override public Lockable atomic(Lockable old) {
-      if( old == null ) throw new IllegalArgumentException("Nothing to lock!");
-      if( old.is_wlocked() )
-        throw new IllegalArgumentException( old.getClass()+" "+_key+" is being created;  Unable to read it now.");
-      old.set_read_lock(_job_key);
-      return old;
+  // Lockers whose lease ran out: Jobs whose driver is done.  A Job merely
+  // stopped may still have its driver running, and using the Key.
+  private static Key[] expired( Key[] lks ) {
+    ArrayList<Key> res = new ArrayList<>();
+    for( Key k : lks ) {
+      if( k == null || k.type() != Key.JOB ) continue;
+      Value val = DKV.get(k);
+      if( val != null && val.isJob() && val.<Job>get()._finished ) res.add(k);
     }
+    return res.toArray(new Key[res.size()]);
   }
 
   // -----------
@@ -146,108 +150,156 @@ public abstract class Lockable<T extends Lockable<T>> extends Keyed {
    *  to upgrade a write-locked Model to a newer version with more training iterations. */
   public T update( Key job_key ) { 
     Log.debug("update write-locked "+_key+" by job "+job_key);
-    new Update(job_key).invoke(_key); 
+    new LockOp(_key,job_key,LockOp.UPDATE,this).call();
     return (T)this;             // Flow-coding
   }
 
-  // Freshen 'this' and leave locked
-  private class Update extends TAtomic<Lockable> {
-    final Key _job_key;         // Job doing the unlocking
-    Update( Key job_key ) { _job_key = job_key; }
-    @Override public Lockable atomic(Lockable old) {
-      assert old != null : "Cannot update - Lockable is null!";
-      assert old.is_wlocked() : "Cannot update - Lockable is not write-locked!";
-      _lockers = old._lockers;  // Keep lock state
-      return Lockable.this;     // Freshen this
-    }
-  }
-
   // -----------
-  /** Atomically set a new version of self & unlock. */
+  /** Atomically set a new version of self & unlock, if write-locked; just
+   *  unlock, if read-locked. */
   public void unlock( Key job_key ) { 
     if( _key != null ) {
       Log.debug("unlock "+_key+" by job "+job_key);
-      new Unlock(job_key).invoke(_key); 
+      // The writer must send its final version; readers need not
+      if( new LockOp(_key,job_key,LockOp.UNLOCK,null).call()._writer )
+        new LockOp(_key,job_key,LockOp.UNLOCK,this).call();
     }
   }
 
-  // Freshen 'this' and unlock
-  private class Unlock extends TAtomic<Lockable> {
-    final Key _job_key;         // Job doing the unlocking
-    Unlock( Key job_key ) { _job_key = job_key; }
-    @Override public Lockable atomic(Lockable old) {
-      assert old != null : "Trying to unlock null!";
-      assert old.is_locked(_job_key) : "Can't unlock: Not locked!";
-      set_unlocked(old._lockers,_job_key);
-      return Lockable.this;
+  /** The Jobs locking this Key, as held on its home node: null if unlocked,
+   *  else the write-locker alone, or a null followed by the read-lockers. */
+  public Key[] lockers() { return _key == null ? null : new LockOp(_key,null,LockOp.QUERY,null).call()._lockers; }
+
+  // An operation on the lock state of a Key, run on the Key's home node
+  private static class LockOp extends DTask<LockOp> {
+    static final byte READ=0, WRITE=1, UNLOCK=2, BREAK=3, QUERY=4, UPDATE=5;
+    final Key _lkey;            // Key being locked
+    final Key _job_key;         // Job doing the (un)locking
+    final byte _op;
+    Lockable _new;              // New POJO to install, for WRITE, UPDATE and writer UNLOCK
+    Lockable _old;              // Out: the old POJO, for WRITE
+    Key[] _lockers;             // In: lockers to BREAK.  Out: lockers in the way, or all for QUERY
+    boolean _writer;            // Out: UNLOCK found a write-lock, and needs the new POJO
+    LockOp( Key lkey, Key job_key, byte op, Lockable nnn ) { _lkey = lkey; _job_key = job_key; _op = op; _new = nnn; }
+
+    LockOp call() {
+      if( !_lkey.home() ) return RPC.call(_lkey.home_node(),this).get();
+      compute2();               // Home: run it blocking/now
+      return this;
     }
+
+    @Override protected void compute2() {
+      Futures fs = new Futures();
+      synchronized( LOCKS ) {
+        Value val = DKV.get(_lkey);
+        Key[] lks = LOCKS.get(_lkey);
+        switch( _op ) {
+        case READ:
+          if( val == null ) throw new IllegalArgumentException("Nothing to lock!");
+          if( is_wlocked(lks) ) { _lockers = lks; break; } // In the way
+          LOCKS.put(_lkey,set_read_lock(lks,_job_key));
+          break;
+        case WRITE:
+          if( _new == null && val == null ) break; // Deleting nothing
+          if( lks != null ) {   // Prior lockers exist?
+            assert !is_wlocked(lks,_job_key) : "Key "+_lkey+" already locked; lks="+Arrays.toString(lks); // No double locking by same job
+            if( is_locked(lks,_job_key) ) // read-locked by self? (double-write-lock checked above)
+              lks = set_unlocked(lks,_job_key); // Remove read-lock; will atomically upgrade to write-lock
+            if( lks != null ) { _lockers = lks; break; } // Blocking for some other Job to finish???
+          }
+          if( _new != null ) {
+            Value old = DKV.put(_lkey,_new,fs);
+            _old = old == null ? null : (Lockable)old.get();
+          }
+          LOCKS.put(_lkey,new Key[]{_job_key});
+          break;
+        case UPDATE:
+          assert is_wlocked(lks) : "Cannot update - Lockable is not write-locked!";
+          DKV.put(_lkey,_new,fs);
+          break;
+        case UNLOCK:
+          if( !is_locked(lks,_job_key) ) break; // Not locked by this Job, e.g. lock broken since
+          if( is_wlocked(lks) && _new == null ) { _writer = true; break; }
+          if( _new != null ) DKV.put(_lkey,_new,fs);
+          put(_lkey,set_unlocked(lks,_job_key));
+          break;
+        case BREAK:
+          for( Key k : _lockers )
+            if( is_locked(lks,k) ) lks = set_unlocked(lks,k);
+          put(_lkey,lks);
+          _lockers = null;
+          break;
+        case QUERY:
+          _lockers = lks;
+          break;
+        }
+      }
+      _new = null;              // Do not send it back
+      fs.blockForPending();
+      tryComplete();
+    }
+    @Override protected byte priority() { return H2O.ATOMIC_PRIORITY; }
+  }
+
+  // A Lockable Key homed here was removed, unlocking it
+  static void removed( Key key ) { synchronized( LOCKS ) { LOCKS.remove(key); } }
+
+  private static void put( Key key, Key[] lks ) {
+    if( lks == null ) LOCKS.remove(key);
+    else LOCKS.put(key,lks);
   }
 
   // -----------
   // Accessers for locking state.  Minimal self-checking; primitive results.
-  private boolean is_locked(Key job_key) { 
-    if( _lockers==null ) return false;
-    for( int i=(_lockers.length==1?0:1); i<_lockers.length; i++ ) {
-      Key k = _lockers[i];
+  private static boolean is_locked(Key[] lks, Key job_key) { 
+    if( lks==null ) return false;
+    for( int i=(lks.length==1?0:1); i<lks.length; i++ ) {
+      Key k = lks[i];
       if( job_key==k || (job_key != null && k != null && job_key.equals(k)) ) return true;
     }
     return false;
   }
-  private boolean is_wlocked() { return _lockers!=null && _lockers.length==1; }
-  private boolean is_wlocked(Key job_key) { return is_wlocked() && (_lockers[0] == job_key || _lockers[0] != null && _lockers[0].equals(job_key)); }
-  private boolean is_unlocked() { return _lockers== null; }
-  private void set_write_lock( Key job_key ) { 
-    _lockers=new Key[]{job_key}; 
-    assert is_locked(job_key);
-  }
-  private void set_read_lock(Key job_key) {
-    assert !is_locked(job_key); // no double locking
-    assert !is_wlocked();       // not write locked
-    _lockers = _lockers == null ? new Key[2] : Arrays.copyOf(_lockers,_lockers.length+1);
-    _lockers[_lockers.length-1] = job_key;
-    assert is_locked(job_key);
+  private static boolean is_wlocked(Key[] lks) { return lks!=null && lks.length==1; }
+  private static boolean is_wlocked(Key[] lks, Key job_key) { return is_wlocked(lks) && (lks[0] == job_key || lks[0] != null && lks[0].equals(job_key)); }
+  private static Key[] set_read_lock(Key[] lks, Key job_key) {
+    assert !is_locked(lks,job_key); // no double locking
+    assert !is_wlocked(lks);        // not write locked
+    lks = lks == null ? new Key[2] : Arrays.copyOf(lks,lks.length+1);
+    lks[lks.length-1] = job_key;
+    assert is_locked(lks,job_key);
+    return lks;
   }
-  private void set_unlocked(Key lks[], Key job_key) {
+  private static Key[] set_unlocked(Key lks[], Key job_key) {
+    Key[] res;
     if( lks.length==1 ) {       // Is write-locked?
       assert job_key==lks[0] || job_key.equals(lks[0]);
-      _lockers = null;           // Then unlocked
+      res = null;               // Then unlocked
     } else if( lks.length==2 ) { // One reader
       assert lks[0]==null;       // Not write-locked
       assert lks[1]==job_key || (job_key != null && job_key.equals(lks[1]));
-      _lockers = null;          // So unlocked
+      res = null;               // So unlocked
     } else {                    // Else one of many readers
       assert lks.length>2;
-      _lockers = Arrays.copyOf(lks,lks.length-1);
+      res = Arrays.copyOf(lks,lks.length-1);
       int j=1;                  // Skip the initial null slot
       for( int i=1; i<lks.length; i++ )
         if(job_key != null && !job_key.equals(lks[i]) || (job_key == null && lks[i] != null)){
-            _lockers[j++] = lks[i];
+            res[j++] = lks[i];
         }
       assert j==lks.length-1;   // Was locked exactly once
     }
-    assert !is_locked(job_key);
+    assert !is_locked(res,job_key);
+    return res;
   }
 
-  /** Force-unlock (break a lock); useful in some debug situations. */
-  //public static void unlock_lockable(final Key lockable, final Key job) {
-  //  new DTask.DKeyTask<DTask.DKeyTask,Lockable>(null,lockable){
-  //    @Override public void map(Lockable l) { l.unlock(job);}
-  //  }.invokeTask();
-  //}
-
   /** Force-unlock (break a lock) all lockers; useful in some debug situations. */
   public void unlock_all() {
-    if( _key != null )
-      for (Key k : _lockers) new UnlockSafe(k).invoke(_key);
-  }
-
-  private class UnlockSafe extends TAtomic<Lockable> {
-    final Key _job_key;         // potential job doing the unlocking
-    UnlockSafe( Key job_key ) { _job_key = job_key; }
-    @Override public Lockable atomic(Lockable old) {
-      if (old.is_locked(_job_key))
-        set_unlocked(old._lockers,_job_key);
-      return Lockable.this;
+    if( _key != null ) {
+      Key[] lks = lockers();
+      if( lks == null ) return;
+      LockOp brk = new LockOp(_key,null,LockOp.BREAK,null);
+      brk._lockers = lks;
+      brk.call();
     }
   }
 
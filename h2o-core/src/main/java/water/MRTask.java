@@ -133,6 +133,12 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  task.  Pragmatically, we block on a finer grained basis. */
   transient protected Futures _fs; // More things to block on
 
+  /** The Job charged for this task's work, shipped to remote nodes; the Job
+   *  of the launching thread if no other was set.  See {@link JobCost}. */
+  private Key _costKey;
+  /** Holds a {@link JobScheduler} slot, until the local work is done */
+  transient boolean _slot;
+
   // Profiling support.  Time for each subpart of a single M/R task, plus any
   // nested MRTasks.  All numbers are CTM stamps or millisecond times.
   private static class MRProfile extends Iced {
@@ -231,8 +237,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     _fr = fr;                   // Record vectors to work on
     _nxx = selfidx(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
     _run_local = run_local;     // Run locally by copying data, or run globally?
-    setupLocal0();              // Local setup
-    H2O.submitTask(this);       // Begin normal execution on a FJ thread
+    if( !JobScheduler.defer(this) ) launch(); // Else launched once given a slot
   }
   /** Invokes the map/reduce computation over the given Frame.  This call is
    *  asynchronous.  It returns 'this', on which getResult() can be invoked
@@ -275,6 +280,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** Called once on remote at top level, probably with a subset of the cloud.
    *  Called internal by D/F/J.  Not expected to be user-called.  */
   @Override public final void dinvoke(H2ONode sender) {
+    _costJob = _costKey;        // Work for the Job of the caller
     setupLocal0();              // Local setup
     H2O.submitTask(this);
   }
@@ -286,11 +292,19 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   public T doAll( Key... keys ) {
     _keys = keys;
     _nxx = selfidx(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
-    setupLocal0();              // Local setup
-    H2O.submitTask(this);       // Begin normal execution on a FJ thread
+    if( !JobScheduler.defer(this) ) launch(); // Else launched once given a slot
     return getResult();         // Block For All
   }
 
+  // Local setup, then begin normal execution on a FJ thread.  Setup runs as
+  // part of this task, so any MRTasks it launches do not wait for a slot.
+  void launch() {
+    H2O.H2OCountedCompleter prior = JobCost.enter(this);
+    try { setupLocal0(); }      // Local setup
+    finally { JobCost.exit(prior); }
+    H2O.submitTask(this);
+  }
+
   // Setup for local work: fire off any global work to cloud neighbors; do all
   // chunks; call user's init.
   private void setupLocal0() {
@@ -299,6 +313,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     _profile = new MRProfile(this);
     _profile._localstart = System.currentTimeMillis();
     _topLocal = true;
+    _costKey = _costJob;
     // Check for global vs local work
     int selfidx = selfidx();
     int nlo = subShift(selfidx);
@@ -376,7 +391,13 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       if( _keys == null ||     // Once-per-node mode
           _hi > _lo && _keys[_lo].home() ) {
         _profile._userstart = System.currentTimeMillis();
-        if( _keys != null ) map(_keys[_lo]);
+        if( _keys != null ) {
+          long c0 = JobCost.cpuNanos(_costJob), a0 = JobCost.allocBytes(_costJob);
+          long t0 = System.nanoTime();
+          map(_keys[_lo]);
+          TaskMetrics.record(getClass(), TaskMetrics.MAP, System.nanoTime()-t0);
+          JobCost.chargeThread(_costJob, c0, a0);
+        }
         _res = self();        // Save results since called map() at least once!
         _profile._closestart = System.currentTimeMillis();
       }
@@ -388,8 +409,10 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         Vec vecs[] = _fr.vecs();
         Chunk bvs[] = new Chunk[vecs.length];
         NewChunk [] appendableChunks = null;
+        int nchks = 0;
         for( int i=0; i<vecs.length; i++ )
           if( vecs[i] != null ) {
+            nchks++;
             assert _run_local || vecs[i].chunkKey(_lo).home()
               : "Chunk="+_lo+" v0="+v0+", k="+v0.chunkKey(_lo)+"   v["+i+"]="+vecs[i]+", k="+vecs[i].chunkKey(_lo);
             bvs[i] = vecs[i].chunkForChunkIdx(_lo);
@@ -405,6 +428,8 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         }
         // Call all the various map() calls that apply
         _profile._userstart = System.currentTimeMillis();
+        long c0 = JobCost.cpuNanos(_costJob), a0 = JobCost.allocBytes(_costJob);
+        long t0 = System.nanoTime();
         if( _fr.vecs().length == 1 ) map(bvs[0]);
         if( _fr.vecs().length == 2 ) map(bvs[0], bvs[1]);
         if( _fr.vecs().length == 3 ) map(bvs[0], bvs[1], bvs[2]);
@@ -424,6 +449,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
           if( true                  )  map(bvs,    appendableChunks[0],appendableChunks[1]);
         }
         map(bvs,appendableChunks);
+        TaskMetrics.record(getClass(), TaskMetrics.MAP, System.nanoTime()-t0);
+        JobCost.chargeThread(_costJob, c0, a0);
+        JobCost.charge(_costJob, JobCost.CHUNKS, nchks);
         _res = self();          // Save results since called map() at least once!
         // Further D/K/V put any new vec results.
         _profile._closestart = System.currentTimeMillis();
@@ -439,6 +467,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  F/J.  Not expected to be user-called. */
   @Override public final void onCompletion( CountedCompleter caller ) {
     _profile._onCstart = System.currentTimeMillis();
+    if( _slot ) { _slot = false; JobScheduler.release(this); }
     // Reduce results into 'this' so they collapse going up the execution tree.
     // NULL out child-references so we don't accidentally keep large subtrees
     // alive since each one may be holding large partial results.
@@ -520,7 +549,11 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         _appendables[i].reduce(mrt._appendables[i]);
     if( _ex == null ) _ex = mrt._ex;
     // User's reduction
+    long c0 = JobCost.cpuNanos(_costJob), a0 = JobCost.allocBytes(_costJob);
+    long t0 = System.nanoTime();
     reduce(mrt);
+    TaskMetrics.record(getClass(), TaskMetrics.REDUCE, System.nanoTime()-t0);
+    JobCost.chargeThread(_costJob, c0, a0);
   }
 
   /** Cancel/kill all work as we can, then rethrow... do not invisibly swallow
@@ -528,6 +561,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  expected to be user-called.  */
   @Override public final boolean onExceptionalCompletion( Throwable ex, CountedCompleter caller ) {
     if( !hasException() ) setException(ex);
+    if( _slot ) { _slot = false; JobScheduler.release(this); }
     if( _nleft != null ) _nleft.cancel(true); _nleft = null;
     if( _nrite != null ) _nrite.cancel(true); _nrite = null;
     if(  _left != null )  _left.cancel(true);  _left = null;
@@ -540,6 +574,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     T x = (T)clone();
     x.setCompleter(this); // Set completer, what used to be a final field
     x._topLocal = false;  // Not a top job
+    x._slot = false;      // Nor holding its slot
     x._nleft = x._nrite = null;
     x. _left = x. _rite = null;
     x._fs = _fs;
@@ -73,12 +73,14 @@ abstract public class MemoryManager {
     synchronized(_lock) { CAN_ALLOC = true; _lock.notifyAll(); }
     // NO LOGGING UNDER LOCK!
     Log.warn("Continuing after swapping");
+    JobScheduler.memGood();     // Start any Jobs held back meanwhile
   }
   static void setMemLow() {
     if( !CAN_ALLOC ) return;
     synchronized(_lock) { CAN_ALLOC = false; }
     // NO LOGGING UNDER LOCK!
     Log.warn("Pausing to swap to disk; more memory may help");
+    ResultCache.clear();        // Cached results are the cheapest to give up
   }
   static boolean canAlloc() { return CAN_ALLOC; }
 
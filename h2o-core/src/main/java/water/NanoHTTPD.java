@@ -3,11 +3,12 @@ package water;
 import water.util.Log;
 
 import java.io.*;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
-import java.net.Socket;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
 import java.util.*;
-import java.util.regex.Pattern;
 
 /**
  * A simple, tiny, nicely embeddable HTTP 1.0 (partially 1.1) server in Java
@@ -38,6 +39,8 @@ import java.util.regex.Pattern;
  *    <li> File server serves also very long files without memory overhead </li>
  *    <li> Contains a built-in list of most common mime types </li>
  *    <li> All header names are converted lowercase so they don't vary between browsers/clients </li>
+ *    <li> Keep-alive connections are served by a single selector thread; requests run as
+ *         GUI-priority F/J tasks, see {@link HTTPSelectorThread} </li>
  *
  * </ul>
  *
@@ -130,6 +133,18 @@ public class NanoHTTPD
       catch ( java.io.UnsupportedEncodingException e ) { Log.err(e); }
     }
 
+    /**
+     * Response made of the bytes written into an AutoBuffer, which are sent
+     * as they are, without copying them.
+     */
+    public Response( String status, String mimeType, AutoBuffer ab )
+    {
+      this.status = status;
+      this.mimeType = mimeType;
+      this.bytes = ByteBuffer.wrap(ab._bb.array(), ab._bb.arrayOffset(), ab._bb.position());
+      this.data = new ByteArrayInputStream(ab._bb.array(), ab._bb.arrayOffset(), ab._bb.position());
+    }
+
     /**
      * Adds given line to the header.
      */
@@ -153,6 +168,12 @@ public class NanoHTTPD
      */
     public InputStream data;
 
+    /**
+     * Data of the response as a buffer, written out directly instead of
+     * reading data; may be null.
+     */
+    ByteBuffer bytes;
+
     /**
      * Headers for the HTTP response. Use addHeader()
      * to add lines.
@@ -173,6 +194,7 @@ public class NanoHTTPD
   HTTP_UNAUTHORIZED = "401 Unauthorized",
   HTTP_NOTFOUND = "404 Not Found",
   HTTP_BADREQUEST = "400 Bad Request",
+  HTTP_TOOLARGE = "413 Request Entity Too Large",
   HTTP_TOOLONGREQUEST = "414 Request-URI Too Long",
   HTTP_INTERNALERROR = "500 Internal Server Error",
   HTTP_NOTIMPLEMENTED = "501 Not Implemented";
@@ -199,15 +221,9 @@ public class NanoHTTPD
     myRootDir = wwwroot;
     myServerSocket = socket;
     myServerSocket.setReuseAddress(true);
-    myThread = new Thread(new Runnable() {
-      public void run() {
-        try {
-          while( true )
-            new HTTPSession( myServerSocket.accept());
-        } catch ( IOException e ) { }
-      }
-    }, "NanoHTTPD Thread");
-    myThread.setDaemon( true );
+    if( socket.getChannel() == null )
+      throw new IllegalArgumentException("NanoHTTPD needs the socket of a ServerSocketChannel");
+    myThread = new HTTPSelectorThread(this, socket.getChannel());
     myThread.start();
   }
 
@@ -247,7 +263,9 @@ public class NanoHTTPD
       }
 
     try {
-      new NanoHTTPD( new ServerSocket(port), wwwroot );
+      ServerSocketChannel ssc = ServerSocketChannel.open();
+      ssc.socket().bind(new InetSocketAddress(port));
+      new NanoHTTPD( ssc.socket(), wwwroot );
     } catch( IOException ioe ) {
       Log.err("Couldn't start server:\n", ioe );
       H2O.exit( -1 );
@@ -260,472 +278,183 @@ public class NanoHTTPD
   }
 
   /**
-   * Handles one session, i.e. parses the HTTP request
-   * and returns the response.
+   * Parses one complete request and serves it.  Requests which cannot be
+   * parsed are answered with an error response.
+   * @param buf Request bytes: the header in [0,hlen), the body in [hlen,len)
+   * @param pre Filled in with the method, URI and protocol version
+   * @param header Filled in with the header entries, names in lowercase
    */
-  private class HTTPSession implements Runnable {
-    public HTTPSession( Socket s ) {
-      mySocket = s;
-      Thread t = new Thread( this, "NanoHTTPD Session" );
-      t.setDaemon( true );
-      t.setPriority(Thread.MAX_PRIORITY-1);
-      t.start();
-    }
-
-    /** Maximal supported header. */
-    static final int MAX_HEADER_BUFFER_SIZE = 1 << 16; // 64k
-    public void run() {
-      try (Socket mySocket=this.mySocket ) { // Try-with-resources; auto-close on exit
-        long startMillis = System.currentTimeMillis();
-        InputStream is = new BufferedInputStream(mySocket.getInputStream());
-        is.mark(MAX_HEADER_BUFFER_SIZE);
-
-        // Read the first 8192 bytes.
-        // The full header should fit in here.
-        // Apache's default header limit is 8KB.
-        int bufsize = 8192;
-        byte[] buf = new byte[bufsize];
-        boolean nl = false;     // Saw a nl
-        int rlen=0;
-        while( rlen < MAX_HEADER_BUFFER_SIZE ) {
-          int b = is.read();
-          if( b == -1 ) return;
-          buf[rlen++] = (byte)b;
-          if( b == '\n' ) {
-            if(nl) break; // 2nd nl in a row ==> done with header
-            nl = true;
-          } else if( b != '\r' ) nl = false;
-          if (rlen == buf.length) buf = Arrays.copyOf(buf, 2*buf.length);
-        }
-
-        if (rlen == MAX_HEADER_BUFFER_SIZE)
-          sendError(HTTP_TOOLONGREQUEST, "Requested URL is too long!");
-
-        // Create a BufferedReader for parsing the header.
-        ByteArrayInputStream hbis = new ByteArrayInputStream(buf, 0, rlen);
-        BufferedReader hin = new BufferedReader( new InputStreamReader( hbis ));
-        Properties pre = new Properties();
-        Properties parms = new Properties();
-        Properties header = new Properties();
-
-        // Decode the header into parms and header java properties
-        decodeHeader(hin, pre, parms, header);
-        String method = pre.getProperty("method");
-        String uri = pre.getProperty("uri");
-
-        long size = 0x7FFFFFFFFFFFFFFFl;
-        String contentLength = header.getProperty("content-length");
-        if (contentLength != null) {
-          try { size = Integer.parseInt(contentLength); }
-          catch (NumberFormatException ex) {}
-        }
-
-        // We are looking for the byte separating header from body.
-        // It must be the last byte of the first two sequential new lines.
-        int splitbyte = 0;
-        boolean sbfound = false;
-        while (splitbyte < rlen) {
-          if (buf[splitbyte] == '\r' && buf[++splitbyte] == '\n' && buf[++splitbyte] == '\r' && buf[++splitbyte] == '\n') {
-            sbfound = true;
-            break;
-          }
-          splitbyte++;
+  final Response serveRequest( byte[] buf, int hlen, int len, Properties pre, Properties header )
+  {
+    try {
+      Properties parms = new Properties();
+      BufferedReader hin = new BufferedReader( new InputStreamReader( new ByteArrayInputStream(buf, 0, hlen)));
+      decodeHeader(hin, pre, parms, header);
+      String method = pre.getProperty("method");
+      String uri = pre.getProperty("uri");
+      if ( method == null || uri == null )
+        throw new HTTPError( HTTP_BADREQUEST, "BAD REQUEST: Syntax error. Usage: GET /example/file.html" );
+
+      // If the method is POST, there may be parameters
+      // in data section, too
+      if ( method.equalsIgnoreCase( "POST" ))
+      {
+        String contentType = "";
+        String contentTypeHeader = header.getProperty("content-type");
+        if (contentTypeHeader == null)
+          contentTypeHeader = "";
+        StringTokenizer st = new StringTokenizer( contentTypeHeader , "; " );
+        if ( st.hasMoreTokens()) {
+          contentType = st.nextToken();
         }
-        splitbyte++;
-        is.reset();
-        is.skip(splitbyte);
-
-        // While Firefox sends on the first read all the data fitting
-        // our buffer, Chrome and Opera sends only the headers even if
-        // there is data for the body. So we do some magic here to find
-        // out whether we have already consumed part of body, if we
-        // have reached the end of the data to be sent or we should
-        // expect the first byte of the body at the next read.
-        if (splitbyte < rlen)
-          size -= rlen - splitbyte +1;
-        else if (!sbfound || size == 0x7FFFFFFFFFFFFFFFl)
-          size = 0;
-
-        // If the method is POST, there may be parameters
-        // in data section, too, read it:
-        BufferedReader in = new BufferedReader( new InputStreamReader(is));
-        if ( method.equalsIgnoreCase( "POST" ))
-        {
-          String contentType = "";
-          String contentTypeHeader = header.getProperty("content-type");
-          if (contentTypeHeader == null)
-            contentTypeHeader = "";
-          StringTokenizer st = new StringTokenizer( contentTypeHeader , "; " );
-          if ( st.hasMoreTokens()) {
-            contentType = st.nextToken();
-          }
 
-          if (contentType.equalsIgnoreCase("multipart/form-data"))
-          {
-            // Handle multipart/form-data
-            if ( !st.hasMoreTokens())
-              sendError( HTTP_BADREQUEST, "BAD REQUEST: Content type is multipart/form-data but boundary missing. Usage: GET /example/file.html" );
-            String boundaryExp = st.nextToken();
-            st = new StringTokenizer( boundaryExp , "=" );
-            if (st.countTokens() != 2)
-              sendError( HTTP_BADREQUEST, "BAD REQUEST: Content type is multipart/form-data but boundary syntax error. Usage: GET /example/file.html" );
-            st.nextToken();
-            String boundary = st.nextToken();
-            boolean useValueArray = !Pattern.matches("/[0-9]+/.*", uri);  // For /2 and beyond, use fluid vector.
-            fileUpload(boundary,is,parms, useValueArray);
-          } else {
-            // Handle application/x-www-form-urlencoded
-
-            String postLine = "";
-            if (size >= 0) {
-              //
-              // content-length is specified.  Use it.
-              //
-              char pbuf[] = new char[4096];
-              long bytesRead = 0;
-              long bytesToRead = size;
-              StringBuilder sb = new StringBuilder();
-              while (bytesRead < bytesToRead) {
-                int n = in.read(pbuf);
-                if (n < 0) {
-                  break;
-                }
-                else if (n == 0) {
-                  // this is supposed to be blocking, so i don't know what this means.
-                  // but it isn't good.
-                  assert(false);
-                  break;
-                }
-                bytesRead += n;
-                sb.append(pbuf, 0, n);
-              }
-              postLine = sb.toString();
-            }
-            else {
-              //
-              // The original path for x-www-form-urlencoded.
-              // Don't have content-length.  Look for \r\n to stop the input.
-              //
-              char pbuf[] = new char[512];
-              int read = in.read(pbuf);
-              while ( read >= 0 && !postLine.endsWith("\r\n") )
-              {
-                postLine += String.valueOf(pbuf, 0, read);
-                read = in.read(pbuf);
-              }
-              postLine = postLine.trim();
-            }
-
-            if (contentType.equalsIgnoreCase("application/json")) {
-              parms.put("_post_body", postLine); // JSON text; we'll deserialize later, e.g. into a subclass of ModelParametersSchema
-            } else {
-              decodeParms(postLine, parms);
-            }
-          }
+        if (contentType.equalsIgnoreCase("multipart/form-data"))
+          throw new HTTPError( HTTP_NOTIMPLEMENTED, "NOT IMPLEMENTED: multipart/form-data uploads." );
+        // Handle application/x-www-form-urlencoded
+        String postLine = new String(buf, hlen, len-hlen);
+        if (contentType.equalsIgnoreCase("application/json")) {
+          parms.put("_post_body", postLine); // JSON text; we'll deserialize later, e.g. into a subclass of ModelParametersSchema
+        } else {
+          decodeParms(postLine.trim(), parms);
         }
-
-        // Ok, now do the serve()
-        Response r = serve( uri, method, header, parms );
-        if ( r == null )
-          sendError( HTTP_INTERNALERROR, "SERVER INTERNAL ERROR: Serve() returned a null response." );
-        else
-          sendResponse( startMillis, r.status, r.mimeType, r.header, r.data );
-
-        in.close();
-        is.close();
-      } catch ( IOException ioe ) {
-        try {
-          sendError( HTTP_INTERNALERROR, "SERVER INTERNAL ERROR: IOException: " + ioe.getMessage());
-        } catch ( Throwable t ) { Log.err(t); }
-      } catch ( InterruptedException e ) {
-        // Thrown by sendError, ignore and exit the thread.
       }
-    }
 
-    /**
-     * Decodes the sent headers and loads the data into
-     * java Properties' key - value pairs
-     **/
-    private  void decodeHeader(BufferedReader in, Properties pre, Properties parms, Properties header)
-        throws InterruptedException
-        {
-      try {
-        // Read the request line
-        String inLine = in.readLine();
-        if (inLine == null) return;
-        StringTokenizer st = new StringTokenizer( inLine );
-        if ( !st.hasMoreTokens())
-          sendError( HTTP_BADREQUEST, "BAD REQUEST: Syntax error. Usage: GET /example/file.html" );
-
-        String method = st.nextToken();
-        pre.put("method", method);
+      // Ok, now do the serve()
+      Response r = serve( uri, method, header, parms );
+      if ( r == null )
+        throw new HTTPError( HTTP_INTERNALERROR, "SERVER INTERNAL ERROR: Serve() returned a null response." );
+      return r;
+    } catch( HTTPError e ) {
+      Log.httpd("         HTTP_status: " + e._status);
+      return new Response( e._status, MIME_PLAINTEXT, e.getMessage());
+    }
+  }
 
-        if ( !st.hasMoreTokens())
-          sendError( HTTP_BADREQUEST, "BAD REQUEST: Missing URI. Usage: GET /example/file.html" );
+  /**
+   * A request which cannot be served, and the error status to answer it with
+   */
+  static final class HTTPError extends Exception
+  {
+    final String _status;
+    HTTPError( String status, String msg ) { super(msg); _status = status; }
+  }
 
-        String uri = st.nextToken();
+  /**
+   * Decodes the sent headers and loads the data into
+   * java Properties' key - value pairs
+   **/
+  static void decodeHeader(BufferedReader in, Properties pre, Properties parms, Properties header)
+      throws HTTPError
+      {
+    try {
+      // Read the request line
+      String inLine = in.readLine();
+      if (inLine == null) return;
+      StringTokenizer st = new StringTokenizer( inLine );
+      if ( !st.hasMoreTokens())
+        throw new HTTPError(HTTP_BADREQUEST, "BAD REQUEST: Syntax error. Usage: GET /example/file.html" );
 
-        // Decode parameters from the URI
-        int qmi = uri.indexOf( '?' );
-        if ( qmi >= 0 )
-        {
-          decodeParms( uri.substring( qmi+1 ), parms );
-          uri = decodePercent( uri.substring( 0, qmi ));
-        }
-        else uri = decodePercent(uri);
+      String method = st.nextToken();
+      pre.put("method", method);
 
-        // If there's another token, it's protocol version,
-        // followed by HTTP headers. Ignore version but parse headers.
-        // NOTE: this now forces header names lowercase since they are
-        // case insensitive and vary by client.
-        if ( st.hasMoreTokens())
-        {
-          String line = in.readLine();
-          while ( line != null && line.trim().length() > 0 )
-          {
-            int p = line.indexOf( ':' );
-            if ( p >= 0 )
-              header.put( line.substring(0,p).trim().toLowerCase(), line.substring(p+1).trim());
-            line = in.readLine();
-          }
-        }
+      if ( !st.hasMoreTokens())
+        throw new HTTPError(HTTP_BADREQUEST, "BAD REQUEST: Missing URI. Usage: GET /example/file.html" );
 
-        pre.put("uri", uri);
-      } catch ( IOException ioe ) {
-        sendError( HTTP_INTERNALERROR, "SERVER INTERNAL ERROR: IOException: " + ioe.getMessage());
-      }
-    }
+      String uri = st.nextToken();
 
-    public String readLine(InputStream in) throws IOException {
-      StringBuilder sb = new StringBuilder();
-      byte[] mem = new byte[1024];
-      while (true) {
-        int sz = readBufOrLine(in,mem);
-        sb.append(new String(mem,0,sz));
-        if (sz < mem.length)
-          break;
-        if (mem[sz-1]=='\n')
-          break;
+      // Decode parameters from the URI
+      int qmi = uri.indexOf( '?' );
+      if ( qmi >= 0 )
+      {
+        decodeParms( uri.substring( qmi+1 ), parms );
+        uri = decodePercent( uri.substring( 0, qmi ));
       }
-      if (sb.length()==0)
-        return null;
-      String line = sb.toString();
-      if (line.endsWith("\r\n"))
-        line = line.substring(0,line.length()-2);
-      else if (line.endsWith("\n"))
-        line = line.substring(0,line.length()-1);
-      return line;
-    }
+      else uri = decodePercent(uri);
 
-
-    private int readBufOrLine(InputStream in, byte[] mem) throws IOException {
-      byte[] bb = new byte[1];
-      int sz = 0;
-      while (true) {
-        byte b;
-        byte b2;
-        if (sz==mem.length)
-          break;
-        try {
-          in.read(bb,0,1);
-          b = bb[0];
-          mem[sz++] = b;
-        } catch (EOFException e) {
-          break;
-        }
-        if (b == '\n')
-          break;
-        if (sz==mem.length)
-          break;
-        if (b == '\r') {
-          try {
-            in.read(bb,0,1);
-            b2 = bb[0];
-            mem[sz++] = b2;
-          } catch (EOFException e) {
-            break;
-          }
-          if (b2 == '\n')
-            break;
+      // If there's another token, it's protocol version,
+      // followed by HTTP headers.
+      // NOTE: this now forces header names lowercase since they are
+      // case insensitive and vary by client.
+      if ( st.hasMoreTokens())
+      {
+        pre.put("version", st.nextToken());
+        String line = in.readLine();
+        while ( line != null && line.trim().length() > 0 )
+        {
+          int p = line.indexOf( ':' );
+          if ( p >= 0 )
+            header.put( line.substring(0,p).trim().toLowerCase(), line.substring(p+1).trim());
+          line = in.readLine();
         }
       }
-      return sz;
-    }
 
-    private void fileUpload(String boundary, InputStream in, Properties parms, boolean useValueArray) throws InterruptedException {
-      try {
-        String line = readLine(in);
-        int i = line.indexOf(boundary);
-        if (i!=2)
-          sendError( HTTP_BADREQUEST, "BAD REQUEST: Content type is multipart/form-data but next chunk does not start with boundary. Usage: GET /example/file.html" );
-        if (line.substring(i+boundary.length()).startsWith("--"))
-          return;
-        // read the header
-        Properties item = new Properties();
-        line = readLine(in);
-        while ((line != null) && (line.trim().length()>0)) {
-          int p = line.indexOf(':');
-          if (p != -1)
-            item.put( line.substring(0,p).trim().toLowerCase(), line.substring(p+1).trim());
-          line = readLine(in);
-        }
-        // analyze the header
-        if( line!=null ) {
-          String contentDisposition = item.getProperty("content-disposition");
-          if( contentDisposition == null)
-            sendError( HTTP_BADREQUEST, "BAD REQUEST: Content type is multipart/form-data but no content-disposition info found. Usage: GET /example/file.html" );
-          String key = parms.getProperty("key");
-          //UploadFileVec.readPut(key, new InputStreamWrapper(in, boundary.getBytes()));
-          throw H2O.unimpl();
-        }
-      }
-      catch (Exception e) {
-        sendError( HTTP_INTERNALERROR, "SERVER INTERNAL ERROR: Exception: " + e.getMessage());
-      }
+      pre.put("uri", uri);
+    } catch ( IOException ioe ) {
+      throw new HTTPError(HTTP_INTERNALERROR, "SERVER INTERNAL ERROR: IOException: " + ioe.getMessage());
     }
+  }
 
-    /**
-     * Decodes the percent encoding scheme. <br/>
-     * For example: "an+example%20string" -> "an example string"
-     */
-    private String decodePercent( String str ) throws InterruptedException
+  /**
+   * Decodes the percent encoding scheme. <br/>
+   * For example: "an+example%20string" -> "an example string"
+   */
+  static String decodePercent( String str ) throws HTTPError
+  {
+    try
     {
-      try
+      StringBuilder sb = new StringBuilder();
+      for( int i=0; i<str.length(); i++ )
       {
-        StringBuilder sb = new StringBuilder();
-        for( int i=0; i<str.length(); i++ )
-        {
-          char c = str.charAt( i );
-          switch ( c )
-          {
-          case '+':
-            sb.append( ' ' );
-            break;
-          case '%':
-            sb.append((char)Integer.parseInt( str.substring(i+1,i+3), 16 ));
-            i += 2;
-            break;
-          default:
-            sb.append( c );
-            break;
-          }
-        }
-        return sb.toString();
-      }
-      catch( Exception e ) {
-        sendError( HTTP_BADREQUEST, "BAD REQUEST: Bad percent-encoding." );
-        return null;
-      }
-    }
-
-    /**
-     * Decodes parameters in percent-encoded URI-format
-     * ( e.g. "name=Jack%20Daniels&pass=Single%20Malt" ) and
-     * adds them to given Properties. NOTE: this doesn't support multiple
-     * identical keys due to the simplicity of Properties -- if you need multiples,
-     * you might want to replace the Properties with a Hashtable of Vectors or such.
-     */
-    private void decodeParms( String parms, Properties p )
-        throws InterruptedException
+        char c = str.charAt( i );
+        switch ( c )
         {
-      if ( parms == null )
-        return;
-
-      StringTokenizer st = new StringTokenizer( parms, "&" );
-      while ( st.hasMoreTokens())
-      {
-        String e = st.nextToken();
-        int sep = e.indexOf( '=' );
-        if ( sep >= 0 ) {
-          String key = decodePercent( e.substring( 0, sep ) ).trim();
-          String value = decodePercent( e.substring( sep+1 ) );
-          String old = p.getProperty(key, null);
-          p.put(key, old == null ? value : (old+","+value));
+        case '+':
+          sb.append( ' ' );
+          break;
+        case '%':
+          sb.append((char)Integer.parseInt( str.substring(i+1,i+3), 16 ));
+          i += 2;
+          break;
+        default:
+          sb.append( c );
+          break;
         }
       }
+      return sb.toString();
     }
-
-    /**
-     * Returns an error message as a HTTP response and
-     * throws InterruptedException to stop further request processing.
-     */
-    private void sendError( String status, String msg ) throws InterruptedException
-    {
-      String s = "         HTTP_status: " + status;
-      Log.httpd(s);
-      sendResponse( status, MIME_PLAINTEXT, null, new ByteArrayInputStream( msg.getBytes()));
-      throw new InterruptedException();
-    }
-
-    private void sendResponse( long startMillis, String status, String mime, Properties header, InputStream data ) {
-      long deltaMillis = System.currentTimeMillis() - startMillis;
-      String s = "         HTTP_status: " + status + ", millis: " + deltaMillis;
-      Log.httpd(s);
-      sendResponse(status, mime, header, data);
+    catch( Exception e ) {
+      throw new HTTPError(HTTP_BADREQUEST, "BAD REQUEST: Bad percent-encoding." );
     }
+  }
 
-    /**
-     * Sends given response to the socket.
-     */
-    private void sendResponse( String status, String mime, Properties header, InputStream data )
-    {
-      try
+  /**
+   * Decodes parameters in percent-encoded URI-format
+   * ( e.g. "name=Jack%20Daniels&pass=Single%20Malt" ) and
+   * adds them to given Properties. NOTE: this doesn't support multiple
+   * identical keys due to the simplicity of Properties -- if you need multiples,
+   * you might want to replace the Properties with a Hashtable of Vectors or such.
+   */
+  static void decodeParms( String parms, Properties p )
+      throws HTTPError
       {
-        if ( status == null )
-          throw new RuntimeException( "sendResponse(): Status can't be null." );
-
-        OutputStream out = mySocket.getOutputStream();
-        PrintWriter pw = new PrintWriter( out );
-        pw.print("HTTP/1.0 " + status + " \r\n");
-
-        if ( mime != null )
-          pw.print("Content-Type: " + mime + "\r\n");
-
-        if ( header == null || header.getProperty( "Date" ) == null )
-          pw.print( "Date: " + gmtFrmt.format( new Date()) + "\r\n");
-
-        if ( header != null )
-        {
-          Enumeration e = header.keys();
-          while ( e.hasMoreElements())
-          {
-            String key = (String)e.nextElement();
-            String value = header.getProperty( key );
-            pw.print( key + ": " + value + "\r\n");
-          }
-        }
-
-        pw.print("\r\n");
-        pw.flush();
+    if ( parms == null )
+      return;
 
-        if ( data != null )
-        {
-          int pending = data.available();	// This is to support partial sends, see serveFile()
-          byte[] buff = new byte[theBufferSize];
-          while (pending>0)
-          {
-            int read = data.read( buff, 0, ( (pending>theBufferSize) ?  theBufferSize : pending ));
-            if (read <= 0)	break;
-            out.write( buff, 0, read );
-            //pending -= read;
-            pending = data.available();
-          }
-        }
-        out.flush();
-        out.close();
-        if ( data != null )
-          data.close();
-      }
-      catch( IOException e ) {
-        Log.err(e);
-        // Couldn't write? No can do.
-        try { mySocket.close(); } catch( IOException ignore ) { }
+    StringTokenizer st = new StringTokenizer( parms, "&" );
+    while ( st.hasMoreTokens())
+    {
+      String e = st.nextToken();
+      int sep = e.indexOf( '=' );
+      if ( sep >= 0 ) {
+        String key = decodePercent( e.substring( 0, sep ) ).trim();
+        String value = decodePercent( e.substring( sep+1 ) );
+        String old = p.getProperty(key, null);
+        p.put(key, old == null ? value : (old+","+value));
       }
     }
-
-    private Socket mySocket;
   }
 
+
   private static final class InputStreamWrapper extends InputStream {
     static final byte[] BOUNDARY_PREFIX = { '\r', '\n', '-', '-' };
     final InputStream _wrapped;
@@ -1088,7 +817,7 @@ public class NanoHTTPD
       theMimeTypes.put( st.nextToken(), st.nextToken());
   }
 
-  private static int theBufferSize = 16 * 1024;
+  static int theBufferSize = 16 * 1024;
 
   // Change this if you want to log to somewhere else than stdout
   protected static final PrintStream myOut = System.out;
@@ -1103,6 +832,14 @@ public class NanoHTTPD
     gmtFrmt.setTimeZone(TimeZone.getTimeZone("GMT"));
   }
 
+  /**
+   * Current date, formatted for the HTTP Date header
+   */
+  static String httpDate()
+  {
+    synchronized( gmtFrmt ) { return gmtFrmt.format( new Date()); }
+  }
+
   /**
    * The distribution licence
    */
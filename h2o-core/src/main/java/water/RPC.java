@@ -79,6 +79,8 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   // if should remain the same size.
   int _size;
   int _size_rez;                // Size of received results
+  int _size_snd;                // Size of the sent task
+  final long _startNanos;       // For the latency metrics
 
   // Magic Cookies
   static final byte SERVER_UDP_SEND = 10;
@@ -109,6 +111,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
     _target = target;
     _dt = dtask;
     _started = System.currentTimeMillis();
+    _startNanos = System.nanoTime();
     _retry = RETRY_MS;
   }
   RPC<V> setTaskNum() {
@@ -186,6 +189,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
           try {
             ab.putTask(UDP.udp.exec,_tasknum).put1(CLIENT_UDP_SEND).put(_dt);
             boolean t = ab.hasTCP();
+            _size_snd = ab.size();
             assert sz_check(ab) : "Resend of "+_dt.getClass()+" changes size from "+_size+" to "+ab.size()+" for task#"+_tasknum;
             ab.close();        // Then close; send final byte
             _sentTcp = t;      // Set after close (and any other possible fail)
@@ -538,6 +542,9 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
         UDPTimeOutThread.PENDING.remove(this);
         _dt.read(ab);             // Read the answer (under lock?)
         _size_rez = ab.size();    // Record received size
+        TaskMetrics.record(_dt.getClass(), TaskMetrics.RPC_LATENCY, System.nanoTime()-_startNanos);
+        TaskMetrics.record(_dt.getClass(), TaskMetrics.RPC_BYTES, _size_snd+_size_rez);
+        JobCost.charge(_dt._costJob, JobCost.NET_BYTES, _size_snd+_size_rez);
         ab.close();               // Also finish the read (under lock?)
         _dt.onAck();              // One time only execute (before sending ACKACK)
         _done = true;             // Only read one (of many) response packets
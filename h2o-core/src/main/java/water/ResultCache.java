@@ -0,0 +1,110 @@
+package water;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+/** Results of repeated read-only requests - Cascade expressions, quantiles -
+ *  kept by the node answering them.  A result is looked up by the request
+ *  plus the version of every input Vec: its Key and the count of writes to
+ *  it, {@link Vec#writeVersion}.  Changing or deleting an input thus
+ *  changes the lookup on every node, so stale results are never returned;
+ *  a node writing an input also drops them eagerly, from
+ *  {@link Vec#preWriting} and {@link Vec#remove}.
+ *
+ *  <p>Results are kept in least-recently-used order, up to 1/64th of the
+ *  heap in total, and dropped altogether when the {@link MemoryManager}
+ *  starts blocking allocations. */
+public final class ResultCache {
+  static final long MAX_BYTES = MemoryManager.MEM_MAX>>6;
+
+  private static final class Entry {
+    final Iced _result;
+    final Key[] _vecs;          // Input Vecs
+    final long _size;
+    Entry( Iced result, Key[] vecs, long size ) { _result = result; _vecs = vecs; _size = size; }
+  }
+
+  // Access-ordered: least recently used first
+  private static final LinkedHashMap<String,Entry> CACHE = new LinkedHashMap<>(16,0.75f,true);
+  private static long _bytes;
+  private static long _hits, _misses;
+
+  private ResultCache() { }
+
+  /** A lookup key for the given request over the given input Frames, or
+   *  null if the request cannot be cached right now: some input is being
+   *  written. */
+  public static String key( String request, Frame... inputs ) {
+    String v = versions(inputs);
+    return v == null ? null : request+v;
+  }
+
+  // The names, Vec Keys and write counts of the given Frames, or null if
+  // some Vec is being written
+  private static String versions( Frame... inputs ) {
+    StringBuilder sb = new StringBuilder();
+    for( Frame fr : inputs ) {
+      sb.append('|').append(fr._key);
+      String[] names = fr.names();
+      Vec[] vecs = fr.vecs();
+      for( int i = 0; i < vecs.length; i++ ) {
+        int v = vecs[i].writeVersion();
+        if( v < 0 ) return null;
+        sb.append(',').append(names[i]).append('=').append(vecs[i]._key).append('@').append(v);
+      }
+    }
+    return sb.toString();
+  }
+
+  /** The result kept for the lookup key, or null. */
+  public static synchronized Iced get( String key ) {
+    if( key == null ) return null;
+    Entry e = CACHE.get(key);
+    if( e == null ) { _misses++; return null; }
+    _hits++;
+    return e._result;
+  }
+
+  /** Keep a result, computed from the given input Frames, for the lookup
+   *  key.  The result is shared between requests, and must not be changed
+   *  afterwards.  A no-op for a null key, or if some input changed while
+   *  the result was computed. */
+  public static void put( String key, Iced result, Frame... inputs ) {
+    if( key == null ) return;
+    String v = versions(inputs);
+    if( v == null || !key.endsWith(v) ) return;
+    ArrayList<Key> vecs = new ArrayList<>();
+    for( Frame fr : inputs ) for( Vec vec : fr.vecs() ) vecs.add(vec._key);
+    long size = 2L*key.length() + new AutoBuffer().put(result).buf().length;
+    if( size > MAX_BYTES ) return;
+    Entry e = new Entry(result, vecs.toArray(new Key[vecs.size()]), size);
+    synchronized( ResultCache.class ) {
+      Entry old = CACHE.put(key, e);
+      if( old != null ) _bytes -= old._size;
+      _bytes += size;
+      for( Iterator<Entry> it = CACHE.values().iterator(); _bytes > MAX_BYTES && it.hasNext(); ) {
+        _bytes -= it.next()._size;
+        it.remove();
+      }
+    }
+  }
+
+  /** Drop the results computed from the given Vec. */
+  public static synchronized void invalidate( Key vec ) {
+    for( Iterator<Entry> it = CACHE.values().iterator(); it.hasNext(); ) {
+      Entry e = it.next();
+      for( Key k : e._vecs )
+        if( k.equals(vec) ) { _bytes -= e._size; it.remove(); break; }
+    }
+  }
+
+  /** Drop all results. */
+  public static synchronized void clear() { CACHE.clear(); _bytes = 0; }
+
+  static synchronized int size() { return CACHE.size(); }
+  static synchronized long hits() { return _hits; }
+  static synchronized long misses() { return _misses; }
+}
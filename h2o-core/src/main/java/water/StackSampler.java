@@ -0,0 +1,137 @@
+package water;
+
+import java.util.HashMap;
+import java.util.Map;
+import water.util.Log;
+
+/** Continuous low-rate stack sampler.  A few times a second the stacks of all
+ *  busy threads are folded into a trie, root frame first, under a tag for the
+ *  thread: {@code FJ-<priority>} for F/J workers, else the thread name.  The
+ *  tries cover a sliding window: one per {@link #BUCKET_MS}, the last
+ *  {@link #NBUCKETS} kept, each bounded to {@link #MAX_NODES} nodes - samples
+ *  which do not fit are counted at their deepest frame already in the trie.
+ *  {@link #folded} renders the window as folded stacks, the input format of
+ *  flame-graph tools. */
+public class StackSampler extends Thread {
+  static final long BUCKET_MS = 5*60*1000; // 5 minute buckets...
+  static final int  NBUCKETS  = 12;        // ...for the last hour
+  static final int  MAX_NODES = 1<<16;     // Trie nodes per bucket
+  static final int  MAX_DEPTH = 256;       // Frames kept per stack, from the root
+
+  private static final Trie[] WINDOW = new Trie[NBUCKETS];
+  private static int _cur;                 // Latest bucket in WINDOW
+
+  private final long _period;
+
+  StackSampler( int hz ) {
+    super("StackSampler");
+    setDaemon(true);
+    setPriority(MAX_PRIORITY);  // Sample on time even when the node is busy
+    _period = Math.max(1, 1000/hz);
+  }
+
+  @Override public void run() {
+    while( true ) {
+      try { Thread.sleep(_period); } catch( InterruptedException ignore ) { }
+      try { sample(System.currentTimeMillis()); }
+      catch( Throwable t ) { Log.err(t); }
+    }
+  }
+
+  // One trie node: a frame, the samples ending here, and the callees
+  private static final class Node {
+    final String _frame;
+    long _self;
+    HashMap<String,Node> _kids;
+    Node( String frame ) { _frame = frame; }
+  }
+
+  private static final class Trie {
+    final long _start;
+    final Node _root = new Node(null);
+    int _nodes;
+    Trie( long start ) { _start = start; }
+
+    void add( String[] frames, int n ) {
+      Node x = _root;
+      for( int i = 0; i < n; i++ ) {
+        Node k = x._kids == null ? null : x._kids.get(frames[i]);
+        if( k == null ) {
+          if( _nodes == MAX_NODES ) break; // Full: count at the deepest known frame
+          if( x._kids == null ) x._kids = new HashMap<>();
+          x._kids.put(frames[i], k = new Node(frames[i]));
+          _nodes++;
+        }
+        x = k;
+      }
+      x._self++;
+    }
+
+    void fold( Node x, StringBuilder path, HashMap<String,Long> res ) {
+      int len = path.length();
+      if( x._frame != null ) path.append(len == 0 ? "" : ";").append(x._frame);
+      if( x._self > 0 ) {
+        String s = path.toString();
+        Long c = res.get(s);
+        res.put(s, c == null ? x._self : c + x._self);
+      }
+      if( x._kids != null )
+        for( Node k : x._kids.values() ) fold(k, path, res);
+      path.setLength(len);
+    }
+  }
+
+  // Threads waiting for work, rather than doing any
+  private static boolean idle( StackTraceElement top ) {
+    String m = top.getClassName()+"."+top.getMethodName();
+    return m.equals("sun.misc.Unsafe.park")
+      || m.equals("java.lang.Object.wait")
+      || m.equals("java.lang.Thread.sleep")
+      || m.equals("java.lang.Thread.yield")
+      || m.equals("java.net.PlainSocketImpl.socketAccept")
+      || m.equals("sun.nio.ch.ServerSocketChannelImpl.accept0")
+      || m.equals("sun.nio.ch.DatagramChannelImpl.receive0")
+      || m.equals("sun.nio.ch.EPollArrayWrapper.epollWait")
+      || m.equals("java.lang.Thread.dumpThreads");
+  }
+
+  private static String tag( Thread t ) {
+    if( t instanceof H2O.FJWThr ) return "FJ-"+((H2O.FJWThr)t)._priority;
+    return t.getName().replaceAll("[-_ #]*\\d+$", "");
+  }
+
+  static void sample( long now ) {
+    Map<Thread,StackTraceElement[]> all = Thread.getAllStackTraces();
+    String[] frames = new String[MAX_DEPTH];
+    synchronized( WINDOW ) {
+      Trie t = WINDOW[_cur];
+      if( t == null || now - t._start >= BUCKET_MS ) {
+        _cur = (_cur+1) % NBUCKETS;
+        t = WINDOW[_cur] = new Trie(now);
+      }
+      for( Map.Entry<Thread,StackTraceElement[]> e : all.entrySet() ) {
+        StackTraceElement[] stk = e.getValue();
+        if( stk.length == 0 || idle(stk[0]) || e.getKey() == Thread.currentThread() ) continue;
+        int n = 0;
+        frames[n++] = tag(e.getKey());
+        for( int i = stk.length-1; i >= 0 && n < MAX_DEPTH; i-- )
+          frames[n++] = stk[i].getClassName()+"."+stk[i].getMethodName();
+        t.add(frames, n);
+      }
+    }
+  }
+
+  /** Folded stacks ({@code frame;frame;... count}) sampled on this node in
+   *  the last {@code window_ms} milliseconds, at bucket granularity; all of
+   *  the window for {@code window_ms <= 0}. */
+  public static HashMap<String,Long> folded( long window_ms ) {
+    HashMap<String,Long> res = new HashMap<>();
+    long now = System.currentTimeMillis();
+    synchronized( WINDOW ) {
+      for( Trie t : WINDOW )
+        if( t != null && (window_ms <= 0 || now - t._start < window_ms + BUCKET_MS) )
+          t.fold(t._root, new StringBuilder(), res);
+    }
+    return res;
+  }
+}
@@ -0,0 +1,162 @@
+package water;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import water.nbhm.NonBlockingHashMap;
+import water.util.LogHistogram;
+
+/** Always-on execution metrics, per task class: time spent in map() per
+ *  chunk (or key), time in reduce(), and the latency and bytes shipped of
+ *  remote calls.  Each node records its own into lock-free histograms;
+ *  {@link Report#execImpl} merges them across the cloud, together with the
+ *  F/J queue depth per priority of every node. */
+public final class TaskMetrics {
+  public static final int MAP = 0, REDUCE = 1, RPC_LATENCY = 2, RPC_BYTES = 3;
+  public static final String[] KINDS = {"map_nanos", "reduce_nanos", "rpc_latency_nanos", "rpc_bytes"};
+
+  private static final NonBlockingHashMap<Class,LogHistogram[]> STATS = new NonBlockingHashMap<>();
+
+  private TaskMetrics() { }
+
+  /** Record one value of the given kind for a task class. */
+  public static void record( Class clz, int kind, long v ) {
+    LogHistogram[] hs = STATS.get(clz);
+    if( hs == null ) {
+      hs = new LogHistogram[KINDS.length];
+      for( int i = 0; i < hs.length; i++ ) hs[i] = new LogHistogram();
+      LogHistogram[] old = STATS.putIfAbsent(clz, hs);
+      if( old != null ) hs = old;
+    }
+    hs[kind].record(v);
+  }
+
+  /** Gathers the histograms of every node, merged by task class, and the
+   *  F/J queue depths of every node. */
+  static class Collect extends MRTask<Collect> {
+    String[] _tasks;
+    LogHistogram.Snapshot[] _hists; // KINDS.length per task
+    long[][] _queues;               // Per node, per priority; -1 for no pool
+
+    @Override public void setupLocal() {
+      _queues = new long[H2O.CLOUD.size()][];
+      if( H2O.SELF._heartbeat._client ) { _tasks = new String[0]; _hists = new LogHistogram.Snapshot[0]; return; }
+      long[] q = _queues[H2O.SELF.index()] = new long[H2O.MAX_PRIORITY+1];
+      for( int p = 0; p < q.length; p++ ) q[p] = H2O.getWrkQueueSize(p);
+      _tasks = new String[STATS.size()];
+      _hists = new LogHistogram.Snapshot[_tasks.length*KINDS.length];
+      int i = 0;
+      for( Map.Entry<Class,LogHistogram[]> e : STATS.entrySet() ) {
+        if( i == _tasks.length ) break; // Registered since sizing
+        _tasks[i] = e.getKey().getName();
+        for( int k = 0; k < KINDS.length; k++ )
+          _hists[i*KINDS.length+k] = e.getValue()[k].snapshot();
+        i++;
+      }
+      if( i < _tasks.length ) {
+        _tasks = Arrays.copyOf(_tasks, i);
+        _hists = Arrays.copyOf(_hists, i*KINDS.length);
+      }
+    }
+
+    @Override public void reduce( Collect c ) {
+      for( int n = 0; n < _queues.length; n++ )
+        if( _queues[n] == null ) _queues[n] = c._queues[n];
+      HashMap<String,Integer> idx = new HashMap<>();
+      for( int i = 0; i < _tasks.length; i++ ) idx.put(_tasks[i], i);
+      int n = _tasks.length;
+      String[] tasks = Arrays.copyOf(_tasks, n+c._tasks.length);
+      LogHistogram.Snapshot[] hists = Arrays.copyOf(_hists, tasks.length*KINDS.length);
+      for( int j = 0; j < c._tasks.length; j++ ) {
+        Integer i = idx.get(c._tasks[j]);
+        if( i == null ) {
+          tasks[n] = c._tasks[j];
+          System.arraycopy(c._hists, j*KINDS.length, hists, n*KINDS.length, KINDS.length);
+          n++;
+        } else {
+          for( int k = 0; k < KINDS.length; k++ )
+            hists[i*KINDS.length+k].add(c._hists[j*KINDS.length+k]);
+        }
+      }
+      _tasks = Arrays.copyOf(tasks, n);
+      _hists = Arrays.copyOf(hists, n*KINDS.length);
+    }
+
+    @Override public byte priority() { return H2O.GUI_PRIORITY; }
+  }
+
+  /** Cluster-wide summary of the metrics: per task class and kind, the
+   *  count, sum, max and some quantiles of the recorded values. */
+  public static class Report extends Iced {
+    public String[] nodes;
+    public String[] tasks;
+    public String[] kinds = KINDS;
+    public long[][] count, sum, max, p50, p90, p99; // [task][kind]
+    public long[][] queue_depth;                     // [node][priority], -1 for no pool
+
+    public void execImpl() {
+      Collect c = new Collect().doAllNodes();
+      nodes = new String[H2O.CLOUD.size()];
+      for( int n = 0; n < nodes.length; n++ ) nodes[n] = H2O.CLOUD._memary[n].toString();
+      queue_depth = c._queues;
+      TreeMap<String,Integer> sorted = new TreeMap<>();
+      for( int i = 0; i < c._tasks.length; i++ ) sorted.put(c._tasks[i], i);
+      int ntasks = sorted.size();
+      tasks = new String[ntasks];
+      count = new long[ntasks][KINDS.length];
+      sum   = new long[ntasks][KINDS.length];
+      max   = new long[ntasks][KINDS.length];
+      p50   = new long[ntasks][KINDS.length];
+      p90   = new long[ntasks][KINDS.length];
+      p99   = new long[ntasks][KINDS.length];
+      int t = 0;
+      for( Map.Entry<String,Integer> e : sorted.entrySet() ) {
+        tasks[t] = e.getKey();
+        for( int k = 0; k < KINDS.length; k++ ) {
+          LogHistogram.Snapshot s = c._hists[e.getValue()*KINDS.length+k];
+          count[t][k] = s._count;
+          sum  [t][k] = s._sum;
+          max  [t][k] = s._max;
+          p50  [t][k] = s.quantile(0.50);
+          p90  [t][k] = s.quantile(0.90);
+          p99  [t][k] = s.quantile(0.99);
+        }
+        t++;
+      }
+    }
+
+    /** The report in the Prometheus text exposition format, as summaries in
+     *  base units (seconds and bytes). */
+    public String toPrometheus() {
+      StringBuilder sb = new StringBuilder();
+      for( int k = 0; k < KINDS.length; k++ ) {
+        boolean nanos = KINDS[k].endsWith("_nanos");
+        String name = "h2o_task_" + (nanos ? KINDS[k].replace("_nanos", "_seconds") : KINDS[k]);
+        double scale = nanos ? 1e-9 : 1;
+        sb.append("# TYPE ").append(name).append(" summary\n");
+        for( int t = 0; t < tasks.length; t++ ) {
+          if( count[t][k] == 0 ) continue;
+          String task = "task=\"" + tasks[t] + "\"";
+          sb.append(name).append('{').append(task).append(",quantile=\"0.5\"} " ).append(p50[t][k]*scale).append('\n');
+          sb.append(name).append('{').append(task).append(",quantile=\"0.9\"} " ).append(p90[t][k]*scale).append('\n');
+          sb.append(name).append('{').append(task).append(",quantile=\"0.99\"} ").append(p99[t][k]*scale).append('\n');
+          sb.append(name).append("_sum{"  ).append(task).append("} ").append(sum[t][k]*scale).append('\n');
+          sb.append(name).append("_count{").append(task).append("} ").append(count[t][k]).append('\n');
+        }
+        sb.append("# TYPE ").append(name).append("_max gauge\n");
+        for( int t = 0; t < tasks.length; t++ )
+          if( count[t][k] > 0 )
+            sb.append(name).append("_max{task=\"").append(tasks[t]).append("\"} ").append(max[t][k]*scale).append('\n');
+      }
+      sb.append("# TYPE h2o_fj_queue_depth gauge\n");
+      for( int n = 0; n < queue_depth.length; n++ ) {
+        if( queue_depth[n] == null ) continue;
+        for( int p = 0; p < queue_depth[n].length; p++ )
+          if( queue_depth[n][p] >= 0 )
+            sb.append("h2o_fj_queue_depth{node=\"").append(nodes[n]).append("\",priority=\"").append(p).append("\"} ").append(queue_depth[n][p]).append('\n');
+      }
+      return sb.toString();
+    }
+  }
+}
@@ -1,7 +1,15 @@
 package water;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
+import sun.misc.Unsafe;
 import water.nbhm.NonBlockingHashMap;
+import water.nbhm.UtilUnsafe;
 import water.util.Log;
 
 /** Internal H2O class used to build and maintain the cloud-wide type mapping.
@@ -36,6 +44,12 @@ public class TypeMap {
     "water.api.TypeaheadV2",    // Allow typeahead without locking
     "water.Key",
   };
+  // Resource listing the classes given fixed IDs at build time, after the
+  // bootstrap classes; see IcerGen.  Every node of a cloud must agree on it.
+  static final String PREBUILT_TYPES = "water/typemap.txt";
+  // Number of IDs known without asking the leader, and a hash of their names
+  static final int PREBUILT_IDS, PREBUILT_HASH;
+  private static final Unsafe _unsafe = UtilUnsafe.getUnsafe();
   // Class name -> ID mapping
   static private final NonBlockingHashMap<String, Integer> MAP = new NonBlockingHashMap<>();
   // ID -> Class name mapping
@@ -47,8 +61,10 @@ public class TypeMap {
   // JUnit helper flag
   static volatile boolean _check_no_locking;
   static {
-    CLAZZES = BOOTSTRAP_CLASSES;
-    GOLD = new Icer[BOOTSTRAP_CLASSES.length];
+    CLAZZES = prebuiltTypes();
+    PREBUILT_IDS = CLAZZES.length;
+    PREBUILT_HASH = Arrays.hashCode(CLAZZES);
+    GOLD = new Icer[CLAZZES.length];
     int id=0;                   // The initial set of Type IDs to boot with
     for( String s : CLAZZES ) MAP.put(s,id++);
     IDS = id;
@@ -66,6 +82,19 @@ public class TypeMap {
     GOLD[ICED ] = Icer.ICER;
   }
 
+  // The bootstrap classes, followed by those listed in PREBUILT_TYPES
+  private static String[] prebuiltTypes() {
+    ArrayList<String> clzs = new ArrayList<>(Arrays.asList(BOOTSTRAP_CLASSES));
+    InputStream is = TypeMap.class.getClassLoader().getResourceAsStream(PREBUILT_TYPES);
+    if( is == null ) return BOOTSTRAP_CLASSES; // No build-time IDs; all from the leader
+    try( BufferedReader br = new BufferedReader(new InputStreamReader(is)) ) {
+      String s;
+      while( (s = br.readLine()) != null )
+        if( !s.isEmpty() && !clzs.contains(s) ) clzs.add(s);
+    } catch( IOException e ) { throw new RuntimeException(e); }
+    return clzs.toArray(new String[clzs.size()]);
+  }
+
   // The major complexity of this code is that the are FOUR major data forms
   // which get converted to one another.  At various times the code is
   // presented with one of the forms, and asked for another form, sometimes
@@ -155,8 +184,11 @@ public class TypeMap {
     synchronized( ice_clz ) {
       f = goForGold(id);        // Recheck under lock
       if( f != null ) return f; 
-      // Hard work: make a new delegate class
-      try { f = Weaver.genDelegate(id,ice_clz); }
+      // Hard work: make a new delegate class, unless made at build time
+      try { 
+        f = prebuiltIcer(id,ice_clz);
+        if( f == null ) f = Weaver.genDelegate(id,ice_clz);
+      }
       catch( Exception e ) { 
         Log.err("Weaver generally only throws if classfiles are not found, e.g. IDE setups running test code from a remote node that is not in the classpath on this node."); 
         Log.throwErr(e); 
@@ -169,6 +201,20 @@ public class TypeMap {
     }
   }
 
+  // The Icer generated at build time for a class with a build-time ID, or
+  // null.  Loading it directly skips starting up the Weaver.
+  private static Icer prebuiltIcer( int id, Class ice_clz ) throws Exception {
+    if( id >= PREBUILT_IDS ) return null;
+    Class icer_clz;
+    try { icer_clz = Class.forName(ice_clz.getName()+"$Icer",true,ice_clz.getClassLoader()); }
+    catch( ClassNotFoundException e ) { return null; }
+    Object ice = Modifier.isAbstract(ice_clz.getModifiers()) ? null : _unsafe.allocateInstance(ice_clz);
+    Icer f = (Icer)icer_clz.getDeclaredConstructors()[0].newInstance(ice);
+    if( f.frozenType() != id )
+      throw new IllegalStateException(icer_clz+" was generated for type ID "+f.frozenType()+", not "+id);
+    return f;
+  }
+
   static Iced newInstance(int id) { return (Iced)newFreezable(id); }
   static Freezable newFreezable(int id) { 
     Freezable iced = theFreezable(id);
@@ -160,6 +160,8 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   // Time of last access to this value.
   transient long _lastAccessedTime = System.currentTimeMillis();
   private void touch() {_lastAccessedTime = System.currentTimeMillis();}
+  // Job which made this Value, charged when the Cleaner later swaps it out
+  private transient Key _costJob = JobCost.current();
 
   // ---
   // Backend persistence info.  3 bits are reserved for 8 different flavors of
@@ -204,6 +206,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   void storePersist() throws IOException {
     if( isPersisted() ) return;
     Persist.I[backend()].store(this);
+    JobCost.charge(_costJob, JobCost.DISK_BYTES, _max);
   }
 
   /** Remove dead Values from disk */
@@ -218,7 +221,9 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   byte[] loadPersist() {
     assert isPersisted();
     try { 
-      return Persist.I[backend()].load(this);
+      byte[] b = Persist.I[backend()].load(this);
+      JobCost.charge(JobCost.current(), JobCost.DISK_BYTES, b.length);
+      return b;
     } catch( IOException ioe ) {
       throw Log.throwErr(ioe);
     }
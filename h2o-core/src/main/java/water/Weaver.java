@@ -44,6 +44,14 @@ class Weaver {
     throw new RuntimeException(e2);
   }
 
+  /** Generate the Icer of an Iced class ahead of time, writing its classfile
+   *  under the given directory; see {@link IcerGen}. */
+  static void genClassfile( Class clazz, String dir ) throws Exception {
+    String iced_name = clazz.getName();
+    javassistLoadClass(TypeMap.onIce(iced_name),clazz);
+    _pool.get(implClazzName(iced_name)).writeFile(dir);
+  }
+
   // The name conversion from a Iced subclass to an Icer subclass.
   private static String implClazzName( String name ) {
     return name + "$Icer";
@@ -83,7 +91,10 @@ class Weaver {
     CtClass icer_cc = _pool.getOrNull(icer_name); // Full Name Lookup of Icer
     if( icer_cc != null ) {
       synchronized( iced_clazz ) {
-        if( !icer_cc.isFrozen() ) icer_cc.toClass(Weaver.class.getClassLoader()); // Load class (but does not link & init)
+        if( !icer_cc.isFrozen() ) {
+          try { return Class.forName(icer_name); } // Generated at build time, and already on the classpath
+          catch( ClassNotFoundException ignore ) { icer_cc.toClass(Weaver.class.getClassLoader()); } // Load class (but does not link & init)
+        }
         return Class.forName(icer_name); // Found a pre-cooked Icer implementation
       }
     }
@@ -153,9 +164,9 @@ class Weaver {
     make_body(icer_cc, iced_cc, iced_clazz, "write", null, null,
               "  protected final water.AutoBuffer write"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
               "    write"+super_id+"(ab,ice);\n",
-              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n",
+              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%d)); // %s\n",
               "    return ab;\n" +
               "  }");
     if( debug_print ) System.out.println(debug);
@@ -163,9 +174,9 @@ class Weaver {
     make_body(icer_cc, iced_cc, iced_clazz, "writeJSON", super_has_jfields ? null : "    ab.", "    ab.put1(',').",
               "  protected final water.AutoBuffer writeJSON"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
               "    writeJSON"+super_id+"(ab,ice);\n",
-              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n"  ,
+              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n"  ,
               "    return ab;\n" +
               "  }");
     if( debug_print ) System.out.println(debugJ);
@@ -173,9 +184,9 @@ class Weaver {
       make_body(icer_cc, iced_cc, iced_clazz, "writeHTML", null, null,
               "  protected final water.util.DocGen.HTML writeHTML"+id+"(water.util.DocGen.HTML ab, "+iced_name+" ice) {\n",
               "    writeHTML"+super_id+"(ab,ice);\n",
-              "    ab.put%z(\"%s\",ice.%s);\n"  ,  "    ab.put%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "    ab.put%z(\"%s\",ice.%s);\n"  ,  "    ab.put%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "    ab.put%z(\"%s\",ice.%s);\n"  ,  "    ab.put%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n"  ,
+              "    ab.put%z(\"%s\",ice.%s);\n"  ,  "    ab.put%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "    ab.put%z(\"%s\",ice.%s);\n"  ,  "    ab.put%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n",
+              "    ab.put%z(\"%s\",ice.%s);\n"  ,  "    ab.put%z(\"%s\",(%C)_unsafe.get%u(ice,%d)); // %s\n"  ,
               "    return ab;\n" +
               "  }");
     if( debug_print ) System.out.println(debugH);
@@ -204,9 +215,9 @@ class Weaver {
     make_body(icer_cc, iced_cc, iced_clazz, "read", null, null,
               "  protected final "+iced_name+" read"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
               "    read"+super_id+"(ab,ice);\n",
-              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%dL,ab.get%z());  //%s\n",
-              "    ice.%s = %s[ab.get1()];\n",         "    _unsafe.put%u(ice,%dL,%s[ab.get1()]);  //%s\n",
-              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%dL,(%C)ab.get%z(%c.class));  //%s\n",
+              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%d,ab.get%z());  //%s\n",
+              "    ice.%s = %s[ab.get1()];\n",         "    _unsafe.put%u(ice,%d,%s[ab.get1()]);  //%s\n",
+              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%d,(%C)ab.get%z(%c.class));  //%s\n",
               "    return ice;\n" +
               "  }");
     if( debug_print ) System.out.println(rbody_impl);
@@ -214,9 +225,9 @@ class Weaver {
     make_body(icer_cc, iced_cc, iced_clazz, "readJSON", null, null,
               "  protected final "+iced_name+" readJSON"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
               "    readJSON"+super_id+"(ab,ice);\n",
-              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%dL,ab.get%z());  //%s\n",
-              "    ice.%s = %s[ab.get1()];\n",         "    _unsafe.put%u(ice,%dL,%s[ab.get1()]);  //%s\n",
-              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%dL,(%C)ab.get%z(%c.class));  //%s\n",
+              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%d,ab.get%z());  //%s\n",
+              "    ice.%s = %s[ab.get1()];\n",         "    _unsafe.put%u(ice,%d,%s[ab.get1()]);  //%s\n",
+              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%d,(%C)ab.get%z(%c.class));  //%s\n",
               "    return ice;\n" +
               "  }");
     if( debug_print ) System.out.println(rbodyJ_impl);
@@ -251,9 +262,9 @@ class Weaver {
                   "    super.copyOver(fdst,fsrc);\n"+
                   "    "+iced_name+" dst = ("+iced_name+")fdst;\n"+
                   "    "+iced_name+" training_frame = ("+iced_name+")fsrc;\n",
-                  "    dst.%s = training_frame.%s;\n","    _unsafe.put%u(dst,%dL,_unsafe.get%u(training_frame,%dL));  //%s\n",
-                  "    dst.%s = training_frame.%s;\n","    _unsafe.put%u(dst,%dL,_unsafe.get%u(training_frame,%dL));  //%s\n",
-                  "    dst.%s = training_frame.%s;\n","    _unsafe.put%u(dst,%dL,_unsafe.get%u(training_frame,%dL));  //%s\n",
+                  "    dst.%s = training_frame.%s;\n","    _unsafe.put%u(dst,%d,_unsafe.get%u(training_frame,%d));  //%s\n",
+                  "    dst.%s = training_frame.%s;\n","    _unsafe.put%u(dst,%d,_unsafe.get%u(training_frame,%d));  //%s\n",
+                  "    dst.%s = training_frame.%s;\n","    _unsafe.put%u(dst,%d,_unsafe.get%u(training_frame,%d));  //%s\n",
                   "  }");
       if( debug_print ) System.out.println(cpbody_impl);
     }
@@ -319,7 +330,7 @@ class Weaver {
       // access, only private is a problem.
       boolean can_access = !javassist.Modifier.isPrivate(mods);
       if( (impl.equals("read") || impl.equals("copyOver")) && javassist.Modifier.isFinal(mods) ) can_access = false; 
-      long off = _unsafe.objectFieldOffset(iced_clazz.getDeclaredField(ctf.getName()));
+      String off = can_access ? null : offset(icer_cc, iced_cc, ctf.getName());
       int ftype = ftype(iced_cc, ctf.getSignature() ); // Field type encoding
       if( ftype%20 == 9 || ftype%20 == 11 ) {          // Iced/Objects
         sb.append(can_access ?  iced :  iced_unsafe);
@@ -335,7 +346,7 @@ class Weaver {
       subsub(sb, "%s", ctf.getName());             // %s ==> field name
       subsub(sb, "%c", dollarsub(base.getName())); // %c ==> base class name
       subsub(sb, "%C", dollarsub(ctft.getName())); // %C ==> full class name
-      subsub(sb, "%d", ""+off);                    // %d ==> field offset, only for Unsafe
+      if( off != null ) subsub(sb, "%d", off);     // %d ==> field offset, only for Unsafe
       subsub(sb, "%u", utype(ctf.getSignature())); // %u ==> unsafe type name
 
     }
@@ -346,6 +357,17 @@ class Weaver {
     return body;
   }
 
+  // The name of a static field in the Icer holding the offset of an Iced
+  // field, adding it on first use.
+  private static String offset( CtClass icer_cc, CtClass iced_cc, String name ) throws CannotCompileException {
+    String off = "OFF_"+name;
+    try { icer_cc.getDeclaredField(off); }
+    catch( NotFoundException e ) {
+      icer_cc.addField(CtField.make("  private static final long "+off+" = offset(\""+iced_cc.getName()+"\",\""+name+"\");",icer_cc));
+    }
+    return off;
+  }
+
   // Add a gen'd method.  Politely print if there's an error during generation.
   private static void addMethod( String body, CtClass icer_cc ) throws CannotCompileException {
     try {
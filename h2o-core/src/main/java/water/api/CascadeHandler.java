@@ -2,8 +2,10 @@ package water.api;
 
 import water.Iced;
 import water.Key;
+import water.ResultCache;
 import water.api.CascadeHandler.Cascade;
 import water.cascade.Env;
+import water.cascade.Exec;
 import water.fvec.Frame;
 import water.util.Log;
 
@@ -33,6 +35,13 @@ class CascadeHandler extends Handler<Cascade, CascadeV1> {
   }
 
   public CascadeV1 exec(int version, Cascade cascade) {
+    // Repeated side-effect free expressions over unchanged Frames reuse the
+    // earlier scalar or String result.  The parser is particular about white
+    // space, so the text is taken as is.
+    Frame[] inputs = cascade._ast == null ? null : Exec.inputs(cascade._ast);
+    String cache = inputs == null ? null : ResultCache.key("cascade:"+cascade._ast, inputs);
+    Cascade hit = (Cascade)ResultCache.get(cache);
+    if( hit != null ) return schema(version).fillFromImpl(hit);
     Throwable e = null;
     Env env = null;
     try {
@@ -56,6 +65,7 @@ class CascadeHandler extends Handler<Cascade, CascadeV1> {
         sb.append(cascade._string);
       }
       cascade._result = sb.toString();
+      if( cascade._key == null ) ResultCache.put(cache, cascade.clone(), inputs);
       return schema(version).fillFromImpl(cascade);
     }
     catch( IllegalArgumentException pe ) { e=pe;}
@@ -15,6 +15,7 @@ public class DownloadDataHandler extends Handler<DownloadData, DownloadDataV1> {
     //Input
     Key src_key;
     boolean hex_string;
+    boolean gzip;
 
     //Output
     InputStream csv;
@@ -25,7 +26,7 @@ public class DownloadDataHandler extends Handler<DownloadData, DownloadDataV1> {
 
     if (DKV.get(server.src_key) == null) throw new IllegalArgumentException(server.src_key.toString() + " not found.");
     Frame value = server.src_key.get();
-    server.csv = value.toCSV(true, server.hex_string);
+    server.csv = value.toCSV(true, server.hex_string, server.gzip);
     // Clean up Key name back to something resembling a file system name.  Hope
     // the user's browser actually asks for what to do with the suggested
     // filename.  Without this code, my FireFox would claim something silly
@@ -40,7 +41,7 @@ public class DownloadDataHandler extends Handler<DownloadData, DownloadDataV1> {
     String suggested_fname = s.substring(x+1).replace(".hex", ".csv");
     if( !suggested_fname.endsWith(".csv") )
       suggested_fname = suggested_fname+".csv";
-    server.filename = suggested_fname;
+    server.filename = server.gzip ? suggested_fname+".gz" : suggested_fname;
     return schema(version).fillFromImpl(server);
   }
 
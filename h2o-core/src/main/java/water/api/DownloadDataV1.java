@@ -9,6 +9,7 @@ public class DownloadDataV1 extends Schema<DownloadData, DownloadDataV1> {
   // Input fields
   @API(help="Key of file to download", required=true) Key key;
   @API(help="Emit double values in a machine readable lossless format with Double.toHexString().") boolean hex_string;
+  @API(help="Gzip-compress the CSV.") boolean gzip;
 
   // Output
   @API(help="CSV Stream", direction=API.Direction.OUTPUT) InputStream csv;
@@ -17,12 +18,15 @@ public class DownloadDataV1 extends Schema<DownloadData, DownloadDataV1> {
   @Override public DownloadData createImpl() {
     DownloadData dd = new DownloadData();
     dd.src_key = key;
+    dd.hex_string = hex_string;
+    dd.gzip = gzip;
     return dd;
   }
 
   @Override public DownloadDataV1 fillFromImpl(DownloadData dd) {
     key = dd.src_key;
     hex_string = dd.hex_string;
+    gzip = dd.gzip;
     csv = dd.csv;
     filename = dd.filename;
     return this;
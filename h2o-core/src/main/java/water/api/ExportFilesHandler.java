@@ -0,0 +1,31 @@
+package water.api;
+
+import water.*;
+import water.api.ExportFilesHandler.ExportFiles;
+import water.fvec.Frame;
+
+public class ExportFilesHandler extends Handler<ExportFiles,ExportFilesV1> {
+  @Override protected int min_ver() { return 1; }
+  @Override protected int max_ver() { return Integer.MAX_VALUE; }
+
+  protected static final class ExportFiles extends Iced {
+    //Input
+    Key src_key;
+    String path;
+    boolean force;
+    boolean hex_string;
+    boolean gzip;
+  }
+
+  public ExportFilesV1 export(int version, ExportFiles ef) {
+    Value v = DKV.get(ef.src_key);
+    if( v == null ) throw new IllegalArgumentException(ef.src_key.toString() + " not found.");
+    if( ef.path == null || ef.path.isEmpty() ) throw new IllegalArgumentException("Missing path.");
+    Frame fr = v.get();
+    fr.export(ef.path, ef.force, ef.hex_string, ef.gzip);
+    return schema(version).fillFromImpl(ef);
+  }
+
+  @Override protected void compute2() { throw H2O.unimpl(); }
+  @Override protected ExportFilesV1 schema(int version) { return new ExportFilesV1(); }
+}
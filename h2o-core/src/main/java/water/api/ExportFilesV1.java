@@ -0,0 +1,38 @@
+package water.api;
+
+import water.Key;
+import water.api.ExportFilesHandler.ExportFiles;
+import water.util.DocGen;
+
+public class ExportFilesV1 extends Schema<ExportFiles,ExportFilesV1> {
+  // Input fields
+  @API(help="Key of Frame to export", required=true) Key key;
+  @API(help="Directory to write the files into; every node writes the chunks it holds", required=true) String path;
+  @API(help="Overwrite existing files") boolean force;
+  @API(help="Emit double values in a machine readable lossless format with Double.toHexString().") boolean hex_string;
+  @API(help="Gzip-compress the files.") boolean gzip;
+
+  @Override public ExportFiles createImpl() {
+    ExportFiles ef = new ExportFiles();
+    ef.src_key = key;
+    ef.path = path;
+    ef.force = force;
+    ef.hex_string = hex_string;
+    ef.gzip = gzip;
+    return ef;
+  }
+
+  @Override public ExportFilesV1 fillFromImpl(ExportFiles ef) {
+    key = ef.src_key;
+    path = ef.path;
+    force = ef.force;
+    hex_string = ef.hex_string;
+    gzip = ef.gzip;
+    return this;
+  }
+
+  @Override public DocGen.HTML writeHTML_impl( DocGen.HTML ab ) {
+    ab.p("Frame "+key+" has been exported to "+path+".");
+    return ab;
+  }
+}
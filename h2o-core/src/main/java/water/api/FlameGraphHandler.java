@@ -0,0 +1,16 @@
+package water.api;
+
+import water.H2O;
+import water.util.FlameGraph;
+
+public class FlameGraphHandler extends Handler<FlameGraph, FlameGraphV2> {
+  @Override protected int min_ver() { return 2; }
+  @Override protected int max_ver() { return Integer.MAX_VALUE; }
+  @Override public void compute2() { throw H2O.fail(); }
+  @Override protected FlameGraphV2 schema(int version) { return new FlameGraphV2(); }
+
+  public FlameGraphV2 fetch(int version, FlameGraph fg) {
+    fg.execImpl();
+    return schema(version).fillFromImpl(fg);
+  }
+}
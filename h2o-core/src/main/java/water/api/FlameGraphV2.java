@@ -0,0 +1,32 @@
+package water.api;
+
+import water.util.FlameGraph;
+import water.util.PojoUtils;
+
+public class FlameGraphV2 extends Schema<FlameGraph, FlameGraphV2> {
+  @API(help="Index of the node to profile (0-based), or -1 for all nodes merged", direction=API.Direction.INPUT)
+  public int node = -1;
+
+  @API(help="Only include the samples of the most recent seconds (to 5 minutes), or 0 for all kept (the last hour)", direction=API.Direction.INPUT)
+  public int window_secs;
+
+  @API(help="Sampled stacks in the folded format of flame-graph tools: one 'frame;frame;... count' line per stack, rooted at the thread or F/J pool", direction=API.Direction.OUTPUT)
+  public String folded;
+
+  @API(help="Total number of thread samples", direction=API.Direction.OUTPUT)
+  public long samples;
+
+  @Override public FlameGraph createImpl() {
+    FlameGraph fg = new FlameGraph();
+    PojoUtils.copyProperties(fg, this, PojoUtils.FieldNaming.CONSISTENT);
+    return fg;
+  }
+
+  @Override public FlameGraphV2 fillFromImpl(FlameGraph fg) {
+    PojoUtils.copyProperties(this, fg, PojoUtils.FieldNaming.CONSISTENT);
+    return this;
+  }
+
+  // Folded stacks as-is for FlameGraph.txt, to pipe into flamegraph.pl
+  @Override public String toText() { return folded; }
+}
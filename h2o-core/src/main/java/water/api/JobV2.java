@@ -30,8 +30,23 @@ public class JobV2 extends Schema<Job, JobV2> {
   @API(help="exception", direction=API.Direction.OUTPUT)
   String exception;
 
+  @API(help="CPU time used in map and reduce calls across the cloud, in nanoseconds", direction=API.Direction.OUTPUT)
+  long cpu_nanos;
+
+  @API(help="bytes allocated in map and reduce calls across the cloud", direction=API.Direction.OUTPUT)
+  long alloc_bytes;
+
+  @API(help="bytes sent and received by remote calls", direction=API.Direction.OUTPUT)
+  long net_bytes;
+
+  @API(help="bytes loaded from and stored to disk", direction=API.Direction.OUTPUT)
+  long disk_bytes;
+
+  @API(help="chunks passed to map calls", direction=API.Direction.OUTPUT)
+  long chunks;
+
   JobV2() {}
-  JobV2(Key key, String description, String status, float progress, long msec, Key dest, String exception) {
+  JobV2(Key key, String description, String status, float progress, long msec, Key dest, String exception, long[] cost) {
     this.key = key;
     this.description = description;
     this.status = status;
@@ -39,6 +54,16 @@ public class JobV2 extends Schema<Job, JobV2> {
     this.msec = msec;
     this.dest = dest;
     this.exception = exception;
+    fillCost(cost);
+  }
+
+  private void fillCost(long[] cost) {
+    if( cost == null ) return;  // Nothing charged (yet)
+    cpu_nanos   = cost[JobCost.CPU_NANOS];
+    alloc_bytes = cost[JobCost.ALLOC_BYTES];
+    net_bytes   = cost[JobCost.NET_BYTES];
+    disk_bytes  = cost[JobCost.DISK_BYTES];
+    chunks      = cost[JobCost.CHUNKS];
   }
 
   //==========================
@@ -57,9 +82,10 @@ public class JobV2 extends Schema<Job, JobV2> {
     // Job job = DKV.get(j._key).get();
     progress = job.progress();
     status = job._state.toString();
-    msec = (job.isStopped() ? job._end_time : System.currentTimeMillis())-job._start_time;
+    msec = job.msec();
     dest = job.dest();
     exception = job._exception;
+    fillCost(JobCost.recent().get(job._key)); // Polled often: no pass over the cloud each time
     return this;
   }
 
@@ -77,6 +103,9 @@ public class JobV2 extends Schema<Job, JobV2> {
       String url = link(key);
       ab.href("JobPoll",url,url).putStr("status",status).put4f("progress",progress);
   }
-    return ab.putStr("msec",PrettyPrint.msecs(msec,false)).putStr("exception",exception);
+    ab.putStr("msec",PrettyPrint.msecs(msec,false)).putStr("exception",exception);
+    ab.putStr("cpu",PrettyPrint.msecs(cpu_nanos/1000000,false)).putStr("allocated",PrettyPrint.bytes(alloc_bytes));
+    ab.putStr("network",PrettyPrint.bytes(net_bytes)).putStr("disk",PrettyPrint.bytes(disk_bytes));
+    return ab.put8("chunks",chunks);
   }
 }
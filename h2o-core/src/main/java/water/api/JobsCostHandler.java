@@ -0,0 +1,16 @@
+package water.api;
+
+import water.H2O;
+import water.JobCost;
+
+public class JobsCostHandler extends Handler<JobCost.Report, JobsCostV2> {
+  @Override protected int min_ver() { return 2; }
+  @Override protected int max_ver() { return Integer.MAX_VALUE; }
+  @Override public void compute2() { throw H2O.fail(); }
+  @Override protected JobsCostV2 schema(int version) { return new JobsCostV2(); }
+
+  public JobsCostV2 fetch(int version, JobCost.Report report) {
+    report.execImpl();
+    return schema(version).fillFromImpl(report);
+  }
+}
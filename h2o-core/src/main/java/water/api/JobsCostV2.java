@@ -0,0 +1,35 @@
+package water.api;
+
+import water.JobCost;
+import water.Key;
+import water.util.PojoUtils;
+
+public class JobsCostV2 extends Schema<JobCost.Report, JobsCostV2> {
+  // Input fields
+  @API(help="Optional Job key; all Jobs charged so far if missing")
+  public Key key;
+
+  // Output fields
+  @API(help="Jobs charged with some resources", direction=API.Direction.OUTPUT)
+  public Key[] jobs;
+
+  @API(help="Descriptions of the Jobs; missing for Jobs since removed", direction=API.Direction.OUTPUT)
+  public String[] descriptions;
+
+  @API(help="Kinds of resource charged: CPU time and bytes allocated in map and reduce calls, bytes sent and received by remote calls, bytes loaded from and stored to disk, and chunks passed to map calls", direction=API.Direction.OUTPUT)
+  public String[] kinds;
+
+  @API(help="Totals across the cloud, per Job and kind", direction=API.Direction.OUTPUT)
+  public long[][] cost;
+
+  @Override public JobCost.Report createImpl() {
+    JobCost.Report report = new JobCost.Report();
+    PojoUtils.copyProperties(report, this, PojoUtils.FieldNaming.CONSISTENT);
+    return report;
+  }
+
+  @Override public JobsCostV2 fillFromImpl(JobCost.Report report) {
+    PojoUtils.copyProperties(this, report, PojoUtils.FieldNaming.CONSISTENT);
+    return this;
+  }
+}
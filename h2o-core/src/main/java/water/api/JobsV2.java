@@ -1,5 +1,6 @@
 package water.api;
 
+import java.util.HashMap;
 import water.*;
 import water.api.JobsHandler.Jobs;
 
@@ -33,9 +34,11 @@ public class JobsV2 extends Schema<Jobs,JobsV2> {
     this.key = j.key;
     Job[] js = j.jobs;
     jobs = new JobV2[js.length];
+    // Costs of all the jobs, from at most one pass over the cloud per poll interval
+    HashMap<Key,long[]> costs = JobCost.recent();
     for( int i=0; i<js.length; i++ ) {
       Job job = js[i];
-      jobs[i] = new JobV2(job._key, job._description, job._state.toString(), job.progress(), job.msec(), job.dest(), job._exception);
+      jobs[i] = new JobV2(job._key, job._description, job._state.toString(), job.progress(), job.msec(), job.dest(), job._exception, costs.get(job._key));
     }
     return this;
   }
@@ -0,0 +1,16 @@
+package water.api;
+
+import water.H2O;
+import water.TaskMetrics;
+
+public class MetricsHandler extends Handler<TaskMetrics.Report, MetricsV1> {
+  @Override protected int min_ver() { return 1; }
+  @Override protected int max_ver() { return Integer.MAX_VALUE; }
+  @Override public void compute2() { throw H2O.fail(); }
+  @Override protected MetricsV1 schema(int version) { return new MetricsV1(); }
+
+  public MetricsV1 fetch(int version, TaskMetrics.Report report) {
+    report.execImpl();
+    return schema(version).fillFromImpl(report);
+  }
+}
@@ -0,0 +1,53 @@
+package water.api;
+
+import water.TaskMetrics;
+import water.util.PojoUtils;
+
+public class MetricsV1 extends Schema<TaskMetrics.Report, MetricsV1> {
+  // No inputs
+
+  // Output
+  @API(help="Nodes of the cloud", direction=API.Direction.OUTPUT)
+  public String[] nodes;
+
+  @API(help="Task classes with recorded metrics", direction=API.Direction.OUTPUT)
+  public String[] tasks;
+
+  @API(help="Kinds of metric recorded per task: map time per chunk, reduce time, remote call latency, and bytes shipped per remote call", direction=API.Direction.OUTPUT)
+  public String[] kinds;
+
+  @API(help="Number of values recorded, per task and kind", direction=API.Direction.OUTPUT)
+  public long[][] count;
+
+  @API(help="Sum of the values recorded, per task and kind", direction=API.Direction.OUTPUT)
+  public long[][] sum;
+
+  @API(help="Largest value recorded, per task and kind", direction=API.Direction.OUTPUT)
+  public long[][] max;
+
+  @API(help="Median, per task and kind (within 12.5%)", direction=API.Direction.OUTPUT)
+  public long[][] p50;
+
+  @API(help="90th percentile, per task and kind (within 12.5%)", direction=API.Direction.OUTPUT)
+  public long[][] p90;
+
+  @API(help="99th percentile, per task and kind (within 12.5%)", direction=API.Direction.OUTPUT)
+  public long[][] p99;
+
+  @API(help="Fork/join queue depth per node and priority; -1 for no pool at that priority", direction=API.Direction.OUTPUT)
+  public long[][] queue_depth;
+
+  @Override public TaskMetrics.Report createImpl() {
+    TaskMetrics.Report report = new TaskMetrics.Report();
+    PojoUtils.copyProperties(report, this, PojoUtils.FieldNaming.CONSISTENT);
+    return report;
+  }
+
+  @Override public MetricsV1 fillFromImpl(TaskMetrics.Report report) {
+    PojoUtils.copyProperties(this, report, PojoUtils.FieldNaming.CONSISTENT);
+    return this;
+  }
+
+  // Prometheus text format for Metrics.txt
+  @Override public String toText() { return createImpl().toPrometheus(); }
+}
@@ -3,6 +3,7 @@ package water.api;
 import water.H2O;
 import water.Iced;
 import water.MRTask;
+import water.ResultCache;
 import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.Vec;
@@ -646,6 +647,11 @@ public class QuantilesHandler extends Handler<QuantilesHandler.Quantiles,Quantil
 
   public QuantilesV1 quantiles(int version, Quantiles q) {
     init(q);
+    // Repeated requests over an unchanged column reuse the earlier result
+    Frame col = new Frame(new String[]{q.source_key.names()[q.source_key.find(q.column)]}, new Vec[]{q.column});
+    String cache = ResultCache.key("quantiles:"+q.quantile+","+q.max_qbins+","+q.multiple_pass+","+q.interpolation_type+","+q.max_ncols, col);
+    QuantilesV1 hit = (QuantilesV1)ResultCache.get(cache);
+    if( hit != null ) return hit;
     String[] names = new String[1];
 
     boolean multiPass;
@@ -769,7 +775,9 @@ public class QuantilesHandler extends Handler<QuantilesHandler.Quantiles,Quantil
       // always the best result if we ran here
       q.result = exactResult;
     }
-    return schema(version).fillFromImpl(q);
+    QuantilesV1 res = schema(version).fillFromImpl(q);
+    ResultCache.put(cache, res, col);
+    return res;
   }
 
   @Override protected QuantilesV1 schema(int version) { return new QuantilesV1(); }
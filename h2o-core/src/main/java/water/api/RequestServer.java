@@ -91,6 +91,7 @@ public class RequestServer extends NanoHTTPD {
     addToNavbar(register("/Jobs"       ,"GET",JobsHandler       .class,"list"        ,"Get a list of all the H2O Jobs (long-running actions)."),"/Jobs"       , "Jobs",          "Admin");
     addToNavbar(register("/Timeline"   ,"GET",TimelineHandler   .class,"fetch"       ,"Something something something."),"/Timeline"   , "Timeline",      "Admin");
     addToNavbar(register("/Profiler"   ,"GET",ProfilerHandler   .class,"fetch"       ,"Something something something."),"/Profiler"   , "Profiler",      "Admin");
+    register("/FlameGraph" ,"GET",FlameGraphHandler .class,"fetch"       ,"Stacks sampled in the background on one or all nodes, in the folded format of flame-graph tools; FlameGraph.txt for the plain text.");
     addToNavbar(register("/JStack"     ,"GET",JStackHandler     .class,"fetch"       ,"Something something something."),"/JStack"     , "Stack Dump",    "Admin");
     addToNavbar(register("/UnlockKeys" ,"GET",UnlockKeysHandler .class,"unlock"      ,"Unlock all keys in the H2O distributed K/V store, to attempt to recover from a crash."),"/UnlockKeys" , "Unlock Keys",   "Admin");
 
@@ -174,6 +175,11 @@ public class RequestServer extends NanoHTTPD {
     register("/3/Predictions/models/(?<model>.*)/frames/(?<frame>.*)"     ,"POST"  ,ModelMetricsHandler.class, "predict", new String[] {"model", "frame"},
       "Score (generate predictions) for the specified Frame with the specified Model.  Both the Frame of predictions and the metrics will be returned.");
 
+    register("/1/Metrics"                                                   ,"GET"   ,MetricsHandler.class, "fetch",
+      "Return the task execution metrics of the H2O cluster: map, reduce and remote call time and bytes per task class, and fork/join queue depths.  Use Metrics.txt for the Prometheus text format.");
+    register("/2/JobsCost"                                                  ,"GET"   ,JobsCostHandler.class, "fetch",
+      "Return the resources used by each Job across the H2O cluster, or by the given Job: CPU time and allocation in map and reduce calls, bytes of remote calls, and bytes of disk I/O.");
+
     register("/1/WaterMeterCpuTicks/(?<nodeidx>.*)"                         ,"GET"   ,WaterMeterCpuTicksHandler.class, "fetch", new String[] {"nodeidx"},
       "Return a CPU usage snapshot of all cores of all nodes in the H2O cluster.");
 
@@ -197,6 +203,7 @@ public class RequestServer extends NanoHTTPD {
 
     register("/Cascade"                                          ,"GET"   ,CascadeHandler.class, "exec", "Something something R exec something.");
     register("/DownloadDataset"                                  ,"GET"   ,DownloadDataHandler.class, "fetch", "Download something something.");
+    register("/ExportFiles"                                      ,"GET"   ,ExportFilesHandler.class, "export", "Export a Frame as CSV files, written by every node for the chunks it holds.");
     register("/Remove"                                           ,"GET"   ,RemoveHandler.class, "remove", "Remove an arbitrary key from the H2O distributed K/V store.");
     register("/RemoveAll"                                        ,"GET"   ,RemoveAllHandler.class, "remove", "Remove all keys from the H2O distributed K/V store.");
     register("/LogAndEcho"                                       ,"GET"   ,LogAndEchoHandler.class, "echo", "Save a message to the H2O logfile.");
@@ -475,6 +482,7 @@ public class RequestServer extends NanoHTTPD {
     case html: // These request-types only dictate the response-type;
     case java: // the normal action is always done.
     case json:
+    case txt:
     case xml: {
       Class<Handler> clz = (Class<Handler>)route._handler_class;
       // TODO: Handler no longer has state, so we can create single instances and put them in the Routes
@@ -491,7 +499,11 @@ public class RequestServer extends NanoHTTPD {
   private Response wrap( String http_code, Schema s, RequestType type ) {
     // Convert Schema to desired output flavor
     switch( type ) {
-    case json:   return new Response(http_code, MIME_JSON, new String(s.writeJSON(new AutoBuffer()).buf()));
+    case txt: {
+      String txt = s.toText();
+      if( txt != null ) return new Response(http_code, MIME_PLAINTEXT, txt);
+    } // Else fall into json
+    case json:   return new Response(http_code, MIME_JSON, s.writeJSON(new AutoBuffer()));
     case xml:  //return new Response(http_code, MIME_XML , new String(S.writeXML (new AutoBuffer()).buf()));
     case java:
       throw H2O.unimpl();
@@ -15,7 +15,7 @@ public class UnlockTask extends MRTask<UnlockTask> {
       final Value val = DKV.get(k._key);
       if( val == null ) continue;
       final Lockable<?> lockable = val.<Lockable<?>>get();
-      final Key[] lockers = lockable._lockers;
+      final Key[] lockers = lockable.lockers();
       if (lockers != null) {
         // check that none of the locking jobs is still running
         for (Key locker : lockers) {
@@ -5,6 +5,7 @@ package water.cascade;
 import water.*;
 import water.api.QuantilesHandler.Quantiles;
 import water.fvec.*;
+import water.parser.ValueString;
 import water.util.ArrayUtils;
 import water.util.MathUtils;
 
@@ -753,6 +754,17 @@ abstract class ASTBinOp extends ASTOp {
   abstract String op( double d0, String s1 );
   abstract String op( String s0, String s1 );
 
+  /** Zone-map test, for comparing a column against a scalar {@code d}: 1 if
+   *  the op holds for every value in {@code [lo,hi]}, 0 if it holds for none,
+   *  -1 if it depends (or the op is not a comparison).  {@code left} is true
+   *  when the column is the left operand. */
+  int zone( double lo, double hi, double d, boolean left ) { return -1; }
+  // Zone tests for col<d and col>d; the ulp-fuzzy equality of the ops only
+  // matters at the edges, which ZoneMap.below leaves as "depends".
+  static int less( double lo, double hi, double d ) { return ZoneMap.below(hi,d) ? 1 : (ZoneMap.below(d,lo) ? 0 : -1); }
+  static int more( double lo, double hi, double d ) { return ZoneMap.below(d,lo) ? 1 : (ZoneMap.below(hi,d) ? 0 : -1); }
+  static boolean outside( double lo, double hi, double d ) { return ZoneMap.below(hi,d) || ZoneMap.below(d,lo); }
+
   @Override void apply(Env env) {
     // Expect we can broadcast across all functions as needed.
     boolean toss_fr = false;
@@ -826,6 +838,10 @@ abstract class ASTBinOp extends ASTOp {
       fr = new Frame(fr1);
     }
     final ASTBinOp bin = this;  // Final 'this' so can use in closure
+    // Zone maps of the column side, fetched once up front
+    final ZoneMap[] zms = new ZoneMap[ncols];
+    if( lf != rf && (lf ? sf1 : sf0) == null )
+      for( int i=0; i<ncols; i++ ) zms[i] = (lf ? fr0 : fr1).vecs()[i].zoneMap();
 
     Key tmp_key = Key.make();
     // Run an arbitrary binary op on one or two frames & scalars
@@ -835,6 +851,33 @@ abstract class ASTBinOp extends ASTOp {
           NewChunk n =nchks[i];
           int rlen = chks[0]._len;
           Chunk c0 = chks[i];
+          // Column vs scalar?  The zone map may answer for the whole Chunk.
+          if( lf != rf && (lf ? sf1 : sf0) == null ) {
+            Vec v = c0.vec();
+            ZoneMap zm = zms[i];
+            int cidx = c0.cidx();
+            double d = lf ? df1 : df0;
+            if( zm != null && zm.known(cidx) && zm.naCnt(cidx) == 0 && !Double.isNaN(d) &&
+                !v.isEnum() && !v.isUUID() && !v.isString() ) {
+              int z = bin.zone(zm.min(cidx),zm.max(cidx),d,lf);
+              if( z != -1 ) {
+                for( int ro=0; ro<rlen; ro++ ) n.addNum(z);
+                continue;
+              }
+            }
+          }
+          // String column vs String scalar: compare against the compressed bytes
+          if( lf != rf && (lf ? sf1 : sf0) != null && c0.vec().isString() &&
+              (bin instanceof ASTEQ || bin instanceof ASTNE) ) {
+            int[] rows = new int[rlen];
+            int cnt = c0.matchStr0(new ValueString().setTo(lf ? sf1 : sf0), rows);
+            double hit = bin instanceof ASTEQ ? 1 : 0;
+            for( int ro=0, k=0; ro<rlen; ro++ ) {
+              if( k < cnt && rows[k] == ro ) { n.addNum(hit); k++; }
+              else n.addNum(c0.isNA0(ro) ? Double.NaN : 1-hit);
+            }
+            continue;
+          }
           if( (!c0.vec().isEnum() &&
                   !(lf && rf && chks[i+nchks.length].vec().isEnum())) ||
                   bin instanceof ASTEQ ||
@@ -932,36 +975,42 @@ class ASTMod extends ASTBinOp { public ASTMod() { super(); } @Override String op
   @Override String op(String s0, String s1) {throw new IllegalArgumentException("Cannot exponentiate Strings.");}
 }
 class ASTLT extends ASTBinOp { public ASTLT() { super(); } @Override String opStr(){ return "<"  ;} @Override ASTOp make() {return new ASTLT  ();}
+  @Override int zone(double lo, double hi, double d, boolean left) { return left ? less(lo,hi,d) : more(lo,hi,d); }
   @Override double op(double d0, double d1) { return d0<d1 && !MathUtils.equalsWithinOneSmallUlp(d0,d1)?1:0;}
   @Override String op(String s0, double d1) {throw new IllegalArgumentException("Cannot apply '<' to Strings.");}
   @Override String op(double d0, String s1) {throw new IllegalArgumentException("Cannot apply '<' to Strings.");}
   @Override String op(String s0, String s1) {throw new IllegalArgumentException("Cannot apply '<' to Strings.");}
 }
 class ASTLE extends ASTBinOp { public ASTLE() { super(); } @Override String opStr(){ return "<=" ;} @Override ASTOp make() {return new ASTLE  ();}
+  @Override int zone(double lo, double hi, double d, boolean left) { return left ? less(lo,hi,d) : more(lo,hi,d); }
   @Override double op(double d0, double d1) { return d0<d1 ||  MathUtils.equalsWithinOneSmallUlp(d0,d1)?1:0;}
   @Override String op(String s0, double d1) {throw new IllegalArgumentException("Cannot apply '<=' to Strings.");}
   @Override String op(double d0, String s1) {throw new IllegalArgumentException("Cannot apply '<=' to Strings.");}
   @Override String op(String s0, String s1) {throw new IllegalArgumentException("Cannot apply '<=' to Strings.");}
 }
 class ASTGT extends ASTBinOp { public ASTGT() { super(); } @Override String opStr(){ return ">"  ;} @Override ASTOp make() {return new ASTGT  ();}
+  @Override int zone(double lo, double hi, double d, boolean left) { return left ? more(lo,hi,d) : less(lo,hi,d); }
   @Override double op(double d0, double d1) { return d0>d1 && !MathUtils.equalsWithinOneSmallUlp(d0,d1)?1:0;}
   @Override String op(String s0, double d1) {throw new IllegalArgumentException("Cannot apply '>' to Strings.");}
   @Override String op(double d0, String s1) {throw new IllegalArgumentException("Cannot apply '>' to Strings.");}
   @Override String op(String s0, String s1) {throw new IllegalArgumentException("Cannot apply '>' to Strings.");}
 }
 class ASTGE extends ASTBinOp { public ASTGE() { super(); } @Override String opStr(){ return ">=" ;} @Override ASTOp make() {return new ASTGE  ();}
+  @Override int zone(double lo, double hi, double d, boolean left) { return left ? more(lo,hi,d) : less(lo,hi,d); }
   @Override double op(double d0, double d1) { return d0>d1 ||  MathUtils.equalsWithinOneSmallUlp(d0,d1)?1:0;}
   @Override String op(String s0, double d1) {throw new IllegalArgumentException("Cannot apply '>=' to Strings.");}
   @Override String op(double d0, String s1) {throw new IllegalArgumentException("Cannot apply '>=' to Strings.");}
   @Override String op(String s0, String s1) {throw new IllegalArgumentException("Cannot apply '>=' to Strings.");}
 }
 class ASTEQ extends ASTBinOp { public ASTEQ() { super(); } @Override String opStr(){ return "==" ;} @Override ASTOp make() {return new ASTEQ  ();}
+  @Override int zone(double lo, double hi, double d, boolean left) { return outside(lo,hi,d) ? 0 : -1; }
   @Override double op(double d0, double d1) { return MathUtils.equalsWithinOneSmallUlp(d0,d1)?1:0;}
   @Override String op(String s0, double d1) { return s0.equals(Double.toString(d1)) ? "1.0" : "0.0"; }
   @Override String op(double d0, String s1) { return (Double.toString(d0)).equals(s1) ? "1.0" : "0.0";}
   @Override String op(String s0, String s1) { return s0.equals(s1) ? "1.0" : "0.0"; }
 }
 class ASTNE extends ASTBinOp { public ASTNE() { super(); } @Override String opStr(){ return "!=" ;} @Override ASTOp make() {return new ASTNE  ();}
+  @Override int zone(double lo, double hi, double d, boolean left) { return outside(lo,hi,d) ? 1 : -1; }
   @Override double op(double d0, double d1) { return MathUtils.equalsWithinOneSmallUlp(d0,d1)?0:1;}
   @Override String op(String s0, double d1) { return !s0.equals(Double.toString(d1)) ? "1.0" : "0.0"; }
   @Override String op(double d0, String s1) { return !(Double.toString(d0)).equals(s1) ? "1.0" : "0.0";}
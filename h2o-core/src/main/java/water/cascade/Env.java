@@ -249,7 +249,7 @@ public class Env extends Iced {
   }
 
   private void subref_and_unlock(Frame fr) {
-    if (fr._lockers != null && lockerKeysNotNull(fr)) fr.unlock_all();
+    if (lockerKeysNotNull(fr.lockers())) fr.unlock_all();
     subRef(new ValFrame(fr));
   }
 
@@ -267,13 +267,14 @@ public class Env extends Iced {
   // NOTE: this extinguishCounts is slightly suspicious, but might be OK here... Will matter in UDFs
   private void remove_and_unlock(Frame fr) {
     extinguishCounts(fr);
-    if (fr._lockers != null && lockerKeysNotNull(fr)) fr.unlock_all();
+    if (lockerKeysNotNull(fr.lockers())) fr.unlock_all();
     if (_locked.contains(fr._key) || any_locked(fr)) return;
     fr.delete();
   }
 
-  private boolean lockerKeysNotNull(Frame f) {
-    for (Key k : f._lockers)
+  private boolean lockerKeysNotNull(Key[] lockers) {
+    if (lockers == null) return false;
+    for (Key k : lockers)
       if (k == null) return false;
     return true;
   }
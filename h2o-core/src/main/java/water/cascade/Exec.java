@@ -1,10 +1,15 @@
 package water.cascade;
 
 
+import water.DKV;
 import water.Iced;
 import water.Key;
 import water.MRTask;
+import water.Value;
+import water.fvec.Frame;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 
 /**
@@ -80,6 +85,42 @@ public class Exec extends Iced {
     return env;
   }
 
+  // Ops changing the DKV or variables, or with results depending on more than
+  // their arguments
+  private static final HashSet<String> IMPURE = new HashSet<>(Arrays.asList("=", "runif", "ls", "rename", "if", "elif", "else", "for", "while"));
+
+  /** The Frames an expression reads, or null if its result cannot be reused:
+   *  it assigns, calls user functions, loops, or depends on more than its
+   *  inputs (random numbers, the list of keys).  Frames only enter
+   *  expressions by '$' lookups, so a scan of the text finds them all. */
+  public static Frame[] inputs( String str ) {
+    ArrayList<Frame> frs = new ArrayList<>();
+    int x = 0;
+    while( x < str.length() ) {
+      char c = str.charAt(x++);
+      if( c == '"' || c == '\'' ) {     // Skip string literals
+        x = str.indexOf(c, x)+1;
+        if( x == 0 ) return null;
+      } else if( c == '!' ) {           // Variable set
+        return null;
+      } else if( (c == '(' && x < str.length() && !isSpecial(str.charAt(x)) && str.charAt(x) != '(') || c == '$' ) {
+        int e = x;
+        while( e < str.length() && str.charAt(e) != ' ' && str.charAt(e) != ')' ) e++;
+        String tok = str.substring(x, e);
+        x = e;
+        if( c == '(' ) {
+          if( IMPURE.contains(tok) || ASTOp.UDF_OPS.containsKey(tok) ) return null;
+        } else if( !tok.isEmpty() ) {
+          Value v = DKV.get(Key.make(tok));
+          if( v == null ) continue;     // A global, such as TRUE
+          if( !v.isFrame() ) return null;
+          frs.add(v.<Frame>get());
+        }
+      }
+    }
+    return frs.toArray(new Frame[frs.size()]);
+  }
+
   protected AST parse() {
     // Parse a token --> look for a function or a special char.
     String tok = parseID();
@@ -144,7 +185,7 @@ public class Exec extends Iced {
     return this;
   }
 
-  private boolean isSpecial(char c) { return c == '\"' || c == '\'' || c == '#' || c == '!' || c == '$' || c =='{'; }
+  private static boolean isSpecial(char c) { return c == '\"' || c == '\'' || c == '#' || c == '!' || c == '$' || c =='{'; }
 
   String unparsed() { return new String(_ast,_x,_ast.length-_x); }
 
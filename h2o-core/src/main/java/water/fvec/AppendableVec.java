@@ -30,11 +30,13 @@ public class AppendableVec extends Vec {
   long _strCnt;
   final long _timCnt[] = new long[ParseTime.TIME_PARSE.length];
   long _totalCnt;
+  ZoneMap _zmap;                // Per-chunk min/max/NA-counts, as Chunks close
 
   public AppendableVec( Key key ) {
     super(key, (long[])null);
     _espc = new long[4];
     _chunkTypes = new byte[4];
+    _zmap = new ZoneMap(4);
   }
 
   // A NewVector chunk was "closed" - completed.  Add it's info to the roll-up.
@@ -53,6 +55,7 @@ public class AppendableVec extends Vec {
     _strCnt += chk.strCnt();
     for( int i=0; i<_timCnt.length; i++ ) _timCnt[i] += chk._timCnt[i];
     _totalCnt += chk._len;
+    if( !Double.isNaN(chk._zmin) ) _zmap.set(cidx,chk._zmin,chk._zmax,chk.naCnt());
   }
 
   // What kind of data did we find?  NA's?  Strings-only?  Floats or Ints?
@@ -86,6 +89,7 @@ public class AppendableVec extends Vec {
     _strCnt += nv._strCnt;
     water.util.ArrayUtils.add(_timCnt,nv._timCnt);
     _totalCnt += nv._totalCnt;
+    _zmap.reduce(nv._zmap);
   }
 
 
@@ -129,8 +133,10 @@ public class AppendableVec extends Vec {
     // Make Chunks other than the dominant type fail out to NAs
     for(int i = 0; i < nchunk; ++i)
       if(_chunkTypes[i] != idx && 
-         !(idx==ENUM && _chunkTypes[i]==NUMBER)) // Odd case: numeric chunks being forced/treated as a boolean enum
+         !(idx==ENUM && _chunkTypes[i]==NUMBER)) { // Odd case: numeric chunks being forced/treated as a boolean enum
         DKV.put(chunkKey(i), new C0DChunk(Double.NaN, (int)_espc[i]),fs);
+        _zmap.setAllNA(i,(int)_espc[i]);
+      }
 
     byte type;
     switch( idx ) {
@@ -154,6 +160,8 @@ public class AppendableVec extends Vec {
     // Replacement plain Vec for AppendableVec.
     Vec vec = new Vec(_key, espc, domain(), type);
     DKV.put(_key,vec,fs);       // Inject the header
+    ZoneMap zm = _zmap.trim(nchunk); // Zone maps gathered as Chunks closed
+    if( zm != null ) DKV.put(vec.zoneMapKey(),zm,fs);
     return vec;
   }
 
@@ -0,0 +1,103 @@
+package water.fvec;
+
+import water.*;
+import water.util.PrettyPrint;
+import water.util.UnsafeUtils;
+
+/**
+ * Frame-of-reference delta encoding, for monotone or trending columns such as
+ * timestamps and sorted IDs.  Every (scaled) value is first predicted as
+ * {@code slope*row}, where the slope is the average step across the Chunk;
+ * the residuals are then bit-packed in blocks of {@link #BLOCK} rows, each
+ * block with its own base and bit width.  Regularly sampled times need only
+ * a few bits per row, and any row still decodes in O(1).
+ *
+ * <p>Layout: decimal exponent (int), row count (int), slope (long), then per
+ * block a base (long), starting bit offset (int), bit width (byte) and NA
+ * flag (byte), then the packed residuals padded with 8 zero bytes so a
+ * value can always be read with a single unaligned long load.  In a block
+ * with missing values, the all-ones code is the NA.
+ */
+public class CDeltaChunk extends Chunk {
+  static protected final int _OFF=4+4+8;
+  static final int BLOCK = 64, LOG_BLOCK = 6;
+  static final int HDR = 8+4+1+1; // Per-block header size
+  static final int MAX_BITS = CNSChunk.MAX_BITS;
+  private int _exp;             // Decimal exponent applied to every value
+  private double _scale;        // 10^_exp
+  private long _lscale;         // 10^_exp as a long, or 0 if _exp is fractional
+  private long _slope;
+  private int _dataoff;         // Start of the packed bits
+
+  CDeltaChunk( byte[] bs ) { _mem=bs; _start = -1; init(); }
+  private void init() {
+    _exp   = UnsafeUtils.get4(_mem,0);
+    set_len( UnsafeUtils.get4(_mem,4));
+    _slope = UnsafeUtils.get8(_mem,8);
+    _dataoff = _OFF+nblocks(_len)*HDR;
+    _scale = PrettyPrint.pow10(_exp);
+    _lscale= 0 <= _exp && _exp < PrettyPrint.powers10i.length ? PrettyPrint.pow10i(_exp) : 0;
+  }
+  static int nblocks( int len ) { return (len+BLOCK-1)>>LOG_BLOCK; }
+  public long slope() { return _slope; }
+
+  // Scaled value at row i, or C8Chunk._NA
+  private long le( int i ) {
+    int h = _OFF+(i>>LOG_BLOCK)*HDR;
+    int bw = _mem[h+12];
+    long code = CNSChunk.unpack(_mem,_dataoff,UnsafeUtils.get4(_mem,h+8)+(long)(i&(BLOCK-1))*bw,bw);
+    if( _mem[h+13] != 0 && code == (-1L>>>(64-bw)) ) return C8Chunk._NA;
+    return UnsafeUtils.get8(_mem,h)+code+_slope*i;
+  }
+
+  @Override protected final long at8_impl( int i ) {
+    long res = le(i);
+    if( res == C8Chunk._NA ) throw new IllegalArgumentException("at8 but value is missing");
+    return _lscale != 0 ? res*_lscale : (long)(res*_scale);
+  }
+  @Override protected final double atd_impl( int i ) {
+    long res = le(i);
+    return res == C8Chunk._NA ? Double.NaN : (_lscale != 0 ? (double)(res*_lscale) : res*_scale);
+  }
+  @Override protected final boolean isNA_impl( int i ) { return le(i) == C8Chunk._NA; }
+
+  // Decode a block at a time, hoisting the block header out of the row loop
+  @Override void getDoubles_impl( double[] vals, int from, int to ) {
+    for( int i=from; i<to; ) {
+      int h = _OFF+(i>>LOG_BLOCK)*HDR;
+      long base = UnsafeUtils.get8(_mem,h);
+      int bw = _mem[h+12];
+      long na = _mem[h+13] != 0 ? (-1L>>>(64-bw)) : -1;
+      long bitoff = UnsafeUtils.get4(_mem,h+8)+(long)(i&(BLOCK-1))*bw;
+      int e = Math.min(((i>>LOG_BLOCK)+1)<<LOG_BLOCK,to);
+      for( ; i<e; i++, bitoff+=bw ) {
+        long code = CNSChunk.unpack(_mem,_dataoff,bitoff,bw);
+        long res = base+code+_slope*i;
+        vals[i-from] = code == na ? Double.NaN : (_lscale != 0 ? (double)(res*_lscale) : res*_scale);
+      }
+    }
+  }
+
+  @Override boolean set_impl(int idx, long l) { return false; }
+  @Override boolean set_impl(int i, double d) { return false; }
+  @Override boolean set_impl(int i, float f ) { return false; }
+  @Override boolean setNA_impl(int idx) { return false; }
+  @Override NewChunk inflate_impl(NewChunk nc) {
+    nc.set_sparseLen(nc.set_len(0));
+    for( int i=0; i<_len; i++ ) {
+      long res = le(i);
+      if( res == C8Chunk._NA ) nc.addNA();
+      else nc.addNum(res,_exp);
+    }
+    return nc;
+  }
+  @Override public boolean hasFloat() { return _exp < 0; }
+  @Override public byte precision() { return (byte)Math.max(-_exp,0); }
+  @Override public AutoBuffer write_impl(AutoBuffer bb) { return bb.putA1(_mem,_mem.length); }
+  @Override public CDeltaChunk read_impl(AutoBuffer bb) {
+    _mem = bb.bufClose();
+    _start = -1;
+    init();
+    return this;
+  }
+}
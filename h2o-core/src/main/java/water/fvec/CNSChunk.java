@@ -0,0 +1,127 @@
+package water.fvec;
+
+import water.*;
+import water.util.PrettyPrint;
+import water.util.UnsafeUtils;
+
+/**
+ * The scale/bias function, where data is bit-packed in N bits per row before
+ * scaling, for any N from 1 to {@link #MAX_BITS}.  Fills the gaps between the
+ * byte-aligned encodings: a range of 0..20 costs 5 bits per row instead of
+ * 8, and a range of 0..100000 costs 17 bits instead of 32.  The all-ones code
+ * is the NA.
+ *
+ * <p>Layout: decimal exponent (int), bias (long), row count (int), bits per
+ * row (byte), then the packed codes padded with 8 zero bytes, so that any
+ * code can be read with a single unaligned long load.
+ */
+public class CNSChunk extends Chunk {
+  static protected final int _OFF=4+8+4+1;
+  static final int MAX_BITS = 57; // A packed value plus its bit shift must fit in one long
+  private int _exp;             // Decimal exponent applied to every value
+  private double _scale;        // 10^_exp
+  private long _lscale;         // 10^_exp as a long, or 0 if _exp is fractional
+  private long _bias;
+  private int _bpv;             // Bits per value
+  private long _na;             // All-ones NA code
+  public int bpv() { return _bpv; }
+
+  CNSChunk( byte[] bs ) { _mem=bs; _start = -1; init(); }
+  private void init() {
+    _exp   = UnsafeUtils.get4(_mem,0);
+    _bias  = UnsafeUtils.get8(_mem,4);
+    set_len( UnsafeUtils.get4(_mem,12));
+    _bpv   = _mem[16];
+    _na    = -1L>>>(64-_bpv);
+    _scale = PrettyPrint.pow10(_exp);
+    _lscale= 0 <= _exp && _exp < PrettyPrint.powers10i.length ? PrettyPrint.pow10i(_exp) : 0;
+  }
+
+  /** Read a {@code bw}-bit value at the given bit offset; bw must be at most {@link #MAX_BITS} */
+  static long unpack( byte[] mem, int off, long bitoff, int bw ) {
+    if( bw == 0 ) return 0;
+    long word = UnsafeUtils.get8(mem,off+(int)(bitoff>>>3));
+    return (word >>> (bitoff&7)) & (-1L>>>(64-bw));
+  }
+  /** Write a {@code bw}-bit value at the given bit offset, into zeroed memory */
+  static void pack( byte[] mem, int off, long bitoff, int bw, long val ) {
+    if( bw == 0 ) return;
+    int boff = off+(int)(bitoff>>>3);
+    UnsafeUtils.set8(mem,boff,UnsafeUtils.get8(mem,boff) | (val << (bitoff&7)));
+  }
+  /** @return Bits needed to hold values 0 to x inclusive */
+  static int bits( long x ) { return 64-Long.numberOfLeadingZeros(x); }
+  /** @return Bytes needed to pack len values of bpv bits, including the padding */
+  static int clen( int len, int bpv ) { return (int)((((long)len*bpv)+7)>>3)+8; }
+
+  private long code( int i ) { return unpack(_mem,_OFF,(long)i*_bpv,_bpv); }
+  private double decode( long code ) {
+    return code == _na ? Double.NaN : (_lscale != 0 ? (double)((code+_bias)*_lscale) : (code+_bias)*_scale);
+  }
+
+  @Override protected final long at8_impl( int i ) {
+    long res = code(i);
+    if( res == _na ) throw new IllegalArgumentException("at8 but value is missing");
+    return _lscale != 0 ? (res+_bias)*_lscale : (long)((res+_bias)*_scale);
+  }
+  @Override protected final double atd_impl( int i ) { return decode(code(i)); }
+  @Override protected final boolean isNA_impl( int i ) { return code(i) == _na; }
+
+  // Sequential decoders: walk the bit offset along instead of recomputing it
+  @Override void getDoubles_impl( double[] vals, int from, int to ) {
+    final int bpv = _bpv;
+    final long mask = _na;
+    long bitoff = (long)from*bpv;
+    for( int i=from; i<to; i++, bitoff+=bpv ) {
+      long code = (UnsafeUtils.get8(_mem,_OFF+(int)(bitoff>>>3)) >>> (bitoff&7)) & mask;
+      vals[i-from] = decode(code);
+    }
+  }
+  @Override void getIntegers_impl( int[] vals, int from, int to, int na ) {
+    if( _lscale == 0 ) { super.getIntegers_impl(vals,from,to,na); return; }
+    final int bpv = _bpv;
+    final long mask = _na;
+    long bitoff = (long)from*bpv;
+    for( int i=from; i<to; i++, bitoff+=bpv ) {
+      long code = (UnsafeUtils.get8(_mem,_OFF+(int)(bitoff>>>3)) >>> (bitoff&7)) & mask;
+      vals[i-from] = code == mask ? na : (int)((code+_bias)*_lscale);
+    }
+  }
+
+  @Override boolean set_impl(int idx, long l) {
+    if( _lscale == 0 || l%_lscale != 0 ) return false;
+    long res = l/_lscale-_bias; // Compressed value
+    if( !(0 <= res && res < _na) ) return false; // Out-o-range for the packed bits
+    long bitoff = (long)idx*_bpv;
+    int boff = _OFF+(int)(bitoff>>>3);
+    long word = UnsafeUtils.get8(_mem,boff) & ~(_na << (bitoff&7));
+    UnsafeUtils.set8(_mem,boff,word | (res << (bitoff&7)));
+    return true;
+  }
+  @Override boolean set_impl(int i, double d) { return false; }
+  @Override boolean set_impl(int i, float f ) { return false; }
+  @Override boolean setNA_impl(int idx) {
+    long bitoff = (long)idx*_bpv;
+    int boff = _OFF+(int)(bitoff>>>3);
+    UnsafeUtils.set8(_mem,boff,UnsafeUtils.get8(_mem,boff) | (_na << (bitoff&7)));
+    return true;
+  }
+  @Override NewChunk inflate_impl(NewChunk nc) {
+    nc.set_sparseLen(nc.set_len(0));
+    for( int i=0; i<_len; i++ ) {
+      long res = code(i);
+      if( res == _na ) nc.addNA();
+      else nc.addNum(res+_bias,_exp);
+    }
+    return nc;
+  }
+  @Override public boolean hasFloat() { return _exp < 0; }
+  @Override public byte precision() { return (byte)Math.max(-_exp,0); }
+  @Override public AutoBuffer write_impl(AutoBuffer bb) { return bb.putA1(_mem,_mem.length); }
+  @Override public CNSChunk read_impl(AutoBuffer bb) {
+    _mem = bb.bufClose();
+    _start = -1;
+    init();
+    return this;
+  }
+}
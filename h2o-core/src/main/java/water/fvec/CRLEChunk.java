@@ -0,0 +1,99 @@
+package water.fvec;
+
+import water.*;
+import water.util.PrettyPrint;
+import water.util.UnsafeUtils;
+
+/**
+ * Run-length encoding, for sorted or slowly changing columns with long runs
+ * of repeated values.  Each run holds a (scaled) long value and the row it
+ * ends at; a row lookup is a binary search over the run ends, short-cut by
+ * remembering the last run found so in-order scans are O(1) per row.
+ *
+ * <p>Layout: decimal exponent (int), number of runs (int), run ends
+ * (exclusive, ints), run values (longs, {@link C8Chunk#_NA} for missing).
+ */
+public class CRLEChunk extends Chunk {
+  static protected final int _OFF=4+4;
+  private int _exp;             // Decimal exponent applied to every value
+  private double _scale;        // 10^_exp
+  private long _lscale;         // 10^_exp as a long, or 0 if _exp is fractional
+  private int _nruns;
+  private int _valoff;          // Start of the run values
+  // Last run found; racy but harmless, as it is only a hint checked against
+  // the (immutable) run ends before use.
+  private transient int _hint;
+
+  CRLEChunk( byte[] bs ) { _mem=bs; _start = -1; init(); }
+  private void init() {
+    _exp   = UnsafeUtils.get4(_mem,0);
+    _nruns = UnsafeUtils.get4(_mem,4);
+    _valoff= _OFF+(_nruns<<2);
+    _scale = PrettyPrint.pow10(_exp);
+    _lscale= 0 <= _exp && _exp < PrettyPrint.powers10i.length ? PrettyPrint.pow10i(_exp) : 0;
+    set_len(_nruns==0 ? 0 : end(_nruns-1));
+  }
+  public int nruns() { return _nruns; }
+
+  private int end( int r ) { return UnsafeUtils.get4(_mem,_OFF+(r<<2)); }
+  private long val( int r ) { return UnsafeUtils.get8(_mem,_valoff+(r<<3)); }
+
+  // Find the run holding row i
+  private int run( int i ) {
+    int r = _hint;
+    if( r < _nruns && i < end(r) && (r==0 || end(r-1) <= i) ) return r;
+    int lo=0, hi=_nruns-1;
+    while( lo < hi ) {
+      int mid = (lo+hi)>>>1;
+      if( end(mid) <= i ) lo = mid+1; else hi = mid;
+    }
+    return _hint = lo;
+  }
+
+  @Override protected final long at8_impl( int i ) {
+    long res = val(run(i));
+    if( res == C8Chunk._NA ) throw new IllegalArgumentException("at8 but value is missing");
+    return _lscale != 0 ? res*_lscale : (long)(res*_scale);
+  }
+  @Override protected final double atd_impl( int i ) {
+    long res = val(run(i));
+    return res == C8Chunk._NA ? Double.NaN : (_lscale != 0 ? (double)(res*_lscale) : res*_scale);
+  }
+  @Override protected final boolean isNA_impl( int i ) { return val(run(i)) == C8Chunk._NA; }
+
+  // Decode whole runs at a time
+  @Override void getDoubles_impl( double[] vals, int from, int to ) {
+    int r = run(from);
+    for( int i=from; i<to; r++ ) {
+      long res = val(r);
+      double d = res == C8Chunk._NA ? Double.NaN : (_lscale != 0 ? (double)(res*_lscale) : res*_scale);
+      int e = Math.min(end(r),to);
+      for( ; i<e; i++ ) vals[i-from] = d;
+    }
+  }
+
+  @Override boolean set_impl(int idx, long l) { return false; }
+  @Override boolean set_impl(int i, double d) { return false; }
+  @Override boolean set_impl(int i, float f ) { return false; }
+  @Override boolean setNA_impl(int idx) { return false; }
+  @Override NewChunk inflate_impl(NewChunk nc) {
+    nc.set_sparseLen(nc.set_len(0));
+    int i=0;
+    for( int r=0; r<_nruns; r++ ) {
+      long res = val(r);
+      for( int e=end(r); i<e; i++ )
+        if( res == C8Chunk._NA ) nc.addNA();
+        else nc.addNum(res,_exp);
+    }
+    return nc;
+  }
+  @Override public boolean hasFloat() { return _exp < 0; }
+  @Override public byte precision() { return (byte)Math.max(-_exp,0); }
+  @Override public AutoBuffer write_impl(AutoBuffer bb) { return bb.putA1(_mem,_mem.length); }
+  @Override public CRLEChunk read_impl(AutoBuffer bb) {
+    _mem = bb.bufClose();
+    _start = -1;
+    init();
+    return this;
+  }
+}
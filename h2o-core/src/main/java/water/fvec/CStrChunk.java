@@ -44,7 +44,23 @@ public class CStrChunk extends Chunk {
     for( len = 0; _mem[_valstart+off+len] != 0; len++ );
     return vstr.set(_mem,_valstart+off,len);
   }
+  // Compare in-place against the null-terminated bytes
+  @Override int matchStr_impl(ValueString vstr, int[] rows) {
+    final byte[] buf = vstr.get_buf();
+    final int boff = vstr.get_off(), blen = vstr.get_length();
+    int cnt = 0;
+    for( int i=0; i<_len; i++ ) {
+      int off = UnsafeUtils.get4(_mem,(i<<2)+_OFF);
+      if( off == NA ) continue;
+      off += _valstart;
+      int j=0;
+      while( j < blen && _mem[off+j] == buf[boff+j] ) j++;
+      if( j == blen && _mem[off+j] == 0 ) rows[cnt++] = i;
+    }
+    return cnt;
+  }
 
+  @Override public boolean isString() { return true; }
   @Override public boolean isSparse() { return false; }
   @Override public int sparseLen() { return _len; }
 
@@ -0,0 +1,104 @@
+package water.fvec;
+
+import water.*;
+import water.util.UnsafeUtils;
+import water.parser.ValueString;
+
+/**
+ * A per-chunk dictionary of Strings, with each row held as a 1- or 2-byte
+ * code into the dictionary.  Used for low-cardinality String columns (log
+ * levels, repeated URLs and the like) where each distinct String is stored
+ * once per Chunk.  The largest code is reserved for NA.
+ *
+ * <p>Layout: ndict (int), start of codes (int), code size (byte), ndict+1
+ * dictionary offsets (ints), the dictionary String bytes, and finally the
+ * codes.
+ */
+public class CStrDChunk extends Chunk {
+  static protected final int _OFF=4+4+1;
+  /** Max dictionary size for a given code size; the next code is the NA */
+  static final int MAX_DICT1 = 0xFF, MAX_DICT2 = 0xFFFF;
+  private int _ndict;           // Number of dictionary entries
+  private int _valstart;        // Start of the dictionary String bytes
+  private int _codestart;       // Start of the per-row codes
+  private byte _csz;            // Code size in bytes, 1 or 2
+  public int dictSize() { return _ndict; }
+  public byte codeSize() { return _csz; }
+
+  CStrDChunk( byte[] bs ) { _mem=bs; _start = -1; init(); }
+
+  private void init() {
+    _ndict     = UnsafeUtils.get4(_mem,0);
+    _codestart = UnsafeUtils.get4(_mem,4);
+    _csz       = _mem[8];
+    _valstart  = _OFF+((_ndict+1)<<2);
+    set_len((_mem.length-_codestart)/_csz);
+  }
+
+  /** @return Dictionary code at the chunk-relative row, or -1 for NA */
+  public final int code( int i ) {
+    int c = _csz==1 ? 0xFF&_mem[_codestart+i] : 0xFFFF&UnsafeUtils.get2(_mem,_codestart+(i<<1));
+    return c == naCode() ? -1 : c;
+  }
+  private int naCode() { return _csz==1 ? MAX_DICT1 : MAX_DICT2; }
+
+  @Override public boolean setNA_impl(int idx) { throw new IllegalArgumentException("Only Strings allowed");}
+  @Override public boolean set_impl(int idx, float f) { throw new IllegalArgumentException("Only Strings allowed");}
+  @Override public boolean set_impl(int idx, double d) { throw new IllegalArgumentException("Only Strings allowed");}
+  @Override public boolean set_impl(int idx, long l) { throw new IllegalArgumentException("Only Strings allowed");}
+  @Override public boolean set_impl(int idx, String str) { return false; }
+
+  @Override public boolean isNA_impl(int idx) { return code(idx) == -1; }
+  @Override public long at8_impl(int idx) { throw new IllegalArgumentException("Only Strings allowed");}
+  @Override public double atd_impl(int idx) { throw new IllegalArgumentException("Only Strings allowed");}
+  @Override public ValueString atStr_impl(ValueString vstr, int idx) {
+    int c = code(idx);
+    if( c == -1 ) return null;
+    int off = UnsafeUtils.get4(_mem,_OFF+(c<<2));
+    return vstr.set(_mem,_valstart+off,UnsafeUtils.get4(_mem,_OFF+4+(c<<2))-off);
+  }
+
+  // Lookup the String once in the dictionary, then scan the codes
+  @Override int matchStr_impl(ValueString vstr, int[] rows) {
+    final byte[] buf = vstr.get_buf();
+    final int boff = vstr.get_off(), blen = vstr.get_length();
+    int code = -1;
+    for( int c=0; c<_ndict && code == -1; c++ ) {
+      int off = UnsafeUtils.get4(_mem,_OFF+(c<<2));
+      if( UnsafeUtils.get4(_mem,_OFF+4+(c<<2))-off != blen ) continue;
+      off += _valstart;
+      int j=0;
+      while( j < blen && _mem[off+j] == buf[boff+j] ) j++;
+      if( j == blen ) code = c;
+    }
+    if( code == -1 ) return 0;  // Not in this Chunk at all
+    int cnt = 0;
+    if( _csz==1 ) {
+      for( int i=0; i<_len; i++ )
+        if( (0xFF&_mem[_codestart+i]) == code ) rows[cnt++] = i;
+    } else {
+      for( int i=0; i<_len; i++ )
+        if( (0xFFFF&UnsafeUtils.get2(_mem,_codestart+(i<<1))) == code ) rows[cnt++] = i;
+    }
+    return cnt;
+  }
+
+  @Override public boolean isString() { return true; }
+  @Override public boolean isSparse() { return false; }
+  @Override public int sparseLen() { return _len; }
+
+  @Override public AutoBuffer write_impl(AutoBuffer bb) { return bb.putA1(_mem, _mem.length); }
+  @Override public CStrDChunk read_impl(AutoBuffer bb) {
+    _mem = bb.bufClose();
+    _start = -1;
+    init();
+    return this;
+  }
+  @Override NewChunk inflate_impl(NewChunk nc) {
+    nc.set_sparseLen(nc.set_len(0));
+    ValueString vstr = new ValueString();
+    for( int i = 0; i < _len; i++ )
+      nc.addStr(atStr_impl(vstr,i));
+    return nc;
+  }
+}
@@ -0,0 +1,98 @@
+package water.fvec;
+
+import water.*;
+import water.util.UnsafeUtils;
+import water.parser.ValueString;
+
+/**
+ * Front-coded Strings, for sorted or prefix-heavy columns (URLs, paths, IDs
+ * with shared prefixes).  Rows are grouped in blocks of {@link #BLOCK}; the
+ * first row of each block is stored in full and every other row in the block
+ * stores only the length of the prefix it shares with that head row, plus its
+ * remaining suffix bytes.  Row boundaries come from an offset table rather
+ * than from terminators, so lengths are known without scanning.
+ *
+ * <p>Layout: start of String bytes (int), then _len+1 offsets (ints) into the
+ * String bytes, then the per-row entries.  An entry is a prefix length byte
+ * followed by the suffix bytes; an empty entry is an NA.
+ */
+public class CStrPChunk extends Chunk {
+  static protected final int _OFF=4;
+  /** Rows per front-coding block; must be a power of 2 */
+  static final int BLOCK = 16;
+  /** Longest prefix shared with the block head */
+  static final int MAX_PREFIX = 0xFF;
+  private int _valstart;
+
+  CStrPChunk( byte[] bs ) { _mem=bs; _start = -1; init(); }
+  private void init() {
+    _valstart = UnsafeUtils.get4(_mem,0);
+    set_len(((_valstart-_OFF)>>2)-1);
+  }
+
+  private int off( int i ) { return _valstart+UnsafeUtils.get4(_mem,_OFF+(i<<2)); }
+
+  @Override public boolean setNA_impl(int idx) { throw new IllegalArgumentException("Only Strings allowed");}
+  @Override public boolean set_impl(int idx, float f) { throw new IllegalArgumentException("Only Strings allowed");}
+  @Override public boolean set_impl(int idx, double d) { throw new IllegalArgumentException("Only Strings allowed");}
+  @Override public boolean set_impl(int idx, long l) { throw new IllegalArgumentException("Only Strings allowed");}
+  @Override public boolean set_impl(int idx, String str) { return false; }
+
+  @Override public boolean isNA_impl(int idx) { return off(idx) == off(idx+1); }
+  @Override public long at8_impl(int idx) { throw new IllegalArgumentException("Only Strings allowed");}
+  @Override public double atd_impl(int idx) { throw new IllegalArgumentException("Only Strings allowed");}
+
+  // Rows with no shared prefix point straight into the Chunk bytes; others
+  // are glued together from the block head and the suffix, in a buffer the
+  // ValueString keeps for reuse.
+  @Override public ValueString atStr_impl(ValueString vstr, int idx) {
+    int s = off(idx), e = off(idx+1);
+    if( s == e ) return null;
+    int p = 0xFF&_mem[s];
+    if( p == 0 ) return vstr.set(_mem,s+1,e-s-1);
+    int h = off(idx&~(BLOCK-1))+1; // Head row is stored in full
+    int len = p+e-s-1;
+    byte[] buf = vstr.scratch(len);
+    System.arraycopy(_mem,h  ,buf,0,p);
+    System.arraycopy(_mem,s+1,buf,p,e-s-1);
+    return vstr.set(buf,0,len);
+  }
+
+  // Compare the prefix against the block head and the suffix in-place
+  @Override int matchStr_impl(ValueString vstr, int[] rows) {
+    final byte[] buf = vstr.get_buf();
+    final int boff = vstr.get_off(), blen = vstr.get_length();
+    int cnt = 0;
+    for( int i=0; i<_len; i++ ) {
+      int s = off(i), e = off(i+1);
+      if( s == e ) continue;
+      int p = 0xFF&_mem[s];
+      if( p+e-s-1 != blen ) continue;
+      int h = off(i&~(BLOCK-1))+1, j=0;
+      while( j < p    && _mem[h+j]     == buf[boff+j] ) j++;
+      if( j < p ) continue;
+      while( j < blen && _mem[s+1+j-p] == buf[boff+j] ) j++;
+      if( j == blen ) rows[cnt++] = i;
+    }
+    return cnt;
+  }
+
+  @Override public boolean isString() { return true; }
+  @Override public boolean isSparse() { return false; }
+  @Override public int sparseLen() { return _len; }
+
+  @Override public AutoBuffer write_impl(AutoBuffer bb) { return bb.putA1(_mem, _mem.length); }
+  @Override public CStrPChunk read_impl(AutoBuffer bb) {
+    _mem = bb.bufClose();
+    _start = -1;
+    init();
+    return this;
+  }
+  @Override NewChunk inflate_impl(NewChunk nc) {
+    nc.set_sparseLen(nc.set_len(0));
+    ValueString vstr = new ValueString();
+    for( int i = 0; i < _len; i++ )
+      nc.addStr(atStr_impl(vstr,i));
+    return nc;
+  }
+}
@@ -276,6 +276,39 @@ public abstract class Chunk extends Iced implements Cloneable {
    *  @return String value or null if missing. */
   public final ValueString atStr0( ValueString vstr, int i ) { return _chk2 == null ? atStr_impl(vstr,i) : _chk2.atStr_impl(vstr,i); }
 
+  /** Bulk String equality test using chunk-relative row numbers.  Fills in
+   *  {@code rows} with the chunk-relative row numbers whose String value
+   *  equals {@code vstr}; missing values never match.  The String Chunks
+   *  compare directly against their compressed bytes (a dictionary Chunk
+   *  compares once per dictionary entry), so filters do not need to decode a
+   *  {@link ValueString} per row.
+   *  @param rows Filled in with matching rows; must be at least {@link #_len} long
+   *  @return Count of matching rows */
+  public final int matchStr0( ValueString vstr, int[] rows ) { return _chk2 == null ? matchStr_impl(vstr,rows) : _chk2.matchStr_impl(vstr,rows); }
+
+  /** Bulk load of {@code double} values using chunk-relative row numbers;
+   *  missing values are loaded as NaN.  Equivalent to calling {@link #at0}
+   *  for every row in the range, but Chunks with run-length or blocked
+   *  encodings decode a whole run or block at a time.
+   *  @param vals Filled in with rows {@code from} to {@code to} (exclusive), starting at {@code vals[0]}
+   *  @return the passed-in {@code vals}, for flow-coding */
+  public final double[] getDoubles( double[] vals, int from, int to ) {
+    if( _chk2 == null ) getDoubles_impl(vals,from,to); else _chk2.getDoubles_impl(vals,from,to);
+    return vals;
+  }
+
+  /** Bulk load of {@code int} values using chunk-relative row numbers, for
+   *  enum and small-integer columns; the value must fit in an int.
+   *  Equivalent to calling {@link #at80} for every row in the range, but
+   *  bit-packed Chunks unpack the whole range in one sequential pass.
+   *  @param vals Filled in with rows {@code from} to {@code to} (exclusive), starting at {@code vals[0]}
+   *  @param na Value loaded for missing rows
+   *  @return the passed-in {@code vals}, for flow-coding */
+  public final int[] getIntegers( int[] vals, int from, int to, int na ) {
+    if( _chk2 == null ) getIntegers_impl(vals,from,to,na); else _chk2.getIntegers_impl(vals,from,to,na);
+    return vals;
+  }
+
 
   /** Write a {@code long} using absolute row numbers.  There is no way to
    *  write a missing value with this call.  Under rare circumstances this can
@@ -359,6 +392,8 @@ public abstract class Chunk extends Iced implements Cloneable {
   public final void set( long i, String str) { long x = i-_start; if (0 <= x && x < _len) set0((int)x,str); else _vec.set(i,str); }
 
   public boolean hasFloat(){return true;}
+  /** @return true if this Chunk holds Strings, in any of the String compression schemes. */
+  public boolean isString(){return false;}
   private void setWrite() {
     if( _chk2 != null ) return; // Already setWrite
     assert !(this instanceof NewChunk) : "Cannot direct-write into a NewChunk, only append";
@@ -485,7 +520,21 @@ public abstract class Chunk extends Iced implements Cloneable {
   long at16l_impl(int idx) { throw new IllegalArgumentException("Not a UUID"); }
   long at16h_impl(int idx) { throw new IllegalArgumentException("Not a UUID"); }
   ValueString atStr_impl(ValueString vstr, int idx) { throw new IllegalArgumentException("Not a String"); }
-  
+  int matchStr_impl(ValueString vstr, int[] rows) {
+    ValueString tmp = new ValueString();
+    int cnt = 0;
+    for( int i=0; i<_len; i++ )
+      if( !isNA_impl(i) && vstr.equals(atStr_impl(tmp,i)) )
+        rows[cnt++] = i;
+    return cnt;
+  }
+  void getDoubles_impl(double[] vals, int from, int to) {
+    for( int i=from; i<to; i++ ) vals[i-from] = atd_impl(i);
+  }
+  void getIntegers_impl(int[] vals, int from, int to, int na) {
+    for( int i=from; i<to; i++ ) vals[i-from] = isNA_impl(i) ? na : (int)at8_impl(i);
+  }
+
   /** Chunk-specific writer.  Returns false if the value does not fit in the
    *  current compression scheme.  */
   abstract boolean set_impl  (int idx, long l );
@@ -494,7 +543,11 @@ public abstract class Chunk extends Iced implements Cloneable {
   abstract boolean setNA_impl(int idx);
   boolean set_impl (int idx, String str) { throw new IllegalArgumentException("Not a String"); }
 
-  int nextNZ(int rid){return rid+1;}
+  /** Next row that may hold a non-zero (or NA) value, for iterating over the
+   *  non-zeros only: {@code for(int r = c.nextNZ(-1); r < c._len; r = c.nextNZ(r))}.
+   *  Dense chunks visit every row, sparse chunks only their stored values.
+   *  @return the next such row after rid, or {@link #_len} if there are none */
+  public int nextNZ(int rid){return rid+1;}
 
   /** Sparse Chunks have a significant number of zeros, and support for
    *  skipping over large runs of zeros in a row.
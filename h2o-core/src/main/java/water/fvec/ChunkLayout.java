@@ -0,0 +1,77 @@
+package water.fvec;
+
+import water.H2O;
+
+/**
+ * Chunk-layout planner: picks rows-per-chunk for a Frame from its row count,
+ * column count, estimated compressed size and the cluster shape.
+ *
+ * <p>Parse produces one Chunk per 4Meg of input file, and byte-size alone is
+ * a poor guide: a narrow Frame yields too few Chunks to keep every core
+ * busy, and a very wide Frame yields huge numbers of tiny per-column Chunks.
+ * The planner aims for {@code -chunks_per_core} Chunks per core across the
+ * cloud, but never makes a column's Chunks smaller than {@link
+ * #MIN_CHUNK_BYTES} (so small data stays in a few Chunks), nor larger than
+ * {@link Vec#CHUNK_SZ} bytes or rows.
+ *
+ * <p>Used by parse (see {@link Frame#rechunk}) and by {@link
+ * RebalanceDataSet}.
+ */
+public class ChunkLayout {
+  /** Smallest average per-column Chunk worth making, in bytes */
+  public static final int MIN_CHUNK_BYTES = 1<<14;
+
+  /** Chunks wanted to keep all cores on {@code nodes} Nodes busy */
+  public static int targetChunks( int nodes ) {
+    return Math.max(1,H2O.ARGS.chunks_per_core)*H2O.NUMCPUS*nodes;
+  }
+
+  /** Planned rows per Chunk.
+   *  @param nrows Row count
+   *  @param ncols Column count
+   *  @param bytes Estimated compressed size of all columns
+   *  @param nodes Nodes the work is to be spread across
+   *  @return Rows per Chunk, at least 1 */
+  public static long rowsPerChunk( long nrows, int ncols, long bytes, int nodes ) {
+    if( nrows <= 1 ) return 1;
+    double perCol = Math.max((double)bytes/nrows/Math.max(ncols,1),1.0/8); // Bytes per row per column; at least a bit
+    long rpc = (nrows+targetChunks(nodes)-1)/targetChunks(nodes);
+    rpc = Math.max(rpc,(long)(MIN_CHUNK_BYTES/perCol)); // Not too small...
+    rpc = Math.min(rpc,(long)(Vec.CHUNK_SZ/perCol));    // ...nor too big
+    rpc = Math.min(rpc,Vec.CHUNK_SZ);
+    return Math.max(1,Math.min(rpc,nrows));
+  }
+
+  /** Planned Chunk count for {@code fr} across the whole cloud, using its
+   *  current compressed size.
+   *  @return Planned Chunk count */
+  public static int nChunks( Frame fr ) {
+    long nrows = fr.numRows();
+    if( nrows == 0 ) return 1;
+    long rpc = rowsPerChunk(nrows,fr.numCols(),fr.byteSize(),H2O.CLOUD.size());
+    return (int)((nrows+rpc-1)/rpc);
+  }
+
+  /** True if a current Chunk count is off from the plan by more than a
+   *  factor of 2 either way, so re-chunking is worth a copy. */
+  public static boolean shouldRechunk( int cur, int plan ) {
+    return (long)cur*2 < plan || (long)plan*2 < cur;
+  }
+
+  /** Elements-per-chunk layout for {@code nrows} rows in {@code nchunks}
+   *  Chunks, each with the same number of rows +/-1.
+   *  @return Row-start per Chunk, plus the total row count */
+  public static long[] espc( long nrows, int nchunks ) {
+    long rpc = nrows / nchunks;
+    long rem = nrows % nchunks;
+    long[] espc = new long[nchunks+1];
+    long sum = 0;
+    for( int i = 0; i < nchunks; ++i ) {
+      espc[i] = sum;
+      sum += rpc + (i < rem ? 1 : 0);
+    }
+    espc[nchunks] = sum;
+    assert sum == nrows;
+    return espc;
+  }
+}
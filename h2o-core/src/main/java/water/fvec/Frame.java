@@ -1,14 +1,19 @@
 package water.fvec;
 
 import water.*;
+import water.parser.ValueString;
 import water.util.ArrayUtils;
 import water.util.Log;
 import water.util.PrettyPrint;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.zip.GZIPOutputStream;
 
 /** A collection of named {@link Vec}s, essentially an R-like Distributed Data Frame.
  *
@@ -686,7 +691,7 @@ public class Frame extends Lockable {
     vecs[c2.length] = vrows;
     names[c2.length] = "predicate";
     Frame ff = new Frame(names, vecs);
-    return new DeepSelect().doAll(c2.length,ff).outputFrame(names(c2),domains(c2));
+    return new DeepSelect(vrows.zoneMap()).doAll(c2.length,ff).outputFrame(names(c2),domains(c2));
   }
 
   // Slice and return in the form of new chunks.
@@ -788,10 +793,21 @@ public class Frame extends Lockable {
    *  Last column is a bit vec indicating whether or not to take the row.
    */
   private static class DeepSelect extends MRTask<DeepSelect> {
+    final ZoneMap _zm;          // Predicate's zone map, as of the start; or null
+    DeepSelect( ZoneMap zm ) { _zm = zm; }
     @Override public void map( Chunk chks[], NewChunk nchks[] ) {
       Chunk pred = chks[chks.length-1];
+      // Use the predicate's zone map to skip Chunks with no rows selected,
+      // and to take every row of Chunks with no zeros (NAs select too).
+      ZoneMap zm = _zm;
+      int cidx = pred.cidx();
+      boolean all = false;
+      if( zm != null && zm.known(cidx) ) {
+        if( zm.naCnt(cidx) == 0 && zm.min(cidx) == 0 && zm.max(cidx) == 0 ) return;
+        all = zm.min(cidx) > 0 || zm.max(cidx) < 0 || zm.naCnt(cidx) == pred._len;
+      }
       for(int i = 0; i < pred._len; ++i) {
-        if(pred.at0(i) != 0) {
+        if(all || pred.at0(i) != 0) {
           for( int j = 0; j < chks.length - 1; j++ ) {
             Chunk chk = chks[j];
             if( chk._vec.isUUID() ) nchks[j].addUUID(chk,i);
@@ -818,6 +834,32 @@ public class Frame extends Lockable {
     return res;
   }
 
+  /** Re-chunk this Frame in place to the {@link ChunkLayout} plan, if the
+   *  current layout is far enough off to be worth the copy.  The Vecs are
+   *  replaced by copies in a new VectorGroup.  The old Vecs may be shared
+   *  with other Frames, so they are left for the caller to remove if it owns
+   *  them.  If this Frame is in the K/V store, the caller must hold its write
+   *  lock.
+   *  @param job_key Key of the Job holding the write lock
+   *  @return The replaced Vecs, or null if the Frame was not re-chunked */
+  public Vec[] rechunk( Key job_key ) {
+    Vec v0 = anyVec();
+    if( v0 == null || numRows() == 0 ) return null;
+    int nchunks = ChunkLayout.nChunks(this);
+    if( !ChunkLayout.shouldRechunk(v0.nChunks(),nchunks) ) return null;
+    Vec[] src = vecs().clone();
+    Vec[] dst = new Vec(Vec.newKey(),ChunkLayout.espc(numRows(),nchunks)).makeCons(src.length,0L,domains(),types());
+    Futures fs = new RebalanceDataSet.RebalanceTask(null,src).doAll(dst).putZoneMaps(dst,new Futures());
+    for( int i=0; i<src.length; i++ ) {
+      _vecs[i] = dst[i];
+      _keys[i] = dst[i]._key;
+    }
+    _col0 = null;
+    if( _key != null && DKV.get(_key) != null ) update(job_key);
+    fs.blockForPending();
+    return src;
+  }
+
   /** Return Frame 'f' if 'f' is compatible with 'this', else return a new
    *  Frame compatible with 'this' and a copy of 'f's data otherwise.  Note
    *  that this can, in the worst case, copy all of {@code this}s' data.
@@ -843,82 +885,185 @@ public class Frame extends Lockable {
    *  is compatible with R 3.1's recent change to read.csv()'s behavior.
    *  @return An InputStream containing this Frame as a CSV */
   public InputStream toCSV(boolean headers, boolean hex_string) {
-    return new CSVStream(headers, hex_string);
+    return toCSV(headers, hex_string, false);
+  }
+
+  /** Convert this Frame to a CSV (in an {@link InputStream}), optionally
+   *  gzip-compressed.  Each chunk is rendered on its home node, several
+   *  chunks in parallel, and the rendered blocks are streamed back in chunk
+   *  order.  Compressed blocks are separate gzip members; their concatenation
+   *  is a valid gzip file.
+   *  @return An InputStream containing this Frame as a CSV */
+  public InputStream toCSV(boolean headers, boolean hex_string, boolean gzip) {
+    return new CSVStream(headers, hex_string, gzip);
   }
 
+  /** Write this Frame as CSV files, one per chunk, into the directory
+   *  {@code path}; the files are named {@code part-00000.csv} and so on, and
+   *  end in {@code .gz} if compressed.  Every node writes out the chunks it
+   *  homes, through the {@link water.persist.Persist} back-end for the path -
+   *  so a local path is written on the local disk of each node.  The first
+   *  file holds the column headers.  Blocks until all files are written. */
+  public void export(String path, boolean overwrite, boolean hex_string, boolean gzip) {
+    if( anyVec() == null ) throw new IllegalArgumentException("Cannot export a Frame with no columns");
+    new ExportTask(path, _names, overwrite, hex_string, gzip).doAll(this);
+  }
+
+  // Blocks rendered ahead of the reader: enough to keep all nodes rendering,
+  // bounded so a slow client does not pull the whole Frame into memory
+  private static int csvReadAhead() { return 2*H2O.CLOUD.size(); }
+
   private class CSVStream extends InputStream {
-    private final boolean _hex_string;
-    byte[] _line;
+    private final boolean _hex_string, _gzip;
+    private final ArrayDeque<RPC<RenderCSVTask>> _pending = new ArrayDeque<>();
+    private int _cidx;          // Next chunk to ask for
+    byte[] _block;
     int _position;
-    long _row;
 
-    CSVStream(boolean headers, boolean hex_string) {
+    CSVStream(boolean headers, boolean hex_string, boolean gzip) {
       _hex_string = hex_string;
-      StringBuilder sb = new StringBuilder();
-      Vec vs[] = vecs();
-      if( headers ) {
-        sb.append('"').append(_names[0]).append('"');
-        for(int i = 1; i < vs.length; i++)
-          sb.append(',').append('"').append(_names[i]).append('"');
-        sb.append('\n');
+      _gzip = gzip;
+      _block = headers ? renderHeader(_names, gzip) : new byte[0];
+    }
+
+    // Keep the read-ahead full, then take the next block in chunk order
+    private boolean nextBlock() {
+      Vec anyv = anyVec();
+      int nchks = anyv == null ? 0 : anyv.nChunks();
+      while( _cidx < nchks && _pending.size() < csvReadAhead() ) {
+        _pending.add(RPC.call(anyv.chunkKey(_cidx).home_node(), new RenderCSVTask(_keys, _cidx, _hex_string, _gzip)));
+        _cidx++;
       }
-      _line = sb.toString().getBytes();
+      if( _pending.isEmpty() ) return false;
+      _block = _pending.poll().get()._csv;
+      _position = 0;
+      return true;
     }
 
     @Override public int available() throws IOException {
-      if(_position == _line.length) {
-        if(_row == numRows())
-          return 0;
-        StringBuilder sb = new StringBuilder();
-        Vec vs[] = vecs();
-        for( int i = 0; i < vs.length; i++ ) {
-          if(i > 0) sb.append(',');
-          if(!vs[i].isNA(_row)) {
-            if( vs[i].isEnum() ) sb.append('"').append(vs[i].factor(vs[i].at8(_row))).append('"');
-            else if( vs[i].isUUID() ) sb.append(PrettyPrint.UUID(vs[i].at16l(_row), vs[i].at16h(_row)));
-            else if( vs[i].isInt() ) sb.append(vs[i].at8(_row));
-            else {
-              double d = vs[i].at(_row);
-              // R 3.1 unfortunately changed the behavior of read.csv().
-              // (Really type.convert()).
-              //
-              // Numeric values with too much precision now trigger a type conversion in R 3.1 into a factor.
-              //
-              // See these discussions:
-              //   https://bugs.r-project.org/bugzilla/show_bug.cgi?id=15751
-              //   https://stat.ethz.ch/pipermail/r-devel/2014-April/068778.html
-              //   http://stackoverflow.com/questions/23072988/preserve-old-pre-3-1-0-type-convert-behavior
-              String s = _hex_string ? Double.toHexString(d) : Double.toString(d);
-              sb.append(s);
-            }
-          }
-        }
-        sb.append('\n');
-        _line = sb.toString().getBytes();
-        _position = 0;
-        _row++;
-      }
-      return _line.length - _position;
+      while( _block != null && _position == _block.length )
+        if( !nextBlock() ) return 0;
+      return _block == null ? 0 : _block.length - _position;
     }
 
     @Override public void close() throws IOException {
       super.close();
-      _line = null;
+      _block = null;
+      _pending.clear();         // Outstanding renders finish and are dropped
     }
 
     @Override public int read() throws IOException {
-      return available() == 0 ? -1 : _line[_position++];
+      return available() == 0 ? -1 : _block[_position++] & 0xFF;
     }
 
     @Override public int read(byte[] b, int off, int len) throws IOException {
       int n = available();
-      if(n > 0) {
-        n = Math.min(n, len);
-        System.arraycopy(_line, _position, b, off, n);
-        _position += n;
-      }
+      if( n == 0 ) return -1;
+      n = Math.min(n, len);
+      System.arraycopy(_block, _position, b, off, n);
+      _position += n;
       return n;
     }
   }
 
+  /** Renders one chunk of a Frame as CSV on the chunk's home node. */
+  private static class RenderCSVTask extends DTask<RenderCSVTask> {
+    final byte _priority;
+    final Key[] _keys;
+    final int _cidx;
+    final boolean _hex_string, _gzip;
+    byte[] _csv;                // Output
+    RenderCSVTask(Key[] keys, int cidx, boolean hex_string, boolean gzip) {
+      _priority = nextThrPriority();
+      _keys = keys; _cidx = cidx; _hex_string = hex_string; _gzip = gzip;
+    }
+    @Override public byte priority() { return _priority; }
+    @Override protected void compute2() {
+      Chunk[] cs = new Chunk[_keys.length];
+      for( int i = 0; i < cs.length; i++ )
+        cs[i] = DKV.get(_keys[i]).<Vec>get().chunkForChunkIdx(_cidx);
+      _csv = renderCSV(cs, _hex_string, _gzip);
+      tryComplete();
+    }
+  }
+
+  /** Writes each chunk of a Frame to its own file, on the chunk's home node. */
+  private static class ExportTask extends MRTask<ExportTask> {
+    final String _path;
+    final String[] _names;
+    final boolean _overwrite, _hex_string, _gzip;
+    ExportTask(String path, String[] names, boolean overwrite, boolean hex_string, boolean gzip) {
+      _path = path; _names = names; _overwrite = overwrite; _hex_string = hex_string; _gzip = gzip;
+    }
+    @Override public void map(Chunk[] cs) {
+      int cidx = cs[0].cidx();
+      String f = _path + "/part-" + String.format("%05d", cidx) + (_gzip ? ".csv.gz" : ".csv");
+      try( OutputStream os = water.persist.Persist.create(f, _overwrite) ) {
+        if( cidx == 0 ) os.write(renderHeader(_names, _gzip));
+        os.write(renderCSV(cs, _hex_string, _gzip));
+      } catch( IOException e ) {
+        throw new RuntimeException("Unable to write " + f + ": " + e, e);
+      }
+    }
+  }
+
+  private static byte[] renderHeader(String[] names, boolean gzip) {
+    StringBuilder sb = new StringBuilder();
+    sb.append('"').append(names[0]).append('"');
+    for( int i = 1; i < names.length; i++ )
+      sb.append(',').append('"').append(names[i]).append('"');
+    sb.append('\n');
+    return compress(sb.toString().getBytes(), gzip);
+  }
+
+  // Render all rows of a set of aligned chunks, reading the chunks directly
+  private static byte[] renderCSV(Chunk[] cs, boolean hex_string, boolean gzip) {
+    String[][] domains = new String[cs.length][];
+    for( int i = 0; i < cs.length; i++ ) domains[i] = cs[i]._vec.domain();
+    ByteArrayOutputStream bos = new ByteArrayOutputStream(cs[0]._len * cs.length * 8);
+    ValueString vstr = new ValueString();
+    StringBuilder sb = new StringBuilder();
+    for( int r = 0; r < cs[0]._len; r++ ) {
+      sb.setLength(0);
+      for( int i = 0; i < cs.length; i++ ) {
+        if( i > 0 ) sb.append(',');
+        Chunk c = cs[i];
+        if( c.isNA0(r) ) continue;
+        Vec v = c._vec;
+        if( v.isEnum() ) sb.append('"').append(domains[i][(int)c.at80(r)]).append('"');
+        else if( v.isUUID() ) sb.append(PrettyPrint.UUID(c.at16l0(r), c.at16h0(r)));
+        else if( v.isString() ) sb.append('"').append(c.atStr0(vstr, r).toString()).append('"');
+        else if( v.isInt() ) sb.append(c.at80(r));
+        else {
+          double d = c.at0(r);
+          // R 3.1 unfortunately changed the behavior of read.csv().
+          // (Really type.convert()).
+          //
+          // Numeric values with too much precision now trigger a type conversion in R 3.1 into a factor.
+          //
+          // See these discussions:
+          //   https://bugs.r-project.org/bugzilla/show_bug.cgi?id=15751
+          //   https://stat.ethz.ch/pipermail/r-devel/2014-April/068778.html
+          //   http://stackoverflow.com/questions/23072988/preserve-old-pre-3-1-0-type-convert-behavior
+          sb.append(hex_string ? Double.toHexString(d) : Double.toString(d));
+        }
+      }
+      sb.append('\n');
+      byte[] b = sb.toString().getBytes();
+      bos.write(b, 0, b.length);
+    }
+    return compress(bos.toByteArray(), gzip);
+  }
+
+  private static byte[] compress(byte[] b, boolean gzip) {
+    if( !gzip ) return b;
+    ByteArrayOutputStream bos = new ByteArrayOutputStream(b.length/4+64);
+    try( GZIPOutputStream gz = new GZIPOutputStream(bos) ) {
+      gz.write(b);
+    } catch( IOException e ) {
+      throw new RuntimeException(e); // Not on a byte array
+    }
+    return bos.toByteArray();
+  }
+
 }
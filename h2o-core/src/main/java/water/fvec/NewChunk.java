@@ -57,7 +57,11 @@ public class NewChunk extends Chunk {
   private int _uuidCnt;                 // Count of UUIDs
 
   public final int _timCnt[] = new int[ParseTime.TIME_PARSE.length]; // Count of successful time parses
+  // Zone map: min & max of the non-NA values, found while compressing; NaN
+  // if compression never looked (Strings, UUIDs).
+  double _zmin = Double.NaN, _zmax = Double.NaN;
   protected static final int MIN_SPARSE_RATIO = 32;
+  protected static final int MIN_RUNS_LEN = 1024; // Smallest Chunk worth run-length, delta or bit-packed encoding
 
   public NewChunk( Vec vec, int cidx ) { _vec = vec; _cidx = cidx; }
   public NewChunk( Vec vec, int cidx, long[] mantissa, int[] exponent, int[] indices, double[] doubles) {
@@ -117,9 +121,10 @@ public class NewChunk extends Chunk {
           c.addUUID(_ls[_lId], Double.doubleToRawLongBits(_ds[_lId]));
         } else if (_ss != null) {
           int sidx = _is[_lId];
-          int slen = _lId+1 < _is.length ? _is[_lId+1]-sidx : _sslen - sidx;
-          ValueString vstr = new ValueString().set(_ss, sidx, slen);
-          c.addStr(vstr);
+          if( sidx == CStrChunk.NA ) { c.addStr(null); return; }
+          int slen = 0;         // Strings are 0-terminated in _ss
+          while( _ss[sidx+slen] != 0 ) slen++;
+          c.addStr(new ValueString().set(_ss, sidx, slen));
         } else
           c.addNum(_ds[_lId]);
       }
@@ -653,10 +658,12 @@ public class NewChunk extends Chunk {
   private Chunk compress2() {
     // Check for basic mode info: all missing or all strings or mixed stuff
     byte mode = type();
-    if( mode==AppendableVec.NA ) // ALL NAs, nothing to do
+    if( mode==AppendableVec.NA ) { // ALL NAs, nothing to do
+      _zmin = Double.POSITIVE_INFINITY; _zmax = Double.NEGATIVE_INFINITY;
       return new C0DChunk(Double.NaN, sparseLen());
+    }
     if( mode==AppendableVec.STRING )
-      return new CStrChunk(_sslen, _ss, sparseLen(), _is);
+      return sparseLen() == _len ? chunkStr() : new CStrChunk(_sslen, _ss, sparseLen(), _is);
     boolean rerun=false;
     if(mode == AppendableVec.ENUM){
       for( int i=0; i< sparseLen(); i++ )
@@ -693,20 +700,27 @@ public class NewChunk extends Chunk {
       int i=0;
       boolean isConstant = true;
       boolean isInteger = true;
+      double dmin = sparse ? 0 : Double.POSITIVE_INFINITY; // Sparse: implied 0s
+      double dmax = sparse ? 0 : Double.NEGATIVE_INFINITY;
       if ( sparse ) {
         isConstant = sparseLen() == 0;
         for( ; i< sparseLen(); i++ ) {
           if (!Double.isNaN(_ds[i])) isInteger &= (double) (long) _ds[i] == _ds[i];
+          if( _ds[i] < dmin ) dmin = _ds[i];
+          if( _ds[i] > dmax ) dmax = _ds[i];
         }
       } else {
         assert(_ds.length >= _len);
         for( ; i< _len; i++ ) {
           if (!Double.isNaN(_ds[i])) isInteger &= (double) (long) _ds[i] == _ds[i];
           isConstant &= _ds[i] == _ds[0];
+          if( _ds[i] < dmin ) dmin = _ds[i];
+          if( _ds[i] > dmax ) dmax = _ds[i];
         }
         assert(sparseLen() == _len);
       }
       if (!isInteger) {
+        _zmin = dmin; _zmax = dmax;
         if (isConstant) return new C0DChunk(_ds[0], _len);
         if (sparse) return new CXDChunk(_len, sparseLen(), 8, bufD(8));
         else return chunkD();
@@ -766,6 +780,7 @@ public class NewChunk extends Chunk {
       if( max < 0 ) { max = 0; lhi=0; xhi=0; }
       xmin = Math.min(xmin,0);
     }
+    _zmin = min; _zmax = max;
 
     // Constant column?
     if( _naCnt==0 && (min==max)) {
@@ -829,6 +844,12 @@ public class NewChunk extends Chunk {
     if( overflow || (fpoint && floatOverflow) || -35 > xmin || xmin > 35 )
       return chunkD();
     final long leRange = leRange(lemin,lemax);
+    // Long runs or a steady trend?  Sorted IDs and time-series columns.
+    Chunk runs = chunkRunsOrDeltas(xmin,lemin,lemax,fpoint);
+    if( runs != null ) return runs;
+    // Range well short of a byte boundary?  Pack in just the bits needed.
+    Chunk bits = chunkBits(xmin,lemin,lemax,fpoint);
+    if( bits != null ) return bits;
     if( fpoint ) {
       if( (int)lemin == lemin && (int)lemax == lemax ) {
         if(leRange < 255) // Fits in scaled biased byte?
@@ -971,6 +992,147 @@ public class NewChunk extends Chunk {
     return bs;
   }
 
+  // Run-length or frame-of-reference delta encodings, for sorted and
+  // time-series columns.  Returns null unless one of them beats the
+  // fixed-width encoding compress2 would otherwise pick by at least 1/4th,
+  // since both decode slower than a plain array load, and also beats plain
+  // N-bit packing of the whole range.  Small Chunks are
+  // left alone: they hold little memory either way.
+  private Chunk chunkRunsOrDeltas( int xmin, long lemin, long lemax, boolean fpoint ) {
+    final long leRange = leRange(lemin,lemax);
+    if( _len < MIN_RUNS_LEN || xmin >= PrettyPrint.powers10i.length || leRange > (1L<<60) ) return null;
+    final long fixed = (long)_len*fixedWidth(lemin,lemax,fpoint);
+    // Count runs, and find the first & last values for the slope
+    final long[] les = bufLE(xmin);
+    int nruns = 0, first = -1, last = -1;
+    for( int i=0; i<_len; i++ ) {
+      if( i==0 || les[i] != les[i-1] ) nruns++;
+      if( les[i] != C8Chunk._NA ) { if( first == -1 ) first = i; last = i; }
+    }
+    final long rlesz = CRLEChunk._OFF + 12L*nruns;
+    // Average step, for the delta predictor
+    final long slope = last > first ? (les[last]-les[first])/(last-first) : 0;
+    final long deltasz = deltaSize(les,slope);
+    final long best = Math.min(rlesz,deltasz);
+    if( best >= fixed - (fixed>>2) || best >= bitsSize(leRange) ) return null;
+    return rlesz == best
+      ? new CRLEChunk(bufRLE(les,nruns,xmin))
+      : new CDeltaChunk(bufDelta(les,slope,xmin,(int)deltasz));
+  }
+
+  // Bytes per row of the fixed-width encoding compress2 picks for this range
+  private static int fixedWidth( long lemin, long lemax, boolean fpoint ) {
+    final long leRange = leRange(lemin,lemax);
+    if( leRange < 255 ) return 1;
+    if( leRange < 65535 ) return 2;
+    if( fpoint ) return leRange < 4294967295l ? 4 : 8;
+    return Integer.MIN_VALUE < lemin && lemax <= Integer.MAX_VALUE ? 4 : 8;
+  }
+
+  // Size of the N-bit packed encoding, or Long.MAX_VALUE if the range is too wide
+  private long bitsSize( long leRange ) {
+    if( leRange >= (1L<<CNSChunk.MAX_BITS)-1 ) return Long.MAX_VALUE;
+    return CNSChunk._OFF + CNSChunk.clen(_len,CNSChunk.bits(leRange+1));
+  }
+
+  // N-bit packing of the biased range, with the all-ones code for NA.  Like
+  // the run-length and delta encodings, only taken when it saves at least
+  // 1/4th over the byte-aligned width: e.g. 5 bits instead of a byte, or 17
+  // bits instead of an int.
+  private Chunk chunkBits( int xmin, long lemin, long lemax, boolean fpoint ) {
+    final long leRange = leRange(lemin,lemax);
+    if( _len < MIN_RUNS_LEN || xmin >= PrettyPrint.powers10i.length || bitsSize(leRange) == Long.MAX_VALUE ) return null;
+    final int bpv = CNSChunk.bits(leRange+1);
+    if( bpv > 6*fixedWidth(lemin,lemax,fpoint) ) return null;
+    final long[] les = bufLE(xmin);
+    final long na = -1L>>>(64-bpv);
+    byte[] bs = MemoryManager.malloc1(CNSChunk._OFF+CNSChunk.clen(_len,bpv));
+    UnsafeUtils.set4(bs,0,xmin);
+    UnsafeUtils.set8(bs,4,lemin);
+    UnsafeUtils.set4(bs,12,_len);
+    bs[16] = (byte)bpv;
+    long bitoff = 0;
+    for( int i=0; i<_len; i++, bitoff+=bpv )
+      CNSChunk.pack(bs,CNSChunk._OFF,bitoff,bpv,les[i] == C8Chunk._NA ? na : les[i]-lemin);
+    return new CNSChunk(bs);
+  }
+
+  // Scaled longs in the xmin scale, with C8Chunk._NA for missing; dense only
+  private long[] bufLE( int scale ) {
+    assert sparseLen() == _len;
+    long[] les = MemoryManager.malloc8(_len);
+    for( int i=0; i<_len; i++ ) {
+      if( isNA2(i) ) { les[i] = C8Chunk._NA; continue; }
+      int x = (_xs[i]==Integer.MIN_VALUE+1 ? 0 : _xs[i])-scale;
+      les[i] = x >= 0 ? _ls[i]*PrettyPrint.pow10i(x) : _ls[i]/PrettyPrint.pow10i(-x);
+    }
+    return les;
+  }
+
+  private byte[] bufRLE( long[] les, int nruns, int xmin ) {
+    final int valoff = CRLEChunk._OFF+(nruns<<2);
+    byte[] bs = MemoryManager.malloc1(valoff+(nruns<<3));
+    UnsafeUtils.set4(bs,0,xmin);
+    UnsafeUtils.set4(bs,4,nruns);
+    int r = -1;
+    for( int i=0; i<_len; i++ ) {
+      if( i==0 || les[i] != les[i-1] ) UnsafeUtils.set8(bs,valoff+((++r)<<3),les[i]);
+      UnsafeUtils.set4(bs,CRLEChunk._OFF+(r<<2),i+1);
+    }
+    assert r == nruns-1;
+    return bs;
+  }
+
+  // Residuals from the slope predictor for one block: {base, bit width,
+  // has-NA}.  The bit width leaves room for an all-ones NA code.
+  private static long[] deltaBlock( long[] les, long slope, int lo, int hi ) {
+    long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+    boolean nas = false;
+    for( int i=lo; i<hi; i++ ) {
+      if( les[i] == C8Chunk._NA ) { nas = true; continue; }
+      long r = les[i]-slope*i;
+      if( r < min ) min = r;
+      if( r > max ) max = r;
+    }
+    if( min > max ) min = max = 0; // All NAs
+    return new long[]{min,CNSChunk.bits(max-min+(nas?1:0)),nas?1:0};
+  }
+
+  // Size of the delta encoding, or Long.MAX_VALUE if some block is too wide
+  private long deltaSize( long[] les, long slope ) {
+    long bits = 0;
+    for( int lo=0; lo<_len; lo+=CDeltaChunk.BLOCK ) {
+      int hi = Math.min(lo+CDeltaChunk.BLOCK,_len);
+      long bw = deltaBlock(les,slope,lo,hi)[1];
+      if( bw > CDeltaChunk.MAX_BITS ) return Long.MAX_VALUE;
+      bits += bw*(hi-lo);
+    }
+    return CDeltaChunk._OFF + (long)CDeltaChunk.nblocks(_len)*CDeltaChunk.HDR + ((bits+7)>>3) + 8;
+  }
+
+  private byte[] bufDelta( long[] les, long slope, int xmin, int sz ) {
+    byte[] bs = MemoryManager.malloc1(sz);
+    UnsafeUtils.set4(bs,0,xmin);
+    UnsafeUtils.set4(bs,4,_len);
+    UnsafeUtils.set8(bs,8,slope);
+    final int dataoff = CDeltaChunk._OFF+CDeltaChunk.nblocks(_len)*CDeltaChunk.HDR;
+    long bitoff = 0;
+    for( int lo=0, h=CDeltaChunk._OFF; lo<_len; lo+=CDeltaChunk.BLOCK, h+=CDeltaChunk.HDR ) {
+      int hi = Math.min(lo+CDeltaChunk.BLOCK,_len);
+      long[] blk = deltaBlock(les,slope,lo,hi);
+      int bw = (int)blk[1];
+      UnsafeUtils.set8(bs,h,blk[0]);
+      UnsafeUtils.set4(bs,h+8,(int)bitoff);
+      bs[h+12] = (byte)bw;
+      bs[h+13] = (byte)blk[2];
+      long na = -1L>>>(64-bw);
+      for( int i=lo; i<hi; i++, bitoff+=bw )
+        CNSChunk.pack(bs,dataoff,bitoff,bw,les[i] == C8Chunk._NA ? na : les[i]-slope*i-blk[0]);
+    }
+    assert dataoff+((bitoff+7)>>3)+8 == sz;
+    return bs;
+  }
+
   // Compute a compressed double buffer
   private Chunk chunkD() {
     final byte [] bs = MemoryManager.malloc1(_len *8,true);
@@ -1007,6 +1169,105 @@ public class NewChunk extends Chunk {
     return new C16Chunk(bs);
   }
 
+  // Compute a compressed String chunk.  Pick the smallest of: plain
+  // null-terminated bytes, a per-chunk dictionary (when the cardinality fits
+  // in 1- or 2-byte codes), or front-coding against the head row of each
+  // block.  Front-coded rows with a shared prefix are glued together on every
+  // read, so that layout has to save a good fraction (1/8th) to be chosen.
+  private Chunk chunkStr() {
+    final int len = _len;
+    final long strsz = CStrChunk._OFF + 4L*len + _sslen;
+    // String lengths, or -1 for NA
+    int[] slens = MemoryManager.malloc4(len);
+    for( int i=0; i<len; i++ ) {
+      int off = _is[i], l=0;
+      if( off == CStrChunk.NA ) { slens[i] = -1; continue; }
+      while( _ss[off+l] != 0 ) l++;
+      slens[i] = l;
+    }
+    // Dictionary encoding: codes in row order, dictionary bytes in code order
+    HashMap<ValueString,Integer> dict = new HashMap<>();
+    int[] dictOff = null;
+    long dictsz = Long.MAX_VALUE;
+    long dictBytes = 0;
+    for( int i=0; i<len && dict.size() <= CStrDChunk.MAX_DICT2; i++ ) {
+      if( slens[i] == -1 ) continue;
+      ValueString vs = new ValueString().set(_ss,_is[i],slens[i]);
+      if( dict.get(vs) == null ) { dict.put(vs,dict.size()); dictBytes += slens[i]; }
+    }
+    if( dict.size() <= CStrDChunk.MAX_DICT2 ) {
+      int csz = dict.size() <= CStrDChunk.MAX_DICT1 ? 1 : 2;
+      dictsz = CStrDChunk._OFF + 4L*(dict.size()+1) + dictBytes + (long)len*csz;
+    }
+    // Front-coding: prefix shared with the head of each block
+    long prefsz = CStrPChunk._OFF + 4L*(len+1);
+    for( int i=0; i<len; i++ )
+      if( slens[i] != -1 ) prefsz += 1 + slens[i] - prefix(i,slens);
+
+    if( dictsz < strsz && dictsz <= prefsz ) return new CStrDChunk(bufStrD(dict,(int)dictBytes,slens));
+    if( prefsz < strsz - (strsz>>3) ) return new CStrPChunk(bufStrP((int)prefsz,slens));
+    return new CStrChunk(_sslen, _ss, len, _is);
+  }
+
+  // Length of the prefix row i shares with its block head, or 0 if i is a
+  // head or the head is NA.
+  private int prefix( int i, int[] slens ) {
+    int h = i&~(CStrPChunk.BLOCK-1);
+    if( h == i || slens[h] == -1 ) return 0;
+    int max = Math.min(CStrPChunk.MAX_PREFIX,Math.min(slens[h],slens[i]));
+    int ho = _is[h], io = _is[i], p = 0;
+    while( p < max && _ss[ho+p] == _ss[io+p] ) p++;
+    return p;
+  }
+
+  private byte[] bufStrD( HashMap<ValueString,Integer> dict, int dictBytes, int[] slens ) {
+    final int ndict = dict.size();
+    final int csz = ndict <= CStrDChunk.MAX_DICT1 ? 1 : 2;
+    final int valstart = CStrDChunk._OFF + ((ndict+1)<<2);
+    final int codestart = valstart + dictBytes;
+    byte[] bs = MemoryManager.malloc1(codestart + _len*csz);
+    UnsafeUtils.set4(bs,0,ndict);
+    UnsafeUtils.set4(bs,4,codestart);
+    bs[8] = (byte)csz;
+    // Dictionary offsets & bytes, in code order
+    ValueString[] vss = new ValueString[ndict];
+    for( Map.Entry<ValueString,Integer> e : dict.entrySet() ) vss[e.getValue()] = e.getKey();
+    int off = 0;
+    for( int c=0; c<ndict; c++ ) {
+      UnsafeUtils.set4(bs,CStrDChunk._OFF+(c<<2),off);
+      System.arraycopy(vss[c].get_buf(),vss[c].get_off(),bs,valstart+off,vss[c].get_length());
+      off += vss[c].get_length();
+    }
+    UnsafeUtils.set4(bs,CStrDChunk._OFF+(ndict<<2),off);
+    // Codes
+    final int na = csz==1 ? CStrDChunk.MAX_DICT1 : CStrDChunk.MAX_DICT2;
+    ValueString vs = new ValueString();
+    for( int i=0; i<_len; i++ ) {
+      int code = slens[i] == -1 ? na : dict.get(vs.set(_ss,_is[i],slens[i]));
+      if( csz==1 ) bs[codestart+i] = (byte)code;
+      else UnsafeUtils.set2(bs,codestart+(i<<1),(short)code);
+    }
+    return bs;
+  }
+
+  private byte[] bufStrP( int prefsz, int[] slens ) {
+    final int valstart = CStrPChunk._OFF + ((_len+1)<<2);
+    byte[] bs = MemoryManager.malloc1(prefsz);
+    UnsafeUtils.set4(bs,0,valstart);
+    int off = 0;
+    for( int i=0; i<_len; i++ ) {
+      UnsafeUtils.set4(bs,CStrPChunk._OFF+(i<<2),off);
+      if( slens[i] == -1 ) continue; // Empty entry is an NA
+      int p = prefix(i,slens);
+      bs[valstart+off++] = (byte)p;
+      System.arraycopy(_ss,_is[i]+p,bs,valstart+off,slens[i]-p);
+      off += slens[i]-p;
+    }
+    UnsafeUtils.set4(bs,CStrPChunk._OFF+(_len<<2),off);
+    assert valstart+off == bs.length;
+    return bs;
+  }
+
   // Compute compressed boolean buffer
   private byte[] bufB(int bpv) {
     assert bpv == 1 || bpv == 2 : "Only bit vectors with/without NA are supported";
@@ -1,12 +1,12 @@
 package water.fvec;
 
 import jsr166y.CountedCompleter;
+import water.DKV;
 import water.Futures;
 import water.H2O;
 import water.Key;
 import water.MRTask;
 
-import java.util.Arrays;
 import java.util.Iterator;
 
 /**
@@ -25,6 +25,7 @@ public class RebalanceDataSet extends H2O.H2OCountedCompleter {
   final Key _jobKey;
   final transient Vec.VectorGroup _vg;
   transient long [] _espc;
+  transient RebalanceTask _task;
 
   /**
    * Constructor for make-compatible task.
@@ -61,22 +62,11 @@ public class RebalanceDataSet extends H2O.H2OCountedCompleter {
     // multiple makeZero calls to create empty vecs and than call RebalanceTask
     // on each one of them.  RebalanceTask will fetch the appropriate training_frame
     // chunks and fetch the data from them.
-    int rpc = (int)(_in.numRows() / _nchunks);
-    int rem = (int)(_in.numRows() % _nchunks);
-    long[] espc = new long[_nchunks+1];
-    Arrays.fill(espc,rpc);
-    for( int i = 0; i < rem; ++i ) ++espc[i];
-    long sum = 0;
-    for( int i = 0; i < espc.length; ++i ) {
-      long s = espc[i];
-      espc[i] = sum;
-      sum += s;
-    }
-    assert espc[espc.length-1] == _in.numRows():"unexpected number of rows, expected " + _in.numRows() + ", got " + espc[espc.length-1];
+    long[] espc = ChunkLayout.espc(_in.numRows(),_nchunks);
     final Vec[] srcVecs = _in.vecs();
     _out = new Frame(_okey,_in.names(), new Vec(Vec.newKey(),espc).makeCons(srcVecs.length,0L,_in.domains(),_in.types()));
     _out.delete_and_lock(_jobKey);
-    new RebalanceTask(this,srcVecs).asyncExec(_out);
+    (_task = new RebalanceTask(this,srcVecs)).asyncExec(_out);
   }
 
   @Override public void onCompletion(CountedCompleter caller) {
@@ -84,6 +74,7 @@ public class RebalanceDataSet extends H2O.H2OCountedCompleter {
     Vec vec = _out.anyVec();
     assert vec.nChunks() == _nchunks;
     _in.unlock(_jobKey);
+    _task.putZoneMaps(_out.vecs(),new Futures()).blockForPending();
     _out.update(_jobKey);
     _out.unlock(_jobKey);
   }
@@ -95,11 +86,17 @@ public class RebalanceDataSet extends H2O.H2OCountedCompleter {
 
   public static class RebalanceTask extends MRTask<RebalanceTask> {
     final Vec [] _srcVecs;
+    ZoneMap [] _zmaps;          // Zone maps of the new Chunks, per column; shared node-locally
     public RebalanceTask(H2O.H2OCountedCompleter cmp, Vec... srcVecs){super(cmp);_srcVecs = srcVecs;}
 
     @Override public boolean logVerbose() { return false; }
 
-    private void rebalanceChunk(Vec srcVec, Chunk chk){
+    @Override protected void setupLocal() {
+      _zmaps = new ZoneMap[_fr.numCols()];
+      for(int i = 0; i < _zmaps.length; ++i) _zmaps[i] = new ZoneMap(_fr.anyVec().nChunks());
+    }
+
+    private NewChunk rebalanceChunk(Vec srcVec, Chunk chk){
       NewChunk dst = new NewChunk(chk);
       dst.set_len(0);
       dst.set_sparseLen(dst._len);
@@ -136,10 +133,28 @@ public class RebalanceDataSet extends H2O.H2OCountedCompleter {
       assert rem == 0:"rem = " + rem;
       assert dst._len == chk._len :"len = " + dst._len + ", _len = " + chk._len;
       dst.close(dst.cidx(),_fs);
+      return dst;
     }
     @Override public void map(Chunk [] chks){
-      for(int i = 0; i < chks.length; ++i)
-        rebalanceChunk(_srcVecs[i],chks[i]);
+      for(int i = 0; i < chks.length; ++i) {
+        NewChunk dst = rebalanceChunk(_srcVecs[i],chks[i]);
+        if( !Double.isNaN(dst._zmin) )
+          synchronized(_zmaps[i]) { _zmaps[i].set(chks[i].cidx(),dst._zmin,dst._zmax,dst.naCnt()); }
+      }
+    }
+    @Override public void reduce(RebalanceTask t) {
+      if( _zmaps != t._zmaps )  // Another node's
+        for(int i = 0; i < _zmaps.length; ++i) _zmaps[i].reduce(t._zmaps[i]);
+    }
+    /** Record the zone maps of the new Chunks, as parse does.
+     *  @return fs, for flow-coding */
+    public Futures putZoneMaps(Vec[] vecs, Futures fs) {
+      if( _zmaps == null ) return fs;
+      for(int i = 0; i < vecs.length; ++i) {
+        ZoneMap zm = _zmaps[i].trim(vecs[i].nChunks());
+        if( zm != null ) DKV.put(vecs[i].zoneMapKey(),zm,fs);
+      }
+      return fs;
     }
   }
 }
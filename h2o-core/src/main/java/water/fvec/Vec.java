@@ -6,6 +6,7 @@ import water.parser.Enum;
 import water.parser.ParseTime;
 import water.parser.ValueString;
 import water.util.ArrayUtils;
+import water.util.IcedInt;
 import water.util.PrettyPrint;
 import water.util.UnsafeUtils;
 
@@ -195,6 +196,16 @@ public class Vec extends Keyed {
   public static final byte T_TIMELAST= (byte)(T_TIME+ParseTime.TIME_PARSE.length);
   byte _type;                   // Vec Type
 
+  /** Zone maps for this Vec's Chunks, as recorded when the Chunks were
+   *  compressed; null if unknown, or if the Vec was written to since.  Kept
+   *  under their own Key, like the rollups, so every copy of this Vec sees the
+   *  same maps and a write drops them cluster-wide.
+   *  @return Per-chunk min/max/NA-count zone maps, or null */
+  public final ZoneMap zoneMap() {
+    Value val = DKV.get(zoneMapKey());
+    return val == null ? null : val.<ZoneMap>get();
+  }
+
   /** True if this is an Enum column.  All enum columns are also {@link #isInt}, but
    *  not vice-versa.
    *  @return true if this is an Enum column.  */
@@ -556,12 +567,23 @@ public class Vec extends Keyed {
    *  @return Checksum of the Vec's content  */
   public long checksum() { return rollupStats()._checksum;}
 
+  /** The number of writes finished on this Vec, or -1 while it is being
+   *  written.  Unlike the {@link #checksum}, it changes with any write, e.g.
+   *  one permuting the rows.
+   *  @return Count of writes, or -1 while writing */
+  public int writeVersion() {
+    Value val = DKV.get(rollupStatsKey());
+    if( val != null && val.get(RollupStats.class).isMutating() ) return -1;
+    val = DKV.get(writesKey());
+    return val == null ? 0 : val.<IcedInt>get()._val;
+  }
+
 
   /** Begin writing into this Vec.  Immediately clears all the rollup stats
-   *  ({@link #min}, {@link #max}, {@link #mean}, etc) since such values are
-   *  not meaningful while the Vec is being actively modified.  Can be called
-   *  repeatedly.  Per-chunk row-counts will not be changing, just row
-   *  contents. */
+   *  ({@link #min}, {@link #max}, {@link #mean}, etc) and the {@link #zoneMap}
+   *  since such values are not meaningful while the Vec is being actively
+   *  modified.  Can be called repeatedly.  Per-chunk row-counts will not be
+   *  changing, just row contents. */
   public void preWriting( ) {
     if( !writable() ) throw new IllegalArgumentException("Vector not writable");
     final Key rskey = rollupStatsKey();
@@ -570,6 +592,8 @@ public class Vec extends Keyed {
       RollupStats rs = val.get(RollupStats.class);
       if( rs.isMutating() ) return; // Vector already locked against rollups
     }
+    ResultCache.invalidate(_key); // Results computed from the old contents
+    DKV.remove(zoneMapKey());     // Zone maps are about to go stale; drop them everywhere
     // Set rollups to "vector isMutating" atomically.
     new TAtomic<RollupStats>() {
       @Override protected RollupStats atomic(RollupStats rs) {
@@ -586,8 +610,13 @@ public class Vec extends Keyed {
     Value val = DKV.get(rollupStatsKey());
     if( val != null ) {
       RollupStats rs = val.get(RollupStats.class);
-      if( rs.isMutating() )  // Vector was mutating, is now allowed for rollups
+      if( rs.isMutating() ) { // Vector was mutating, is now allowed for rollups
+        // Count the write before the rollups stop saying it is under way
+        new TAtomic<IcedInt>() {
+          @Override protected IcedInt atomic(IcedInt old) { return new IcedInt(old == null ? 1 : old._val+1); }
+        }.invoke(writesKey());
         DKV.remove(rskey,fs);// Removing will cause them to be rebuilt, on demand
+      }
     }
     return fs;                  // Flow-coding
   }
@@ -635,6 +664,8 @@ public class Vec extends Keyed {
     return Key.make(bits);
   }
   Key rollupStatsKey() { return chunkKey(-2); }
+  Key zoneMapKey() { return chunkKey(-3); }
+  Key writesKey() { return chunkKey(-4); }
 
   /** Get a Chunk's Value by index.  Basically the index-to-key map, plus the
    *  {@code DKV.get()}.  Warning: this pulls the data locally; using this call
@@ -870,6 +901,9 @@ public class Vec extends Keyed {
     for( int i=0; i<nChunks(); i++ )
       DKV.remove(chunkKey(i),fs);
     DKV.remove(rollupStatsKey(),fs);
+    DKV.remove(zoneMapKey(),fs);
+    DKV.remove(writesKey(),fs);
+    ResultCache.invalidate(_key);
     return fs;
   }
 
@@ -0,0 +1,79 @@
+package water.fvec;
+
+import water.Iced;
+
+import java.util.Arrays;
+
+/**
+ * Per-chunk zone maps: the min, max and NA count of every Chunk in a Vec.
+ * They fall out of {@link NewChunk} compression for free, are gathered by
+ * {@link AppendableVec} as Chunks close, and are kept under their own Key
+ * next to the {@link Vec}'s rollups.  Filters use them to skip Chunks whose range cannot match, or to
+ * answer for a whole Chunk at once when every row matches.
+ *
+ * <p>Zone maps are only good until the Vec is written to again; {@link
+ * Vec#preWriting} drops them.  Chunks with no known range (Strings, UUIDs)
+ * have an NA count of -1.  An all-NA Chunk has an empty range, min of
+ * +Infinity and max of -Infinity.
+ */
+public class ZoneMap extends Iced {
+  double[] _mins, _maxs;
+  int[] _nas;
+
+  ZoneMap( int nchunks ) {
+    _mins = new double[nchunks];
+    _maxs = new double[nchunks];
+    _nas  = new int[nchunks];
+    Arrays.fill(_nas,-1);
+  }
+
+  /** @return True if the range of Chunk {@code cidx} is known */
+  public final boolean known( int cidx ) { return cidx < _nas.length && _nas[cidx] != -1; }
+  /** @return Smallest non-NA value in Chunk {@code cidx} */
+  public final double min( int cidx ) { return _mins[cidx]; }
+  /** @return Largest non-NA value in Chunk {@code cidx} */
+  public final double max( int cidx ) { return _maxs[cidx]; }
+  /** @return Count of NAs in Chunk {@code cidx} */
+  public final int naCnt( int cidx ) { return _nas[cidx]; }
+
+  /** True if {@code a} is certainly below {@code b}, allowing for a few ulps
+   *  of rounding between the recorded bounds and the values Chunks decode.
+   *  Range tests built on this can only err towards "not sure", which just
+   *  means the Chunk gets scanned. */
+  public static boolean below( double a, double b ) {
+    return a < b && b-a > 4*Math.max(Math.ulp(a),Math.ulp(b));
+  }
+
+  void set( int cidx, double min, double max, int nas ) {
+    if( cidx >= _nas.length ) grow(Math.max(cidx+1,_nas.length<<1));
+    _mins[cidx] = min;
+    _maxs[cidx] = max;
+    _nas [cidx] = nas;
+  }
+  void setAllNA( int cidx, int len ) { set(cidx,Double.POSITIVE_INFINITY,Double.NEGATIVE_INFINITY,len); }
+
+  private void grow( int n ) {
+    int old = _nas.length;
+    _mins = Arrays.copyOf(_mins,n);
+    _maxs = Arrays.copyOf(_maxs,n);
+    _nas  = Arrays.copyOf(_nas ,n);
+    Arrays.fill(_nas,old,n,-1);
+  }
+
+  // Combine zone maps from Chunks closed on other threads or nodes
+  void reduce( ZoneMap zm ) {
+    for( int i=0; i<zm._nas.length; i++ )
+      if( zm._nas[i] != -1 ) set(i,zm._mins[i],zm._maxs[i],zm._nas[i]);
+  }
+
+  // Trimmed to the final Chunk count; null if nothing is known at all
+  ZoneMap trim( int nchunks ) {
+    if( nchunks < _nas.length ) {
+      _mins = Arrays.copyOf(_mins,nchunks);
+      _maxs = Arrays.copyOf(_maxs,nchunks);
+      _nas  = Arrays.copyOf(_nas ,nchunks);
+    }
+    for( int na : _nas ) if( na != -1 ) return this;
+    return null;
+  }
+}
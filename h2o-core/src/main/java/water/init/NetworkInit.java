@@ -4,6 +4,7 @@ import java.io.*;
 import java.net.*;
 import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
+import java.nio.channels.ServerSocketChannel;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -326,7 +327,8 @@ public class NetworkInit {
         // Enabling SO_REUSEADDR prior to binding the socket using bind(SocketAddress)
         // allows the socket to be bound even though a previous connection is in a timeout state.
         // cnc: this is busted on windows.  Back to the old code.
-        _apiSocket = new ServerSocket(H2O.API_PORT);
+        _apiSocket = ServerSocketChannel.open().socket(); // NanoHTTPD serves it with non-blocking I/O
+        _apiSocket.bind(new InetSocketAddress(H2O.API_PORT));
         _udpSocket = DatagramChannel.open();
         _udpSocket.socket().setReuseAddress(true);
         _udpSocket.socket().bind(new InetSocketAddress(H2O.SELF_ADDRESS, H2O.H2O_PORT));
@@ -189,6 +189,15 @@ public final class ParseDataset2 extends Job<Frame> {
     }
     // unify any vecs with enums and strings to strings only
     new UnifyStrVecTask().doAll(fr);
+    // Chunks follow the input file's 4Meg byte chunks; re-chunk if that is
+    // far off from a layout that suits the row width and cluster shape
+    Vec[] unchunked = fr.rechunk(job._key);
+    if( unchunked != null ) {   // Parse made these Vecs; no one else has them
+      Futures fs = new Futures();
+      for( Vec v : unchunked ) v.remove(fs);
+      fs.blockForPending();
+      Log.info("Re-chunked "+job.dest()+" into "+fr.anyVec().nChunks()+" chunks");
+    }
 
     // Log any errors
     if( mfpt._errors != null )
@@ -224,9 +233,11 @@ public final class ParseDataset2 extends Job<Frame> {
       final int cidx = chks[0].cidx();
       for(int i = 0; i < chks.length; ++i) {
         Chunk chk = chks[i];
-        if(_gDomain[i] == null) // killed, replace with all NAs
+        if(_gDomain[i] == null) { // killed, replace with all NAs
+          chk.vec().preWriting();
           DKV.put(chk.vec().chunkKey(chk.cidx()),new C0DChunk(Double.NaN,chk._len));
-        else if (!(chk instanceof CStrChunk)) {
+        }
+        else if (!chk.isString()) {
           for( int j = 0; j < chk._len; ++j){
             if( chk.isNA0(j) )continue;
             long l = chk.at80(j);
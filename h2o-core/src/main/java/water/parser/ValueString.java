@@ -7,6 +7,7 @@ public final class ValueString extends Iced implements Comparable<ValueString> {
    private byte [] _buf;
    private int _off;
    private int _len;
+   private transient byte[] _scratch; // Owned buffer for Strings decoded by Chunks
 
    ValueString( byte [] buf, int off, int len) { _buf = buf;  _off = off;  _len = len; }
    ValueString( byte [] buf ) { this(buf,0,buf.length); }
@@ -69,6 +70,15 @@ public final class ValueString extends Iced implements Comparable<ValueString> {
     return this;                // Flow coding
   }
 
+  /** A buffer owned by this ValueString, of at least {@code len} bytes, for
+   *  Chunks to decode a String into without allocating per row.  Its
+   *  contents are overwritten by the next decode into this ValueString. */
+  public byte[] scratch(int len) {
+    if( _scratch == null || _scratch.length < len )
+      _scratch = new byte[Math.max(len,_scratch == null ? 16 : _scratch.length<<1)];
+    return _scratch;
+  }
+
   public ValueString setTo(String what) {
     _buf = what.getBytes();
     _off = 0;
@@ -57,6 +57,22 @@ public abstract class Persist {
   /** Reclaim space from a previously stored Value */
   abstract public void delete(Value v);
 
+  /** Create a file at the given path (without a scheme) and open it for
+   *  writing; for back-ends which can write user files. */
+  public OutputStream open(String path, boolean overwrite) throws IOException { throw H2O.unimpl(); }
+
+  /** Create a file for writing through the back-end named by the path's
+   *  scheme; plain paths are files on the local file system. */
+  public static OutputStream create(String path, boolean overwrite) throws IOException {
+    int i = path.indexOf("://");
+    String sch = i == -1 ? Schemes.FILE : path.substring(0,i);
+    if( Schemes.FILE.equals(sch) || Schemes.NFS.equals(sch) )
+      return I[Value.NFS].open(i == -1 ? path : path.substring(i+3), overwrite);
+    if( Schemes.HDFS.equals(sch) || "s3n".equals(sch) || "s3a".equals(sch) )
+      return I[Value.HDFS].open(path, overwrite);
+    throw new IllegalArgumentException("Cannot write files for scheme "+sch+": "+path);
+  }
+
   /** Usuable storage space, or -1 for unknown */
   public long getUsableSpace() { return /*UNKNOWN*/-1; }
 
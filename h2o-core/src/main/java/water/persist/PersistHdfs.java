@@ -116,6 +116,11 @@ public final class PersistHdfs extends Persist {
   // return b;
   }
 
+  @Override public OutputStream open(String path, boolean overwrite) throws IOException {
+    Path p = new Path(path);
+    return FileSystem.get(p.toUri(), CONF).create(p, overwrite);
+  }
+
   @Override public void store(Value v) {
     // Should be used only if ice goes to HDFS
     assert this == getIce();
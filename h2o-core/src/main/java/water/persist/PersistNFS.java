@@ -68,4 +68,12 @@ public final class PersistNFS extends Persist {
   }
 
   @Override public void delete(Value v) { throw H2O.fail(); }
+
+  @Override public OutputStream open(String path, boolean overwrite) throws IOException {
+    File f = new File(path);
+    if( f.exists() && !overwrite ) throw new IOException("File "+f+" exists");
+    File dir = f.getAbsoluteFile().getParentFile();
+    if( !dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory() ) throw new IOException("Unable to create directory "+dir);
+    return new FileOutputStream(f);
+  }
 }
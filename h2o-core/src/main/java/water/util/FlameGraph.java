@@ -0,0 +1,40 @@
+package water.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import water.H2O;
+import water.Iced;
+
+/** Stacks sampled by the background {@link water.StackSampler} of one or all
+ *  nodes, as folded-stack text: one {@code frame;frame;... count} line per
+ *  distinct stack, which flame-graph tools take as input. */
+public class FlameGraph extends Iced {
+  // Input
+  public int node = -1;       // Index of the node, or -1 for all merged
+  public int window_secs;     // Most recent seconds to include, or 0 for all kept
+
+  // Output
+  public String folded;
+  public long samples;
+
+  public void execImpl() {
+    if( node < -1 || node >= H2O.CLOUD.size() )
+      throw new IllegalArgumentException("No node "+node+" in a cloud of "+H2O.CLOUD.size());
+    FoldedStackCollectorTask t = new FoldedStackCollectorTask(window_secs*1000L).doAllNodes();
+    TreeMap<String,Long> merged = new TreeMap<>();
+    for( int n = 0; n < t._stacks.length; n++ ) {
+      if( (node != -1 && n != node) || t._stacks[n] == null ) continue;
+      for( int i = 0; i < t._stacks[n].length; i++ ) {
+        Long c = merged.get(t._stacks[n][i]);
+        merged.put(t._stacks[n][i], c == null ? t._counts[n][i] : c + t._counts[n][i]);
+      }
+    }
+    StringBuilder sb = new StringBuilder();
+    samples = 0;
+    for( Map.Entry<String,Long> e : merged.entrySet() ) {
+      sb.append(e.getKey()).append(' ').append(e.getValue()).append('\n');
+      samples += e.getValue();
+    }
+    folded = sb.toString();
+  }
+}
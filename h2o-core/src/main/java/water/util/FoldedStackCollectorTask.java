@@ -0,0 +1,43 @@
+package water.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import water.H2O;
+import water.MRTask;
+import water.StackSampler;
+
+public class FoldedStackCollectorTask extends MRTask<FoldedStackCollectorTask> {
+  public FoldedStackCollectorTask(long window_ms) { _window_ms = window_ms; }
+
+  // input
+  public final long _window_ms;
+
+  // output: for each node in the cloud, its folded stacks and their sample counts
+  public String[][] _stacks;
+  public long[][] _counts;
+
+  @Override public void reduce(FoldedStackCollectorTask that) {
+    for( int i=0; i<_stacks.length; ++i )
+      if( _stacks[i] == null ) {
+        _stacks[i] = that._stacks[i];
+        _counts[i] = that._counts[i];
+      }
+  }
+
+  @Override public void setupLocal() {
+    _stacks = new String[H2O.CLOUD.size()][];
+    _counts = new long[H2O.CLOUD.size()][];
+    if( H2O.SELF._heartbeat._client ) return; // Clients are not in the cloud
+    HashMap<String,Long> folded = StackSampler.folded(_window_ms);
+    int idx = H2O.SELF.index(), i = 0;
+    _stacks[idx] = new String[folded.size()];
+    _counts[idx] = new long[folded.size()];
+    for( Map.Entry<String,Long> e : folded.entrySet() ) {
+      _stacks[idx][i] = e.getKey();
+      _counts[idx][i] = e.getValue();
+      i++;
+    }
+  }
+
+  @Override public byte priority() { return H2O.GUI_PRIORITY; }
+}
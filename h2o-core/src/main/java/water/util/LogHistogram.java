@@ -0,0 +1,81 @@
+package water.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import water.Iced;
+
+/** A histogram of non-negative longs (e.g. nanoseconds or bytes) with
+ *  log-linear buckets, in the style of HdrHistogram: 8 linear sub-buckets
+ *  per power of two, so any recorded value is reported to within 12.5%.
+ *  Recording is lock-free and does not allocate.  {@link #snapshot} copies
+ *  the counts into a {@link Snapshot}, which can be shipped and merged. */
+public final class LogHistogram {
+  static final int SUB_BITS = 3, SUB = 1<<SUB_BITS;
+  // Values below 2*SUB get a bucket each, then SUB buckets per power of two
+  static final int NBUCKETS = 2*SUB + (63-SUB_BITS-1)*SUB;
+
+  private final AtomicLongArray _counts = new AtomicLongArray(NBUCKETS);
+  private final AtomicLong _sum = new AtomicLong(), _max = new AtomicLong();
+
+  static int bucket( long v ) {
+    if( v < 2*SUB ) return v < 0 ? 0 : (int)v;
+    int e = 63-Long.numberOfLeadingZeros(v);
+    return 2*SUB + (e-SUB_BITS-1)*SUB + (int)((v >>> (e-SUB_BITS)) & (SUB-1));
+  }
+
+  // Smallest value falling in bucket b
+  static long lowerBound( int b ) {
+    if( b < 2*SUB ) return b;
+    int e = (b-2*SUB)/SUB + SUB_BITS+1, m = (b-2*SUB)%SUB;
+    return (long)(SUB+m) << (e-SUB_BITS);
+  }
+
+  public void record( long v ) {
+    if( v < 0 ) v = 0;
+    _counts.incrementAndGet(bucket(v));
+    _sum.addAndGet(v);
+    long max;
+    while( v > (max = _max.get()) && !_max.compareAndSet(max, v) ) ;
+  }
+
+  public Snapshot snapshot() {
+    Snapshot s = new Snapshot();
+    for( int i = 0; i < NBUCKETS; i++ ) {
+      s._counts[i] = _counts.get(i);
+      s._count += s._counts[i];
+    }
+    s._sum = _sum.get();
+    s._max = _max.get();
+    return s;
+  }
+
+  /** Point-in-time copy of a histogram; merging two snapshots gives the
+   *  histogram of all values recorded in either. */
+  public static final class Snapshot extends Iced {
+    public long[] _counts = new long[NBUCKETS];
+    public long _count, _sum, _max;
+
+    public Snapshot add( Snapshot s ) {
+      ArrayUtils.add(_counts, s._counts);
+      _count += s._count;
+      _sum += s._sum;
+      _max = Math.max(_max, s._max);
+      return this;
+    }
+
+    public double mean() { return _count == 0 ? 0 : (double)_sum/_count; }
+
+    /** Approximate value at quantile q in [0,1]: the middle of the bucket
+     *  holding it, never more than the largest value seen. */
+    public long quantile( double q ) {
+      if( _count == 0 ) return 0;
+      long rank = Math.max(1, (long)Math.ceil(q*_count)), seen = 0;
+      for( int b = 0; b < NBUCKETS; b++ )
+        if( (seen += _counts[b]) >= rank ) {
+          long lo = lowerBound(b), hi = b+1 < NBUCKETS ? lowerBound(b+1) : Long.MAX_VALUE;
+          return Math.min(lo + (hi-lo)/2, _max);
+        }
+      return _max;
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package water;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.io.*;
+import java.net.Socket;
+import java.net.URLEncoder;
+import java.util.Properties;
+import water.fvec.Frame;
+
+public class HTTPSelectorThreadTest extends TestUtil {
+  @BeforeClass() public static void setup() {
+    stall_till_cloudsize(1);
+    // Start Nano server; block for starting
+    Runnable run = H2O.finalizeRequest();
+    if( run != null )
+      synchronized(run) {
+        while( water.api.RequestServer.SERVER==null )
+          try { run.wait(); }
+          catch( InterruptedException ignore ) {}
+      }
+  }
+
+  private static Socket connect() throws IOException {
+    Socket s = new Socket(H2O.SELF_ADDRESS, H2O.API_PORT);
+    s.setSoTimeout(60*1000);
+    return s;
+  }
+
+  private static String readLine(InputStream in) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for( int b; (b = in.read()) != '\n'; ) {
+      if( b == -1 ) return sb.length() == 0 ? null : sb.toString();
+      if( b != '\r' ) sb.append((char)b);
+    }
+    return sb.toString();
+  }
+
+  // Read one response: headers into hdr (lowercase names), returns the body
+  private static String readResponse(InputStream in, Properties hdr) throws IOException {
+    String status = readLine(in);
+    hdr.setProperty("status", status);
+    for( String l; (l = readLine(in)).length() > 0; ) {
+      int p = l.indexOf(':');
+      hdr.setProperty(l.substring(0,p).trim().toLowerCase(), l.substring(p+1).trim());
+    }
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    if( "chunked".equals(hdr.getProperty("transfer-encoding")) ) {
+      for( int n; (n = Integer.parseInt(readLine(in), 16)) > 0; ) {
+        for( int i = 0; i < n; i++ ) body.write(in.read());
+        assertEquals("", readLine(in));
+      }
+      assertEquals("", readLine(in));
+    } else if( hdr.getProperty("content-length") != null ) {
+      int n = Integer.parseInt(hdr.getProperty("content-length"));
+      for( int i = 0; i < n; i++ ) body.write(in.read());
+    } else {
+      for( int b; (b = in.read()) != -1; ) body.write(b);
+    }
+    return body.toString();
+  }
+
+  // Several requests over one keep-alive connection, some of them pipelined
+  @Test public void testKeepAlive() throws IOException {
+    try( Socket s = connect() ) {
+      OutputStream out = s.getOutputStream();
+      InputStream in = new BufferedInputStream(s.getInputStream());
+      String req = "GET /Cloud.json HTTP/1.1\r\nHost: localhost\r\n\r\n";
+      out.write((req+req).getBytes());
+      out.flush();
+      for( int i = 0; i < 3; i++ ) {
+        Properties hdr = new Properties();
+        String body = readResponse(in, hdr);
+        assertEquals("HTTP/1.1 200 OK", hdr.getProperty("status").trim());
+        assertEquals("keep-alive", hdr.getProperty("connection"));
+        assertTrue(body, body.startsWith("{") && body.contains("cloud_name"));
+        if( i == 1 ) { out.write(req.getBytes()); out.flush(); }
+      }
+      // A POST with a body, on the same connection
+      String post = "junk=1";
+      out.write(("POST /Cloud.json HTTP/1.1\r\nHost: localhost\r\nContent-Length: "+post.length()+"\r\n\r\n"+post).getBytes());
+      out.flush();
+      Properties hdr = new Properties();
+      readResponse(in, hdr);
+      assertNotNull(hdr.getProperty("status"));
+    }
+  }
+
+  // HTTP/1.0 clients get one response, then the connection is closed
+  @Test public void testHTTP10() throws IOException {
+    try( Socket s = connect() ) {
+      s.getOutputStream().write("GET /Cloud.json HTTP/1.0\r\n\r\n".getBytes());
+      InputStream in = new BufferedInputStream(s.getInputStream());
+      Properties hdr = new Properties();
+      String body = readResponse(in, hdr);
+      assertEquals("HTTP/1.0 200 OK", hdr.getProperty("status").trim());
+      assertEquals("close", hdr.getProperty("connection"));
+      assertTrue(body, body.contains("cloud_name"));
+      assertEquals(-1, in.read());
+    }
+  }
+
+  // Responses of unknown length are sent chunked
+  @Test public void testChunked() throws IOException {
+    Frame fr = parse_test_file("smalldata/iris/iris_wheader.csv");
+    try( Socket s = connect() ) {
+      String req = "GET /DownloadDataset?key="+URLEncoder.encode(fr._key.toString(), "UTF-8")+" HTTP/1.1\r\nHost: localhost\r\n\r\n";
+      OutputStream out = s.getOutputStream();
+      InputStream in = new BufferedInputStream(s.getInputStream());
+      for( int i = 0; i < 2; i++ ) {
+        out.write(req.getBytes());
+        out.flush();
+        Properties hdr = new Properties();
+        String csv = readResponse(in, hdr);
+        assertEquals("HTTP/1.1 200 OK", hdr.getProperty("status").trim());
+        assertEquals("chunked", hdr.getProperty("transfer-encoding"));
+        assertEquals(fr.numRows()+1, csv.trim().split("\n").length);
+      }
+    } finally {
+      fr.delete();
+    }
+  }
+
+  // Requests which cannot be read are answered with an error
+  @Test public void testBadRequest() throws IOException {
+    try( Socket s = connect() ) {
+      StringBuilder sb = new StringBuilder("GET /Cloud.json?");
+      while( sb.length() < HTTPSelectorThread.MAX_HEADER_BUFFER_SIZE ) sb.append("x=1&");
+      s.getOutputStream().write(sb.toString().getBytes());
+      InputStream in = new BufferedInputStream(s.getInputStream());
+      Properties hdr = new Properties();
+      readResponse(in, hdr);
+      assertTrue(hdr.getProperty("status"), hdr.getProperty("status").contains(NanoHTTPD.HTTP_TOOLONGREQUEST));
+    }
+  }
+
+  // Bodies are buffered as they arrive; one past the limit is refused up front
+  @Test public void testLargeBody() throws IOException {
+    try( Socket s = connect() ) {
+      OutputStream out = s.getOutputStream();
+      InputStream in = new BufferedInputStream(s.getInputStream());
+      StringBuilder sb = new StringBuilder("junk=");
+      while( sb.length() < 1<<20 ) sb.append('x');
+      String post = sb.toString();
+      for( int i = 0; i < 2; i++ ) {
+        out.write(("POST /Cloud.json HTTP/1.1\r\nHost: localhost\r\nContent-Length: "+post.length()+"\r\n\r\n"+post).getBytes());
+        out.flush();
+        Properties hdr = new Properties();
+        readResponse(in, hdr);
+        assertEquals("keep-alive", hdr.getProperty("connection"));
+      }
+      out.write(("POST /Cloud.json HTTP/1.1\r\nHost: localhost\r\nContent-Length: "+(HTTPSelectorThread.MAX_BODY_SIZE+1L)+"\r\n\r\n").getBytes());
+      out.flush();
+      Properties hdr = new Properties();
+      readResponse(in, hdr);
+      assertTrue(hdr.getProperty("status"), hdr.getProperty("status").contains(NanoHTTPD.HTTP_TOOLARGE));
+      assertEquals("close", hdr.getProperty("connection"));
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package water;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.util.Arrays;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+
+public class JobCostTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  // Copies each chunk out, so there is some allocation to charge
+  private static class Sum extends MRTask<Sum> {
+    double _sum;
+    @Override public void map( Chunk c ) {
+      double[] ds = new double[c._len];
+      for( int i = 0; i < c._len; i++ ) ds[i] = c.at0(i);
+      for( double d : ds ) _sum += d;
+    }
+    @Override public void reduce( Sum s ) { _sum += s._sum; }
+  }
+
+  @Test public void testCharged() throws java.io.IOException {
+    final Frame fr = parse_test_file("smalldata/logreg/prostate.csv");
+    final Job job = new Job(null, "JobCostTest");
+    final Key[] current = new Key[1];
+    final Value[] made = new Value[1];
+    try {
+      job.start(new H2O.H2OCountedCompleter() {
+          @Override protected void compute2() {
+            current[0] = JobCost.current();
+            for( int i = 0; i < 5; i++ ) new Sum().doAll(fr);
+            made[0] = new Value(Key.make(), new byte[1<<12]);
+            job.done();
+            tryComplete();
+          }
+        }, 1);
+      job._barrier.join();
+      assertEquals(job._key, current[0]);
+      assertNull(JobCost.current());
+
+      long[] cost = JobCost.collect(job._key).get(job._key);
+      assertNotNull(cost);
+      assertTrue(Arrays.toString(cost), cost[JobCost.CPU_NANOS] > 0);
+      assertTrue(Arrays.toString(cost), cost[JobCost.ALLOC_BYTES] > 0);
+      assertTrue(Arrays.toString(cost), cost[JobCost.NET_BYTES] >= 0);
+      assertTrue(Arrays.toString(cost), cost[JobCost.CHUNKS] >= 5L*fr.anyVec().nChunks()*fr.numCols());
+
+      // Work outside of the Job is not charged to it
+      new Sum().doAll(fr);
+      assertArrayEquals(cost, JobCost.collect(job._key).get(job._key));
+
+      // Swapping out a Value, as the Cleaner does outside of any Job, is
+      // charged to the Job which made it
+      made[0].storePersist();
+      try {
+        long[] stored = JobCost.collect(job._key).get(job._key);
+        assertEquals(cost[JobCost.DISK_BYTES]+(1<<12), stored[JobCost.DISK_BYTES]);
+        cost = stored;
+      } finally {
+        made[0].removePersist();
+      }
+
+      JobCost.Report report = new JobCost.Report();
+      report.execImpl();
+      int j = Arrays.asList(report.jobs).indexOf(job._key);
+      assertTrue(j >= 0);
+      assertEquals("JobCostTest", report.descriptions[j]);
+      assertArrayEquals(cost, report.cost[j]);
+      String json = new String(new water.api.JobsCostV2().fillFromImpl(report).writeJSON(new AutoBuffer()).buf());
+      assertTrue(json, json.contains("cpu_nanos"));
+
+      // Removing the Job drops its charges
+      job.remove();
+      assertNull(JobCost.collect(job._key).get(job._key));
+    } finally {
+      fr.delete();
+    }
+  }
+}
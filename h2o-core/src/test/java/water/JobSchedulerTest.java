@@ -0,0 +1,173 @@
+package water;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import jsr166y.ForkJoinPool;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+
+public class JobSchedulerTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  // Waits on the latch for up to msecs, letting the F/J pool make up for the
+  // blocked thread
+  static void await( final CountDownLatch latch, final long msecs ) {
+    try {
+      ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+          @Override public boolean block() throws InterruptedException { latch.await(msecs, TimeUnit.MILLISECONDS); return true; }
+          @Override public boolean isReleasable() { return latch.getCount() == 0; }
+        });
+    } catch( InterruptedException ignore ) { }
+  }
+
+  // Holds its slot until let go
+  static CountDownLatch ENTERED, GO;
+  private static class Block extends MRTask<Block> {
+    @Override public void map( Chunk c ) { ENTERED.countDown(); await(GO, Long.MAX_VALUE); }
+  }
+
+  // Records the order tasks got their slots in
+  static final ArrayList<String> ORDER = new ArrayList<>();
+  private static class Rec extends MRTask<Rec> {
+    final String _name;
+    Rec( String name ) { _name = name; }
+    @Override public void setupLocal() { synchronized( ORDER ) { ORDER.add(_name); } }
+  }
+
+  // Tracks how many run their map at once
+  static final AtomicInteger ACTIVE = new AtomicInteger(), MAX_ACTIVE = new AtomicInteger();
+  private static class Busy extends MRTask<Busy> {
+    @Override public void map( Chunk c ) {
+      int a = ACTIVE.incrementAndGet();
+      while( a > MAX_ACTIVE.get() && !MAX_ACTIVE.compareAndSet(MAX_ACTIVE.get(), a) ) ;
+      await(new CountDownLatch(1), 200);
+      ACTIVE.decrementAndGet();
+    }
+  }
+
+  // A Job whose driver forks the given tasks at once, then waits on them all
+  private static Job start( String desc, double weight, int max_tasks, final MRTask[] tasks, final Vec vec ) {
+    final Job job = new Job(null, desc);
+    job._weight = weight;
+    job._max_tasks = max_tasks;
+    return job.start(new H2O.H2OCountedCompleter() {
+        @Override protected void compute2() {
+          for( MRTask t : tasks ) t.dfork(vec);
+          for( MRTask t : tasks ) t.getResult();
+          job.done();
+          tryComplete();
+        }
+      }, tasks.length);
+  }
+
+  @Test public void testWeightedShares() throws InterruptedException {
+    int slots = H2O.ARGS.job_slots;
+    Vec vec = Vec.makeZero(10);
+    H2O.ARGS.job_slots = 1;
+    try {
+      ENTERED = new CountDownLatch(1);
+      GO = new CountDownLatch(1);
+      Job c = start("blocker", 1, 0, new MRTask[]{new Block()}, vec);
+      ENTERED.await();          // The only slot is taken
+      Job a = start("a", 1, 0, new MRTask[]{new Rec("a"), new Rec("a"), new Rec("a")}, vec);
+      Job b = start("b", 2, 0, new MRTask[]{new Rec("b"), new Rec("b"), new Rec("b")}, vec);
+      while( JobScheduler.waiting() < 6 ) Thread.sleep(10);
+      GO.countDown();
+      for( Job j : new Job[]{a, b, c} ) j._barrier.join();
+      assertEquals(ORDER.toString(), 6, ORDER.size());
+      // Twice the weight, twice the share while both wait
+      int bs = 0;
+      for( String s : ORDER.subList(0, 3) ) if( s.equals("b") ) bs++;
+      assertEquals(ORDER.toString(), 2, bs);
+    } finally {
+      H2O.ARGS.job_slots = slots;
+      vec.remove();
+    }
+  }
+
+  @Test public void testMaxTasks() {
+    Vec vec = Vec.makeZero(10);
+    try {
+      MAX_ACTIVE.set(0);
+      start("one at a time", 1, 1, new MRTask[]{new Busy(), new Busy(), new Busy()}, vec)._barrier.join();
+      assertEquals(1, MAX_ACTIVE.get());
+      // Work outside of a Job is never held back
+      MAX_ACTIVE.set(0);
+      Busy[] bs = new Busy[]{new Busy(), new Busy(), new Busy()};
+      for( Busy b : bs ) b.dfork(vec);
+      for( Busy b : bs ) b.getResult();
+      assertEquals(3, MAX_ACTIVE.get());
+    } finally {
+      vec.remove();
+    }
+  }
+
+  @Test public void testAdmission() throws InterruptedException {
+    Vec vec = Vec.makeZero(10);
+    ENTERED = new CountDownLatch(1);
+    GO = new CountDownLatch(1);
+    try {
+      Job running = start("running", 1, 0, new MRTask[]{new Block()}, vec);
+      ENTERED.await();
+      MemoryManager.setMemLow();
+      Job queued, cancelled;
+      try {
+        queued = start("queued", 1, 0, new MRTask[]{new Rec("q")}, vec);
+        cancelled = start("cancelled", 1, 0, new MRTask[]{new Rec("c")}, vec);
+        assertEquals(Job.JobState.QUEUED, queued._state);
+        assertEquals(Job.JobState.QUEUED, DKV.get(queued._key).<Job>get()._state);
+        cancelled.cancel();
+        cancelled._barrier.join(); // Released without ever running
+      } finally {
+        MemoryManager.setMemGood();
+      }
+      queued._barrier.join();
+      assertTrue(queued.isDone());
+      assertEquals(Job.JobState.CANCELLED, cancelled._state);
+      assertEquals(0, cancelled.msec());
+      GO.countDown();
+      running._barrier.join();
+      assertTrue(running.isDone());
+    } finally {
+      GO.countDown();
+      vec.remove();
+    }
+  }
+
+  // A queued Job stopped elsewhere, as seen before its queue hears of it:
+  // admitting it must not run it
+  @Test public void testStoppedElsewhere() throws InterruptedException {
+    Vec vec = Vec.makeZero(10);
+    ENTERED = new CountDownLatch(1);
+    GO = new CountDownLatch(1);
+    try {
+      Job running = start("running", 1, 0, new MRTask[]{new Block()}, vec);
+      ENTERED.await();
+      MemoryManager.setMemLow();
+      Job queued;
+      try {
+        queued = start("stopped elsewhere", 1, 0, new MRTask[]{new Rec("x")}, vec);
+        assertEquals(Job.JobState.QUEUED, queued._state);
+        new TAtomic<Job>() {
+          @Override public Job atomic(Job old) { old._state = Job.JobState.CANCELLED; return old; }
+        }.invoke(queued._key);
+      } finally {
+        MemoryManager.setMemGood();
+      }
+      queued._barrier.join();
+      assertEquals(Job.JobState.CANCELLED, queued._state);
+      synchronized( ORDER ) { assertFalse(ORDER.contains("x")); }
+      GO.countDown();
+      running._barrier.join();
+      assertTrue(running.isDone());
+    } finally {
+      GO.countDown();
+      vec.remove();
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package water;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.util.concurrent.CountDownLatch;
+
+import water.fvec.Frame;
+
+public class LockableTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static Key jobKey() { return Key.make((byte)0, Key.JOB, false, H2O.SELF); }
+
+  @Test public void testReadBlocksWrite() {
+    Frame fr = frame(new double[]{1,2,3});
+    Key job = jobKey();
+    try {
+      fr.read_lock(job);
+      try {
+        new Frame(fr._key, fr.names(), fr.vecs()).delete_and_lock(jobKey());
+        fail("write-locked a read-locked Key");
+      } catch( IllegalArgumentException expected ) { }
+      assertArrayEquals(new Key[]{null, job}, fr.lockers());
+      fr.unlock(job);
+      assertNull(fr.lockers());
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test public void testUpgrade() {
+    Frame fr = frame(new double[]{1,2,3});
+    Key job = jobKey();
+    try {
+      fr.read_lock(job);
+      fr.write_lock(job);
+      assertArrayEquals(new Key[]{job}, fr.lockers());
+      try {
+        fr.read_lock(jobKey());
+        fail("read-locked a write-locked Key");
+      } catch( IllegalArgumentException expected ) { }
+      fr.unlock(job);
+      assertNull(fr.lockers());
+    } finally {
+      fr.delete();
+    }
+  }
+
+  // Unlocking a reader leaves the mapped Value alone
+  @Test public void testReadUnlock() {
+    Frame fr = frame(new double[]{1,2,3});
+    Key job = jobKey();
+    try {
+      Value val = DKV.get(fr._key);
+      fr.read_lock(job);
+      fr.unlock(job);
+      assertSame(val, DKV.get(fr._key));
+    } finally {
+      fr.delete();
+    }
+  }
+
+  // Locks held by Jobs whose driver is done are broken
+  @Test public void testExpiredLease() {
+    Frame fr = frame(new double[]{1,2,3});
+    final Job job = new Job(null, "stale reader");
+    job.start(new H2O.H2OCountedCompleter() {
+        @Override protected void compute2() { job.done(); tryComplete(); }
+      }, 1);
+    job._barrier.join();
+    fr.read_lock(job._key);
+    fr.delete();                // Does not throw
+    assertNull(DKV.get(fr._key));
+  }
+
+  // A Job stopped while its driver still runs keeps its locks
+  @Test public void testStoppedRunning() {
+    Frame fr = frame(new double[]{1,2,3});
+    final CountDownLatch go = new CountDownLatch(1);
+    final Job job = new Job(null, "stopped reader");
+    job.start(new H2O.H2OCountedCompleter() {
+        @Override protected void compute2() { job.done(); JobSchedulerTest.await(go, Long.MAX_VALUE); tryComplete(); }
+      }, 1);
+    try {
+      fr.read_lock(job._key);
+      while( !DKV.get(job._key).<Job>get().isStopped() ) Thread.yield();
+      try {
+        fr.delete();
+        fail("broke the lock of a running driver");
+      } catch( IllegalArgumentException expected ) { }
+    } finally {
+      go.countDown();
+      job._barrier.join();
+      fr.delete();
+    }
+  }
+
+  // Unlocking by a Job not holding a lock does nothing
+  @Test public void testUnlockNotLocked() {
+    Frame fr = frame(new double[]{1,2,3});
+    Key job = jobKey();
+    try {
+      fr.unlock(jobKey());
+      assertNull(fr.lockers());
+      fr.read_lock(job);
+      fr.unlock(jobKey());
+      assertArrayEquals(new Key[]{null, job}, fr.lockers());
+      fr.unlock(job);
+      assertNull(fr.lockers());
+    } finally {
+      fr.delete();
+    }
+  }
+
+  // A Key removed without locking leaves no locks behind
+  @Test public void testRemoved() {
+    Frame fr = frame(new double[]{1,2,3});
+    fr.read_lock(jobKey());
+    fr.remove();
+    fr = frame(fr._key, null, new double[]{4,5,6});
+    try {
+      assertNull(fr.lockers());
+    } finally {
+      fr.delete();
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package water;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import water.cascade.Exec;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.IcedInt;
+
+public class ResultCacheTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testInputs() {
+    Frame r = frame(new double[]{1,2,3});
+    Key ahex = Key.make("a.hex");
+    Frame fr = new Frame(ahex, null, r.vecs());
+    DKV.put(ahex, fr);
+    try {
+      Frame[] in = Exec.inputs("(+ (mean $a.hex) $TRUE)");
+      assertEquals(1, in.length);
+      assertEquals(ahex, in[0]._key);
+      assertEquals(0, Exec.inputs("(+ #1 #2)").length);
+      assertEquals(0, Exec.inputs("(n \"$a.hex\" #5)").length);
+      assertNull(Exec.inputs("(= !b.hex (+ $a.hex #1))"));
+      assertNull(Exec.inputs("(runif $a.hex #-1)"));
+      assertNull(Exec.inputs("(ls)"));
+    } finally {
+      fr.delete();
+      r.delete();
+    }
+  }
+
+  @Test public void testVersions() {
+    Frame fr = frame(new double[]{1,2,3});
+    try {
+      String key = ResultCache.key("test", fr);
+      assertNull(ResultCache.get(key));
+      ResultCache.put(key, new IcedInt(6), fr);
+      assertEquals(6, ((IcedInt)ResultCache.get(key))._val);
+      assertEquals(key, ResultCache.key("test", fr));
+
+      // Writing a Vec drops its results, and changes the lookup
+      int size = ResultCache.size();
+      Vec vec = fr.vecs()[0];
+      vec.set(0, 4);
+      assertEquals(size-1, ResultCache.size());
+      String key2 = ResultCache.key("test", fr);
+      assertNotEquals(key, key2);
+      assertNull(ResultCache.get(key2));
+
+      // So does removing it
+      ResultCache.put(key2, new IcedInt(9), fr);
+      assertNotNull(ResultCache.get(key2));
+      fr.delete();
+      assertEquals(size-1, ResultCache.size());
+      fr = null;
+    } finally {
+      if( fr != null ) fr.delete();
+    }
+  }
+
+  // Permuting rows changes no checksum, but still the lookup - even where
+  // the old result was kept, e.g. on a node which did not write
+  @Test public void testPermuted() {
+    Frame fr = frame(new double[][]{{1},{2},{3}});
+    try {
+      String key = ResultCache.key("test", fr);
+      Vec vec = fr.vecs()[0];
+      long sum = vec.checksum();
+      vec.set(0, 2);
+      vec.set(1, 1);
+      assertEquals(sum, vec.checksum());
+      ResultCache.put(key, new IcedInt(1), fr); // Stale by now: not kept
+      assertNull(ResultCache.get(key));
+      String key2 = ResultCache.key("test", fr);
+      assertNotEquals(key, key2);
+      assertNull(ResultCache.get(key2));
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test public void testMemLow() {
+    Frame fr = frame(new double[]{1,2,3});
+    try {
+      String key = ResultCache.key("test", fr);
+      ResultCache.put(key, new IcedInt(6), fr);
+      assertNotNull(ResultCache.get(key));
+      MemoryManager.setMemLow();
+      MemoryManager.setMemGood();
+      assertNull(ResultCache.get(key));
+    } finally {
+      fr.delete();
+    }
+  }
+}
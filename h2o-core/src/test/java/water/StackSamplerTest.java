@@ -0,0 +1,49 @@
+package water;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import water.util.FlameGraph;
+
+public class StackSamplerTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  static long spinForStackSamplerTest() {
+    long x = 0, end = System.currentTimeMillis()+1500;
+    while( System.currentTimeMillis() < end ) x++;
+    return x;
+  }
+
+  @Test public void testFolded() throws InterruptedException {
+    H2O.H2OCountedCompleter spin = H2O.submitTask(new H2O.H2OCountedCompleter() {
+        @Override protected void compute2() { spinForStackSamplerTest(); tryComplete(); }
+        @Override public byte priority() { return H2O.MIN_HI_PRIORITY; }
+      });
+    for( int i = 0; i < 10; i++ ) {
+      Thread.sleep(50);
+      StackSampler.sample(System.currentTimeMillis());
+    }
+    spin.join();
+
+    FlameGraph fg = new FlameGraph();
+    fg.execImpl();
+    assertTrue(fg.samples >= 10);
+    boolean found = false;
+    for( String line : fg.folded.split("\n") ) {
+      int sp = line.lastIndexOf(' ');
+      assertTrue(line, sp > 0 && Long.parseLong(line.substring(sp+1)) > 0);
+      if( line.contains("StackSamplerTest.spinForStackSamplerTest") ) {
+        found = true;
+        assertTrue(line, line.startsWith("FJ-"+H2O.MIN_HI_PRIORITY+";"));
+      }
+    }
+    assertTrue(fg.folded, found);
+
+    // Per node, and the most recent window only
+    fg = new FlameGraph();
+    fg.node = 0;
+    fg.window_secs = 60;
+    fg.execImpl();
+    assertTrue(fg.samples > 0);
+  }
+}
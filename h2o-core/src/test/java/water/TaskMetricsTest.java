@@ -0,0 +1,60 @@
+package water;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.util.LogHistogram;
+
+public class TaskMetricsTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testHistogram() {
+    LogHistogram h = new LogHistogram();
+    Random r = new Random(1234);
+    long[] vs = new long[10000];
+    for( int i = 0; i < vs.length; i++ ) h.record(vs[i] = (long)Math.exp(r.nextDouble()*30));
+    Arrays.sort(vs);
+    LogHistogram.Snapshot s = h.snapshot();
+    assertEquals(vs.length, s._count);
+    assertEquals(vs[vs.length-1], s._max);
+    for( double q : new double[]{0.01, 0.5, 0.9, 0.99} ) {
+      long exact = vs[(int)Math.ceil(q*vs.length)-1];
+      assertEquals("quantile "+q, exact, s.quantile(q), exact*0.125+1);
+    }
+    // Merging adds up counts
+    LogHistogram.Snapshot s2 = h.snapshot().add(s);
+    assertEquals(2*vs.length, s2._count);
+    assertEquals(s.quantile(0.5), s2.quantile(0.5));
+  }
+
+  private static class Sum extends MRTask<Sum> {
+    double _sum;
+    @Override public void map( Chunk c ) { for( int i = 0; i < c._len; i++ ) _sum += c.at0(i); }
+    @Override public void reduce( Sum s ) { _sum += s._sum; }
+  }
+
+  @Test public void testReport() {
+    Frame fr = parse_test_file("smalldata/logreg/prostate.csv");
+    try {
+      new Sum().doAll(fr);
+      TaskMetrics.Report report = new TaskMetrics.Report();
+      report.execImpl();
+      int t = Arrays.asList(report.tasks).indexOf(Sum.class.getName());
+      assertTrue(t >= 0);
+      assertTrue(report.count[t][TaskMetrics.MAP] >= fr.anyVec().nChunks());
+      assertTrue(report.sum[t][TaskMetrics.MAP] > 0);
+      assertEquals(H2O.CLOUD.size(), report.queue_depth.length);
+      String prom = report.toPrometheus();
+      assertTrue(prom, prom.contains("h2o_task_map_seconds_count{task=\""+Sum.class.getName()+"\"} "));
+      assertTrue(prom, prom.contains("h2o_fj_queue_depth{node="));
+      String json = new String(new water.api.MetricsV1().fillFromImpl(report).writeJSON(new AutoBuffer()).buf());
+      assertTrue(json, json.contains(Sum.class.getName()));
+    } finally {
+      fr.delete();
+    }
+  }
+}
@@ -249,7 +249,7 @@ public class TestUtil extends Iced {
                 return;
               }
             }
-          } else if (c0 instanceof CStrChunk && c1 instanceof CStrChunk) {
+          } else if (c0.isString() && c1.isString()) {
             if (!(c0.isNA0(rows) && c1.isNA0(rows))) {
               ValueString v0 = new ValueString(), v1 = new ValueString();
               c0.atStr0(v0, rows); c1.atStr0(v1, rows);
@@ -2,10 +2,13 @@ package water.cascade;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
+import static org.junit.Assert.*;
 import water.DKV;
+import water.Futures;
 import water.Key;
 import water.TestUtil;
-import water.fvec.Frame;
+import water.fvec.*;
+import water.parser.ValueString;
 
 public class CascadeTest extends TestUtil {
   @BeforeClass public static void setup() { stall_till_cloudsize(1); }
@@ -73,6 +76,39 @@ public class CascadeTest extends TestUtil {
     checkTree(tree);
   }
 
+  @Test public void testStrEQ() {
+    // Checking `hex == "..."` on a String column, with missing values
+    Futures fs = new Futures();
+    AppendableVec av = new AppendableVec(Vec.VectorGroup.VG_LEN1.addVecs(1)[0]);
+    NewChunk nc = new NewChunk(av, 0);
+    for (int i = 0; i < 100; ++i)
+      if (i%10 == 0) nc.addNA();
+      else nc.addStr(new ValueString().setTo("/user/data/part-"+(i%3)));
+    nc.close(0, fs);
+    Vec v = av.close(fs);
+    fs.blockForPending();
+    Key shex = Key.make("s.hex");
+    Frame fr = new Frame(shex, null, new Vec[]{v});
+    DKV.put(shex, fr);
+    try {
+      Frame eq = ((ValFrame)Exec.exec("(n $s.hex \"/user/data/part-1\")").pop())._fr;
+      Frame ne = ((ValFrame)Exec.exec("(N $s.hex \"/user/data/part-1\")").pop())._fr;
+      for (int i = 0; i < 100; ++i) {
+        if (i%10 == 0) {
+          assertTrue(eq.vecs()[0].isNA(i));
+          assertTrue(ne.vecs()[0].isNA(i));
+        } else {
+          assertEquals(i%3 == 1 ? 1 : 0, eq.vecs()[0].at(i), 0);
+          assertEquals(i%3 == 1 ? 0 : 1, ne.vecs()[0].at(i), 0);
+        }
+      }
+      eq.delete();
+      ne.delete();
+    } finally {
+      fr.delete();
+    }
+  }
+
   private static void checkTree(String tree) {
     Frame r = frame(new double[]{-1,1,2,3,4,5,6,254});
     Key ahex = Key.make("a.hex");
@@ -0,0 +1,50 @@
+package water.fvec;
+
+import org.junit.*;
+
+import water.TestUtil;
+import java.util.Arrays;
+import java.util.Random;
+
+public class CDeltaChunkTest extends TestUtil {
+  @Test
+  public void test_inflate_impl() {
+    for (int l=0; l<2; ++l) {
+      NewChunk nc = new NewChunk(null, 0);
+      // Millisecond timestamps, sampled about once a second with jitter and gaps
+      Random rng = new Random(42);
+      long [] vals = new long[10000];
+      long t = 1412345678000L;
+      for (int i = 0; i < vals.length; ++i) vals[i] = (t += 1000 + rng.nextInt(20));
+      if (l==1) nc.addNA();
+      for (int i = 0; i < vals.length; ++i)
+        if (i%997 == 5) nc.addNA();
+        else nc.addNum(vals[i], 0);
+      nc.addNA();
+
+      Chunk cc = nc.compress();
+      Assert.assertEquals(vals.length + 1 + l, cc._len);
+      Assert.assertTrue(cc instanceof CDeltaChunk);
+      Assert.assertTrue(cc._mem.length < vals.length*2);
+      if (l==1) Assert.assertTrue(cc.isNA0(0));
+      for (int i = 0; i < vals.length; ++i) {
+        Assert.assertEquals(i%997 == 5, cc.isNA0(l+i));
+        if (i%997 != 5) Assert.assertEquals(vals[i], cc.at80(l+i));
+      }
+      Assert.assertTrue(cc.isNA0(vals.length+l));
+      double [] ds = cc.getDoubles(new double[cc._len], 0, cc._len);
+      for (int i = 0; i < cc._len; ++i) Assert.assertEquals(cc.at0(i), ds[i], 0);
+      ds = cc.getDoubles(new double[100], 4321, 4421);
+      for (int i = 0; i < 100; ++i) Assert.assertEquals(cc.at0(4321+i), ds[i], 0);
+
+      nc = cc.inflate_impl(new NewChunk(null, 0));
+      Assert.assertEquals(vals.length + 1 + l, nc._len);
+      for (int i = 0; i < vals.length; ++i)
+        if (i%997 != 5) Assert.assertEquals(vals[i], nc.at80(l+i));
+
+      Chunk cc2 = nc.compress();
+      Assert.assertTrue(cc2 instanceof CDeltaChunk);
+      Assert.assertTrue(Arrays.equals(cc._mem, cc2._mem));
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package water.fvec;
+
+import org.junit.*;
+
+import water.TestUtil;
+import java.util.Arrays;
+import java.util.Random;
+
+public class CNSChunkTest extends TestUtil {
+  // Random values in [lo,lo+range), with every 101st row missing
+  private static NewChunk fill( long [] vals, long lo, int range, int exp ) {
+    NewChunk nc = new NewChunk(null, 0);
+    Random rng = new Random(42);
+    for (int i = 0; i < vals.length; ++i) {
+      vals[i] = lo + rng.nextInt(range);
+      if (i%101 == 7) nc.addNA();
+      else nc.addNum(vals[i], exp);
+    }
+    return nc;
+  }
+
+  @Test
+  public void test_inflate_impl() {
+    int [] ranges = {21, 100001};
+    int [] bpvs   = {5, 17};
+    for (int r = 0; r < ranges.length; ++r) {
+      long [] vals = new long[5000];
+      Chunk cc = fill(vals, -7, ranges[r], 0).compress();
+      Assert.assertEquals(vals.length, cc._len);
+      Assert.assertTrue(cc instanceof CNSChunk);
+      Assert.assertEquals(bpvs[r], ((CNSChunk)cc).bpv());
+      Assert.assertTrue(cc._mem.length < vals.length*bpvs[r]/8 + 64);
+      for (int i = 0; i < vals.length; ++i) {
+        Assert.assertEquals(i%101 == 7, cc.isNA0(i));
+        if (i%101 != 7) Assert.assertEquals(vals[i], cc.at80(i));
+      }
+      int [] is = cc.getIntegers(new int[cc._len], 0, cc._len, Integer.MIN_VALUE);
+      double [] ds = cc.getDoubles(new double[333], 1234, 1567);
+      for (int i = 0; i < cc._len; ++i)
+        Assert.assertEquals(i%101 == 7 ? Integer.MIN_VALUE : vals[i], is[i]);
+      for (int i = 0; i < ds.length; ++i) Assert.assertEquals(cc.at0(1234+i), ds[i], 0);
+
+      NewChunk nc = cc.inflate_impl(new NewChunk(null, 0));
+      Assert.assertEquals(vals.length, nc._len);
+      for (int i = 0; i < vals.length; ++i)
+        if (i%101 != 7) Assert.assertEquals(vals[i], nc.at80(i));
+      Chunk cc2 = nc.compress();
+      Assert.assertTrue(cc2 instanceof CNSChunk);
+      Assert.assertTrue(Arrays.equals(cc._mem, cc2._mem));
+    }
+  }
+
+  @Test
+  public void test_decimals() {
+    long [] vals = new long[3000];
+    Chunk cc = fill(vals, 0, 1000, -2).compress(); // 0.00 to 9.99
+    Assert.assertTrue(cc instanceof CNSChunk);
+    Assert.assertEquals(10, ((CNSChunk)cc).bpv());
+    Assert.assertTrue(cc.hasFloat());
+    double [] ds = cc.getDoubles(new double[cc._len], 0, cc._len);
+    for (int i = 0; i < vals.length; ++i) {
+      if (i%101 == 7) Assert.assertTrue(Double.isNaN(ds[i]));
+      else Assert.assertEquals(vals[i]/100.0, ds[i], 1e-10);
+      Assert.assertEquals(cc.at0(i), ds[i], 0);
+    }
+  }
+
+  @Test
+  public void test_set() {
+    long [] vals = new long[2000];
+    Chunk cc = fill(vals, 0, 21, 0).compress();
+    Assert.assertTrue(cc instanceof CNSChunk);
+    Assert.assertTrue(cc.set_impl(7, 20L));   // Was NA
+    Assert.assertTrue(cc.set_impl(8, 0L));
+    Assert.assertTrue(cc.setNA_impl(9));
+    Assert.assertFalse(cc.set_impl(10, 31L)); // The NA code
+    Assert.assertEquals(20, cc.at8_impl(7));
+    Assert.assertEquals(0, cc.at8_impl(8));
+    Assert.assertTrue(cc.isNA_impl(9));
+    Assert.assertEquals(vals[6], cc.at8_impl(6));
+    Assert.assertEquals(vals[10], cc.at8_impl(10));
+  }
+
+  @Test public void test_pack() {
+    byte [] mem = new byte[1000];
+    Random rng = new Random(1);
+    long [] vs = new long[100];
+    int [] bws = new int[100];
+    long bitoff = 0;
+    for (int i = 0; i < vs.length; ++i) {
+      bws[i] = rng.nextInt(CNSChunk.MAX_BITS+1);
+      vs[i] = bws[i] == 0 ? 0 : rng.nextLong() >>> (64-bws[i]);
+      CNSChunk.pack(mem, 0, bitoff, bws[i], vs[i]);
+      bitoff += bws[i];
+    }
+    bitoff = 0;
+    for (int i = 0; i < vs.length; ++i) {
+      Assert.assertEquals(vs[i], CNSChunk.unpack(mem, 0, bitoff, bws[i]));
+      bitoff += bws[i];
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package water.fvec;
+
+import org.junit.*;
+
+import water.TestUtil;
+import java.util.Arrays;
+
+public class CRLEChunkTest extends TestUtil {
+  @Test
+  public void test_inflate_impl() {
+    for (int l=0; l<2; ++l) {
+      NewChunk nc = new NewChunk(null, 0);
+      // Slowly changing sensor readings: runs of 100 rows, 1 decimal place, some NA runs
+      double [] vals = new double[10000];
+      for (int i = 0; i < vals.length; ++i)
+        vals[i] = (i/100)%7 == 3 ? Double.NaN : 20.5 + ((i/100)%5)*0.1;
+      if (l==1) nc.addNA();
+      for (double d : vals)
+        if (Double.isNaN(d)) nc.addNA();
+        else nc.addNum(Math.round(d*10), -1);
+      nc.addNA();
+
+      Chunk cc = nc.compress();
+      Assert.assertEquals(vals.length + 1 + l, cc._len);
+      Assert.assertTrue(cc instanceof CRLEChunk);
+      if (l==1) Assert.assertTrue(cc.isNA0(0));
+      for (int i = 0; i < vals.length; ++i) {
+        Assert.assertEquals(Double.isNaN(vals[i]), cc.isNA0(l+i));
+        if (!Double.isNaN(vals[i])) Assert.assertEquals(vals[i], cc.at0(l+i), 1e-10);
+      }
+      Assert.assertTrue(cc.isNA0(vals.length+l));
+      // Bulk decode matches the row-at-a-time one, from any starting row
+      double [] ds = cc.getDoubles(new double[cc._len], 0, cc._len);
+      for (int i = 0; i < cc._len; ++i) Assert.assertEquals(cc.at0(i), ds[i], 0);
+      ds = cc.getDoubles(new double[50], 1234, 1284);
+      for (int i = 0; i < 50; ++i) Assert.assertEquals(cc.at0(1234+i), ds[i], 0);
+
+      nc = cc.inflate_impl(new NewChunk(null, 0));
+      Assert.assertEquals(vals.length + 1 + l, nc._len);
+      for (int i = 0; i < vals.length; ++i)
+        if (!Double.isNaN(vals[i])) Assert.assertEquals(vals[i], nc.at0(l+i), 1e-10);
+
+      Chunk cc2 = nc.compress();
+      Assert.assertTrue(cc2 instanceof CRLEChunk);
+      Assert.assertTrue(Arrays.equals(cc._mem, cc2._mem));
+    }
+  }
+}
@@ -15,7 +15,8 @@ public class CStrChunkTest extends TestUtil {
       ValueString [] vals = new ValueString [1000001];
       for (int i = 0; i < vals.length; i++) {
         vals[i] = new ValueString();
-        vals[i].setTo("Foo"+i);
+        // Reversed, so neighboring rows share no prefix and nothing repeats
+        vals[i].setTo(new StringBuilder("Foo"+i).reverse().toString());
       }
       if (l==1) nc.addNA();
       for (ValueString v : vals) nc.addStr(v);
@@ -0,0 +1,64 @@
+package water.fvec;
+
+import org.junit.*;
+
+import water.TestUtil;
+import water.parser.ValueString;
+import java.util.Arrays;
+
+public class CStrPChunkTest extends TestUtil {
+  @Test
+  public void test_inflate_impl() {
+    for (int l=0; l<2; ++l) {
+      NewChunk nc = new NewChunk(null, 0);
+
+      ValueString [] vals = new ValueString [100001];
+      for (int i = 0; i < vals.length; i++) {
+        vals[i] = new ValueString();
+        vals[i].setTo("http://www.h2o.ai/product/page/"+i);
+      }
+      if (l==1) nc.addNA();
+      for (ValueString v : vals) nc.addStr(v);
+      nc.addNA();
+
+      Chunk cc = nc.compress();
+      Assert.assertEquals(vals.length + 1 + l, cc._len);
+      Assert.assertTrue(cc instanceof CStrPChunk);
+      if (l==1) Assert.assertTrue(cc.isNA0(0));
+      if (l==1) Assert.assertTrue(cc.isNA(0));
+      ValueString vs = new ValueString();
+      for (int i = 0; i < vals.length; ++i) Assert.assertEquals(vals[i], cc.atStr0(vs, l+i));
+      for (int i = 0; i < vals.length; ++i) Assert.assertEquals(vals[i], cc.atStr(vs, l+i));
+      Assert.assertTrue(cc.isNA0(vals.length+l));
+      Assert.assertTrue(cc.isNA(vals.length+l));
+
+      nc = cc.inflate_impl(new NewChunk(null, 0));
+      Assert.assertEquals(vals.length + 1 + l, nc._len);
+
+      if (l==1) Assert.assertTrue(nc.isNA0(0));
+      for (int i = 0; i < vals.length; ++i) Assert.assertEquals(vals[i], nc.atStr0(vs, l+i));
+      Assert.assertTrue(nc.isNA0(vals.length+l));
+
+      Chunk cc2 = nc.compress();
+      Assert.assertEquals(vals.length + 1 + l, cc2._len);
+      Assert.assertTrue(cc2 instanceof CStrPChunk);
+      for (int i = 0; i < vals.length; ++i) Assert.assertEquals(vals[i], cc2.atStr0(vs, l+i));
+      Assert.assertTrue(Arrays.equals(cc._mem, cc2._mem));
+    }
+  }
+
+  @Test
+  public void test_matchStr() {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < 1000; i++)
+      if (i%7 == 0) nc.addNA();
+      else nc.addStr(new ValueString().setTo("/user/data/part-"+(i/3)));
+    Chunk cc = nc.compress();
+    Assert.assertTrue(cc instanceof CStrPChunk);
+    int [] rows = new int[cc._len];
+    Assert.assertEquals(2, cc.matchStr0(new ValueString().setTo("/user/data/part-100"), rows));
+    Assert.assertArrayEquals(new int[]{300, 302}, Arrays.copyOf(rows, 2));
+    Assert.assertEquals(0, cc.matchStr0(new ValueString().setTo("/user/data/part-1000"), rows));
+    Assert.assertEquals(0, cc.matchStr0(new ValueString().setTo("/user/data/part-"), rows));
+  }
+}
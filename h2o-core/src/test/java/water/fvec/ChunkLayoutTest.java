@@ -0,0 +1,75 @@
+package water.fvec;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import water.*;
+import java.util.Random;
+
+public class ChunkLayoutTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testPlan() {
+    int target = ChunkLayout.targetChunks(1);
+    assertEquals(H2O.ARGS.chunks_per_core*H2O.NUMCPUS, target);
+    // Small data stays in one chunk
+    assertEquals(1000, ChunkLayout.rowsPerChunk(1000, 10, 80000, 1));
+    // Narrow, big data is spread across the cores
+    long nrows = 1000*1000;
+    assertEquals(Math.max((nrows+target-1)/target, ChunkLayout.MIN_CHUNK_BYTES/8), ChunkLayout.rowsPerChunk(nrows, 1, 8*nrows, 1));
+    // Very wide data keeps each column's chunks from getting tiny
+    assertTrue(ChunkLayout.rowsPerChunk(100000, 10000, 100000L*10000*2, 1)*2 >= ChunkLayout.MIN_CHUNK_BYTES);
+    // Bit-packed columns still cap out at CHUNK_SZ rows
+    assertEquals(Vec.CHUNK_SZ, ChunkLayout.rowsPerChunk(1L<<40, 1, 1L<<37, 1));
+
+    long[] espc = ChunkLayout.espc(10, 3);
+    assertArrayEquals(new long[]{0,4,7,10}, espc);
+    assertFalse(ChunkLayout.shouldRechunk(10, 15));
+    assertTrue (ChunkLayout.shouldRechunk(10, 21));
+    assertTrue (ChunkLayout.shouldRechunk(21, 10));
+  }
+
+  // One column of doubles, in nchunks chunks of rpc rows
+  private static Frame makeFrame( int nchunks, int rpc, long seed ) {
+    Futures fs = new Futures();
+    AppendableVec av = new AppendableVec(Vec.newKey());
+    Random rng = new Random(seed);
+    for( int c=0; c<nchunks; c++ ) {
+      NewChunk nc = new NewChunk(av,c);
+      for( int i=0; i<rpc; i++ ) nc.addNum(rng.nextDouble());
+      nc.close(c,fs);
+    }
+    Vec v = av.close(fs);
+    fs.blockForPending();
+    return new Frame(Key.make(), new String[]{"x"}, new Vec[]{v});
+  }
+
+  @Test public void testRechunk() {
+    // Many tiny chunks get merged; one huge chunk gets split
+    int[][] shapes = {{100,10},{1,200000}};
+    for( int[] shape : shapes ) {
+      Frame fr = makeFrame(shape[0], shape[1], 42);
+      Frame ref = makeFrame(shape[0], shape[1], 42);
+      try {
+        Vec old = fr.anyVec();
+        int plan = ChunkLayout.nChunks(fr);
+        Vec[] replaced = fr.rechunk(null);
+        assertArrayEquals(new Vec[]{old}, replaced);
+        assertNotNull(DKV.get(old._key)); // Left to the caller
+        old.remove();
+        assertEquals(plan, fr.anyVec().nChunks());
+        assertNotEquals(shape[0], plan);
+        ZoneMap zm = fr.anyVec().zoneMap(); // Zone maps kept
+        assertNotNull(zm);
+        for( int c=0; c<plan; c++ ) assertTrue(zm.known(c));
+        assertEquals(ref.numRows(), fr.numRows());
+        for( long i=0; i<fr.numRows(); i+=97 )
+          assertEquals(ref.anyVec().at(i), fr.anyVec().at(i), 0);
+        assertNull(fr.rechunk(null)); // Already to plan
+      } finally {
+        fr.delete();
+        ref.delete();
+      }
+    }
+  }
+}
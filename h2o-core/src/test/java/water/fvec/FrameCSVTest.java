@@ -0,0 +1,74 @@
+package water.fvec;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import water.*;
+import water.parser.ParseDataset2;
+
+public class FrameCSVTest extends TestUtil {
+
+  // The CSV rendered one row at a time
+  private static String serialCSV( Frame fr ) {
+    StringBuilder sb = new StringBuilder();
+    String[] names = fr.names();
+    for( int i = 0; i < names.length; i++ )
+      sb.append(i > 0 ? "," : "").append('"').append(names[i]).append('"');
+    sb.append('\n');
+    Vec[] vs = fr.vecs();
+    for( long r = 0; r < fr.numRows(); r++ ) {
+      for( int i = 0; i < vs.length; i++ ) {
+        if( i > 0 ) sb.append(',');
+        if( vs[i].isNA(r) ) continue;
+        if( vs[i].isEnum() ) sb.append('"').append(vs[i].factor(vs[i].at8(r))).append('"');
+        else if( vs[i].isInt() ) sb.append(vs[i].at8(r));
+        else sb.append(Double.toString(vs[i].at(r)));
+      }
+      sb.append('\n');
+    }
+    return sb.toString();
+  }
+
+  private static String read( InputStream is ) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    byte[] b = new byte[1000];
+    for( int n; (n = is.read(b)) != -1; ) bos.write(b, 0, n);
+    is.close();
+    return bos.toString();
+  }
+
+  @Test public void testCSV() throws IOException {
+    Key rebalancedKey = Key.make("rebalanced");
+    NFSFileVec nfs = NFSFileVec.make(find_test_file("smalldata/logreg/prostate.csv"));
+    Frame fr = null, rebalanced = null;
+    File dir = null;
+    try {
+      fr = ParseDataset2.parse(Key.make(), nfs._key);
+      RebalanceDataSet rb = new RebalanceDataSet(fr,rebalancedKey,37);
+      H2O.submitTask(rb);
+      rb.join();
+      rebalanced = DKV.get(rebalancedKey).get();
+      String expected = serialCSV(rebalanced);
+
+      assertEquals(expected, read(rebalanced.toCSV(true, false)));
+      assertEquals(expected, read(new GZIPInputStream(rebalanced.toCSV(true, false, true))));
+
+      dir = File.createTempFile("export", "");
+      assertTrue(dir.delete());
+      rebalanced.export(dir.getPath(), false, false, false);
+      StringBuilder sb = new StringBuilder();
+      for( int i = 0; i < 37; i++ )
+        sb.append(read(new FileInputStream(new File(dir, String.format("part-%05d.csv", i)))));
+      assertEquals(expected, sb.toString());
+    } finally {
+      if( fr != null ) fr.delete();
+      if( rebalanced != null ) rebalanced.delete();
+      if( dir != null && dir.isDirectory() ) {
+        for( File f : dir.listFiles() ) f.delete();
+        dir.delete();
+      }
+    }
+  }
+}
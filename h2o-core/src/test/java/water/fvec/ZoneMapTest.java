@@ -0,0 +1,84 @@
+package water.fvec;
+
+import org.junit.*;
+
+import water.AutoBuffer;
+import water.DKV;
+import water.Futures;
+import water.Key;
+import water.TestUtil;
+
+public class ZoneMapTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  // One Chunk per row of vals; NaN for missing
+  private static Vec makeVec( Key key, double[][] vals ) {
+    Futures fs = new Futures();
+    AppendableVec av = new AppendableVec(key);
+    for( int c=0; c<vals.length; c++ ) {
+      NewChunk nc = new NewChunk(av,c);
+      for( double d : vals[c] ) nc.addNum(d);
+      nc.close(c,fs);
+    }
+    Vec v = av.close(fs);
+    fs.blockForPending();
+    return v;
+  }
+
+  @Test public void testZoneMap() {
+    Key[] keys = new Vec.VectorGroup().addVecs(2);
+    // Sorted data, plus a predicate that is all-0, all-1, mixed and all-NA
+    double[][] data = new double[4][100];
+    double[][] pred = new double[4][100];
+    for( int c=0; c<4; c++ )
+      for( int i=0; i<100; i++ ) {
+        data[c][i] = c*1000+i*0.5;
+        pred[c][i] = c==0 ? 0 : c==1 ? 1 : c==2 ? i&1 : Double.NaN;
+      }
+    data[3][7] = Double.NaN;
+    Vec v = makeVec(keys[0],data);
+    Vec p = makeVec(keys[1],pred);
+    Frame sel = null;
+    try {
+      ZoneMap zm = v.zoneMap();
+      Assert.assertNotNull(zm);
+      for( int c=0; c<4; c++ ) {
+        Assert.assertTrue(zm.known(c));
+        Assert.assertEquals(c*1000, zm.min(c), 0);
+        Assert.assertEquals(c*1000+49.5, zm.max(c), 0);
+        Assert.assertEquals(c==3 ? 1 : 0, zm.naCnt(c));
+      }
+      ZoneMap pm = p.zoneMap();
+      Assert.assertEquals(0, pm.max(0), 0);
+      Assert.assertEquals(1, pm.min(1), 0);
+      Assert.assertEquals(100, pm.naCnt(3));
+
+      // Skips chunk 0, takes all of chunks 1 and 3 (NAs select), half of 2
+      Frame fr = new Frame(new String[]{"x","p"}, new Vec[]{v,p});
+      sel = fr.deepSlice(new Frame(new String[]{"p"}, new Vec[]{p}), null);
+      Assert.assertEquals(250, sel.numRows());
+      Assert.assertEquals(1000, sel.vecs()[0].at(0), 0);
+      Assert.assertEquals(2000.5, sel.vecs()[0].at(100), 0);
+      Assert.assertEquals(3000, sel.vecs()[0].at(150), 0);
+
+      // Writes drop the zone maps, for every copy of the Vec
+      Vec copy = new AutoBuffer().put(v).flipForReading().get();
+      Assert.assertNotNull(copy.zoneMap());
+      v.set(5, 12345.0);
+      Assert.assertNull(v.zoneMap());
+      Assert.assertNull(copy.zoneMap());
+      Assert.assertNull(DKV.get(v._key).<Vec>get().zoneMap());
+    } finally {
+      if( sel != null ) sel.delete();
+      v.remove();
+      p.remove();
+    }
+  }
+
+  @Test public void testBelow() {
+    Assert.assertTrue (ZoneMap.below(1, 2));
+    Assert.assertFalse(ZoneMap.below(2, 1));
+    Assert.assertFalse(ZoneMap.below(0.3, 0.1+0.2)); // Within rounding; not sure
+    Assert.assertFalse(ZoneMap.below(5, 5));
+  }
+}
@@ -0,0 +1,27 @@
+package water.fvec
+
+import water._
+
+// Version of MRTask specialized for Array[Int]: integer columns and enum
+// codes.  Rows with any missing value are skipped, as there is no Int NA.
+class MRTask_AI(mr : MapReduce[_,_]) extends MRTask_MR[MRTask_AI](mr) {
+  override protected def mapChunk( chks : Array[Chunk], acc : MapReduce[_,_] ) : Unit = {
+    val len = chks(0)._len
+    val row = new Array[Int](chks.length)
+    var i = 0
+    while( i < len ) {
+      if( fill(row,chks,i) ) acc.map0(row)
+      i += 1
+    }
+  }
+  private def fill(row : Array[Int], chks : Array[Chunk], i : Int) : Boolean = {
+    var col = 0
+    while( col < chks.length ) {
+      val c = chks(col)
+      if( c.isNA0(i) ) return false
+      row(col) = c.at80(i).toInt
+      col += 1
+    }
+    true
+  }
+}
@@ -0,0 +1,27 @@
+package water.fvec
+
+import water._
+
+// Version of MRTask specialized for Array[Long]: integer columns, enum codes
+// and times.  Rows with any missing value are skipped, as there is no Long NA.
+class MRTask_AL(mr : MapReduce[_,_]) extends MRTask_MR[MRTask_AL](mr) {
+  override protected def mapChunk( chks : Array[Chunk], acc : MapReduce[_,_] ) : Unit = {
+    val len = chks(0)._len
+    val row = new Array[Long](chks.length)
+    var i = 0
+    while( i < len ) {
+      if( fill(row,chks,i) ) acc.map0(row)
+      i += 1
+    }
+  }
+  private def fill(row : Array[Long], chks : Array[Chunk], i : Int) : Boolean = {
+    var col = 0
+    while( col < chks.length ) {
+      val c = chks(col)
+      if( c.isNA0(i) ) return false
+      row(col) = c.at80(i)
+      col += 1
+    }
+    true
+  }
+}
@@ -0,0 +1,34 @@
+package water.fvec
+
+import water._
+import water.parser.ValueString
+
+// Version of MRTask specialized for Array[String]: enum labels, straight from
+// the domain, and String columns.  Missing values are null.
+class MRTask_AS(mr : MapReduce[_,_]) extends MRTask_MR[MRTask_AS](mr) {
+  override protected def mapChunk( chks : Array[Chunk], acc : MapReduce[_,_] ) : Unit = {
+    val len = chks(0)._len
+    val skipNA = acc.skipNA
+    val doms = chks.map(_.vec.domain)    // null for String columns
+    val vstr = new ValueString
+    val row = new Array[String](chks.length)
+    var i = 0
+    while( i < len ) {
+      if( fill(row,chks,doms,vstr,i,skipNA) ) acc.map0(row)
+      i += 1
+    }
+  }
+  private def fill(row : Array[String], chks : Array[Chunk], doms : Array[Array[String]], vstr : ValueString, i : Int, skipNA : Boolean) : Boolean = {
+    var col = 0
+    while( col < chks.length ) {
+      val c = chks(col)
+      if( c.isNA0(i) ) {
+        if( skipNA ) return false
+        row(col) = null
+      } else
+        row(col) = if( doms(col) != null ) doms(col)(c.at80(i).toInt) else c.atStr0(vstr,i).toString
+      col += 1
+    }
+    true
+  }
+}
@@ -0,0 +1,69 @@
+package water.fvec
+
+import java.lang.reflect.{Constructor, Modifier}
+import water._
+import water.parser.ValueString
+
+// Version of MRTask for typed rows: a case class, built per row from the
+// columns named by its fields.  Fields may be Double (NaN for missing), Int
+// or Long (rows with missing values skipped) or String (enum labels or
+// Strings; null for missing).
+class MRTask_CC(mr : MapReduce[_,_], clz : Class[_]) extends MRTask_MR[MRTask_CC](mr) {
+  val className = clz.getName   // Classes do not ship; resolved per node
+  @transient private lazy val ctor : Constructor[_] =
+    Class.forName(className, true, mr.getClass.getClassLoader).getConstructors()(0)
+
+  // The columns of 'fr' named by the fields of the case class, in field order
+  def bind( fr : Frame ) : Frame = {
+    if( !classOf[Product].isAssignableFrom(clz) )
+      throw new IllegalArgumentException("Rows must be arrays or case classes, not "+clz)
+    val fields = clz.getDeclaredFields.filter(f => !Modifier.isStatic(f.getModifiers))
+    val ptypes = clz.getConstructors()(0).getParameterTypes
+    if( ptypes.length != fields.length )
+      throw new IllegalArgumentException("Row class "+clz+" must be a top-level case class")
+    val vecs = fields.map{ f =>
+      val idx = fr.find(f.getName)
+      if( idx == -1 ) throw new IllegalArgumentException("No column named "+f.getName+" for "+clz)
+      val v = fr.vecs()(idx)
+      val ok = f.getType match {
+        case t if t == classOf[Double] => v.isNumeric
+        case t if t == classOf[Int]    => v.isInt && !v.isTime
+        case t if t == classOf[Long]   => v.isInt
+        case t if t == classOf[String] => v.isEnum || v.isString
+        case t => throw new IllegalArgumentException("Field "+f.getName+" of "+t+" is not supported")
+      }
+      if( !ok ) throw new IllegalArgumentException(f.getName+" is not of type "+f.getType)
+      v
+    }
+    new Frame(fields.map(_.getName), vecs)
+  }
+
+  override protected def mapChunk( chks : Array[Chunk], acc : MapReduce[_,_] ) : Unit = {
+    val len = chks(0)._len
+    val skipNA = acc.skipNA
+    val ptypes = ctor.getParameterTypes
+    val doms = chks.map(_.vec.domain)
+    val vstr = new ValueString
+    val args = new Array[AnyRef](chks.length) // Reused; the constructor copies out
+    var i = 0
+    while( i < len ) {
+      var ok = true
+      var col = 0
+      while( ok && col < chks.length ) {
+        val c = chks(col); val t = ptypes(col)
+        if( c.isNA0(i) ) {
+          if( skipNA || t == classOf[Int] || t == classOf[Long] ) ok = false
+          else args(col) = if( t == classOf[Double] ) Double.box(Double.NaN) else null
+        } else args(col) =
+          if(      t == classOf[Double] ) Double.box(c.at0(i))
+          else if( t == classOf[Int]    ) Int.box(c.at80(i).toInt)
+          else if( t == classOf[Long]   ) Long.box(c.at80(i))
+          else if( doms(col) != null    ) doms(col)(c.at80(i).toInt)
+          else c.atStr0(vstr,i).toString
+        col += 1
+      }
+      if( ok ) acc.map0(ctor.newInstance(args:_*))
+      i += 1
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package water.fvec
+
+import water._
+
+// Driver for a MapReduce.  Each Chunk gets a fresh copy of the user's
+// MapReduce, which mapChunk() accumulates all the rows into, so the user's
+// reduce() only runs between Chunks and nodes - same as a Java MRTask.
+abstract class MRTask_MR[T <: MRTask_MR[T]](val mr : MapReduce[_,_]) extends MRTask[T] {
+  var res : MapReduce[_,_] = null
+  // Map all rows of the Chunks into 'acc', as the specialized row type
+  protected def mapChunk( chks : Array[Chunk], acc : MapReduce[_,_] ) : Unit
+
+  override def map( chks : Array[Chunk] ) : Unit = {
+    val acc = mr.clone.asInstanceOf[MapReduce[_,_]]
+    if( chks(0)._len > 0 ) mapChunk(chks,acc)
+    res = acc
+  }
+  // Call user reduce
+  override def reduce( mrt : T ) = if( res == null ) res = mrt.res else if( mrt.res != null ) res.reduce0(mrt.res)
+  // The reduced result; the untouched operand when there were no rows at all
+  def result : MapReduce[_,_] = if( res != null ) res else mr
+}
@@ -3,28 +3,49 @@ package water.fvec
 import water._
 import scala.reflect.ClassTag
 
+// User map/reduce over the rows of a DataFrame.  Much like a Java MRTask:
+// each Chunk gets a fresh (shallow) copy of 'this', which map() accumulates
+// into row by row; reduce() is only called to combine Chunks and nodes.  Rows
+// come as one of:
+//   Array[Double]  - numeric columns
+//   Array[Int], Array[Long] - integer columns, including enum codes and times;
+//                    rows with missing values are always skipped
+//   Array[String]  - enum labels or String columns; null for missing values
+//   a case class   - fields bound to the columns of the same name, of type
+//                    Double, Int, Long or String as above
 abstract class MapReduce[MapType: ClassTag, E <: MapReduce[MapType,E]] extends Iced { self: E =>
   type maptype=MapType
   type self=E
-  // Selected numeric columns mapped into 'this'
+  // Accumulate one row into 'this'
   def map(row : MapType) : Unit
   // Reduce the given operand into 'this'
   def reduce(that : self) : Unit
   // Skip the whole row if any value is missing
   def skipNA = true
 
+  // Untyped entry points for the MRTask drivers
+  private[fvec] def map0(row : Any) : Unit = map(row.asInstanceOf[MapType])
+  private[fvec] def reduce0(that : MapReduce[_,_]) : Unit = reduce(that.asInstanceOf[E])
+
   // Take all columns; they must be of type MapType
   def doAll( fr : DataFrame ) : this.type = {
     val jc = implicitly[ClassTag[MapType]].runtimeClass
-    if( jc.isArray ) { // Array check: all Vecs are compatible with MapType's base type
+    val task : MRTask_MR[_] = if( jc.isArray ) { // Array check: all Vecs are compatible with MapType's base type
       jc.getComponentType match {
-        case q if q == classOf[Double] => 
-          fr.vecs().zip(fr.names()).foreach( x => if( !x._1.isNumeric ) throw new IllegalArgumentException(x._2+"is not of type "+q))
-          new MRTask_AD[E](this).doAll(fr).res.asInstanceOf[this.type]
-        case _ => ???                   // Array of String or UUID, etc
+        case q if q == classOf[Double] => check(fr, q, _.isNumeric);                new MRTask_AD(this)
+        case q if q == classOf[Int]    => check(fr, q, v => v.isInt && !v.isTime); new MRTask_AI(this)
+        case q if q == classOf[Long]   => check(fr, q, _.isInt);                    new MRTask_AL(this)
+        case q if q == classOf[String] => check(fr, q, v => v.isEnum || v.isString); new MRTask_AS(this)
+        case q => throw new IllegalArgumentException("Rows of Array["+q+"] are not supported")
       }
     } else {
-      ???                               // Struct type matching not implemented
+      val task = new MRTask_CC(this, jc)
+      return task.doAll(task.bind(fr)).result.asInstanceOf[this.type]
     }
+    task.doAll(fr)
+    task.result.asInstanceOf[this.type]
   }
+
+  private def check( fr : Frame, q : Class[_], ok : Vec => Boolean ) =
+    fr.vecs().zip(fr.names()).foreach( x => if( !ok(x._1) ) throw new IllegalArgumentException(x._2+" is not of type "+q))
 }
@@ -2,6 +2,7 @@ package water
 
 import java.io.File
 import org.junit.{Test,BeforeClass,Ignore}
+import org.junit.Assert._
 import water.fvec.{DataFrame,MapReduce}
 import scala.reflect.ClassTag
 
@@ -16,7 +17,7 @@ class BasicTest extends TestUtil {
       // Linear Regression, Pass1
       // Sums & sum squares
       class Pass1 extends MapReduce[Array[Double],Pass1] { var X, Y, X2 =0.0; var nrows=0L
-        override def map(row : maptype) = { X = row(0); Y = row(1); X2 = X*X; nrows=1 }
+        override def map(row : maptype) = { val x = row(0); X += x; Y += row(1); X2 += x*x; nrows += 1 }
         override def reduce(@@ : self) = { X += @@.X ; Y += @@.Y; X2 += @@.X2; nrows += @@.nrows }
       }
       val lr1 = new Pass1().doAll(fr2)
@@ -28,7 +29,7 @@ class BasicTest extends TestUtil {
       class Pass2 extends MapReduce[Array[Double],Pass2] { var XXbar, YYbar, XYbar = 0.0
         override def map(row : maptype) = { 
           val dx = row(0)-meanX; val dy = row(1)-meanY
-          XXbar = dx*dx;  YYbar = dy*dy;  XYbar = dx*dy
+          XXbar += dx*dx;  YYbar += dy*dy;  XYbar += dx*dy
         }
         override def reduce(@@ : self) = { XXbar += @@.XXbar ; YYbar += @@.YYbar; XYbar += @@.XYbar }
       }
@@ -44,8 +45,8 @@ class BasicTest extends TestUtil {
         override def map(row : maptype) = { 
           val X = row(0); val Y = row(1)
           val fit = beta1*X + beta0
-          rss = (fit-    Y)*(fit-    Y)
-          ssr = (fit-meanY)*(fit-meanY)
+          rss += (fit-    Y)*(fit-    Y)
+          ssr += (fit-meanY)*(fit-meanY)
         }
         override def reduce(@@ : self) = { ssr += @@.ssr ; rss += @@.rss }
       }
@@ -67,6 +68,50 @@ class BasicTest extends TestUtil {
     }
   }
 
+  // Specialized rows: Int and String columns, and typed case-class rows
+  @Test def typedRowsTest() = {
+    val fr = new DataFrame(new File("../smalldata/junit/cars_nice_header.csv"))
+    val fr2 = fr('cylinders,'economy)
+    val fr3 = fr('cylinders)
+    val fr4 = fr('name)
+    try {
+      class CylD extends MapReduce[Array[Double],CylD] { var n = 0L; var cyl, econ = 0.0
+        override def map(row : maptype) = if( row(0) == 8 ) { n += 1; cyl += row(0); econ += row(1) }
+        override def reduce(@@ : self) = { n += @@.n; cyl += @@.cyl; econ += @@.econ }
+      }
+      val d = new CylD().doAll(fr2)
+      assertTrue(d.n > 0)
+
+      class CylI extends MapReduce[Array[Int],CylI] { var n = 0L; var cyl = 0L
+        override def map(row : maptype) = { n += 1; cyl += row(0) }
+        override def reduce(@@ : self) = { n += @@.n; cyl += @@.cyl }
+      }
+      val i = new CylI().doAll(fr3)
+      assertEquals(fr3.numRows - fr3.vecs()(0).naCnt, i.n)
+      assertEquals(fr3.vecs()(0).mean*i.n, i.cyl.toDouble, 1e-6)
+
+      class AMC extends MapReduce[Array[String],AMC] { var n = 0L
+        override def map(row : maptype) = if( row(0).startsWith("AMC ") ) n += 1
+        override def reduce(@@ : self) = n += @@.n
+      }
+      assertTrue(new AMC().doAll(fr4).n > 0)
+
+      class Cars extends MapReduce[BasicTest.Car,Cars] { var n = 0L; var cyl = 0L; var econ = 0.0
+        override def map(car : maptype) = if( car.cylinders == 8 ) { n += 1; cyl += car.cylinders; econ += car.economy }
+        override def reduce(@@ : self) = { n += @@.n; cyl += @@.cyl; econ += @@.econ }
+      }
+      val c = new Cars().doAll(fr)
+      assertEquals(d.n, c.n)
+      assertEquals(d.cyl, c.cyl.toDouble, 0)
+      assertEquals(d.econ, c.econ, 1e-6)
+    } finally {
+      fr.delete()
+      fr2.delete()
+      fr3.delete()
+      fr4.delete()
+    }
+  }
+
   // test is off because of its size
   @Test @Ignore def biggerTest() = {
     //val fr = new DataFrame(new File("../smalldata/junit/cars_nice_header.csv"))
@@ -79,7 +124,7 @@ class BasicTest extends TestUtil {
       val start = System.currentTimeMillis
       (0 until iters) foreach( i => {
         class Pass1 extends MapReduce[Array[Double],Pass1] { var X, Y, X2 =0.0; var nrows=0L
-          override def map(row : maptype) = { X = row(0); Y = row(1); X2 = X*X; nrows=1 }
+          override def map(row : maptype) = { val x = row(0); X += x; Y += row(1); X2 += x*x; nrows += 1 }
           override def reduce(@@ : self) = { X += @@.X ; Y += @@.Y; X2 += @@.X2; nrows += @@.nrows }
         }
         val lr1 = new Pass1().doAll(fr2)
@@ -99,4 +144,7 @@ class BasicTest extends TestUtil {
 
 object BasicTest extends TestUtil {
   @BeforeClass def setup() = TestUtil.stall_till_cloudsize(5)
+
+  // Typed rows, bound by field name
+  case class Car(name : String, cylinders : Int, economy : Double)
 }